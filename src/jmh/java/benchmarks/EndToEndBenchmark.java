@@ -0,0 +1,85 @@
+package benchmarks;
+
+import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.FileRange;
+import com.sheandstud.processing.LineReader;
+import com.sheandstud.processing.ManagerSettings;
+import com.sheandstud.processing.ParallelProcessor;
+import com.sheandstud.processing.ParallelProcessor.SegmentTask;
+import com.sheandstud.processing.output.OutputSettings;
+import com.sheandstud.processing.pipeline.PipelinedReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк полной обработки сгенерированного входного файла так же, как в {@link com.sheandstud.Main}:
+ * чтение, определение типов, статистика и запись выходных файлов.
+ * <p>
+ * Режимы обработки:
+ * <ul>
+ *   <li>{@code lines} - построчное чтение в одном потоке;</li>
+ *   <li>{@code pipeline} - конвейерная обработка, как с опцией {@code --pipeline};</li>
+ *   <li>{@code threads} - параллельная обработка частей файла, как с опцией {@code --threads 4}.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+    private static final int LINES = 1_000_000;
+    private static final int THREADS = 4;
+    private static final long CHUNK_SIZE = 4 * 1024 * 1024;
+
+    @Param({"MOSTLY_STRINGS", "MOSTLY_SMALL_INTS", "HUGE_NUMBERS"})
+    public LineMix mix;
+
+    @Param({"lines", "pipeline", "threads"})
+    public String mode;
+
+    private Path directory;
+    private Path input;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        directory = Files.createTempDirectory("end-to-end-benchmark");
+        input = directory.resolve("input.txt");
+        output = directory.resolve("out");
+        mix.write(input, LINES, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Benchmarks.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public FileManager run() throws IOException {
+        boolean pipelined = mode.equals("pipeline");
+        FileManager manager = new FileManager(output, "", false, ManagerSettings.defaults(true)
+                .withOutputSettings(new OutputSettings(OutputSettings.DEFAULT_BUFFER_SIZE, pipelined)));
+        try (manager) {
+            switch (mode) {
+                case "pipeline" -> PipelinedReader.readBlocks(input, manager.getMemoryBudget(), manager::processBlock);
+                case "threads" -> {
+                    List<SegmentTask> tasks = new ArrayList<>();
+                    for (FileRange range : FileRange.split(input, CHUNK_SIZE)) {
+                        tasks.add(segment -> LineReader.read(range, segment.getMemoryBudget(), segment::processLine));
+                    }
+                    new ParallelProcessor(manager, THREADS).process(tasks);
+                }
+                default -> LineReader.read(input, manager.getMemoryBudget(), manager::processLine);
+            }
+        }
+        return manager;
+    }
+}
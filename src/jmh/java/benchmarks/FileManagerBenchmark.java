@@ -0,0 +1,79 @@
+package benchmarks;
+
+import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.ManagerSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки {@link FileManager#processLine(byte[], int, int)} и {@link FileManager#processBlock(LineBlock)}:
+ * определение типа строки, фильтр, статистика и запись в выходные файлы.
+ * <p>
+ * Время и выделение памяти приводятся к одной строке.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileManagerBenchmark {
+    static final int LINES = 4096;
+
+    @Param({"MOSTLY_STRINGS", "MOSTLY_SMALL_INTS", "HUGE_NUMBERS"})
+    public LineMix mix;
+
+    @Param({"true", "false"})
+    public boolean fullStatistics;
+
+    private byte[][] lines;
+    private LineBlock block;
+    private Path directory;
+    private FileManager manager;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        lines = mix.generate(LINES, 42);
+        block = new LineBlock(64 * 1024, LINES);
+        for (byte[] line : lines) {
+            block.add(line, 0, line.length);
+        }
+        directory = Files.createTempDirectory("filemanager-benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        manager = new FileManager(directory, "", false, ManagerSettings.defaults(fullStatistics));
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        manager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Benchmarks.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public FileManager processLine() throws IOException {
+        for (byte[] line : lines) {
+            manager.processLine(line, 0, line.length);
+        }
+        return manager;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public FileManager processBlock() throws IOException {
+        manager.processBlock(block);
+        return manager;
+    }
+}
@@ -0,0 +1,114 @@
+package benchmarks;
+
+import com.sheandstud.processing.handlers.FloatHandler;
+import com.sheandstud.processing.handlers.IntegerHandler;
+import com.sheandstud.processing.handlers.StringHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки методов {@code handle} обработчиков целых чисел, вещественных чисел и строк.
+ * <p>
+ * Каждый вызов обрабатывает {@link #LINES} строк нужного вида из набора {@link LineMix};
+ * время и выделение памяти приводятся к одной строке.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerBenchmark {
+    static final int LINES = 1024;
+
+    @Param({"MOSTLY_STRINGS", "MOSTLY_SMALL_INTS", "HUGE_NUMBERS"})
+    public LineMix mix;
+
+    @Param({"true", "false"})
+    public boolean fullStatistics;
+
+    private String[] integers;
+    private String[] floats;
+    private String[] strings;
+    private Path directory;
+    private IntegerHandler integerHandler;
+    private FloatHandler floatHandler;
+    private StringHandler stringHandler;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        byte[][] lines = mix.generate(LINES * 16, 42);
+        integers = toStrings(LineMix.select(lines, 'i'));
+        floats = toStrings(LineMix.select(lines, 'f'));
+        strings = toStrings(LineMix.select(lines, 's'));
+        directory = Files.createTempDirectory("handler-benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        integerHandler = new IntegerHandler(directory.resolve("integers.txt"), false, fullStatistics);
+        floatHandler = new FloatHandler(directory.resolve("floats.txt"), false, fullStatistics);
+        stringHandler = new StringHandler(directory.resolve("strings.txt"), false, fullStatistics);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        integerHandler.close();
+        floatHandler.close();
+        stringHandler.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Benchmarks.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int integerHandle() throws IOException {
+        int accepted = 0;
+        for (int i = 0; i < LINES; i++) {
+            if (integerHandler.handle(integers[i % integers.length])) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int floatHandle() throws IOException {
+        int accepted = 0;
+        for (int i = 0; i < LINES; i++) {
+            if (floatHandler.handle(floats[i % floats.length])) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int stringHandle() throws IOException {
+        int accepted = 0;
+        for (int i = 0; i < LINES; i++) {
+            if (stringHandler.handle(strings[i % strings.length])) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private static String[] toStrings(byte[][] lines) {
+        String[] result = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            result[i] = new String(lines[i], StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+}
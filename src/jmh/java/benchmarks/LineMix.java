@@ -0,0 +1,142 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Наборы входных строк для бенчмарков.
+ * <p>
+ * Доли целых и вещественных чисел задаются в процентах, остальное - строки текста.
+ * Строки генерируются детерминированно по зерну, поэтому результаты разных запусков сравнимы.
+ */
+public enum LineMix {
+    /**
+     * В основном строки текста, немного чисел.
+     */
+    MOSTLY_STRINGS(5, 5),
+    /**
+     * В основном небольшие целые числа.
+     */
+    MOSTLY_SMALL_INTS(90, 5),
+    /**
+     * Целые и вещественные числа из десятков цифр, не помещающиеся в long.
+     */
+    HUGE_NUMBERS(45, 45);
+
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit",
+            "строка", "данные", "Тестовое", "значение"
+    };
+
+    private final int integerShare;
+    private final int floatShare;
+
+    LineMix(int integerShare, int floatShare) {
+        this.integerShare = integerShare;
+        this.floatShare = floatShare;
+    }
+
+    /**
+     * Генерирует строки набора.
+     *
+     * @param count количество строк
+     * @param seed  зерно генератора
+     * @return строки в кодировке UTF-8
+     */
+    public byte[][] generate(int count, long seed) {
+        Random random = new Random(seed);
+        byte[][] lines = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            lines[i] = line(random).getBytes(StandardCharsets.UTF_8);
+        }
+        return lines;
+    }
+
+    /**
+     * Записывает строки набора во входной файл.
+     *
+     * @param path  путь к файлу
+     * @param count количество строк
+     * @param seed  зерно генератора
+     */
+    public void write(Path path, int count, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(line(random));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Отбирает строки набора одного вида.
+     *
+     * @param lines  строки набора
+     * @param filter вид строк: 'i' - целые, 'f' - вещественные, 's' - строки
+     * @return отобранные строки
+     */
+    public static byte[][] select(byte[][] lines, char filter) {
+        List<byte[]> result = new ArrayList<>();
+        for (byte[] line : lines) {
+            if (kind(line) == filter) {
+                result.add(line);
+            }
+        }
+        return result.toArray(byte[][]::new);
+    }
+
+    private static char kind(byte[] line) {
+        String value = new String(line, StandardCharsets.UTF_8);
+        if (value.matches("[-+]?\\d+")) {
+            return 'i';
+        }
+        if (value.matches("[-+]?(\\d+\\.\\d+([eE][-+]?\\d+)?|\\.\\d+([eE][-+]?\\d+)?|\\d+[eE][-+]?\\d+)")) {
+            return 'f';
+        }
+        return 's';
+    }
+
+    private String line(Random random) {
+        int roll = random.nextInt(100);
+        boolean huge = this == HUGE_NUMBERS;
+        if (roll < integerShare) {
+            return huge ? digits(random, 20 + random.nextInt(40)) : Integer.toString(random.nextInt(2001) - 1000);
+        }
+        if (roll < integerShare + floatShare) {
+            if (huge) {
+                return digits(random, 10 + random.nextInt(30)) + "." + unsignedDigits(random, 10 + random.nextInt(30))
+                        + "E" + (random.nextInt(41) - 20);
+            }
+            return String.format(Locale.ROOT, "%.3f", random.nextDouble() * 2000 - 1000);
+        }
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String digits(Random random, int count) {
+        return (random.nextBoolean() ? "-" : "") + (1 + random.nextInt(9)) + unsignedDigits(random, count - 1);
+    }
+
+    private static String unsignedDigits(Random random, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package benchmarks;
+
+import com.sheandstud.processing.parsing.DecimalParser;
+import com.sheandstud.processing.statistics.FloatStatistics;
+import com.sheandstud.processing.statistics.IntegerStatistics;
+import com.sheandstud.processing.statistics.StringStatistics;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки методов {@code update} статистик.
+ * <p>
+ * Значения разбираются заранее, поэтому измеряется только обновление статистики:
+ * компактное представление в примитивах и запасной путь через
+ * {@link BigInteger} и {@link BigDecimal}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+    static final int VALUES = 1024;
+
+    private long[] smallIntegers;
+    private BigInteger[] hugeIntegers;
+    private long[] unscaled;
+    private int[] scales;
+    private BigDecimal[] hugeFloats;
+    private byte[][] strings;
+    private IntegerStatistics integerStatistics;
+    private FloatStatistics floatStatistics;
+    private StringStatistics stringStatistics;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        byte[][] small = LineMix.MOSTLY_SMALL_INTS.generate(VALUES * 4, 42);
+        byte[][] huge = LineMix.HUGE_NUMBERS.generate(VALUES * 4, 42);
+
+        byte[][] integers = LineMix.select(small, 'i');
+        smallIntegers = new long[integers.length];
+        for (int i = 0; i < integers.length; i++) {
+            smallIntegers[i] = Long.parseLong(new String(integers[i], StandardCharsets.US_ASCII));
+        }
+
+        byte[][] floats = LineMix.select(small, 'f');
+        DecimalParser parser = new DecimalParser();
+        unscaled = new long[floats.length];
+        scales = new int[floats.length];
+        for (int i = 0; i < floats.length; i++) {
+            if (!parser.parse(floats[i], 0, floats[i].length)) {
+                throw new IllegalStateException("Float does not fit in long: " + new String(floats[i]));
+            }
+            unscaled[i] = parser.unscaled();
+            scales[i] = parser.scale();
+        }
+
+        byte[][] bigIntegers = LineMix.select(huge, 'i');
+        hugeIntegers = new BigInteger[bigIntegers.length];
+        for (int i = 0; i < bigIntegers.length; i++) {
+            hugeIntegers[i] = new BigInteger(new String(bigIntegers[i], StandardCharsets.US_ASCII));
+        }
+
+        byte[][] bigFloats = LineMix.select(huge, 'f');
+        hugeFloats = new BigDecimal[bigFloats.length];
+        for (int i = 0; i < bigFloats.length; i++) {
+            hugeFloats[i] = new BigDecimal(new String(bigFloats[i], StandardCharsets.US_ASCII));
+        }
+
+        strings = LineMix.select(LineMix.MOSTLY_STRINGS.generate(VALUES * 2, 42), 's');
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        integerStatistics = new IntegerStatistics();
+        floatStatistics = new FloatStatistics();
+        stringStatistics = new StringStatistics();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public IntegerStatistics integerUpdateLong() {
+        for (int i = 0; i < VALUES; i++) {
+            integerStatistics.update(smallIntegers[i % smallIntegers.length]);
+        }
+        return integerStatistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public IntegerStatistics integerUpdateBigInteger() {
+        for (int i = 0; i < VALUES; i++) {
+            integerStatistics.update(hugeIntegers[i % hugeIntegers.length]);
+        }
+        return integerStatistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public FloatStatistics floatUpdateCompact() {
+        for (int i = 0; i < VALUES; i++) {
+            int index = i % unscaled.length;
+            floatStatistics.update(unscaled[index], scales[index]);
+        }
+        return floatStatistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public FloatStatistics floatUpdateBigDecimal() {
+        for (int i = 0; i < VALUES; i++) {
+            floatStatistics.update(hugeFloats[i % hugeFloats.length]);
+        }
+        return floatStatistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public StringStatistics stringUpdate() {
+        for (int i = 0; i < VALUES; i++) {
+            byte[] value = strings[i % strings.length];
+            stringStatistics.update(value, 0, value.length);
+        }
+        return stringStatistics;
+    }
+}
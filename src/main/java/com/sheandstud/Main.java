@@ -2,26 +2,61 @@ package com.sheandstud;
 
 import com.sheandstud.options.OptionsParser;
 import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.FileRange;
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.LineReader;
+import com.sheandstud.processing.ParallelProcessor;
+import com.sheandstud.processing.ParallelProcessor.SegmentTask;
+import com.sheandstud.processing.compression.Compression;
+import com.sheandstud.processing.compression.UnsupportedCompressionException;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.metrics.MetricsReport;
+import com.sheandstud.processing.progress.FileProgress;
+import com.sheandstud.processing.progress.ProgressReporter;
+import com.sheandstud.processing.pipeline.PipelinedReader;
 import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
 
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 
 /**
  * Главный класс утилиты, который обрабатывает входные файлы,
  * фильтрует данные и выводит статистику.
  */
 public class Main {
+    /**
+     * Размер части, на которые делятся большие файлы при параллельной обработке, по умолчанию.
+     */
+    private static final String DEFAULT_CHUNK_SIZE = "64M";
+    /**
+     * Интервал между отчетами о ходе обработки в секундах по умолчанию.
+     */
+    private static final String DEFAULT_PROGRESS_INTERVAL = "5";
+    /**
+     * Имя входного файла, обозначающее стандартный ввод.
+     */
+    private static final String STDIN = "-";
 
     /**
      * Точка входа в программу.
      * <p>
      * Обрабатывает аргументы командной строки, создает менеджер файлов,
-     * обрабатывает входные файлы, после чего выводит статистику.
+     * обрабатывает входные файлы, после чего закрывает выходные файлы и выводит статистику.
+     * Если задана опция {@code --metrics}, записывается отчет о производительности.
+     * Если задана опция {@code --distinct-count}, скетчи для оценки количества различных значений
+     * сохраняются рядом с выходными файлами, а в режиме добавления объединяются с сохраненными ранее.
      *
      * @param args аргументы командной строки, содержат в себе опции,
      * выбранные пользователем
@@ -29,9 +64,23 @@ public class Main {
     public static void main(String[] args) {
         try {
             CommandLine cmd = OptionsParser.parse(args);
-            try (FileManager manager = new FileManager(cmd)) {
+            FileManager manager = new FileManager(cmd);
+            if (cmd.hasOption("a")) {
+                manager.loadDistinctSketches();
+            }
+            Metrics metrics = manager.getMetrics();
+            long start = System.nanoTime();
+            metrics.startThread();
+            try (manager) {
                 processFiles(cmd, manager);
-                printStatistics(cmd, manager);
+            } finally {
+                metrics.stopThread();
+            }
+            long elapsed = System.nanoTime() - start;
+            manager.saveDistinctSketches();
+            printStatistics(cmd, manager);
+            if (metrics.isEnabled()) {
+                writeMetrics(cmd, manager, elapsed);
             }
         } catch (Exception e) {
             System.err.println("Fatal error: " + e.getMessage());
@@ -43,63 +92,250 @@ public class Main {
     /**
      * Обрабатывает список входных файлов.
      * <p>
-     * Для каждого файла вызывается метод {@link #processFile(String, FileManager)}.
+     * Если задана опция {@code --progress}, во время обработки в поток ошибок
+     * через интервал {@code --progress-interval} выводится отчет о ходе обработки
+     * ({@link ProgressReporter}), а по ее окончании - итоговый отчет.
      *
      * @param cmd     объект командной строки с параметрами
      * @param manager менеджер файлов для обработки данных
      */
-    private static void processFiles(CommandLine cmd, FileManager manager) {
+    private static void processFiles(CommandLine cmd, FileManager manager) throws IOException, ParseException {
         List<String> inputFiles = cmd.getArgList();
-
+        List<FileProgress> progress = new ArrayList<>();
         for (String file : inputFiles) {
-            processFile(file, manager);
+            progress.add(cmd.hasOption("progress") ? createProgress(file) : FileProgress.none());
         }
+
+        if (!cmd.hasOption("progress")) {
+            processFiles(cmd, inputFiles, progress, manager);
+            return;
+        }
+        int interval = OptionsParser.parsePositiveInt(
+                cmd.getOptionValue("progress-interval", DEFAULT_PROGRESS_INTERVAL), "progress-interval");
+        try (ProgressReporter reporter = new ProgressReporter(progress, Duration.ofSeconds(interval), System.err)) {
+            reporter.start();
+            processFiles(cmd, inputFiles, progress, manager);
+        }
+    }
+
+    /**
+     * Создает счетчики хода обработки входного файла.
+     * <p>
+     * Размер известен только для обычных несжатых файлов: для сжатых файлов
+     * счетчики учитывают распакованные данные, размер которых заранее неизвестен.
+     *
+     * @param file имя входного файла
+     * @return счетчики файла
+     */
+    private static FileProgress createProgress(String file) throws IOException {
+        Path path = Paths.get(file);
+        boolean sized = Files.isRegularFile(path) && Compression.detect(path) == Compression.Format.NONE;
+        return new FileProgress(file, sized ? Files.size(path) : -1);
+    }
+
+    /**
+     * Обрабатывает входные файлы.
+     * <p>
+     * Для каждого файла вызывается метод {@link #processFile(String, FileProgress, FileManager)}.
+     * Если задана опция {@code --threads}, входные данные делятся на части,
+     * которые обрабатываются параллельно с помощью {@link ParallelProcessor}:
+     * каждый файл является частью, а файлы больше {@code --chunk-size}
+     * делятся на диапазоны по границам строк.
+     *
+     * @param cmd        объект командной строки с параметрами
+     * @param inputFiles список входных файлов
+     * @param progress   счетчики хода обработки входных файлов
+     * @param manager    менеджер файлов для обработки данных
+     */
+    private static void processFiles(CommandLine cmd, List<String> inputFiles, List<FileProgress> progress,
+                                     FileManager manager) throws IOException, ParseException {
+        int threads = Integer.parseInt(cmd.getOptionValue("threads", "1"));
+
+        if (threads > 1) {
+            long chunkSize = OptionsParser.parseSize(cmd.getOptionValue("chunk-size", DEFAULT_CHUNK_SIZE), "chunk-size");
+            List<SegmentTask> tasks = createTasks(inputFiles, progress, chunkSize);
+            if (tasks.size() > 1) {
+                new ParallelProcessor(manager, threads).process(tasks);
+                return;
+            }
+        }
+
+        for (int i = 0; i < inputFiles.size(); i++) {
+            processFile(inputFiles.get(i), progress.get(i), manager);
+        }
+    }
+
+    /**
+     * Создает задачи параллельной обработки входных файлов.
+     * <p>
+     * Несжатые файлы больше {@code chunkSize} делятся на диапазоны, каждый из которых
+     * обрабатывается методом {@link #processRange(FileRange, FileProgress, FileManager)}.
+     *
+     * @param inputFiles список входных файлов
+     * @param progress   счетчики хода обработки входных файлов
+     * @param chunkSize  размер части в байтах
+     * @return задачи в порядке следования данных
+     */
+    private static List<SegmentTask> createTasks(List<String> inputFiles, List<FileProgress> progress,
+                                                 long chunkSize) throws IOException {
+        List<SegmentTask> tasks = new ArrayList<>();
+
+        for (int i = 0; i < inputFiles.size(); i++) {
+            String file = inputFiles.get(i);
+            FileProgress fileProgress = progress.get(i);
+            Path path = Paths.get(file);
+            if (Files.isRegularFile(path) && Files.size(path) > chunkSize
+                    && Compression.detect(path) == Compression.Format.NONE) {
+                for (FileRange range : FileRange.split(path, chunkSize)) {
+                    tasks.add(segment -> processRange(range, fileProgress, segment));
+                }
+            } else {
+                tasks.add(segment -> processFile(file, fileProgress, segment));
+            }
+        }
+        return tasks;
     }
 
     /**
      * Обрабатывает отдельно взятый файл.
      * <p>
-     * Читает строки из файла и передает их в менеджер файлов для обработки.
+     * Читает строки из файла в виде байтов и передает их в менеджер файлов для обработки.
+     * При конвейерной обработке файл читается в отдельном потоке ({@link PipelinedReader}),
+     * а строки передаются в менеджер блоками.
+     * Имя {@code -} обозначает стандартный ввод, который читается через канал
+     * теми же крупными блоками, что и файлы.
+     * Сжатые данные распознаются по первым байтам ({@link Compression}): данные gzip
+     * распаковываются в отдельном потоке, о неподдерживаемых форматах выводится сообщение.
      * Если файл не существует, выводится сообщение об ошибке.
      *
      * @param filename имя файла для обработки
+     * @param progress счетчики хода обработки файла
      * @param manager  менеджер файлов для обработки данных
      */
-    private static void processFile(String filename, FileManager manager) {
+    private static void processFile(String filename, FileProgress progress, FileManager manager) {
         Path path = Paths.get(filename);
+        boolean stdin = STDIN.equals(filename);
 
-        if (!Files.exists(path)) {
+        if (!stdin && !Files.exists(path)) {
             System.err.println("File not found: " + filename);
             return;
         }
 
-        try (Stream<String> lines = Files.lines(path)) {
-            lines.forEach(line -> {
-                try {
-                    manager.processLine(line);
-                } catch (IOException e) {
-                    System.err.println("Error processing line: " + e.getMessage());
-                }
-            });
+        try (ReadableByteChannel channel = Compression.open(stdin
+                ? new FileInputStream(FileDescriptor.in).getChannel()
+                : Files.newByteChannel(path, StandardOpenOption.READ), String.valueOf(path.getFileName()))) {
+            if (manager.isPipelined()) {
+                PipelinedReader.readBlocks(channel, String.valueOf(path.getFileName()), manager.getMemoryBudget(),
+                        manager.getMetrics(), progress, block -> processBlock(block, manager));
+            } else {
+                LineReader.read(channel, manager.getMemoryBudget(), manager.getMetrics(), progress,
+                        (buffer, offset, length) -> processLine(buffer, offset, length, manager));
+            }
+        } catch (UnsupportedCompressionException e) {
+            System.err.println("Unsupported input file: " + filename + " (" + e.getMessage() + ")");
         } catch (IOException e) {
             System.err.println("Error reading file: " + filename);
         }
     }
 
+    /**
+     * Обрабатывает диапазон байтов большого файла.
+     * <p>
+     * Читает строки диапазона и передает их в менеджер файлов для обработки.
+     *
+     * @param range    диапазон байтов входного файла
+     * @param progress счетчики хода обработки файла
+     * @param manager  менеджер файлов для обработки данных
+     */
+    private static void processRange(FileRange range, FileProgress progress, FileManager manager) {
+        try {
+            LineReader.read(range, manager.getMemoryBudget(), manager.getMetrics(), progress,
+                    (buffer, offset, length) -> processLine(buffer, offset, length, manager));
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + range.path());
+        }
+    }
+
+    /**
+     * Передает строку в менеджер файлов для обработки.
+     * <p>
+     * Ошибка обработки строки не прерывает чтение файла.
+     *
+     * @param buffer  буфер с данными строки
+     * @param offset  позиция начала строки
+     * @param length  длина строки в байтах
+     * @param manager менеджер файлов для обработки данных
+     */
+    private static void processLine(byte[] buffer, int offset, int length, FileManager manager) {
+        try {
+            manager.processLine(buffer, offset, length);
+        } catch (IOException e) {
+            System.err.println("Error processing line: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Передает блок строк в менеджер файлов для обработки.
+     * <p>
+     * Ошибка обработки блока не прерывает чтение файла.
+     *
+     * @param block   блок строк
+     * @param manager менеджер файлов для обработки данных
+     */
+    private static void processBlock(LineBlock block, FileManager manager) {
+        try {
+            manager.processBlock(block);
+        } catch (IOException e) {
+            System.err.println("Error processing line: " + e.getMessage());
+        }
+    }
+
     /**
      * Выводит статистику по целым числам, вещественным числам и строкам в файлах.
      * <p>
      * Формат статистики зависит от выбранной пользователем опции:
-     * f - полная статистика, s - краткая статистика
+     * f - полная статистика, s - краткая статистика.
+     * Если задана опция {@code --distinct}, выводятся сведения об отброшенных повторах.
+     * Если задана опция {@code --max-memory}, дополнительно выводится отчет об использовании памяти,
+     * а если задана опция {@code --write-buffer} - сведения о записи в выходные файлы.
+     * Если строки одного из типов записываются в стандартный вывод (опция {@code --stdout}),
+     * статистика выводится в поток ошибок.
      *
      * @param cmd     объект командной строки с параметрами
      * @param manager менеджер файлов, содержащий статистику
      */
     private static void printStatistics(CommandLine cmd, FileManager manager) {
         boolean fullStats = cmd.hasOption("f");
+        PrintStream out = cmd.hasOption("stdout") ? System.err : System.out;
 
         manager.getStatistics().forEach(stat ->
-                System.out.println(stat.format(fullStats))
+                out.println(stat.format(fullStats))
         );
+        if (cmd.hasOption("distinct")) {
+            out.println(manager.getDuplicateFilter().format());
+        }
+        if (cmd.hasOption("max-memory")) {
+            out.println(manager.getMemoryBudget().format());
+        }
+        if (cmd.hasOption("write-buffer")) {
+            out.println(manager.formatOutputStatistics());
+        }
+    }
+
+    /**
+     * Записывает отчет о производительности в формате JSON.
+     * <p>
+     * Отчет записывается в файл из опции {@code --metrics-file}, а если она не задана -
+     * в файл metrics.json (с префиксом из опции {@code -p}) в директории для выходных файлов.
+     *
+     * @param cmd     объект командной строки с параметрами
+     * @param manager менеджер файлов, содержащий счетчики производительности
+     * @param elapsed общее время обработки в наносекундах
+     */
+    private static void writeMetrics(CommandLine cmd, FileManager manager, long elapsed) throws IOException {
+        Path path = cmd.hasOption("metrics-file")
+                ? Paths.get(cmd.getOptionValue("metrics-file"))
+                : manager.getOutputDirectory().resolve(cmd.getOptionValue("p", "") + "metrics.json");
+        Files.writeString(path, MetricsReport.format(manager, elapsed), StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,321 @@
+package com.sheandstud.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Генератор входных данных для нагрузочного тестирования.
+ * <p>
+ * Данные делятся на блоки по {@link #LINES_PER_BLOCK} строк. Каждый блок генерируется
+ * собственным генератором случайных чисел, зерно которого вычисляется по общему зерну
+ * и номеру блока, поэтому блоки генерируются параллельно, а результат не зависит
+ * от количества потоков. Блоки записываются в файл по порядку через {@link FileChannel}.
+ * <p>
+ * Строки генерируются сразу в байтах в кодировке UTF-8 и разделяются символом {@code \n}.
+ * Результат - начало бесконечной последовательности строк, обрезанное по границе строки
+ * при достижении заданного размера или количества строк.
+ */
+public class CorpusGenerator {
+    /**
+     * Количество строк в блоке.
+     */
+    public static final int LINES_PER_BLOCK = 16 * 1024;
+
+    /**
+     * Граничные случаи формата чисел: корректные и почти корректные числа,
+     * числа на границе диапазона long и цифры не из ASCII.
+     */
+    private static final byte[][] EDGE_CASES = toBytes(
+            ".5", "+1E-3", "1.", "-.5", "+.5e+10", "1e5", "1E", "1e+", ".", "-", "+", "", "0", "-0", "+0",
+            "00012", "1.5.5", "1..5", "--1", "+-1", "1.e5", "1e99999999999", "1e-99999999999", "1e1000",
+            "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+            "0.0", "-0.0", " 1", "1 ", "1_000", "0x1F", "NaN", "Infinity", "١٢٣", "１２３", "٣.٥");
+    private static final byte[] LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] NON_ASCII = toBytes(
+            "а", "б", "в", "г", "д", "е", "ж", "з", "и", "к", "л", "м", "н", "о", "п", "р", "с", "т", "у",
+            "Я", "Ю", "ё", "é", "ß", "中", "文", "😀");
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final CorpusSettings settings;
+    private final int weightTotal;
+
+    /**
+     * Конструктор генератора.
+     *
+     * @param settings параметры генерации
+     */
+    public CorpusGenerator(CorpusSettings settings) {
+        this.settings = settings;
+        this.weightTotal = settings.integerShare() + settings.floatShare() + settings.stringShare();
+    }
+
+    /**
+     * Записывает данные в файл.
+     * <p>
+     * Запись останавливается после первой строки, на которой достигнут размер
+     * {@code maxBytes} или количество строк {@code maxLines}.
+     *
+     * @param path     путь к выходному файлу
+     * @param maxBytes размер данных в байтах
+     * @param maxLines количество строк
+     * @param threads  количество потоков генерации
+     * @return количество записанных строк и байтов
+     */
+    public Result write(Path path, long maxBytes, long maxLines, int threads) throws IOException {
+        int window = threads * 2;
+        Block[] blocks = new Block[window];
+        Future<?>[] futures = new Future<?>[window];
+        for (int i = 0; i < window; i++) {
+            blocks[i] = new Block();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "corpus-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long bytes = 0;
+        long lines = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long submitted = 0;
+            for (long index = 0; ; index++) {
+                for (; submitted < index + window; submitted++) {
+                    Block block = blocks[(int) (submitted % window)];
+                    long blockIndex = submitted;
+                    futures[(int) (submitted % window)] = executor.submit(() -> generate(blockIndex, block));
+                }
+                await(futures[(int) (index % window)]);
+                Block block = blocks[(int) (index % window)];
+
+                int count = LINES_PER_BLOCK;
+                for (int i = 0; i < LINES_PER_BLOCK; i++) {
+                    if (lines + i + 1 >= maxLines || bytes + block.ends[i] >= maxBytes) {
+                        count = i + 1;
+                        break;
+                    }
+                }
+                int length = block.ends[count - 1];
+                ByteBuffer buffer = ByteBuffer.wrap(block.data, 0, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                bytes += length;
+                lines += count;
+                if (count < LINES_PER_BLOCK || lines >= maxLines || bytes >= maxBytes) {
+                    return new Result(lines, bytes);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Generation failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * Генерирует блок строк с заданным номером.
+     *
+     * @param index номер блока
+     * @return содержимое блока: строки, после каждой - {@code \n}
+     */
+    public byte[] generate(long index) {
+        Block block = new Block();
+        generate(index, block);
+        return Arrays.copyOf(block.data, block.size);
+    }
+
+    private void generate(long index, Block block) {
+        SplittableRandom random = new SplittableRandom(mix(settings.seed() + (index + 1) * GOLDEN_GAMMA));
+        block.size = 0;
+        for (int i = 0; i < LINES_PER_BLOCK; i++) {
+            block.ensure(16 + 4 * (2 * settings.maxDigits() + settings.maxLineLength() + 12));
+            line(random, block);
+            block.data[block.size++] = '\n';
+            block.ends[i] = block.size;
+        }
+    }
+
+    private void line(SplittableRandom random, Block block) {
+        if (random.nextInt(100) < settings.edgeCaseShare()) {
+            block.put(EDGE_CASES[random.nextInt(EDGE_CASES.length)]);
+            return;
+        }
+        int kind = random.nextInt(weightTotal);
+        if (kind < settings.integerShare()) {
+            sign(random, block);
+            digits(random, block, digitCount(random), true);
+        } else if (kind < settings.integerShare() + settings.floatShare()) {
+            floating(random, block);
+        } else {
+            string(random, block);
+        }
+    }
+
+    private void floating(SplittableRandom random, Block block) {
+        sign(random, block);
+        int form = random.nextInt(10);
+        boolean exponent = random.nextInt(100) < settings.exponentShare();
+        if (form == 0) {
+            block.data[block.size++] = '.';
+            digits(random, block, digitCount(random), false);
+        } else if (form == 1 && exponent) {
+            digits(random, block, digitCount(random), true);
+        } else {
+            digits(random, block, digitCount(random), true);
+            block.data[block.size++] = '.';
+            digits(random, block, digitCount(random), false);
+        }
+        if (exponent) {
+            block.data[block.size++] = random.nextBoolean() ? (byte) 'e' : (byte) 'E';
+            long value = settings.minExponent() + random.nextLong(
+                    (long) settings.maxExponent() - settings.minExponent() + 1);
+            if (value >= 0 && random.nextInt(4) == 0) {
+                block.data[block.size++] = '+';
+            }
+            block.putDecimal(value);
+        }
+    }
+
+    /**
+     * Записывает строку из слов латинскими буквами, разделенных пробелами.
+     * Для каждого символа используется одно случайное число: младшие биты выбирают пробел
+     * и символ не из ASCII, старшие 24 бита - букву.
+     */
+    private void string(SplittableRandom random, Block block) {
+        int length = settings.minLineLength() + random.nextInt(settings.maxLineLength() - settings.minLineLength() + 1);
+        boolean nonAscii = random.nextInt(100) < settings.nonAsciiShare();
+        byte[] data = block.data;
+        for (int i = 0; i < length; i++) {
+            int bits = random.nextInt();
+            int index = bits >>> 8;
+            if ((bits & 7) == 0 && i > 0 && i < length - 1 && data[block.size - 1] != ' ') {
+                data[block.size++] = ' ';
+            } else if (nonAscii && (bits & 0x18) == 0) {
+                block.put(NON_ASCII[(int) (((long) index * NON_ASCII.length) >>> 24)]);
+            } else {
+                data[block.size++] = LETTERS[(int) (((long) index * LETTERS.length) >>> 24)];
+            }
+        }
+    }
+
+    private int digitCount(SplittableRandom random) {
+        return settings.minDigits() + random.nextInt(settings.maxDigits() - settings.minDigits() + 1);
+    }
+
+    private static void sign(SplittableRandom random, Block block) {
+        int roll = random.nextInt(10);
+        if (roll < 3) {
+            block.data[block.size++] = '-';
+        } else if (roll == 3) {
+            block.data[block.size++] = '+';
+        }
+    }
+
+    /**
+     * Записывает цифры, по 9 цифр из одного случайного 32-битного числа: число рассматривается
+     * как дробь от 0 до 1, каждая следующая цифра - целая часть произведения дроби на 10.
+     */
+    private static void digits(SplittableRandom random, Block block, int count, boolean leading) {
+        byte[] data = block.data;
+        int position = block.size;
+        int remaining = count;
+        if (leading && count > 1) {
+            data[position++] = (byte) ('1' + (((random.nextInt() & 0xFFFFFFFFL) * 9) >>> 32));
+            remaining--;
+        }
+        while (remaining > 0) {
+            long fraction = random.nextInt() & 0xFFFFFFFFL;
+            for (int i = Math.min(remaining, 9); i > 0; i--) {
+                fraction *= 10;
+                data[position++] = (byte) ('0' + (fraction >>> 32));
+                fraction &= 0xFFFFFFFFL;
+                remaining--;
+            }
+        }
+        block.size = position;
+    }
+
+    /**
+     * Перемешивает биты зерна (функция SplitMix64), чтобы зерна соседних блоков не были похожи.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static byte[][] toBytes(String... values) {
+        byte[][] result = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    /**
+     * Результат генерации.
+     *
+     * @param lines количество строк
+     * @param bytes количество байтов
+     */
+    public record Result(long lines, long bytes) {
+    }
+
+    /**
+     * Буфер блока: строки и позиции их концов.
+     */
+    private static final class Block {
+        private byte[] data = new byte[1024 * 1024];
+        private final int[] ends = new int[LINES_PER_BLOCK];
+        private int size;
+
+        private void ensure(int free) {
+            if (data.length - size < free) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + free));
+            }
+        }
+
+        private void put(byte[] value) {
+            System.arraycopy(value, 0, data, size, value.length);
+            size += value.length;
+        }
+
+        private void putDecimal(long value) {
+            if (value < 0) {
+                data[size++] = '-';
+                value = -value;
+            }
+            int start = size;
+            do {
+                data[size++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                byte b = data[i];
+                data[i] = data[j];
+                data[j] = b;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.sheandstud.generator;
+
+/**
+ * Параметры генерации входных данных.
+ * <p>
+ * Доли задаются в процентах. Доли целых чисел, вещественных чисел и строк задают вероятность
+ * каждого вида строки и не обязаны давать в сумме 100: они нормируются.
+ *
+ * @param seed           зерно генератора
+ * @param integerShare   доля целых чисел
+ * @param floatShare     доля вещественных чисел
+ * @param stringShare    доля строк
+ * @param minDigits      наименьшее количество цифр в числе
+ * @param maxDigits      наибольшее количество цифр в числе; больше 18 - числа вне диапазона long
+ * @param exponentShare  доля вещественных чисел с экспонентой
+ * @param minExponent    наименьшее значение экспоненты
+ * @param maxExponent    наибольшее значение экспоненты
+ * @param minLineLength  наименьшая длина строки в символах
+ * @param maxLineLength  наибольшая длина строки в символах
+ * @param nonAsciiShare  доля строк с символами не из ASCII
+ * @param edgeCaseShare  доля строк из набора граничных случаев формата чисел
+ */
+public record CorpusSettings(long seed, int integerShare, int floatShare, int stringShare,
+                             int minDigits, int maxDigits, int exponentShare, int minExponent, int maxExponent,
+                             int minLineLength, int maxLineLength, int nonAsciiShare, int edgeCaseShare) {
+    /**
+     * Проверяет параметры генерации.
+     *
+     * @throws IllegalArgumentException если доли или диапазоны некорректны
+     */
+    public CorpusSettings {
+        checkShare(integerShare, "integer share");
+        checkShare(floatShare, "float share");
+        checkShare(stringShare, "string share");
+        checkShare(exponentShare, "exponent share");
+        checkShare(nonAsciiShare, "non-ASCII share");
+        checkShare(edgeCaseShare, "edge case share");
+        if (integerShare + floatShare + stringShare == 0) {
+            throw new IllegalArgumentException("At least one of integer, float and string shares must be positive");
+        }
+        checkRange(minDigits, maxDigits, 1, "digits");
+        checkRange(minExponent, maxExponent, Integer.MIN_VALUE, "exponent");
+        checkRange(minLineLength, maxLineLength, 0, "line length");
+    }
+
+    private static void checkShare(int share, String name) {
+        if (share < 0 || share > 100) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + share);
+        }
+    }
+
+    private static void checkRange(int min, int max, int lowest, String name) {
+        if (min < lowest || max < min) {
+            throw new IllegalArgumentException("Invalid " + name + " range: " + min + ":" + max);
+        }
+    }
+
+    /**
+     * Возвращает параметры по умолчанию: поровну целых чисел, вещественных чисел и строк,
+     * от 1 до 30 цифр, экспоненты от -20 до 20, строки от 1 до 40 символов.
+     *
+     * @param seed зерно генератора
+     * @return параметры генерации
+     */
+    public static CorpusSettings defaults(long seed) {
+        return new CorpusSettings(seed, 30, 30, 40, 1, 30, 30, -20, 20, 1, 40, 10, 1);
+    }
+}
@@ -0,0 +1,140 @@
+package com.sheandstud.generator;
+
+import com.sheandstud.options.OptionsParser;
+import org.apache.commons.cli.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Точка входа генератора входных данных для нагрузочного тестирования.
+ * <p>
+ * Пример запуска:
+ * <pre>
+ * java -cp util.jar com.sheandstud.generator.Generator --size 50G --seed 7 --ratio 20:20:60 big.txt
+ * </pre>
+ */
+public class Generator {
+
+    /**
+     * Генерирует файл с параметрами из командной строки и выводит размер и скорость генерации.
+     *
+     * @param args аргументы командной строки
+     */
+    public static void main(String[] args) {
+        try {
+            CommandLine cmd = new DefaultParser().parse(getOptions(), args);
+            if (cmd.getArgList().size() != 1) {
+                throw new ParseException("Exactly one output file must be specified");
+            }
+            if (!cmd.hasOption("size") && !cmd.hasOption("lines")) {
+                throw new ParseException("Either --size or --lines must be specified");
+            }
+            long maxBytes = cmd.hasOption("size")
+                    ? OptionsParser.parseSize(cmd.getOptionValue("size"), "size") : Long.MAX_VALUE;
+            long maxLines = cmd.hasOption("lines")
+                    ? OptionsParser.parseSize(cmd.getOptionValue("lines"), "lines") : Long.MAX_VALUE;
+            int threads = cmd.hasOption("threads")
+                    ? OptionsParser.parsePositiveInt(cmd.getOptionValue("threads"), "threads")
+                    : Runtime.getRuntime().availableProcessors();
+            CorpusSettings settings = createSettings(cmd);
+            Path output = Paths.get(cmd.getArgList().get(0));
+
+            long start = System.nanoTime();
+            CorpusGenerator.Result result = new CorpusGenerator(settings).write(output, maxBytes, maxLines, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Generated %d lines, %d bytes in %.1f s (%.0f MB/s)%n",
+                    result.lines(), result.bytes(), seconds, result.bytes() / seconds / (1024 * 1024));
+        } catch (ParseException | IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            new HelpFormatter().printHelp("java -cp util.jar " + Generator.class.getName() + " [options] OUTPUT",
+                    getOptions());
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Fatal error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Создает параметры генерации по опциям командной строки.
+     * Не заданные параметры берутся из {@link CorpusSettings#defaults(long)}.
+     */
+    private static CorpusSettings createSettings(CommandLine cmd) throws ParseException {
+        CorpusSettings defaults = CorpusSettings.defaults(
+                cmd.hasOption("seed") ? parseLong(cmd.getOptionValue("seed"), "seed") : 1);
+        int[] ratio = {defaults.integerShare(), defaults.floatShare(), defaults.stringShare()};
+        if (cmd.hasOption("ratio")) {
+            ratio = parseInts(cmd.getOptionValue("ratio"), 3, "ratio");
+        }
+        int[] digits = range(cmd, "digits", defaults.minDigits(), defaults.maxDigits());
+        int[] exponents = range(cmd, "exponents", defaults.minExponent(), defaults.maxExponent());
+        int[] lineLength = range(cmd, "line-length", defaults.minLineLength(), defaults.maxLineLength());
+        return new CorpusSettings(defaults.seed(), ratio[0], ratio[1], ratio[2], digits[0], digits[1],
+                share(cmd, "exponent-share", defaults.exponentShare()), exponents[0], exponents[1],
+                lineLength[0], lineLength[1],
+                share(cmd, "non-ascii", defaults.nonAsciiShare()),
+                share(cmd, "edge-cases", defaults.edgeCaseShare()));
+    }
+
+    private static int[] range(CommandLine cmd, String option, int min, int max) throws ParseException {
+        return cmd.hasOption(option) ? parseInts(cmd.getOptionValue(option), 2, option) : new int[]{min, max};
+    }
+
+    private static int share(CommandLine cmd, String option, int value) throws ParseException {
+        return cmd.hasOption(option) ? parseInts(cmd.getOptionValue(option), 1, option)[0] : value;
+    }
+
+    /**
+     * Разбирает значения, разделенные двоеточием, например {@code 20:20:60}.
+     */
+    private static int[] parseInts(String value, int count, String option) throws ParseException {
+        String[] parts = value.split(":", -1);
+        if (parts.length != count) {
+            throw new ParseException("Invalid value for --" + option + ": " + value);
+        }
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            long parsed = parseLong(parts[i].trim(), option);
+            if (parsed != (int) parsed) {
+                throw new ParseException("Invalid value for --" + option + ": " + value);
+            }
+            result[i] = (int) parsed;
+        }
+        return result;
+    }
+
+    private static long parseLong(String value, String option) throws ParseException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid value for --" + option + ": " + value);
+        }
+    }
+
+    /**
+     * Возвращает список опций генератора.
+     *
+     * @return опции командной строки
+     */
+    public static Options getOptions() {
+        Options options = new Options();
+        options.addOption(longOption("size", "SIZE", "Size of the generated file, e.g. 50G"));
+        options.addOption(longOption("lines", "N", "Number of lines, K, M and G suffixes allowed"));
+        options.addOption(longOption("seed", "N", "Random seed, default 1"));
+        options.addOption(longOption("threads", "N", "Number of generator threads, default: number of CPUs"));
+        options.addOption(longOption("ratio", "I:F:S", "Relative shares of integers, floats and strings, default 30:30:40"));
+        options.addOption(longOption("digits", "MIN:MAX", "Digits per number, above 18 exceeds long, default 1:30"));
+        options.addOption(longOption("exponent-share", "PERCENT", "Share of floats with an exponent, default 30"));
+        options.addOption(longOption("exponents", "MIN:MAX", "Exponent range, default -20:20"));
+        options.addOption(longOption("line-length", "MIN:MAX", "String length in characters, default 1:40"));
+        options.addOption(longOption("non-ascii", "PERCENT", "Share of strings with non-ASCII characters, default 10"));
+        options.addOption(longOption("edge-cases", "PERCENT", "Share of number format edge cases like .5 and 1., default 1"));
+        return options;
+    }
+
+    private static Option longOption(String name, String argName, String description) {
+        return Option.builder().longOpt(name).hasArg().argName(argName).desc(description).build();
+    }
+}
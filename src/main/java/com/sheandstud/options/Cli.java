@@ -19,7 +19,25 @@ public class Cli {
      *   <li>-p: префикс для имен выходных файлов;</li>
      *   <li>-a: режим добавления данных в существующие файлы;</li>
      *   <li>-s: вывод краткой статистики;</li>
-     *   <li>-f: вывод полной статистики.</li>
+     *   <li>-f: вывод полной статистики;</li>
+     *   <li>--threads: количество потоков для параллельной обработки входных файлов;</li>
+     *   <li>--chunk-size: размер части, на которые делятся большие файлы при параллельной обработке.</li>
+     *   <li>--max-memory: ограничение памяти под буферы и данные в обработке.</li>
+     *   <li>--write-buffer: размер буфера записи выходных файлов.</li>
+     *   <li>--pipeline: конвейерная обработка: чтение, обработка строк и запись в разных потоках.</li>
+     *   <li>--int-range, --float-range: диапазоны целых и вещественных чисел, которые нужно оставить.</li>
+     *   <li>--string-prefix, --string-regex: префикс и регулярное выражение для строк, которые нужно оставить.</li>
+     *   <li>--types: типы данных, на которые разделяются строки, в порядке приоритета.</li>
+     *   <li>--metrics, --metrics-file: сбор счетчиков производительности и файл отчета в формате JSON.</li>
+     *   <li>--progress, --progress-interval: периодический вывод хода обработки в stderr и интервал между выводами.</li>
+     *   <li>--stdout: тип данных, строки которого записываются в стандартный вывод вместо файла.</li>
+     *   <li>--compress, --compress-level: сжатие выходных файлов в формате gzip и уровень сжатия.</li>
+     *   <li>--quantiles, --quantile-size: приближенные квантили чисел в полной статистике и размер скетча.</li>
+     *   <li>--distinct-count, --distinct-precision: оценка количества различных значений в полной статистике и точность скетча.</li>
+     *   <li>--top-k: количество самых частых строк в полной статистике.</li>
+     *   <li>--checksums, --sha256: контрольные суммы CRC32C и SHA-256 выходных файлов.</li>
+     *   <li>--distinct, --distinct-memory: отбрасывание повторяющихся значений и ограничение памяти для них.</li>
+     *   <li>--sort, --sort-memory: сортировка файлов чисел по значению и память для сортировки.</li>
      * </ul>
      *
      * @return объект {@link Options}, содержащий все доступные опции
@@ -50,6 +68,171 @@ public class Cli {
                 .longOpt("full-stat")
                 .desc("Show full statistics")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("threads")
+                .hasArg()
+                .argName("N")
+                .desc("Number of threads for processing input files in parallel")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("chunk-size")
+                .hasArg()
+                .argName("SIZE")
+                .desc("Size of parts large files are split into for parallel processing, e.g. 64M")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("max-memory")
+                .hasArg()
+                .argName("SIZE")
+                .desc("Memory budget for buffers and in-flight data, e.g. 256M")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("write-buffer")
+                .hasArg()
+                .argName("SIZE")
+                .desc("Size of the output file write buffer, at least 8K, default 1M")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("pipeline")
+                .desc("Read, classify and write in separate threads connected by bounded queues")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("int-range")
+                .hasArg()
+                .argName("MIN:MAX")
+                .desc("Keep only integers in the inclusive range, either bound may be omitted")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("float-range")
+                .hasArg()
+                .argName("MIN:MAX")
+                .desc("Keep only floats in the inclusive range, either bound may be omitted")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("string-prefix")
+                .hasArg()
+                .argName("PREFIX")
+                .desc("Keep only strings starting with the prefix")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("string-regex")
+                .hasArg()
+                .argName("REGEX")
+                .desc("Keep only strings containing a match of the regular expression")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("types")
+                .hasArg()
+                .argName("LIST")
+                .desc("Comma-separated data types in priority order, default integer,float; "
+                        + "also available: boolean, uuid, date, hex")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("stdout")
+                .hasArg()
+                .argName("TYPE")
+                .desc("Write lines of the type (integer, float, string or another selected type) to stdout "
+                        + "instead of a file; statistics are then printed to stderr")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("compress")
+                .hasArg()
+                .argName("FORMAT")
+                .desc("Compress output files while writing them, adding the .gz suffix; supported format: gzip")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("compress-level")
+                .hasArg()
+                .argName("LEVEL")
+                .desc("Compression level from 1 (fastest) to 9 (smallest), default 1")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("checksums")
+                .desc("Compute CRC32C of output files while writing them and save it to checksums.txt "
+                        + "in the output directory")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("sha256")
+                .desc("Also compute SHA-256 of output files (requires --checksums)")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("quantiles")
+                .desc("Add approximate P25, median, P75, P90 and P99 to the full statistics of numbers")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("quantile-size")
+                .hasArg()
+                .argName("K")
+                .desc("Quantile sketch size from 8 to 65536, default 200; larger is more accurate "
+                        + "and uses more memory (rank error about 1.7% at 200)")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("distinct-count")
+                .desc("Add an approximate count of distinct values of each type to the full statistics; "
+                        + "the sketch is saved next to each output file as .hll and merged in append mode")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("distinct-precision")
+                .hasArg()
+                .argName("P")
+                .desc("Distinct count sketch precision from 4 to 18, default 14; the sketch uses 2^P bytes "
+                        + "and the standard error is 1.04/sqrt(2^P), 0.8% at 14")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("top-k")
+                .hasArg()
+                .argName("N")
+                .desc("Add the N most frequent strings with their counts and error bounds to the full statistics, "
+                        + "N from 1 to 10000; uses 10*N counters, at least 1024")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("distinct")
+                .desc("Drop lines whose value was already seen for the same type; "
+                        + "integers and floats are compared by numeric value")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("distinct-memory")
+                .hasArg()
+                .argName("SIZE")
+                .desc("Memory limit of the --distinct set (e.g. 512M), default a quarter of --max-memory "
+                        + "or of the heap, up to 256M; past it or past --max-memory a Bloom filter is used, "
+                        + "which may drop a few unique lines")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("sort")
+                .desc("Sort the integer and float output files by numeric value, keeping each line as written; "
+                        + "uses an external merge sort with temporary files next to the output")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("sort-memory")
+                .hasArg()
+                .argName("SIZE")
+                .desc("Memory for sorting each output file, shared by --threads (e.g. 256M), default 64M, "
+                        + "up to 512M, within --max-memory; larger inputs are sorted in runs spilled to disk")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("metrics")
+                .hasArg()
+                .argName("FORMAT")
+                .desc("Collect per-stage timings, throughput and allocation counters and write a report; "
+                        + "supported format: json")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("metrics-file")
+                .hasArg()
+                .argName("PATH")
+                .desc("Metrics report file, default metrics.json in the output directory")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("progress")
+                .desc("Periodically print bytes processed per file, percent complete, throughput and ETA to stderr")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("progress-interval")
+                .hasArg()
+                .argName("SECONDS")
+                .desc("Interval between progress reports, default 5")
+                .build());
         return options;
     }
 }
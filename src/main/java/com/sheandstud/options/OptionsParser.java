@@ -1,7 +1,24 @@
 package com.sheandstud.options;
 
+import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.filter.DistinctSet;
+import com.sheandstud.processing.filter.FloatRange;
+import com.sheandstud.processing.filter.IntegerRange;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.output.OutputSettings;
+import com.sheandstud.processing.output.SortedOutputFile;
+import com.sheandstud.processing.statistics.HeavyHitters;
+import com.sheandstud.processing.statistics.HyperLogLog;
+import com.sheandstud.processing.statistics.QuantileSketch;
+import com.sheandstud.processing.types.DataTypeProvider;
+import com.sheandstud.processing.types.TypeRegistry;
 import org.apache.commons.cli.*;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
 /**
  * Класс для парсинга аргументов командной строки.
  * <p>
@@ -12,8 +29,8 @@ public class OptionsParser {
     /**
      * Парсит аргументы командной строки.
      * <p>
-     * Проверяет, что указаны входные файлы. Если входные файлы не указаны,
-     * выбрасывается исключение {@link ParseException}.
+     * Проверяет, что указаны входные файлы и что значения числовых опций корректны.
+     * Если проверка не прошла, выбрасывается исключение {@link ParseException}.
      *
      * @param args массив аргументов командной строки
      * @return объект {@link CommandLine}, содержащий разобранные параметры
@@ -26,6 +43,217 @@ public class OptionsParser {
             throw new ParseException("No input files specified");
         }
 
+        if (cmd.hasOption("threads")) {
+            parsePositiveInt(cmd.getOptionValue("threads"), "threads");
+        }
+        if (cmd.hasOption("chunk-size")) {
+            parseSize(cmd.getOptionValue("chunk-size"), "chunk-size");
+        }
+        if (cmd.hasOption("max-memory")) {
+            parseSize(cmd.getOptionValue("max-memory"), "max-memory");
+        }
+        if (cmd.hasOption("write-buffer")) {
+            String value = cmd.getOptionValue("write-buffer");
+            long size = parseSize(value, "write-buffer");
+            if (size < OutputFile.MIN_BUFFER_SIZE || size > Integer.MAX_VALUE) {
+                throw new ParseException("Invalid value for --write-buffer: " + value);
+            }
+        }
+        validate(cmd, "int-range", IntegerRange::parse);
+        validate(cmd, "float-range", FloatRange::parse);
+        validate(cmd, "string-regex", Pattern::compile);
+        validate(cmd, "types", value -> TypeRegistry.load(parseList(value)));
+        if (cmd.hasOption("stdout")) {
+            validateStandardOutput(cmd);
+        }
+        if (cmd.hasOption("compress") && !"gzip".equals(cmd.getOptionValue("compress"))) {
+            throw new ParseException("Invalid value for --compress: " + cmd.getOptionValue("compress"));
+        }
+        if (cmd.hasOption("compress-level") && !cmd.hasOption("compress")) {
+            throw new ParseException("Option --compress-level requires --compress");
+        }
+        if (cmd.hasOption("compress-level")) {
+            String value = cmd.getOptionValue("compress-level");
+            if (parsePositiveInt(value, "compress-level") > 9) {
+                throw new ParseException("Invalid value for --compress-level: " + value);
+            }
+        }
+        if (cmd.hasOption("sha256") && !cmd.hasOption("checksums")) {
+            throw new ParseException("Option --sha256 requires --checksums");
+        }
+        if (cmd.hasOption("quantiles") && !cmd.hasOption("f")) {
+            throw new ParseException("Option --quantiles requires -f");
+        }
+        if (cmd.hasOption("quantile-size") && !cmd.hasOption("quantiles")) {
+            throw new ParseException("Option --quantile-size requires --quantiles");
+        }
+        if (cmd.hasOption("quantile-size")) {
+            String value = cmd.getOptionValue("quantile-size");
+            int size = parsePositiveInt(value, "quantile-size");
+            if (size < QuantileSketch.MIN_SIZE || size > QuantileSketch.MAX_SIZE) {
+                throw new ParseException("Invalid value for --quantile-size: " + value);
+            }
+        }
+        if (cmd.hasOption("distinct-count") && !cmd.hasOption("f")) {
+            throw new ParseException("Option --distinct-count requires -f");
+        }
+        if (cmd.hasOption("distinct-precision") && !cmd.hasOption("distinct-count")) {
+            throw new ParseException("Option --distinct-precision requires --distinct-count");
+        }
+        if (cmd.hasOption("distinct-precision")) {
+            String value = cmd.getOptionValue("distinct-precision");
+            int precision = parsePositiveInt(value, "distinct-precision");
+            if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+                throw new ParseException("Invalid value for --distinct-precision: " + value);
+            }
+        }
+        if (cmd.hasOption("top-k") && !cmd.hasOption("f")) {
+            throw new ParseException("Option --top-k requires -f");
+        }
+        if (cmd.hasOption("top-k")) {
+            String value = cmd.getOptionValue("top-k");
+            if (parsePositiveInt(value, "top-k") > HeavyHitters.MAX_SIZE) {
+                throw new ParseException("Invalid value for --top-k: " + value);
+            }
+        }
+        if (cmd.hasOption("distinct-memory") && !cmd.hasOption("distinct")) {
+            throw new ParseException("Option --distinct-memory requires --distinct");
+        }
+        if (cmd.hasOption("distinct-memory")) {
+            String value = cmd.getOptionValue("distinct-memory");
+            if (parseSize(value, "distinct-memory") < DistinctSet.MIN_MEMORY) {
+                throw new ParseException("Invalid value for --distinct-memory: " + value);
+            }
+        }
+        if (cmd.hasOption("sort-memory") && !cmd.hasOption("sort")) {
+            throw new ParseException("Option --sort-memory requires --sort");
+        }
+        if (cmd.hasOption("sort-memory")) {
+            String value = cmd.getOptionValue("sort-memory");
+            long size = parseSize(value, "sort-memory");
+            if (size < OutputSettings.MIN_SORT_MEMORY || size > SortedOutputFile.MAX_SORT_MEMORY) {
+                throw new ParseException("Invalid value for --sort-memory: " + value);
+            }
+        }
+        if (cmd.hasOption("metrics") && !"json".equals(cmd.getOptionValue("metrics"))) {
+            throw new ParseException("Invalid value for --metrics: " + cmd.getOptionValue("metrics"));
+        }
+        if (cmd.hasOption("metrics-file") && !cmd.hasOption("metrics")) {
+            throw new ParseException("Option --metrics-file requires --metrics");
+        }
+        if (cmd.hasOption("progress-interval") && !cmd.hasOption("progress")) {
+            throw new ParseException("Option --progress-interval requires --progress");
+        }
+        if (cmd.hasOption("progress-interval")) {
+            parsePositiveInt(cmd.getOptionValue("progress-interval"), "progress-interval");
+        }
+
         return cmd;
     }
+
+    /**
+     * Проверяет, что опция {@code --stdout} называет один из выбранных типов данных или строки.
+     *
+     * @param cmd разобранные параметры
+     */
+    private static void validateStandardOutput(CommandLine cmd) throws ParseException {
+        String type = cmd.getOptionValue("stdout");
+        if (FileManager.STRING_TYPE.equals(type)) {
+            return;
+        }
+        TypeRegistry types = cmd.hasOption("types")
+                ? TypeRegistry.load(parseList(cmd.getOptionValue("types")))
+                : TypeRegistry.defaults();
+        for (DataTypeProvider provider : types.types()) {
+            if (provider.name().equals(type)) {
+                return;
+            }
+        }
+        throw new ParseException("Invalid value for --stdout: " + type);
+    }
+
+    /**
+     * Проверяет значение опции, если она задана.
+     *
+     * @param cmd       разобранные параметры
+     * @param option    имя опции
+     * @param validator проверка значения, выбрасывающая {@link IllegalArgumentException}
+     */
+    private static void validate(CommandLine cmd, String option, Consumer<String> validator) throws ParseException {
+        if (cmd.hasOption(option)) {
+            String value = cmd.getOptionValue(option);
+            try {
+                validator.accept(value);
+            } catch (IllegalArgumentException e) {
+                throw new ParseException("Invalid value for --" + option + ": " + value);
+            }
+        }
+    }
+
+    /**
+     * Разбирает значение опции как положительное целое число.
+     *
+     * @param value  значение опции
+     * @param option имя опции для сообщения об ошибке
+     * @return разобранное число
+     */
+    public static int parsePositiveInt(String value, String option) throws ParseException {
+        try {
+            int result = Integer.parseInt(value);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new ParseException("Invalid value for --" + option + ": " + value);
+    }
+
+    /**
+     * Разбирает значение опции как список через запятую.
+     * <p>
+     * Пробелы вокруг элементов и пустые элементы игнорируются.
+     *
+     * @param value значение опции, например "integer,float,uuid"
+     * @return элементы списка
+     */
+    public static List<String> parseList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Разбирает значение опции как размер в байтах.
+     * <p>
+     * Допускаются суффиксы K, M и G (регистр не важен) для килобайт, мегабайт и гигабайт.
+     *
+     * @param value  значение опции, например 512K или 64M
+     * @param option имя опции для сообщения об ошибке
+     * @return размер в байтах
+     */
+    public static long parseSize(String value, String option) throws ParseException {
+        String number = value.trim();
+        long multiplier = 1;
+        if (!number.isEmpty()) {
+            switch (Character.toUpperCase(number.charAt(number.length() - 1))) {
+                case 'K' -> multiplier = 1024L;
+                case 'M' -> multiplier = 1024L * 1024;
+                case 'G' -> multiplier = 1024L * 1024 * 1024;
+                default -> multiplier = 1;
+            }
+            if (multiplier > 1) {
+                number = number.substring(0, number.length() - 1);
+            }
+        }
+
+        try {
+            long result = Math.multiplyExact(Long.parseLong(number), multiplier);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException | ArithmeticException ignored) {
+        }
+        throw new ParseException("Invalid value for --" + option + ": " + value);
+    }
 }
@@ -1,51 +1,345 @@
 package com.sheandstud.processing;
 
 import com.sheandstud.Main;
+import com.sheandstud.options.OptionsParser;
+import com.sheandstud.processing.filter.DistinctSet;
+import com.sheandstud.processing.filter.DuplicateFilter;
+import com.sheandstud.processing.filter.FloatRange;
+import com.sheandstud.processing.filter.IntegerRange;
+import com.sheandstud.processing.filter.LineFilter;
 import com.sheandstud.processing.handlers.*;
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.metrics.Metrics.Stage;
+import com.sheandstud.processing.output.Checksums;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.output.OutputSettings;
+import com.sheandstud.processing.output.SortedOutputFile;
+import com.sheandstud.processing.parsing.DataType;
+import com.sheandstud.processing.statistics.HyperLogLog;
+import com.sheandstud.processing.statistics.QuantileSketch;
 import com.sheandstud.processing.statistics.Statistics;
+import com.sheandstud.processing.statistics.StatisticsSettings;
+import com.sheandstud.processing.types.DataTypeProvider;
+import com.sheandstud.processing.types.TypeMatcher;
+import com.sheandstud.processing.types.TypeRegistry;
 import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * Класс для управления обработкой данных из файлов.
  */
 public class FileManager implements AutoCloseable {
+    private static final int BLOCK_BYTES = 64 * 1024;
+    private static final int BLOCK_LINES = 4096;
+    /**
+     * Отметка строки блока, отброшенной фильтром.
+     */
+    private static final int FILTERED = -2;
+    /**
+     * Название типа строк, не подходящих ни под один тип данных.
+     */
+    public static final String STRING_TYPE = "string";
+    /**
+     * Уровень сжатия выходных файлов по умолчанию: самое быстрое сжатие.
+     */
+    private static final String DEFAULT_COMPRESSION_LEVEL = "1";
+    private static final long DEFAULT_DISTINCT_MEMORY = 256L * 1024 * 1024;
+    /**
+     * Суффикс файла, в котором рядом с выходным файлом сохраняется скетч
+     * для оценки количества различных значений.
+     */
+    public static final String DISTINCT_SKETCH_SUFFIX = ".hll";
+    /**
+     * Имя манифеста контрольных сумм выходных файлов (после префикса имён выходных файлов).
+     */
+    public static final String CHECKSUM_MANIFEST = "checksums.txt";
+
     private final List<DataHandler> handlers = new ArrayList<>();
+    private final TypeRegistry types;
+    private final DataHandler[] typeHandlers;
+    private final DataType[] filterTypes;
+    private final StringHandler stringHandler;
+    private final Path outputDir;
+    private final String prefix;
+    private final boolean fullStatistics;
+    private final MemoryBudget memoryBudget;
+    private final OutputSettings outputSettings;
+    private final LineFilter filter;
+    private final Metrics metrics;
+    private final StatisticsSettings statisticsSettings;
+    private final DuplicateFilter duplicates;
+    private final LineBlock[] typeBlocks;
+    private final LineBlock stringBlock = new LineBlock(BLOCK_BYTES, BLOCK_LINES);
+    private final int[] typePositions;
+    private int[] blockTypes = new int[BLOCK_LINES];
+    private boolean[][] typeRejected;
+    private boolean[] stringRejected = new boolean[BLOCK_LINES];
 
     /**
      * Конструктор для инициализации менеджера файлов.
      * <p>
      * Определяет путь для выходных файлов, префикс имён файлов и режим записи (добавление или перезапись).
-     * Создает обработчики для целых чисел, вещественных чисел и строк.
-     * <p>
-     * Сначала данные из строки файла проверяются на целые числа, если проверка не прошла,
-     * то проверяются на вещественные числа, и в последнюю очередь проверяются на строку,
-     * послкольку всё, что не относится к формату чисел - считается строкой.
+     * Если полная статистика не выбрана, обработчики не разбирают числа и считают только количество.
+     * Если задана опция {@code --max-memory}, буферы учитываются в общем бюджете памяти.
+     * Размер буфера записи задается опцией {@code --write-buffer}.
+     * Опции {@code --int-range}, {@code --float-range}, {@code --string-prefix}
+     * и {@code --string-regex} задают фильтр строк, а опция {@code --types} - типы данных.
+     * Если задана опция {@code --metrics}, собираются счетчики производительности,
+     * а опции {@code --quantiles}, {@code --distinct-count} и {@code --top-k} включают
+     * в полной статистике квантили чисел, оценку количества различных значений
+     * и самые частые строки. Опция {@code --distinct} отбрасывает повторяющиеся строки
+     * с ограничением памяти {@code --distinct-memory}.
      */
     public FileManager(CommandLine cmd) throws IOException {
-        Path baseDir = getJarDirectory();
+        this(resolveOutputDirectory(cmd), cmd.getOptionValue("p", ""), cmd.hasOption("a"), createSettings(cmd));
+    }
 
-        Path outputDir;
-        if (cmd.hasOption("o")) {
-            outputDir = baseDir.resolve(cmd.getOptionValue("o")).normalize();
-        } else {
-            outputDir = baseDir;
+    /**
+     * Конструктор для инициализации менеджера файлов с явно заданными параметрами.
+     * <p>
+     * Для каждого типа набора ({@link TypeRegistry}) создается обработчик и выходной файл, для строк,
+     * не подходящих ни под один тип, - обработчик строк. Порядок обработчиков,
+     * а значит и статистики, совпадает с порядком типов, строки - последние.
+     * Тип данных строки определяется за один проход общим автоматом набора типов.
+     * <p>
+     * Счетчики производительности передаются всем обработчикам; время определения типа строк
+     * учитывается самим менеджером. Если выбрана полная статистика, параметры дополнительных
+     * показателей передаются статистике каждого обработчика ({@link Statistics#configure(StatisticsSettings)}).
+     * <p>
+     * Повторы отбрасываются после фильтра строк, до обработчиков, поэтому не учитываются
+     * в статистике и не записываются в выходные файлы. Если число не удалось разобрать
+     * и строка передается обработчику строк, она проверяется еще раз как строка.
+     *
+     * @param outputDir директория для выходных файлов
+     * @param prefix    префикс имён выходных файлов
+     * @param append    режим записи: true - добавление, false - перезапись
+     * @param settings  параметры обработки строк
+     */
+    public FileManager(Path outputDir, String prefix, boolean append, ManagerSettings settings) throws IOException {
+        this.outputDir = outputDir;
+        this.prefix = prefix;
+        this.fullStatistics = settings.fullStatistics();
+        this.memoryBudget = settings.memoryBudget();
+        this.outputSettings = settings.outputSettings();
+        this.filter = settings.filter();
+        this.types = settings.types();
+        this.metrics = settings.metrics();
+        this.statisticsSettings = settings.statisticsSettings();
+        this.duplicates = settings.duplicates();
+
+        Files.createDirectories(outputDir);
+
+        int count = types.types().size();
+        typeHandlers = new DataHandler[count];
+        filterTypes = new DataType[count];
+        typeBlocks = new LineBlock[count];
+        typeRejected = new boolean[count][BLOCK_LINES];
+        typePositions = new int[count];
+        for (int i = 0; i < count; i++) {
+            DataTypeProvider type = types.types().get(i);
+            typeHandlers[i] = type.createHandler(
+                    createOutput(type.name(), type.filterType(), prefix + type.fileName(), append), fullStatistics);
+            filterTypes[i] = type.filterType();
+            typeBlocks[i] = new LineBlock(BLOCK_BYTES, BLOCK_LINES);
+            handlers.add(typeHandlers[i]);
         }
+        stringHandler = new StringHandler(createOutput(STRING_TYPE, DataType.STRING, prefix + "strings.txt", append), fullStatistics);
+        handlers.add(stringHandler);
+        for (DataHandler handler : handlers) {
+            handler.setMetrics(metrics);
+            if (fullStatistics) {
+                handler.getStatistics().configure(statisticsSettings);
+            }
+        }
+    }
 
-        String prefix = cmd.getOptionValue("p", "");
-        boolean append = cmd.hasOption("a");
+    /**
+     * Создает выходной файл в директории для выходных файлов.
+     * <p>
+     * Если строки типа выбраны для стандартного вывода ({@link OutputSettings#standardOutput()}),
+     * файл не создается, а строки записываются в стандартный вывод.
+     * Если выбрано сжатие, к имени файла добавляется суффикс {@link OutputSettings#COMPRESSED_SUFFIX}.
+     * Если выбрана сортировка ({@link OutputSettings#isSorted()}), файлы целых и вещественных чисел
+     * сортируются по значению ({@link SortedOutputFile}).
+     *
+     * @param type     название типа данных
+     * @param kind     тип значений строк типа данных
+     * @param fileName имя выходного файла
+     * @param append   режим записи: true - добавление, false - перезапись
+     * @return выходной файл
+     */
+    private OutputFile createOutput(String type, DataType kind, String fileName, boolean append) throws IOException {
+        if (outputSettings.isCompressed()) {
+            fileName += OutputSettings.COMPRESSED_SUFFIX;
+        }
+        boolean sorted = outputSettings.isSorted() && (kind == DataType.INTEGER || kind == DataType.FLOAT);
+        if (outputSettings.isStandardOutput(type)) {
+            return sorted
+                    ? SortedOutputFile.standardOutput(outputDir.resolve(fileName), memoryBudget, outputSettings, kind)
+                    : OutputFile.standardOutput(outputDir.resolve(fileName), memoryBudget, outputSettings);
+        }
+        return sorted
+                ? new SortedOutputFile(outputDir.resolve(fileName), append, memoryBudget, outputSettings, kind)
+                : new OutputFile(outputDir.resolve(fileName), append, memoryBudget, outputSettings);
+    }
 
-        Files.createDirectories(outputDir);
+    /**
+     * Создает параметры записи по опциям {@code --write-buffer}, {@code --pipeline}, {@code --stdout},
+     * {@code --compress}, {@code --compress-level}, {@code --checksums}, {@code --sha256},
+     * {@code --sort} и {@code --sort-memory}.
+     * <p>
+     * Если размер буфера или объем памяти для сортировки не заданы, используются значения по умолчанию.
+     */
+    private static OutputSettings createOutputSettings(CommandLine cmd) {
+        int bufferSize = OutputSettings.DEFAULT_BUFFER_SIZE;
+        if (cmd.hasOption("write-buffer")) {
+            try {
+                bufferSize = (int) OptionsParser.parseSize(cmd.getOptionValue("write-buffer"), "write-buffer");
+            } catch (ParseException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+        int compressionLevel = cmd.hasOption("compress")
+                ? Integer.parseInt(cmd.getOptionValue("compress-level", DEFAULT_COMPRESSION_LEVEL))
+                : 0;
+        long sortMemory = 0;
+        if (cmd.hasOption("sort")) {
+            sortMemory = OutputSettings.DEFAULT_SORT_MEMORY;
+            if (cmd.hasOption("sort-memory")) {
+                try {
+                    sortMemory = OptionsParser.parseSize(cmd.getOptionValue("sort-memory"), "sort-memory");
+                } catch (ParseException e) {
+                    throw new IllegalArgumentException(e.getMessage(), e);
+                }
+            }
+        }
+        return new OutputSettings(bufferSize, cmd.hasOption("pipeline"), cmd.getOptionValue("stdout"),
+                compressionLevel, cmd.hasOption("checksums"), cmd.hasOption("sha256"), sortMemory);
+    }
 
-        handlers.add(new IntegerHandler(outputDir.resolve(prefix + "integers.txt"), append));
-        handlers.add(new FloatHandler(outputDir.resolve(prefix + "floats.txt"), append));
-        handlers.add(new StringHandler(outputDir.resolve(prefix + "strings.txt"), append));
+    /**
+     * Создает параметры дополнительных показателей статистики по опциям {@code --quantiles},
+     * {@code --quantile-size}, {@code --distinct-count}, {@code --distinct-precision} и {@code --top-k}.
+     *
+     * @param cmd разобранные параметры командной строки
+     * @return параметры дополнительных показателей
+     */
+    private static StatisticsSettings createStatisticsSettings(CommandLine cmd) {
+        int quantileSize = 0;
+        if (cmd.hasOption("quantiles")) {
+            quantileSize = cmd.hasOption("quantile-size")
+                    ? Integer.parseInt(cmd.getOptionValue("quantile-size"))
+                    : QuantileSketch.DEFAULT_SIZE;
+        }
+        int distinctPrecision = 0;
+        if (cmd.hasOption("distinct-count")) {
+            distinctPrecision = cmd.hasOption("distinct-precision")
+                    ? Integer.parseInt(cmd.getOptionValue("distinct-precision"))
+                    : HyperLogLog.DEFAULT_PRECISION;
+        }
+        int topStrings = cmd.hasOption("top-k") ? Integer.parseInt(cmd.getOptionValue("top-k")) : 0;
+        return new StatisticsSettings(quantileSize, distinctPrecision, topStrings);
+    }
+
+    /**
+     * Создает параметры обработки строк по опциям командной строки.
+     */
+    private static ManagerSettings createSettings(CommandLine cmd) {
+        MemoryBudget memoryBudget = createMemoryBudget(cmd);
+        return new ManagerSettings(cmd.hasOption("f"), memoryBudget, createOutputSettings(cmd), createFilter(cmd),
+                createTypes(cmd), cmd.hasOption("metrics") ? new Metrics() : Metrics.disabled(),
+                createStatisticsSettings(cmd), createDuplicateFilter(cmd, memoryBudget));
+    }
+
+    /**
+     * Создает фильтр повторяющихся строк по опциям {@code --distinct} и {@code --distinct-memory}.
+     * <p>
+     * Если ограничение памяти не задано, используется четверть бюджета памяти ({@code --max-memory})
+     * или, если бюджет не задан, четверть доступной JVM памяти, но не больше {@link #DEFAULT_DISTINCT_MEMORY}.
+     * Память множества резервируется в бюджете; если бюджета не хватает, множество раньше
+     * переходит на фильтр Блума.
+     */
+    private static DuplicateFilter createDuplicateFilter(CommandLine cmd, MemoryBudget memoryBudget) {
+        if (!cmd.hasOption("distinct")) {
+            return DuplicateFilter.acceptAll();
+        }
+        long available = memoryBudget.isLimited() ? memoryBudget.available() : Runtime.getRuntime().maxMemory();
+        long memoryLimit = Math.max(Math.min(DEFAULT_DISTINCT_MEMORY, available / 4), DistinctSet.MIN_MEMORY);
+        if (cmd.hasOption("distinct-memory")) {
+            try {
+                memoryLimit = OptionsParser.parseSize(cmd.getOptionValue("distinct-memory"), "distinct-memory");
+            } catch (ParseException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+        return new DuplicateFilter(new DistinctSet(memoryLimit, memoryBudget));
+    }
+
+    /**
+     * Создает фильтр строк по опциям {@code --int-range}, {@code --float-range},
+     * {@code --string-prefix} и {@code --string-regex}.
+     * <p>
+     * Если опции не заданы, фильтр пропускает все строки.
+     */
+    private static LineFilter createFilter(CommandLine cmd) {
+        return new LineFilter(
+                cmd.hasOption("int-range") ? IntegerRange.parse(cmd.getOptionValue("int-range")) : null,
+                cmd.hasOption("float-range") ? FloatRange.parse(cmd.getOptionValue("float-range")) : null,
+                cmd.getOptionValue("string-prefix"),
+                cmd.hasOption("string-regex") ? Pattern.compile(cmd.getOptionValue("string-regex")) : null
+        );
+    }
+
+    /**
+     * Создает набор типов данных по опции {@code --types}.
+     * <p>
+     * Если опция не задана, используются целые и вещественные числа.
+     */
+    private static TypeRegistry createTypes(CommandLine cmd) {
+        if (!cmd.hasOption("types")) {
+            return TypeRegistry.defaults();
+        }
+        return TypeRegistry.load(OptionsParser.parseList(cmd.getOptionValue("types")));
+    }
+
+    /**
+     * Создает бюджет памяти по опции {@code --max-memory}.
+     * <p>
+     * Если опция не задана, память не ограничивается.
+     */
+    private static MemoryBudget createMemoryBudget(CommandLine cmd) {
+        if (!cmd.hasOption("max-memory")) {
+            return MemoryBudget.unlimited();
+        }
+        try {
+            return new MemoryBudget(OptionsParser.parseSize(cmd.getOptionValue("max-memory"), "max-memory"));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Определяет директорию для выходных файлов.
+     * <p>
+     * Путь из опции {@code -o} задается относительно директории, где находится JAR-файл.
+     */
+    private static Path resolveOutputDirectory(CommandLine cmd) {
+        Path baseDir = getJarDirectory();
+
+        if (cmd.hasOption("o")) {
+            return baseDir.resolve(cmd.getOptionValue("o")).normalize();
+        }
+        return baseDir;
     }
 
     /**
@@ -53,7 +347,7 @@ public class FileManager implements AutoCloseable {
      * <p>
      * Если определить путь не удаётся, возвращается текущая рабочая директория.
      */
-    private Path getJarDirectory() {
+    private static Path getJarDirectory() {
         try {
             Path jarPath = Paths.get(
                     Main.class.getProtectionDomain()
@@ -74,18 +368,303 @@ public class FileManager implements AutoCloseable {
     /**
      * Обрабатывает одну строку данных.
      * <p>
-     * Передает строку каждому обработчику до тех пор, пока один из них не примет её.
+     * Определяет тип строки и передает её сразу соответствующему обработчику.
+     * Если число не удалось разобрать, строка передается обработчику строк.
      *
      * @param line строка для обработки
      */
     public void processLine(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        processLine(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Обрабатывает одну строку данных, заданную байтами в кодировке UTF-8.
+     * <p>
+     * Тип строки определяется прямо по байтам, строка передается соответствующему
+     * обработчику и записывается без декодирования.
+     * Если число не удалось разобрать, строка передается обработчику строк.
+     * Строки, не прошедшие фильтр, отбрасываются до разбора чисел.
+     *
+     * @param buffer массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     */
+    public void processLine(byte[] buffer, int offset, int length) throws IOException {
+        long start = metrics.start();
+        int index = types.classify(buffer, offset, length);
+        metrics.stage(Stage.CLASSIFY, start);
+        if (index == TypeMatcher.NO_MATCH) {
+            if (acceptsString(buffer, offset, length)) {
+                stringHandler.accept(buffer, offset, length);
+            }
+            return;
+        }
+        if (filter.accepts(filterTypes[index], buffer, offset, length)
+                && duplicates.accepts(index, filterTypes[index], buffer, offset, length)
+                && !typeHandlers[index].accept(buffer, offset, length)
+                && acceptsString(buffer, offset, length)) {
+            stringHandler.accept(buffer, offset, length);
+        }
+    }
+
+    /**
+     * Обрабатывает блок строк.
+     * <p>
+     * Типы всех строк определяются в одном цикле, строки, прошедшие фильтр,
+     * распределяются по блокам для каждого типа, которые передаются обработчикам
+     * целиком; блок, состоящий только из строк, передается без копирования ({@link DataHandler#acceptBlock(LineBlock, boolean[])}).
+     * Числа, которые не удалось разобрать, передаются обработчику строк
+     * вместе со строками, в исходном порядке.
+     * Результат совпадает с обработкой тех же строк по одной методом
+     * {@link #processLine(byte[], int, int)}.
+     *
+     * @param block блок строк
+     */
+    public void processBlock(LineBlock block) throws IOException {
+        int count = block.count();
+        if (blockTypes.length < count) {
+            blockTypes = new int[count];
+            for (int t = 0; t < typeRejected.length; t++) {
+                typeRejected[t] = new boolean[count];
+            }
+            stringRejected = new boolean[count];
+        }
+        for (LineBlock typeBlock : typeBlocks) {
+            typeBlock.clear();
+        }
+        stringBlock.clear();
+
+        byte[] data = block.data();
+        int strings = 0;
+        long start = metrics.startAlways();
+        for (int i = 0; i < count; i++) {
+            int offset = block.offset(i);
+            int length = block.length(i);
+            int index = types.classify(data, offset, length);
+            DataType type = index == TypeMatcher.NO_MATCH ? DataType.STRING : filterTypes[index];
+            if (!filter.accepts(type, data, offset, length) || !duplicates.accepts(
+                    index == TypeMatcher.NO_MATCH ? typeHandlers.length : index, type, data, offset, length)) {
+                index = FILTERED;
+            } else if (index == TypeMatcher.NO_MATCH) {
+                strings++;
+            } else {
+                typeBlocks[index].add(data, offset, length);
+            }
+            blockTypes[i] = index;
+        }
+        metrics.stageAlways(Stage.CLASSIFY, start);
+        if (strings == count) {
+            stringHandler.acceptBlock(block, stringRejected);
+            return;
+        }
+
+        for (int t = 0; t < typeHandlers.length; t++) {
+            typeHandlers[t].acceptBlock(typeBlocks[t], typeRejected[t]);
+            typePositions[t] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int index = blockTypes[i];
+            if (index == TypeMatcher.NO_MATCH
+                    || index != FILTERED && typeRejected[index][typePositions[index]++]
+                    && acceptsString(data, block.offset(i), block.length(i))) {
+                stringBlock.add(block, i);
+            }
+        }
+        stringHandler.acceptBlock(stringBlock, stringRejected);
+    }
+
+    /**
+     * Проверяет строку фильтром строк и фильтром повторов как значение типа строк.
+     */
+    private boolean acceptsString(byte[] data, int offset, int length) {
+        return filter.accepts(DataType.STRING, data, offset, length)
+                && duplicates.accepts(typeHandlers.length, DataType.STRING, data, offset, length);
+    }
+
+    /**
+     * Возвращает фильтр повторяющихся строк, общий для менеджера и менеджеров частей.
+     *
+     * @return фильтр повторов
+     */
+    public DuplicateFilter getDuplicateFilter() {
+        return duplicates;
+    }
+
+    /**
+     * Возвращает директорию для выходных файлов.
+     *
+     * @return путь к директории
+     */
+    public Path getOutputDirectory() {
+        return outputDir;
+    }
+
+    /**
+     * Возвращает бюджет памяти, общий для менеджера и менеджеров частей.
+     *
+     * @return бюджет памяти
+     */
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Проверяет, выбрана ли конвейерная обработка, при которой чтение,
+     * обработка строк и запись выходных файлов выполняются в разных потоках.
+     *
+     * @return true, если выбрана конвейерная обработка
+     */
+    public boolean isPipelined() {
+        return outputSettings.pipelined();
+    }
+
+    /**
+     * Оценивает объем памяти, необходимый для обработки одной части данных:
+     * буфер чтения, буферы записи всех обработчиков и начальные буферы сортировки.
+     * Рост буферов сортировки не учитывается: он ограничивается оставшейся частью бюджета.
+     *
+     * @return объем памяти в байтах
+     */
+    public long estimateSegmentMemory() {
+        long sorted = handlers.stream().filter(handler -> handler.getOutput() instanceof SortedOutputFile).count();
+        return LineReader.BUFFER_SIZE + (long) handlers.size() * outputSettings.bufferSize()
+                + sorted * SortedOutputFile.INITIAL_SORT_MEMORY;
+    }
+
+    /**
+     * Создает менеджер для обработки отдельной части входных данных.
+     * <p>
+     * Менеджер части пишет во временные файлы в указанной директории и собирает
+     * собственную статистику того же уровня. Бюджет памяти у менеджеров общий.
+     * Части обрабатываются параллельно, поэтому менеджер части пишет файлы
+     * в своем потоке, без конвейера. Результат его работы объединяется
+     * с основным менеджером методом {@link #appendSegment(FileManager)}.
+     * Память для сортировки чисел ({@code --sort-memory}) делится между одновременно
+     * обрабатываемыми частями.
+     *
+     * @param directory директория для временных файлов
+     * @param prefix    префикс имён временных файлов
+     * @param parts     количество частей, обрабатываемых одновременно
+     * @return менеджер для обработки части данных
+     */
+    public FileManager createSegment(Path directory, String prefix, int parts) throws IOException {
+        return new FileManager(directory, prefix, false, new ManagerSettings(fullStatistics, memoryBudget,
+                outputSettings.synchronous().sortShare(parts), filter.copy(), types, metrics.createSegment(),
+                statisticsSettings, duplicates.copy()));
+    }
+
+    /**
+     * Дописывает результаты обработки части данных в выходные файлы и объединяет статистику
+     * и счетчики производительности.
+     * <p>
+     * Менеджер части должен быть закрыт. После объединения его временные файлы удаляются.
+     *
+     * @param segment менеджер, обработавший часть данных
+     */
+    public void appendSegment(FileManager segment) throws IOException {
+        for (int i = 0; i < handlers.size(); i++) {
+            DataHandler handler = handlers.get(i);
+            DataHandler segmentHandler = segment.handlers.get(i);
+
+            handler.appendSegment(segmentHandler.getOutput().getPath());
+            handler.getStatistics().merge(segmentHandler.getStatistics());
+            Files.deleteIfExists(segmentHandler.getOutput().getPath());
+        }
+        metrics.merge(segment.metrics);
+    }
+
+    /**
+     * Объединяет скетчи для оценки количества различных значений со скетчами,
+     * сохраненными рядом с выходными файлами предыдущими запусками.
+     * <p>
+     * Используется в режиме добавления: оценка относится ко всему выходному файлу,
+     * а не только к строкам текущего запуска. Если скетч не сохранен, учитываются
+     * только строки текущего запуска.
+     *
+     * @throws IllegalArgumentException если сохраненный скетч поврежден или имеет меньшую точность
+     */
+    public void loadDistinctSketches() throws IOException {
+        for (DataHandler handler : handlers) {
+            HyperLogLog sketch = handler.getStatistics().getDistinctSketch();
+            Path path = distinctSketchPath(handler);
+            if (sketch != null && path != null && Files.exists(path)) {
+                try {
+                    sketch.merge(HyperLogLog.fromByteArray(Files.readAllBytes(path)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(path + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Сохраняет скетчи для оценки количества различных значений рядом с выходными файлами
+     * (суффикс {@link #DISTINCT_SKETCH_SUFFIX}), чтобы их можно было объединить
+     * со скетчами следующих запусков.
+     * <p>
+     * Скетч сохраняется только для созданных выходных файлов.
+     */
+    public void saveDistinctSketches() throws IOException {
         for (DataHandler handler : handlers) {
-            if (handler.handle(line)) {
-                return;
+            HyperLogLog sketch = handler.getStatistics().getDistinctSketch();
+            Path path = distinctSketchPath(handler);
+            if (sketch != null && path != null && Files.exists(handler.getOutput().getPath())) {
+                Files.write(path, sketch.toByteArray());
             }
         }
     }
 
+    /**
+     * Возвращает путь к файлу скетча рядом с выходным файлом обработчика.
+     *
+     * @return путь или null, если строки записываются в стандартный вывод
+     */
+    private static Path distinctSketchPath(DataHandler handler) {
+        OutputFile output = handler.getOutput();
+        if (output.isStandardOutput()) {
+            return null;
+        }
+        Path path = output.getPath();
+        return path.resolveSibling(path.getFileName() + DISTINCT_SKETCH_SUFFIX);
+    }
+
+    /**
+     * Возвращает счетчики производительности менеджера.
+     * <p>
+     * Если счетчики не выбраны, возвращаются выключенные счетчики.
+     *
+     * @return счетчики производительности
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Возвращает названия типов данных в порядке статистики: типы набора, затем строки.
+     *
+     * @return список названий типов
+     */
+    public List<String> getTypeNames() {
+        List<String> names = new ArrayList<>();
+        for (DataTypeProvider type : types.types()) {
+            names.add(type.name());
+        }
+        names.add(STRING_TYPE);
+        return names;
+    }
+
+    /**
+     * Возвращает выходные файлы всех обработчиков в порядке статистики.
+     *
+     * @return список выходных файлов
+     */
+    public List<OutputFile> getOutputs() {
+        return handlers.stream()
+                .map(DataHandler::getOutput)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Возвращает список статистик для всех типов данных.
      * <p>
@@ -99,13 +678,60 @@ public class FileManager implements AutoCloseable {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Форматирует сведения о записи в выходные файлы.
+     * <p>
+     * Для каждого созданного файла выводятся количество записанных байтов
+     * и количество операций записи.
+     *
+     * @return строка со сведениями о выходных файлах
+     */
+    public String formatOutputStatistics() {
+        StringBuilder sb = new StringBuilder("Output Files:");
+        for (DataHandler handler : handlers) {
+            OutputFile output = handler.getOutput();
+            if (output.getBytesWritten() > 0) {
+                sb.append("\n  ").append(output.format());
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * Закрывает все обработчики данных.
+     * <p>
+     * Если выбраны контрольные суммы, после закрытия выходных файлов их контрольные суммы
+     * записываются в манифест {@link #CHECKSUM_MANIFEST} в директории для выходных файлов.
+     * Память множества повторов освобождается в бюджете, если менеджер не является менеджером части.
      */
     @Override
     public void close() throws IOException {
         for (DataHandler handler : handlers) {
             handler.close();
         }
+        duplicates.close();
+        if (outputSettings.checksums()) {
+            writeChecksumManifest();
+        }
+    }
+
+    /**
+     * Записывает контрольные суммы созданных выходных файлов в манифест.
+     * <p>
+     * Файлы, записываемые в стандартный вывод, в манифест не включаются. Если выходные файлы
+     * не созданы, манифест не записывается.
+     */
+    private void writeChecksumManifest() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (DataHandler handler : handlers) {
+            OutputFile output = handler.getOutput();
+            Checksums checksums = output.getChecksums();
+            if (checksums != null) {
+                lines.add(checksums.format(output.getPath().getFileName().toString()));
+            }
+        }
+        if (!lines.isEmpty()) {
+            Files.write(outputDir.resolve(prefix + CHECKSUM_MANIFEST), lines, StandardCharsets.UTF_8);
+        }
     }
 }
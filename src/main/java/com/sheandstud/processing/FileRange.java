@@ -0,0 +1,75 @@
+package com.sheandstud.processing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Диапазон байтов входного файла {@code [start, end)}, начинающийся с начала строки.
+ *
+ * @param path  путь к входному файлу
+ * @param start позиция первого байта диапазона
+ * @param end   позиция, следующая за последним байтом диапазона
+ */
+public record FileRange(Path path, long start, long end) {
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Разбивает файл на диапазоны размером около {@code chunkSize} байтов.
+     * <p>
+     * Границы диапазонов сдвигаются вперед до ближайшего символа '\n',
+     * поэтому каждая строка целиком попадает ровно в один диапазон,
+     * а пара "\r\n" никогда не разрывается.
+     *
+     * @param path      путь к входному файлу
+     * @param chunkSize желаемый размер диапазона в байтах
+     * @return список диапазонов в порядке следования в файле
+     */
+    public static List<FileRange> split(Path path, long chunkSize) throws IOException {
+        List<FileRange> ranges = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long start = 0;
+
+            while (start < size) {
+                long end = start + chunkSize >= size ? size : findLineEnd(channel, start + chunkSize - 1, size, buffer);
+                ranges.add(new FileRange(path, start, end));
+                start = end;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Ищет позицию, следующую за первым символом '\n', начиная с заданной позиции.
+     *
+     * @param channel  канал входного файла
+     * @param position позиция начала поиска
+     * @param size     размер файла
+     * @param buffer   буфер для чтения
+     * @return позиция начала следующей строки или размер файла, если '\n' не найден
+     */
+    private static long findLineEnd(FileChannel channel, long position, long size, ByteBuffer buffer)
+            throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,152 @@
+package com.sheandstud.processing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Блок строк для пакетной обработки.
+ * <p>
+ * Строки хранятся подряд в одном массиве байтов в кодировке UTF-8, после каждой строки
+ * записан системный разделитель строк - так же, как в выходных файлах. Поэтому блок,
+ * все строки которого приняты обработчиком, записывается в выходной файл одним
+ * копированием ({@link com.sheandstud.processing.output.OutputFile#writeBlock(LineBlock)}).
+ * <p>
+ * Блок используется повторно: после обработки он очищается методом {@link #clear()}.
+ */
+public final class LineBlock {
+    /**
+     * Разделитель, записываемый после каждой строки блока.
+     */
+    public static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final int capacity;
+    private final int maxLines;
+    private byte[] data;
+    private int[] offsets;
+    private int[] lengths;
+    private int count;
+    private int size;
+
+    /**
+     * Конструктор блока строк.
+     *
+     * @param capacity начальный размер массива данных в байтах
+     * @param maxLines начальное количество строк
+     */
+    public LineBlock(int capacity, int maxLines) {
+        this.capacity = capacity;
+        this.maxLines = maxLines;
+        this.data = new byte[capacity];
+        this.offsets = new int[maxLines];
+        this.lengths = new int[maxLines];
+    }
+
+    /**
+     * Проверяет, поместится ли строка в блок без увеличения массивов.
+     * <p>
+     * В пустой блок помещается строка любой длины.
+     *
+     * @param length длина строки в байтах
+     * @return true, если строку можно добавить
+     */
+    public boolean fits(int length) {
+        return count == 0 || (count < offsets.length && size + length + LINE_SEPARATOR.length <= data.length);
+    }
+
+    /**
+     * Добавляет строку в блок, при необходимости увеличивая массивы.
+     *
+     * @param buffer массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     */
+    public void add(byte[] buffer, int offset, int length) {
+        int required = size + length + LINE_SEPARATOR.length;
+        if (required > data.length) {
+            data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+        }
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(1, count * 2));
+            lengths = Arrays.copyOf(lengths, offsets.length);
+        }
+
+        System.arraycopy(buffer, offset, data, size, length);
+        System.arraycopy(LINE_SEPARATOR, 0, data, size + length, LINE_SEPARATOR.length);
+        offsets[count] = size;
+        lengths[count] = length;
+        count++;
+        size = required;
+    }
+
+    /**
+     * Добавляет строку из другого блока.
+     *
+     * @param block блок строк
+     * @param index номер строки в блоке
+     */
+    public void add(LineBlock block, int index) {
+        add(block.data, block.offsets[index], block.lengths[index]);
+    }
+
+    /**
+     * Очищает блок. Массивы, увеличенные для длинных строк, возвращаются к начальному размеру.
+     */
+    public void clear() {
+        count = 0;
+        size = 0;
+        if (data.length > capacity) {
+            data = new byte[capacity];
+        }
+        if (offsets.length > maxLines) {
+            offsets = new int[maxLines];
+            lengths = new int[maxLines];
+        }
+    }
+
+    /**
+     * Возвращает количество строк в блоке.
+     *
+     * @return количество строк
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Возвращает массив данных блока.
+     *
+     * @return массив байтов со строками и разделителями
+     */
+    public byte[] data() {
+        return data;
+    }
+
+    /**
+     * Возвращает размер данных блока вместе с разделителями строк.
+     *
+     * @return размер в байтах
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает позицию начала строки в массиве данных.
+     *
+     * @param index номер строки
+     * @return позиция начала строки
+     */
+    public int offset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Возвращает длину строки без разделителя.
+     *
+     * @param index номер строки
+     * @return длина строки в байтах
+     */
+    public int length(int index) {
+        return lengths[index];
+    }
+}
@@ -0,0 +1,217 @@
+package com.sheandstud.processing;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.progress.FileProgress;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Класс для чтения строк входных файлов в виде байтов.
+ * <p>
+ * Данные читаются крупными блоками, границы строк ищутся прямо в байтах,
+ * строки передаются получателю как участки буфера без декодирования.
+ * Концом строки, как и в {@link java.io.BufferedReader#readLine()}, считаются
+ * байты '\n', '\r' и пара "\r\n"; в кодировке UTF-8 эти байты не встречаются
+ * внутри многобайтовых символов.
+ * <p>
+ * Память под буфер чтения резервируется в общем бюджете: при нехватке памяти
+ * используется буфер меньшего размера, а строки длиннее буфера читаются
+ * с увеличением буфера сверх бюджета.
+ */
+public final class LineReader {
+    /**
+     * Желаемый размер буфера чтения.
+     */
+    public static final int BUFFER_SIZE = 1024 * 1024;
+    /**
+     * Минимальный размер буфера чтения, используемый при нехватке памяти.
+     */
+    public static final int MIN_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Получатель прочитанных строк.
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+        /**
+         * Обрабатывает прочитанную строку.
+         * <p>
+         * Буфер используется повторно, поэтому данные строки действительны только во время вызова.
+         *
+         * @param buffer буфер с данными
+         * @param offset позиция начала строки
+         * @param length длина строки в байтах без символов конца строки
+         */
+        void accept(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    /**
+     * Источник данных, заполняющий участок буфера.
+     */
+    @FunctionalInterface
+    private interface Source {
+        /**
+         * Читает данные в участок буфера.
+         *
+         * @return количество прочитанных байтов или -1, если данные закончились
+         */
+        int read(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private LineReader() {
+    }
+
+    /**
+     * Читает все строки файла последовательно и передает их получателю.
+     * <p>
+     * Файл читается до конца, поэтому поддерживаются и файлы, размер которых заранее неизвестен,
+     * например именованные каналы.
+     *
+     * @param path         путь к входному файлу
+     * @param memoryBudget бюджет памяти для буфера чтения
+     * @param consumer     получатель строк
+     */
+    public static void read(Path path, MemoryBudget memoryBudget, LineConsumer consumer) throws IOException {
+        read(path, memoryBudget, Metrics.disabled(), FileProgress.none(), consumer);
+    }
+
+    /**
+     * Читает все строки файла последовательно, учитывая объем и время чтения в счетчиках.
+     * <p>
+     * Счетчики хода обработки обновляются один раз на каждый прочитанный участок данных.
+     *
+     * @param path         путь к входному файлу
+     * @param memoryBudget бюджет памяти для буфера чтения
+     * @param metrics      счетчики производительности
+     * @param progress     счетчики хода обработки файла
+     * @param consumer     получатель строк
+     */
+    public static void read(Path path, MemoryBudget memoryBudget, Metrics metrics, FileProgress progress,
+                            LineConsumer consumer) throws IOException {
+        try (ReadableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            read(channel, memoryBudget, metrics, progress, consumer);
+        }
+    }
+
+    /**
+     * Читает все строки из канала до конца данных, например из стандартного ввода.
+     * <p>
+     * Канал не закрывается.
+     *
+     * @param channel      канал с входными данными
+     * @param memoryBudget бюджет памяти для буфера чтения
+     * @param metrics      счетчики производительности
+     * @param progress     счетчики хода обработки
+     * @param consumer     получатель строк
+     */
+    public static void read(ReadableByteChannel channel, MemoryBudget memoryBudget, Metrics metrics,
+                            FileProgress progress, LineConsumer consumer) throws IOException {
+        read((buffer, offset, length) -> channel.read(ByteBuffer.wrap(buffer, offset, length)),
+                memoryBudget, metrics, progress, consumer);
+    }
+
+    /**
+     * Читает все строки диапазона и передает их получателю.
+     * <p>
+     * Используются позиционные чтения {@link FileChannel}, поэтому несколько
+     * диапазонов одного файла можно читать одновременно.
+     *
+     * @param range        диапазон байтов входного файла
+     * @param memoryBudget бюджет памяти для буфера чтения
+     * @param consumer     получатель строк
+     */
+    public static void read(FileRange range, MemoryBudget memoryBudget, LineConsumer consumer) throws IOException {
+        read(range, memoryBudget, Metrics.disabled(), FileProgress.none(), consumer);
+    }
+
+    /**
+     * Читает все строки диапазона, учитывая объем и время чтения в счетчиках.
+     *
+     * @param range        диапазон байтов входного файла
+     * @param memoryBudget бюджет памяти для буфера чтения
+     * @param metrics      счетчики производительности
+     * @param progress     счетчики хода обработки файла
+     * @param consumer     получатель строк
+     */
+    public static void read(FileRange range, MemoryBudget memoryBudget, Metrics metrics, FileProgress progress,
+                            LineConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(range.path(), StandardOpenOption.READ)) {
+            long[] position = {range.start()};
+            read((buffer, offset, length) -> {
+                long remaining = range.end() - position[0];
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position[0]);
+                if (read > 0) {
+                    position[0] += read;
+                }
+                return read;
+            }, memoryBudget, metrics, progress, consumer);
+        }
+    }
+
+    private static void read(Source source, MemoryBudget memoryBudget, Metrics metrics, FileProgress progress,
+                             LineConsumer consumer) throws IOException {
+        byte[] buffer = new byte[memoryBudget.allocate(BUFFER_SIZE, MIN_BUFFER_SIZE)];
+        try {
+            int filled = 0;
+            int lineStart = 0;
+            boolean skipLineFeed = false;
+
+            while (true) {
+                if (lineStart > 0) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                    filled -= lineStart;
+                    lineStart = 0;
+                } else if (filled == buffer.length) {
+                    memoryBudget.reserve(buffer.length);
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+
+                long start = metrics.startAlways();
+                int read = source.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    break;
+                }
+                metrics.addRead(read, start);
+
+                int scan = filled;
+                int lines = 0;
+                filled += read;
+                for (; scan < filled; scan++) {
+                    byte b = buffer[scan];
+                    if (skipLineFeed) {
+                        skipLineFeed = false;
+                        if (b == '\n') {
+                            lineStart = scan + 1;
+                            continue;
+                        }
+                    }
+                    if (b == '\n' || b == '\r') {
+                        consumer.accept(buffer, lineStart, scan - lineStart);
+                        lineStart = scan + 1;
+                        skipLineFeed = b == '\r';
+                        lines++;
+                    }
+                }
+                progress.add(read, lines);
+            }
+
+            if (lineStart < filled) {
+                consumer.accept(buffer, lineStart, filled - lineStart);
+                progress.add(0, 1);
+            }
+        } finally {
+            memoryBudget.release(buffer.length);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sheandstud.processing;
+
+import com.sheandstud.processing.filter.DuplicateFilter;
+import com.sheandstud.processing.filter.LineFilter;
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.output.OutputSettings;
+import com.sheandstud.processing.statistics.StatisticsSettings;
+import com.sheandstud.processing.types.TypeRegistry;
+
+/**
+ * Параметры обработки строк менеджером файлов ({@link FileManager}).
+ *
+ * @param fullStatistics     true - собирается полная статистика, false - только количество
+ * @param memoryBudget       бюджет памяти для буферов чтения и записи
+ * @param outputSettings     параметры записи выходных файлов
+ * @param filter             фильтр строк, применяемый до их обработки
+ * @param types              типы данных в порядке приоритета
+ * @param metrics            счетчики производительности
+ * @param statisticsSettings параметры дополнительных показателей статистики
+ * @param duplicates         фильтр повторяющихся строк
+ */
+public record ManagerSettings(boolean fullStatistics, MemoryBudget memoryBudget, OutputSettings outputSettings,
+                              LineFilter filter, TypeRegistry types, Metrics metrics,
+                              StatisticsSettings statisticsSettings, DuplicateFilter duplicates) {
+    /**
+     * Возвращает параметры по умолчанию: память не ограничена, строки не фильтруются,
+     * типы данных по умолчанию, счетчики производительности и дополнительные показатели
+     * статистики не собираются.
+     *
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     * @return параметры по умолчанию
+     */
+    public static ManagerSettings defaults(boolean fullStatistics) {
+        return new ManagerSettings(fullStatistics, MemoryBudget.unlimited(), OutputSettings.defaults(),
+                LineFilter.acceptAll(), TypeRegistry.defaults(), Metrics.disabled(), StatisticsSettings.defaults(),
+                DuplicateFilter.acceptAll());
+    }
+
+    /**
+     * Возвращает параметры с другими параметрами записи.
+     *
+     * @param outputSettings параметры записи выходных файлов
+     * @return параметры с заданными параметрами записи
+     */
+    public ManagerSettings withOutputSettings(OutputSettings outputSettings) {
+        return new ManagerSettings(fullStatistics, memoryBudget, outputSettings, filter, types, metrics,
+                statisticsSettings, duplicates);
+    }
+}
@@ -0,0 +1,167 @@
+package com.sheandstud.processing;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Класс для параллельной обработки входных данных по частям.
+ * <p>
+ * Частью может быть целый входной файл или диапазон байтов большого файла ({@link FileRange}).
+ * Каждая часть обрабатывается в отдельной задаче собственным менеджером части
+ * ({@link FileManager#createSegment(Path, String, int)}), который пишет во временные файлы
+ * и собирает собственную статистику. Готовые части объединяются с основным менеджером
+ * строго в порядке следования, поэтому содержимое выходных файлов и статистика
+ * совпадают с последовательной обработкой.
+ * <p>
+ * Если задан бюджет памяти, количество одновременно обрабатываемых частей
+ * ограничивается так, чтобы буферы всех частей помещались в бюджет.
+ * Результаты готовых частей хранятся на диске во временных файлах до объединения.
+ * <p>
+ * Если отбрасываются повторяющиеся строки ({@link FileManager#getDuplicateFilter()}),
+ * части обрабатываются по очереди в одном потоке. Множество значений общее для всех частей
+ * и заполняется при обработке строк, а не при объединении, поэтому при одновременной обработке
+ * из равных значений разных частей сохранялось бы то, которое раньше обработано, а не то,
+ * которое раньше встречается во входных данных.
+ */
+public class ParallelProcessor {
+
+    /**
+     * Обработка одной части входных данных менеджером части.
+     */
+    @FunctionalInterface
+    public interface SegmentTask {
+        /**
+         * Обрабатывает часть входных данных.
+         *
+         * @param manager менеджер части, в который передаются строки
+         */
+        void process(FileManager manager) throws IOException;
+    }
+
+    private final FileManager manager;
+    private final int threads;
+
+    /**
+     * Конструктор параллельного обработчика.
+     *
+     * @param manager основной менеджер файлов, в который объединяются результаты
+     * @param threads количество потоков обработки
+     */
+    public ParallelProcessor(FileManager manager, int threads) {
+        this.manager = manager;
+        this.threads = threads;
+    }
+
+    /**
+     * Обрабатывает части входных данных параллельно.
+     * <p>
+     * Временные файлы частей создаются в директории для выходных файлов
+     * и удаляются после объединения.
+     *
+     * @param tasks задачи обработки частей в порядке следования данных
+     */
+    public void process(List<SegmentTask> tasks) throws IOException {
+        Path segmentDir = Files.createTempDirectory(manager.getOutputDirectory(), ".segments-");
+        int workers = getWorkerCount();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        try {
+            List<Future<FileManager>> segments = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                SegmentTask task = tasks.get(i);
+                String prefix = "part-" + i + "-";
+                segments.add(executor.submit(() -> {
+                    FileManager segment = manager.createSegment(segmentDir, prefix, workers);
+                    segment.getMetrics().startThread();
+                    try (segment) {
+                        task.process(segment);
+                    } finally {
+                        segment.getMetrics().stopThread();
+                    }
+                    return segment;
+                }));
+            }
+
+            for (Future<FileManager> segment : segments) {
+                manager.appendSegment(await(segment));
+            }
+        } finally {
+            executor.shutdownNow();
+            deleteDirectory(segmentDir);
+        }
+    }
+
+    /**
+     * Определяет количество потоков с учётом бюджета памяти.
+     * <p>
+     * Если бюджета не хватает на буферы всех потоков, количество потоков уменьшается
+     * (но не меньше одного) и выводится предупреждение. Если отбрасываются повторяющиеся
+     * строки, используется один поток.
+     *
+     * @return количество потоков обработки
+     */
+    private int getWorkerCount() {
+        if (manager.getDuplicateFilter().isEnabled()) {
+            if (threads > 1) {
+                System.err.println("Duplicate removal processes parts in one thread to keep the first of equal values");
+            }
+            return 1;
+        }
+        MemoryBudget budget = manager.getMemoryBudget();
+        if (!budget.isLimited()) {
+            return threads;
+        }
+
+        long affordable = budget.available() / manager.estimateSegmentMemory();
+        int workers = (int) Math.max(1, Math.min(threads, affordable));
+        if (workers < threads) {
+            System.err.println("Memory budget allows only " + workers + " of " + threads + " threads");
+        }
+        return workers;
+    }
+
+    /**
+     * Ожидает завершения обработки части.
+     *
+     * @param segment результат задачи обработки части
+     * @return менеджер, обработавший часть
+     */
+    private static FileManager await(Future<FileManager> segment) throws IOException {
+        try {
+            return segment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for segment processing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Error processing segment: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Удаляет директорию временных файлов вместе с содержимым.
+     *
+     * @param directory директория для удаления
+     */
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
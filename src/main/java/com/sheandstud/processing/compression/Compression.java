@@ -0,0 +1,157 @@
+package com.sheandstud.processing.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Определение формата сжатия входных данных по первым байтам.
+ * <p>
+ * Поддерживается распаковка gzip ({@link GzipInputChannel}). Форматы zstd и xz
+ * распознаются, чтобы сообщить о них понятной ошибкой, а не обрабатывать
+ * сжатые байты как строки. Сигнатуры всех форматов содержат байты, невозможные
+ * в начале текста в кодировке UTF-8, поэтому текстовые файлы не принимаются за сжатые.
+ */
+public final class Compression {
+    private static final int SIGNATURE_LENGTH = 6;
+
+    /**
+     * Форматы сжатия входных данных.
+     */
+    public enum Format {
+        /**
+         * Данные не сжаты.
+         */
+        NONE(),
+        /**
+         * gzip (RFC 1952).
+         */
+        GZIP(0x1F, 0x8B),
+        /**
+         * Zstandard.
+         */
+        ZSTD(0x28, 0xB5, 0x2F, 0xFD),
+        /**
+         * xz.
+         */
+        XZ(0xFD, 0x37, 0x7A, 0x58, 0x5A, 0x00);
+
+        private final int[] signature;
+
+        Format(int... signature) {
+            this.signature = signature;
+        }
+
+        private boolean matches(ByteBuffer head) {
+            if (signature.length == 0 || head.remaining() < signature.length) {
+                return false;
+            }
+            for (int i = 0; i < signature.length; i++) {
+                if ((head.get(head.position() + i) & 0xFF) != signature[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private Compression() {
+    }
+
+    /**
+     * Определяет формат сжатия по первым байтам данных.
+     *
+     * @param head первые байты данных (от позиции до границы буфера)
+     * @return формат сжатия или {@link Format#NONE}
+     */
+    public static Format detect(ByteBuffer head) {
+        for (Format format : Format.values()) {
+            if (format.matches(head)) {
+                return format;
+            }
+        }
+        return Format.NONE;
+    }
+
+    /**
+     * Определяет формат сжатия файла.
+     *
+     * @param path путь к файлу
+     * @return формат сжатия или {@link Format#NONE}
+     */
+    public static Format detect(Path path) throws IOException {
+        try (ReadableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            return detect(readHead(channel));
+        }
+    }
+
+    /**
+     * Открывает входные данные с учетом сжатия.
+     * <p>
+     * Первые байты читаются из канала для определения формата и затем возвращаются
+     * в начало данных. Данные gzip распаковываются в отдельном потоке.
+     *
+     * @param channel канал с входными данными
+     * @param name    имя источника для названия потока распаковки
+     * @return канал с несжатыми данными
+     * @throws UnsupportedCompressionException если данные сжаты неподдерживаемым способом
+     */
+    public static ReadableByteChannel open(ReadableByteChannel channel, String name) throws IOException {
+        ByteBuffer head = readHead(channel);
+        ReadableByteChannel source = new PrefixedChannel(head, channel);
+        return switch (detect(head)) {
+            case NONE -> source;
+            case GZIP -> new GzipInputChannel(source, name);
+            case ZSTD, XZ -> throw new UnsupportedCompressionException(detect(head));
+        };
+    }
+
+    private static ByteBuffer readHead(ReadableByteChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(SIGNATURE_LENGTH);
+        // Каналы, например стандартного ввода, могут возвращать данные частями.
+        while (head.hasRemaining()) {
+            if (channel.read(head) < 0) {
+                break;
+            }
+        }
+        return head.flip();
+    }
+
+    /**
+     * Канал, который сначала возвращает уже прочитанные первые байты, а затем данные исходного канала.
+     */
+    private static final class PrefixedChannel implements ReadableByteChannel {
+        private final ByteBuffer prefix;
+        private final ReadableByteChannel channel;
+
+        PrefixedChannel(ByteBuffer prefix, ReadableByteChannel channel) {
+            this.prefix = prefix;
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!prefix.hasRemaining()) {
+                return channel.read(dst);
+            }
+            int count = Math.min(prefix.remaining(), dst.remaining());
+            dst.put(dst.position(), prefix, prefix.position(), count);
+            dst.position(dst.position() + count);
+            prefix.position(prefix.position() + count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.sheandstud.processing.compression;
+
+import com.sheandstud.processing.pipeline.SpscRing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Канал с данными gzip, распакованными в отдельном потоке.
+ * <p>
+ * Поток распаковки заполняет фрагменты данных и передает их через {@link SpscRing}
+ * потоку, читающему канал, поэтому распаковка выполняется одновременно с разбором строк.
+ * Фрагменты используются повторно, а их количество ограничено, поэтому объем
+ * распакованных, но еще не прочитанных данных ограничен.
+ * Поддерживаются файлы из нескольких сжатых частей, например дописанные в режиме добавления.
+ */
+final class GzipInputChannel implements ReadableByteChannel {
+    private static final int CHUNK_COUNT = 4;
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+    private static final Chunk END = new Chunk(0);
+
+    private final ReadableByteChannel source;
+    private final SpscRing<Chunk> filled = new SpscRing<>(CHUNK_COUNT + 1);
+    private final SpscRing<Chunk> free = new SpscRing<>(CHUNK_COUNT);
+    private final Thread inflater;
+    private volatile IOException error;
+    private Chunk current;
+    private boolean open = true;
+
+    /**
+     * Фрагмент распакованных данных.
+     */
+    private static final class Chunk {
+        final byte[] data;
+        int length;
+        int position;
+
+        Chunk(int capacity) {
+            data = new byte[capacity];
+        }
+    }
+
+    /**
+     * Запускает поток распаковки данных канала.
+     *
+     * @param source канал со сжатыми данными
+     * @param name   имя источника для названия потока распаковки
+     */
+    GzipInputChannel(ReadableByteChannel source, String name) {
+        this.source = source;
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            free.offer(new Chunk(CHUNK_SIZE));
+        }
+        inflater = new Thread(this::inflate, "gunzip-" + name);
+        inflater.setDaemon(true);
+        inflater.start();
+    }
+
+    private void inflate() {
+        try (InputStream input = new GZIPInputStream(Channels.newInputStream(source), INPUT_BUFFER_SIZE)) {
+            while (true) {
+                Chunk chunk = free.take();
+                chunk.length = input.readNBytes(chunk.data, 0, chunk.data.length);
+                chunk.position = 0;
+                if (chunk.length == 0) {
+                    break;
+                }
+                filled.put(chunk);
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            error = new IOException(e.getMessage(), e);
+        } finally {
+            filled.offer(END);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        while (current == null || current.position == current.length) {
+            if (current == END) {
+                return -1;
+            }
+            if (current != null) {
+                free.put(current);
+            }
+            current = filled.take();
+            if (current == END && error != null) {
+                throw new IOException("Error decompressing gzip input: " + error.getMessage(), error);
+            }
+        }
+        int count = Math.min(dst.remaining(), current.length - current.position);
+        dst.put(current.data, current.position, count);
+        current.position += count;
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Останавливает поток распаковки и закрывает исходный канал.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        free.abort(new ClosedChannelException());
+        inflater.interrupt();
+        try {
+            inflater.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompression thread");
+        } finally {
+            source.close();
+        }
+    }
+}
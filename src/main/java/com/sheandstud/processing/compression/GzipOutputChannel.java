@@ -0,0 +1,145 @@
+package com.sheandstud.processing.compression;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Канал, сжимающий записываемые данные в формат gzip (RFC 1952) с помощью {@link Deflater}.
+ * <p>
+ * Сжатые данные накапливаются в прямом буфере и записываются в канал назначения крупными блоками.
+ * Метод {@link #close()} записывает окончание потока gzip, но не закрывает канал
+ * назначения, поэтому его можно использовать и для стандартного вывода.
+ * При дописывании к существующему файлу создается новая часть gzip, такие файлы
+ * распаковываются стандартными средствами целиком.
+ * <p>
+ * Буфер сжатых данных и оценка собственной памяти {@link Deflater} резервируются в бюджете
+ * памяти при создании канала и освобождаются при его закрытии; если бюджета не хватает,
+ * используется буфер меньшего размера.
+ */
+public final class GzipOutputChannel implements WritableByteChannel {
+    private static final byte[] HEADER = {0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xFF};
+    private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+    private static final int MIN_OUTPUT_BUFFER_SIZE = 8 * 1024;
+    /**
+     * Оценка памяти, которую zlib выделяет вне кучи под состояние сжатия
+     * с параметрами по умолчанию: окно и хеш-таблицы.
+     */
+    static final int DEFLATER_MEMORY = 256 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final WritableByteChannel target;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final MemoryBudget memoryBudget;
+    private final ByteBuffer output;
+    private long size;
+    private boolean open = true;
+
+    /**
+     * Создает сжимающий канал и записывает заголовок gzip.
+     *
+     * @param target канал назначения
+     * @param level  уровень сжатия от 1 (быстрее) до 9 (сильнее)
+     */
+    public GzipOutputChannel(WritableByteChannel target, int level) throws IOException {
+        this(target, level, MemoryBudget.unlimited());
+    }
+
+    /**
+     * Создает сжимающий канал, резервируя память в бюджете, и записывает заголовок gzip.
+     *
+     * @param target       канал назначения
+     * @param level        уровень сжатия от 1 (быстрее) до 9 (сильнее)
+     * @param memoryBudget бюджет памяти для буфера и состояния сжатия
+     */
+    public GzipOutputChannel(WritableByteChannel target, int level, MemoryBudget memoryBudget) throws IOException {
+        this.target = target;
+        this.memoryBudget = memoryBudget;
+        memoryBudget.reserve(DEFLATER_MEMORY);
+        this.output = ByteBuffer.allocateDirect(memoryBudget.allocate(OUTPUT_BUFFER_SIZE, MIN_OUTPUT_BUFFER_SIZE));
+        this.deflater = new Deflater(level, true);
+        try {
+            writeFully(ByteBuffer.wrap(HEADER));
+        } catch (IOException e) {
+            release();
+            throw e;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int count = src.remaining();
+        crc.update(src.duplicate());
+        size += count;
+        deflater.setInput(src);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+        // Буфер вызывающей стороны используется повторно, поэтому ссылка на него не сохраняется.
+        deflater.setInput(EMPTY);
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Дописывает оставшиеся сжатые данные и окончание потока gzip: контрольную сумму CRC-32
+     * и размер несжатых данных. Канал назначения не закрывается.
+     * Зарезервированная память возвращается в бюджет.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt((int) crc.getValue()).putInt((int) size).flip();
+            writeFully(trailer);
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        deflater.end();
+        memoryBudget.release(DEFLATER_MEMORY + output.capacity());
+    }
+
+    /**
+     * Сжимает очередную часть данных. Сжатые данные записываются в канал назначения,
+     * только когда буфер заполнен или поток gzip закончен, поэтому запись мелкими
+     * частями не приводит к мелким операциям записи.
+     */
+    private void deflate() throws IOException {
+        deflater.deflate(output);
+        if (!output.hasRemaining() || deflater.finished()) {
+            writeFully(output.flip());
+            output.clear();
+        }
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            target.write(data);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.sheandstud.processing.compression;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Исключение, выбрасываемое для входных данных, сжатых неподдерживаемым способом.
+ */
+public class UnsupportedCompressionException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Создает исключение для формата сжатия.
+     *
+     * @param format формат сжатия
+     */
+    public UnsupportedCompressionException(Compression.Format format) {
+        super(format.name().toLowerCase(Locale.ROOT) + "-compressed input is not supported");
+    }
+}
@@ -0,0 +1,270 @@
+package com.sheandstud.processing.filter;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.parsing.DataType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * Фильтр повторяющихся строк ({@code --distinct}), применяемый после {@link LineFilter}.
+ * <p>
+ * Для каждой строки вычисляется 128-битный хеш (MurmurHash3 x64/128) с учетом типа данных,
+ * и строка пропускается, только если хеш добавлен в общее множество {@link DistinctSet} впервые.
+ * Целые и вещественные числа хешируются по нормализованному значению, поэтому
+ * {@code +5}, {@code 5} и {@code 005}, как и {@code 1.5}, {@code 1.50} и {@code 15e-1},
+ * считаются одним значением и записывается только первое из них. Строки остальных типов
+ * сравниваются по байтам.
+ * <p>
+ * Фильтр хранит буфер для нормализации чисел, поэтому каждому менеджеру файлов нужен
+ * собственный экземпляр ({@link #copy()}); множество значений у копий общее
+ * и освобождается только исходным фильтром ({@link #close()}).
+ * Чтобы сохранялось первое из равных значений, части данных с общим множеством
+ * обрабатываются по очереди ({@link com.sheandstud.processing.ParallelProcessor}).
+ */
+public final class DuplicateFilter {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final long EXPONENT_SEED = 0x9E3779B97F4A7C15L;
+    private static final int MAX_EXPONENT_DIGITS = 18;
+    private static final int RAW = 0;
+    private static final int INTEGER = 1;
+    private static final int FLOAT = 2;
+    private static final int NEGATIVE = 4;
+
+    private final DistinctSet set;
+    private final boolean owner;
+    private byte[] digits = new byte[64];
+    private long hash1;
+    private long hash2;
+
+    /**
+     * Конструктор фильтра.
+     *
+     * @param set множество учтенных значений или null, если повторы не отбрасываются
+     */
+    public DuplicateFilter(DistinctSet set) {
+        this(set, true);
+    }
+
+    private DuplicateFilter(DistinctSet set, boolean owner) {
+        this.set = set;
+        this.owner = owner;
+    }
+
+    /**
+     * Создает фильтр, пропускающий все строки.
+     *
+     * @return фильтр без множества значений
+     */
+    public static DuplicateFilter acceptAll() {
+        return new DuplicateFilter(null);
+    }
+
+    /**
+     * Создает копию фильтра с тем же множеством значений и собственным буфером.
+     *
+     * @return копия фильтра
+     */
+    public DuplicateFilter copy() {
+        return new DuplicateFilter(set, false);
+    }
+
+    /**
+     * Освобождает память множества значений в бюджете; у копий ничего не происходит.
+     */
+    public void close() {
+        if (set != null && owner) {
+            set.release();
+        }
+    }
+
+    /**
+     * Проверяет, отбрасываются ли повторяющиеся строки.
+     *
+     * @return true, если у фильтра есть множество значений
+     */
+    public boolean isEnabled() {
+        return set != null;
+    }
+
+    /**
+     * Проверяет, встречается ли значение строки впервые, и запоминает его.
+     *
+     * @param type   номер типа данных строки: значения разных типов не сравниваются
+     * @param kind   тип числа для нормализации или null, если строка сравнивается по байтам
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если строку нужно обработать, false - если это повтор
+     */
+    public boolean accepts(int type, DataType kind, byte[] data, int offset, int length) {
+        if (set == null) {
+            return true;
+        }
+        if (kind == DataType.INTEGER) {
+            hashInteger(type, data, offset, length);
+        } else if (kind != DataType.FLOAT || !hashFloat(type, data, offset, length)) {
+            hash(data, offset, length, seed(type, RAW));
+        }
+        return set.add(hash1, hash2);
+    }
+
+    /**
+     * Форматирует сведения об отброшенных повторах.
+     *
+     * @return строка со сведениями или пустая строка, если повторы не отбрасываются
+     */
+    public String format() {
+        if (set == null) {
+            return "";
+        }
+        String mode = set.isExact() ? "exact" : String.format(Locale.ROOT,
+                "Bloom filter, false positive rate %.4f%%", 100 * set.falsePositiveRate());
+        return "Duplicates:\n  Removed: " + set.duplicates()
+                + "\n  Distinct: " + set.size() + " (" + mode + ")"
+                + "\n  Memory: " + MemoryBudget.formatSize(set.memoryUsage())
+                + " of " + MemoryBudget.formatSize(set.memoryLimit());
+    }
+
+    /**
+     * Хеширует целое число {@code [-+]?\d+} по цифрам без знака {@code +} и ведущих нулей.
+     */
+    private void hashInteger(int type, byte[] data, int offset, int length) {
+        int end = offset + length;
+        boolean negative = data[offset] == '-';
+        int start = data[offset] == '-' || data[offset] == '+' ? offset + 1 : offset;
+        while (start < end - 1 && data[start] == '0') {
+            start++;
+        }
+        if (data[start] == '0') {
+            negative = false;
+        }
+        hash(data, start, end - start, seed(type, INTEGER | (negative ? NEGATIVE : 0)));
+    }
+
+    /**
+     * Хеширует вещественное число по значащим цифрам мантиссы и показателю степени:
+     * {@code 1.50}, {@code 1.5} и {@code 15e-1} имеют одни цифры {@code 15} и показатель {@code -1}.
+     *
+     * @return false, если показатель степени слишком длинный и строку нужно хешировать по байтам
+     */
+    private boolean hashFloat(int type, byte[] data, int offset, int length) {
+        if (digits.length < length) {
+            digits = new byte[length];
+        }
+        int end = offset + length;
+        int i = offset;
+        boolean negative = data[i] == '-';
+        if (data[i] == '-' || data[i] == '+') {
+            i++;
+        }
+        int count = 0;
+        int fraction = 0;
+        boolean inFraction = false;
+        for (; i < end && data[i] != 'e' && data[i] != 'E'; i++) {
+            if (data[i] == '.') {
+                inFraction = true;
+                continue;
+            }
+            if (inFraction) {
+                fraction++;
+            }
+            if (count > 0 || data[i] != '0') {
+                digits[count++] = data[i];
+            }
+        }
+        long exponent = 0;
+        if (i < end) {
+            i++;
+            boolean negativeExponent = data[i] == '-';
+            if (data[i] == '-' || data[i] == '+') {
+                i++;
+            }
+            while (i < end - 1 && data[i] == '0') {
+                i++;
+            }
+            if (end - i > MAX_EXPONENT_DIGITS) {
+                return false;
+            }
+            for (; i < end; i++) {
+                exponent = exponent * 10 + (data[i] - '0');
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        exponent -= fraction;
+        while (count > 0 && digits[count - 1] == '0') {
+            count--;
+            exponent++;
+        }
+        if (count == 0) {
+            negative = false;
+            exponent = 0;
+        }
+        hash(digits, 0, count, seed(type, FLOAT | (negative ? NEGATIVE : 0)) ^ exponent * EXPONENT_SEED);
+        return true;
+    }
+
+    private static long seed(int type, int tag) {
+        return (long) type << 3 | tag;
+    }
+
+    /**
+     * Вычисляет 128-битный хеш MurmurHash3 x64/128 и сохраняет его в {@code hash1} и {@code hash2}.
+     */
+    private void hash(byte[] data, int offset, int length, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+        int end = offset + length;
+        int i = offset;
+        for (; i + 2 * Long.BYTES <= end; i += 2 * Long.BYTES) {
+            h1 ^= mixKey1((long) LONGS.get(data, i));
+            h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+            h2 ^= mixKey2((long) LONGS.get(data, i + Long.BYTES));
+            h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        for (int shift = 0; i < end; i++, shift += 8) {
+            if (shift < Long.SIZE) {
+                k1 |= (data[i] & 0xFFL) << shift;
+            } else {
+                k2 |= (data[i] & 0xFFL) << (shift - Long.SIZE);
+            }
+        }
+        h2 ^= mixKey2(k2);
+        h1 ^= mixKey1(k1);
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = mix(h1);
+        h2 = mix(h2);
+        h1 += h2;
+        h2 += h1;
+        hash1 = h1;
+        hash2 = h2;
+    }
+
+    private static long mixKey1(long key) {
+        return Long.rotateLeft(key * C1, 31) * C2;
+    }
+
+    private static long mixKey2(long key) {
+        return Long.rotateLeft(key * C2, 33) * C1;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9e63b3f5a5dL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
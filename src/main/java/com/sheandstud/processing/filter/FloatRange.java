@@ -0,0 +1,93 @@
+package com.sheandstud.processing.filter;
+
+import com.sheandstud.processing.parsing.DecimalParser;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Диапазон вещественных чисел для фильтра {@code --float-range}.
+ * <p>
+ * Число разбирается в компактное представление {@link DecimalParser} и сравнивается
+ * с границами без создания объектов. {@link BigDecimal} используется только для чисел
+ * и границ, которые нельзя представить в компактном виде.
+ */
+public final class FloatRange {
+    private final Bound min;
+    private final Bound max;
+
+    /**
+     * Граница диапазона в точном и, если возможно, в компактном виде.
+     */
+    private record Bound(BigDecimal value, boolean compact, long unscaled, int scale) {
+        static Bound of(BigDecimal value) {
+            boolean compact = value.precision() <= 18;
+            return new Bound(value, compact, compact ? value.unscaledValue().longValue() : 0, value.scale());
+        }
+    }
+
+    /**
+     * Конструктор диапазона.
+     *
+     * @param min нижняя граница включительно или null, если не ограничена
+     * @param max верхняя граница включительно или null, если не ограничена
+     */
+    public FloatRange(BigDecimal min, BigDecimal max) {
+        this.min = min == null ? null : Bound.of(min);
+        this.max = max == null ? null : Bound.of(max);
+    }
+
+    /**
+     * Разбирает диапазон вида {@code MIN:MAX}, любая из границ может быть опущена.
+     *
+     * @param value строка диапазона, например "-1.5:2e3" или ":0"
+     * @return диапазон
+     * @throws IllegalArgumentException если строка не является диапазоном чисел
+     */
+    public static FloatRange parse(String value) {
+        String[] bounds = RangeSyntax.split(value);
+        try {
+            BigDecimal min = bounds[0].isEmpty() ? null : new BigDecimal(bounds[0]);
+            BigDecimal max = bounds[1].isEmpty() ? null : new BigDecimal(bounds[1]);
+            if (min != null && max != null && min.compareTo(max) > 0) {
+                throw new IllegalArgumentException("Empty range: " + value);
+            }
+            return new FloatRange(min, max);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid float range: " + value, e);
+        }
+    }
+
+    /**
+     * Проверяет, входит ли вещественное число в диапазон.
+     * <p>
+     * Если строку нельзя разобрать как число, она не отбрасывается: такую строку
+     * обработчик вещественных чисел не примет, и она будет обработана как строка.
+     *
+     * @param data   байты строки, распознанной как вещественное число
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @param parser парсер для разбора числа
+     * @return true, если число входит в диапазон или не может быть разобрано
+     */
+    public boolean contains(byte[] data, int offset, int length, DecimalParser parser) {
+        if (parser.parse(data, offset, length)) {
+            return (min == null || compare(parser.unscaled(), parser.scale(), min) >= 0)
+                    && (max == null || compare(parser.unscaled(), parser.scale(), max) <= 0);
+        }
+        if (!DecimalParser.isValid(data, offset, length)) {
+            return true;
+        }
+
+        BigDecimal number = new BigDecimal(new String(data, offset, length, StandardCharsets.US_ASCII));
+        return (min == null || number.compareTo(min.value()) >= 0)
+                && (max == null || number.compareTo(max.value()) <= 0);
+    }
+
+    private static int compare(long unscaled, int scale, Bound bound) {
+        if (bound.compact()) {
+            return DecimalParser.compare(unscaled, scale, bound.unscaled(), bound.scale());
+        }
+        return BigDecimal.valueOf(unscaled, scale).compareTo(bound.value());
+    }
+}
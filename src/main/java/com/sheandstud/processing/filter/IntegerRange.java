@@ -0,0 +1,101 @@
+package com.sheandstud.processing.filter;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Диапазон целых чисел для фильтра {@code --int-range}.
+ * <p>
+ * Проверка выполняется прямо по цифрам строки, без разбора числа:
+ * сначала сравниваются знаки, затем количество значащих цифр, затем сами цифры.
+ * Поэтому отброшенные значения не преобразуются ни в long, ни в {@link BigInteger}.
+ */
+public final class IntegerRange {
+    private final Bound min;
+    private final Bound max;
+
+    /**
+     * Граница диапазона: знак и значащие цифры модуля.
+     */
+    private record Bound(int sign, byte[] digits) {
+        static Bound of(BigInteger value) {
+            return new Bound(value.signum(), value.abs().toString().getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Конструктор диапазона.
+     *
+     * @param min нижняя граница включительно или null, если не ограничена
+     * @param max верхняя граница включительно или null, если не ограничена
+     */
+    public IntegerRange(BigInteger min, BigInteger max) {
+        this.min = min == null ? null : Bound.of(min);
+        this.max = max == null ? null : Bound.of(max);
+    }
+
+    /**
+     * Разбирает диапазон вида {@code MIN:MAX}, любая из границ может быть опущена.
+     *
+     * @param value строка диапазона, например "-10:100" или "0:"
+     * @return диапазон
+     * @throws IllegalArgumentException если строка не является диапазоном целых чисел
+     */
+    public static IntegerRange parse(String value) {
+        String[] bounds = RangeSyntax.split(value);
+        try {
+            BigInteger min = bounds[0].isEmpty() ? null : new BigInteger(bounds[0]);
+            BigInteger max = bounds[1].isEmpty() ? null : new BigInteger(bounds[1]);
+            if (min != null && max != null && min.compareTo(max) > 0) {
+                throw new IllegalArgumentException("Empty range: " + value);
+            }
+            return new IntegerRange(min, max);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer range: " + value, e);
+        }
+    }
+
+    /**
+     * Проверяет, входит ли целое число в диапазон.
+     *
+     * @param data   байты строки, распознанной как целое число
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если число входит в диапазон
+     */
+    public boolean contains(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int sign = 1;
+        if (data[offset] == '-' || data[offset] == '+') {
+            sign = data[offset] == '-' ? -1 : 1;
+            offset++;
+        }
+        while (offset < end - 1 && data[offset] == '0') {
+            offset++;
+        }
+        if (end - offset == 1 && data[offset] == '0') {
+            sign = 0;
+        }
+
+        return (min == null || compare(sign, data, offset, end, min) >= 0)
+                && (max == null || compare(sign, data, offset, end, max) <= 0);
+    }
+
+    /**
+     * Сравнивает число, заданное знаком и значащими цифрами, с границей.
+     */
+    private static int compare(int sign, byte[] data, int from, int to, Bound bound) {
+        if (sign != bound.sign()) {
+            return Integer.compare(sign, bound.sign());
+        }
+        if (sign == 0) {
+            return 0;
+        }
+
+        int result = Integer.compare(to - from, bound.digits().length);
+        for (int i = 0; result == 0 && i < bound.digits().length; i++) {
+            result = Integer.compare(data[from + i], bound.digits()[i]);
+        }
+        return sign * result;
+    }
+}
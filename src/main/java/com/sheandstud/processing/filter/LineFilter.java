@@ -0,0 +1,111 @@
+package com.sheandstud.processing.filter;
+
+import com.sheandstud.processing.parsing.DataType;
+import com.sheandstud.processing.parsing.DecimalParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Фильтр строк, применяемый после определения типа строки и до её обработки.
+ * <p>
+ * Отброшенная строка не разбирается в {@link java.math.BigInteger} или
+ * {@link java.math.BigDecimal}, не учитывается в статистике и не записывается
+ * в выходные файлы. Для каждого типа данных задается свое условие:
+ * <ul>
+ *   <li>целые числа - диапазон {@code --int-range};</li>
+ *   <li>вещественные числа - диапазон {@code --float-range};</li>
+ *   <li>строки - префикс {@code --string-prefix} и регулярное выражение
+ *   {@code --string-regex}, которое должно найтись в строке.</li>
+ * </ul>
+ * Строки дополнительных типов данных ({@code --types}) не фильтруются.
+ * Фильтр хранит парсер чисел, поэтому каждому менеджеру файлов нужен
+ * собственный экземпляр ({@link #copy()}).
+ */
+public final class LineFilter {
+    private final IntegerRange integerRange;
+    private final FloatRange floatRange;
+    private final byte[] stringPrefix;
+    private final Pattern stringPattern;
+    private final DecimalParser parser = new DecimalParser();
+
+    /**
+     * Конструктор фильтра.
+     *
+     * @param integerRange  диапазон целых чисел или null
+     * @param floatRange    диапазон вещественных чисел или null
+     * @param stringPrefix  обязательный префикс строк или null
+     * @param stringPattern регулярное выражение для строк или null
+     */
+    public LineFilter(IntegerRange integerRange, FloatRange floatRange, String stringPrefix, Pattern stringPattern) {
+        this.integerRange = integerRange;
+        this.floatRange = floatRange;
+        this.stringPrefix = stringPrefix == null ? null : stringPrefix.getBytes(StandardCharsets.UTF_8);
+        this.stringPattern = stringPattern;
+    }
+
+    private LineFilter(LineFilter other) {
+        this.integerRange = other.integerRange;
+        this.floatRange = other.floatRange;
+        this.stringPrefix = other.stringPrefix;
+        this.stringPattern = other.stringPattern;
+    }
+
+    /**
+     * Создает фильтр, пропускающий все строки.
+     *
+     * @return фильтр без условий
+     */
+    public static LineFilter acceptAll() {
+        return new LineFilter(null, null, null, null);
+    }
+
+    /**
+     * Создает копию фильтра с теми же условиями и собственным парсером чисел.
+     *
+     * @return копия фильтра
+     */
+    public LineFilter copy() {
+        return new LineFilter(this);
+    }
+
+    /**
+     * Проверяет, проходит ли строка фильтр.
+     *
+     * @param type   тип данных строки или null, если строки этого типа не фильтруются
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если строку нужно обработать, false - если отбросить
+     */
+    public boolean accepts(DataType type, byte[] data, int offset, int length) {
+        if (type == null) {
+            return true;
+        }
+        return switch (type) {
+            case INTEGER -> integerRange == null || integerRange.contains(data, offset, length);
+            case FLOAT -> floatRange == null || floatRange.contains(data, offset, length, parser);
+            case STRING -> hasPrefix(data, offset, length) && matchesPattern(data, offset, length);
+        };
+    }
+
+    private boolean hasPrefix(byte[] data, int offset, int length) {
+        if (stringPrefix == null) {
+            return true;
+        }
+        if (length < stringPrefix.length) {
+            return false;
+        }
+        for (int i = 0; i < stringPrefix.length; i++) {
+            if (data[offset + i] != stringPrefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesPattern(byte[] data, int offset, int length) {
+        return stringPattern == null
+                || stringPattern.matcher(new String(data, offset, length, StandardCharsets.UTF_8)).find();
+    }
+}
@@ -0,0 +1,30 @@
+package com.sheandstud.processing.filter;
+
+/**
+ * Разбор записи диапазона вида {@code MIN:MAX}.
+ */
+final class RangeSyntax {
+
+    private RangeSyntax() {
+    }
+
+    /**
+     * Делит запись диапазона на нижнюю и верхнюю границы.
+     *
+     * @param value запись диапазона
+     * @return массив из двух строк, пустая строка означает отсутствие границы
+     * @throws IllegalArgumentException если запись не содержит ровно одного двоеточия
+     *                                  или обе границы пустые
+     */
+    static String[] split(String value) {
+        int colon = value.indexOf(':');
+        if (colon < 0 || value.indexOf(':', colon + 1) >= 0) {
+            throw new IllegalArgumentException("Range must have the form MIN:MAX: " + value);
+        }
+        String[] bounds = {value.substring(0, colon).trim(), value.substring(colon + 1).trim()};
+        if (bounds[0].isEmpty() && bounds[1].isEmpty()) {
+            throw new IllegalArgumentException("Range must have at least one bound: " + value);
+        }
+        return bounds;
+    }
+}
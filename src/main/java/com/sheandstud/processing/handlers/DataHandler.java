@@ -1,9 +1,14 @@
 package com.sheandstud.processing.handlers;
 
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.output.OutputFile;
 import com.sheandstud.processing.statistics.Statistics;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 /**
  * Интерфейс для обработки данных.
@@ -22,6 +27,84 @@ public interface DataHandler extends Closeable {
      * @return true, если строка была успешно обработана, иначе false
      */
     boolean handle(String data) throws IOException;
+
+    /**
+     * Обрабатывает строку данных, тип которой уже определён
+     * грамматикой типа ({@link com.sheandstud.processing.types.TypeRegistry}).
+     * <p>
+     * Повторная проверка формата не выполняется. Строка перекодируется в UTF-8
+     * и передается методу {@link #accept(byte[], int, int)}.
+     *
+     * @param data строка для обработки
+     * @return true, если строка была успешно обработана, иначе false
+     */
+    default boolean accept(String data) throws IOException {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        return accept(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Обрабатывает строку данных, заданную байтами в кодировке UTF-8,
+     * тип которой уже определён грамматикой типа ({@link com.sheandstud.processing.types.TypeRegistry}).
+     * <p>
+     * Строка записывается в выходной файл без декодирования и повторного кодирования.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если строка была успешно обработана, иначе false
+     */
+    boolean accept(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * Обрабатывает блок строк, тип которых уже определён.
+     * <p>
+     * Строки, которые не удалось обработать, отмечаются в массиве {@code rejected}.
+     * Реализация по умолчанию обрабатывает строки по одной; обработчики могут
+     * обновлять статистику в одном цикле и записывать блок целиком.
+     *
+     * @param block    блок строк одного типа
+     * @param rejected массив не меньше количества строк блока, в котором для каждой
+     *                 строки отмечается, что она не обработана
+     * @return количество необработанных строк
+     */
+    default int acceptBlock(LineBlock block, boolean[] rejected) throws IOException {
+        int count = 0;
+        for (int i = 0; i < block.count(); i++) {
+            rejected[i] = !accept(block.data(), block.offset(i), block.length(i));
+            if (rejected[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Задает счетчики производительности, в которых учитываются стадии обработки:
+     * разбор, статистика и запись.
+     * <p>
+     * По умолчанию стадии не учитываются.
+     *
+     * @param metrics счетчики производительности
+     */
+    default void setMetrics(Metrics metrics) {
+    }
+
+    /**
+     * Дописывает в выходной файл содержимое фрагмента, подготовленного другим обработчиком
+     * того же типа, например при параллельной обработке файлов.
+     *
+     * @param segment путь к файлу фрагмента
+     */
+    void appendSegment(Path segment) throws IOException;
+
+    /**
+     * Возвращает выходной файл, в который записываются данные.
+     *
+     * @return выходной файл
+     */
+    OutputFile getOutput();
+
     /**
      * Возвращает объект статистики для обработанных данных.
      * <p>
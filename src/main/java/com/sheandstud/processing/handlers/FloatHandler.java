@@ -1,32 +1,33 @@
 package com.sheandstud.processing.handlers;
 
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.metrics.Metrics.Stage;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.parsing.DecimalParser;
 import com.sheandstud.processing.statistics.FloatStatistics;
+import com.sheandstud.processing.types.FloatType;
+import com.sheandstud.processing.types.TypeMatcher;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.Objects;
-import java.util.regex.Pattern;
+import java.util.List;
 
 /**
  * Класс для обработки вещественных чисел.
- * Используется регулярное выражение для проверки на вещественное число.
+ * Для проверки на вещественное число используется грамматика {@link FloatType#GRAMMAR}.
  * Примеры: -111.111, +111.111, 111.111, -111111E-3, -111111e-3, .111
  */
 public class FloatHandler implements DataHandler {
-    private static final Pattern PATTERN = Pattern.compile(
-            "^[-+]?\\d+\\.\\d+([eE][-+]?\\d+)?$|" +           // Числа с десятичной точкой и экспонентой
-                    "^[-+]?\\.\\d+([eE][-+]?\\d+)?$|" +       // Числа, начинающиеся с точки
-                    "^[-+]?\\d+[eE][-+]?\\d+$"                // Числа в научной нотации без десятичной точки
-    );
+    private static final TypeMatcher FORMAT = TypeMatcher.compile(List.of(FloatType.GRAMMAR));
 
     private final FloatStatistics statistics = new FloatStatistics();
-    private final Path outputPath;
-    private final boolean appendMode;
-    private BufferedWriter writer;
+    private final DecimalParser parser = new DecimalParser();
+    private final OutputFile output;
+    private final boolean fullStatistics;
+    private Metrics metrics = Metrics.disabled();
 
     /**
      * Конструктор для инициализации обработчика вещественных чисел.
@@ -37,10 +38,33 @@ public class FloatHandler implements DataHandler {
      * @param appendMode режим записи: true - добавление, false - перезапись
      */
     public FloatHandler(Path outputPath, boolean appendMode) throws IOException {
-        Objects.requireNonNull(outputPath, "Output path cannot be null");
-        Files.createDirectories(outputPath.getParent());
-        this.outputPath = outputPath;
-        this.appendMode = appendMode;
+        this(outputPath, appendMode, true);
+    }
+
+    /**
+     * Конструктор для инициализации обработчика вещественных чисел.
+     * <p>
+     * Создает директории для выходного файла, если они не существуют.
+     * Если выбрана краткая статистика, числа не разбираются
+     * и учитывается только количество элементов.
+     *
+     * @param outputPath     путь к выходному файлу
+     * @param appendMode     режим записи: true - добавление, false - перезапись
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     */
+    public FloatHandler(Path outputPath, boolean appendMode, boolean fullStatistics) throws IOException {
+        this(new OutputFile(outputPath, appendMode), fullStatistics);
+    }
+
+    /**
+     * Конструктор обработчика вещественных чисел, пишущего в заданный выходной файл.
+     *
+     * @param output         выходной файл
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     */
+    public FloatHandler(OutputFile output, boolean fullStatistics) {
+        this.output = output;
+        this.fullStatistics = fullStatistics;
     }
 
     /**
@@ -54,56 +78,139 @@ public class FloatHandler implements DataHandler {
      */
     @Override
     public boolean handle(String data) throws IOException {
-        if (PATTERN.matcher(data).matches()) {
-            try {
-                BigDecimal number = new BigDecimal(data);
-                initializeWriter();
-                updateStatistics(number);
-                writeData(data);
-                return true;
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid float format: " + data);
-                return false;
-            }
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        return FORMAT.match(bytes, 0, bytes.length) == 0 && accept(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Обрабатывает строку, уже распознанную как вещественное число.
+     * <p>
+     * Строка записывается в файл без перекодирования, а также обновляется статистика.
+     * Числа, которые можно точно представить мантиссой в long и масштабом,
+     * разбираются без создания {@link BigDecimal}.
+     * Если выбрана краткая статистика, число только проверяется на допустимость.
+     * Если число не удаётся разобрать (например, показатель степени
+     * выходит за пределы int), строка не обрабатывается.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если строка была успешно обработана, иначе false
+     */
+    @Override
+    public boolean accept(byte[] data, int offset, int length) throws IOException {
+        if (!updateStatistics(data, offset, length)) {
+            return false;
         }
-        return false;
+        long start = metrics.start();
+        output.writeLine(data, offset, length);
+        metrics.stage(Stage.WRITE, start);
+        return true;
     }
 
     /**
-     * Инициализирует поток записи, если он еще не был создан.
+     * Обрабатывает блок строк, уже распознанных как вещественные числа.
      * <p>
-     * Создает выходной файл и открывает его для записи в зависимости от режима.
+     * Статистика обновляется в одном цикле, после чего блок записывается в файл целиком.
+     *
+     * @param block    блок строк
+     * @param rejected отметки строк, которые не удалось разобрать
+     * @return количество строк, которые не удалось разобрать
      */
-    private void initializeWriter() throws IOException {
-        if (writer == null) {
-            Files.createDirectories(outputPath.getParent());
-            writer = Files.newBufferedWriter(
-                    outputPath,
-                    StandardOpenOption.CREATE,
-                    appendMode ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING
-            );
+    @Override
+    public int acceptBlock(LineBlock block, boolean[] rejected) throws IOException {
+        int count = 0;
+        for (int i = 0; i < block.count(); i++) {
+            rejected[i] = !updateStatistics(block.data(), block.offset(i), block.length(i));
+            if (rejected[i]) {
+                count++;
+            }
+        }
+        long start = metrics.startAlways();
+        if (count == 0) {
+            output.writeBlock(block);
+        } else {
+            output.writeBlock(block, rejected);
+        }
+        metrics.stageAlways(Stage.WRITE, start);
+        return count;
+    }
+
+    /**
+     * Учитывает вещественное число в статистике.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если число учтено, false - если его не удалось разобрать
+     */
+    private boolean updateStatistics(byte[] data, int offset, int length) {
+        try {
+            long start = metrics.start();
+            if (!fullStatistics) {
+                if (!DecimalParser.isValid(data, offset, length)) {
+                    return rejectData(data, offset, length);
+                }
+                start = metrics.stage(Stage.PARSE, start);
+                statistics.increment();
+            } else if (parser.parse(data, offset, length)) {
+                start = metrics.stage(Stage.PARSE, start);
+                statistics.update(parser.unscaled(), parser.scale());
+            } else {
+                BigDecimal number = new BigDecimal(new String(data, offset, length, StandardCharsets.US_ASCII));
+                start = metrics.stage(Stage.PARSE, start);
+                statistics.update(number);
+            }
+            metrics.stage(Stage.STATISTICS, start);
+            return true;
+        } catch (NumberFormatException e) {
+            return rejectData(data, offset, length);
         }
     }
 
     /**
-     * Обновляет статистику новым числом.
+     * Сообщает о строке, которую не удалось разобрать как вещественное число.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return всегда false
+     */
+    private boolean rejectData(byte[] data, int offset, int length) {
+        System.err.println("Invalid float format: " + new String(data, offset, length, StandardCharsets.UTF_8));
+        return false;
+    }
+
+    /**
+     * Задает счетчики производительности, в которых учитываются стадии обработки.
      *
-     * @param number новое число для обновления статистики
+     * @param metrics счетчики производительности
      */
-    private void updateStatistics(BigDecimal number) {
-        statistics.update(number);
+    @Override
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
     }
 
     /**
-     * Записывает данные в выходной файл.
+     * Дописывает в выходной файл содержимое фрагмента, подготовленного другим обработчиком.
      * <p>
-     * Добавляет новую строку после записи данных.
+     * Если фрагмент не был создан, выходной файл не создается.
+     *
+     * @param segment путь к файлу фрагмента
+     */
+    @Override
+    public void appendSegment(Path segment) throws IOException {
+        output.appendFrom(segment);
+    }
+
+    /**
+     * Возвращает выходной файл обработчика.
      *
-     * @param data строка для записи
+     * @return выходной файл
      */
-    private void writeData(String data) throws IOException {
-        writer.write(data);
-        writer.newLine();
+    @Override
+    public OutputFile getOutput() {
+        return output;
     }
 
     /**
@@ -121,8 +228,6 @@ public class FloatHandler implements DataHandler {
      */
     @Override
     public void close() throws IOException {
-        if (writer != null) {
-            writer.close();
-        }
+        output.close();
     }
-}
\ No newline at end of file
+}
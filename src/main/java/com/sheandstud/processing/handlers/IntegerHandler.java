@@ -1,27 +1,32 @@
 package com.sheandstud.processing.handlers;
 
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.metrics.Metrics.Stage;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.parsing.IntegerParser;
 import com.sheandstud.processing.statistics.IntegerStatistics;
+import com.sheandstud.processing.types.IntegerType;
+import com.sheandstud.processing.types.TypeMatcher;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.math.BigInteger;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.Objects;
-import java.util.regex.Pattern;
+import java.util.List;
 
 /**
  * Класс для обработки целых чисел.
- * Используется регулярное выражение для проверки на целое число.
+ * Для проверки на целое число используется грамматика {@link IntegerType#GRAMMAR}.
  * Примеры: -111, +111, 111.
  */
 public class IntegerHandler implements DataHandler {
-    private static final Pattern PATTERN = Pattern.compile("^[-+]?\\d+$");
+    private static final TypeMatcher FORMAT = TypeMatcher.compile(List.of(IntegerType.GRAMMAR));
+
     private final IntegerStatistics statistics = new IntegerStatistics();
-    private final Path outputPath;
-    private final boolean appendMode;
-    private BufferedWriter writer;
+    private final OutputFile output;
+    private final boolean fullStatistics;
+    private Metrics metrics = Metrics.disabled();
 
     /**
      * Конструктор обработчика целых чисел.
@@ -32,10 +37,33 @@ public class IntegerHandler implements DataHandler {
      * @param appendMode режим записи: true - добавление, false - перезапись
      */
     public IntegerHandler(Path outputPath, boolean appendMode) throws IOException {
-        Objects.requireNonNull(outputPath, "Output path cannot be null");
-        Files.createDirectories(outputPath.getParent());
-        this.outputPath = outputPath;
-        this.appendMode = appendMode;
+        this(outputPath, appendMode, true);
+    }
+
+    /**
+     * Конструктор обработчика целых чисел.
+     * <p>
+     * Создает директории для выходного файла, если они не существуют.
+     * Если выбрана краткая статистика, числа не разбираются
+     * и учитывается только количество элементов.
+     *
+     * @param outputPath     путь к выходному файлу
+     * @param appendMode     режим записи: true - добавление, false - перезапись
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     */
+    public IntegerHandler(Path outputPath, boolean appendMode, boolean fullStatistics) throws IOException {
+        this(new OutputFile(outputPath, appendMode), fullStatistics);
+    }
+
+    /**
+     * Конструктор обработчика целых чисел, пишущего в заданный выходной файл.
+     *
+     * @param output         выходной файл
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     */
+    public IntegerHandler(OutputFile output, boolean fullStatistics) {
+        this.output = output;
+        this.fullStatistics = fullStatistics;
     }
 
     /**
@@ -49,56 +77,121 @@ public class IntegerHandler implements DataHandler {
      */
     @Override
     public boolean handle(String data) throws IOException {
-        if (PATTERN.matcher(data).matches()) {
-            try {
-                BigInteger number = new BigInteger(data);
-                initializeWriter();
-                updateStatistics(number);
-                writeData(data);
-                return true;
-            }catch (NumberFormatException e) {
-                System.err.println("Invalid integer format: " + data);
-                return false;
-            }
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        return FORMAT.match(bytes, 0, bytes.length) == 0 && accept(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Обрабатывает строку, уже распознанную как целое число.
+     * <p>
+     * Строка записывается в файл без перекодирования, а также обновляется статистика.
+     * Числа, помещающиеся в long, разбираются без создания {@link BigInteger}.
+     * Если выбрана краткая статистика, число не разбирается.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если строка была успешно обработана, иначе false
+     */
+    @Override
+    public boolean accept(byte[] data, int offset, int length) throws IOException {
+        if (!updateStatistics(data, offset, length)) {
+            return false;
         }
-        return false;
+        long start = metrics.start();
+        output.writeLine(data, offset, length);
+        metrics.stage(Stage.WRITE, start);
+        return true;
     }
 
     /**
-     * Инициализирует поток записи, если он еще не был создан.
+     * Обрабатывает блок строк, уже распознанных как целые числа.
      * <p>
-     * Создает выходной файл и открывает его для записи в зависимости от режима.
+     * Статистика обновляется в одном цикле, после чего блок записывается в файл целиком.
+     *
+     * @param block    блок строк
+     * @param rejected отметки строк, которые не удалось разобрать
+     * @return количество строк, которые не удалось разобрать
      */
-    private void initializeWriter() throws IOException {
-        if (writer == null) {
-            Files.createDirectories(outputPath.getParent());
-            writer = Files.newBufferedWriter(
-                    outputPath,
-                    StandardOpenOption.CREATE,
-                    appendMode ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING
-            );
+    @Override
+    public int acceptBlock(LineBlock block, boolean[] rejected) throws IOException {
+        int count = 0;
+        for (int i = 0; i < block.count(); i++) {
+            rejected[i] = !updateStatistics(block.data(), block.offset(i), block.length(i));
+            if (rejected[i]) {
+                count++;
+            }
+        }
+        long start = metrics.startAlways();
+        if (count == 0) {
+            output.writeBlock(block);
+        } else {
+            output.writeBlock(block, rejected);
         }
+        metrics.stageAlways(Stage.WRITE, start);
+        return count;
     }
 
     /**
-     * Обновляет статистику новым числом.
+     * Учитывает целое число в статистике.
      *
-     * @param number новое число для обновления статистики
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return true, если число учтено, false - если его не удалось разобрать
      */
-    private void updateStatistics(BigInteger number) {
-        statistics.update(number);
+    private boolean updateStatistics(byte[] data, int offset, int length) {
+        try {
+            long start = metrics.start();
+            if (!fullStatistics) {
+                statistics.increment();
+            } else if (IntegerParser.fitsLong(data, offset, length)) {
+                long number = IntegerParser.parseLong(data, offset, length);
+                start = metrics.stage(Stage.PARSE, start);
+                statistics.update(number);
+            } else {
+                BigInteger number = new BigInteger(new String(data, offset, length, StandardCharsets.US_ASCII));
+                start = metrics.stage(Stage.PARSE, start);
+                statistics.update(number);
+            }
+            metrics.stage(Stage.STATISTICS, start);
+            return true;
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid integer format: " + new String(data, offset, length, StandardCharsets.UTF_8));
+            return false;
+        }
     }
 
     /**
-     * Записывает данные в выходной файл.
+     * Задает счетчики производительности, в которых учитываются стадии обработки.
+     *
+     * @param metrics счетчики производительности
+     */
+    @Override
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Дописывает в выходной файл содержимое фрагмента, подготовленного другим обработчиком.
      * <p>
-     * Добавляет новую строку после записи данных.
+     * Если фрагмент не был создан, выходной файл не создается.
+     *
+     * @param segment путь к файлу фрагмента
+     */
+    @Override
+    public void appendSegment(Path segment) throws IOException {
+        output.appendFrom(segment);
+    }
+
+    /**
+     * Возвращает выходной файл обработчика.
      *
-     * @param data строка для записи
+     * @return выходной файл
      */
-    private void writeData(String data) throws IOException {
-        writer.write(data);
-        writer.newLine();
+    @Override
+    public OutputFile getOutput() {
+        return output;
     }
 
     /**
@@ -116,8 +209,6 @@ public class IntegerHandler implements DataHandler {
      */
     @Override
     public void close() throws IOException {
-        if (writer != null) {
-            writer.close();
-        }
+        output.close();
     }
-}
\ No newline at end of file
+}
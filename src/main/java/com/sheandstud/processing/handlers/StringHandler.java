@@ -1,13 +1,13 @@
 package com.sheandstud.processing.handlers;
 
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.metrics.Metrics.Stage;
+import com.sheandstud.processing.output.OutputFile;
 import com.sheandstud.processing.statistics.StringStatistics;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.Objects;
 
 /**
  * Класс для обработки строковых данных.
@@ -16,9 +16,9 @@ import java.util.Objects;
  */
 public class StringHandler implements DataHandler {
     private final StringStatistics statistics = new StringStatistics();
-    private final Path outputPath;
-    private final boolean appendMode;
-    private BufferedWriter writer;
+    private final OutputFile output;
+    private final boolean fullStatistics;
+    private Metrics metrics = Metrics.disabled();
 
     /**
      * Конструктор для инициализации обработчика строк.
@@ -29,10 +29,32 @@ public class StringHandler implements DataHandler {
      * @param appendMode режим записи: true - добавление, false - перезапись
      */
     public StringHandler(Path outputPath, boolean appendMode) throws IOException {
-        Objects.requireNonNull(outputPath, "Output path cannot be null");
-        Files.createDirectories(outputPath.getParent());
-        this.outputPath = outputPath;
-        this.appendMode = appendMode;
+        this(outputPath, appendMode, true);
+    }
+
+    /**
+     * Конструктор для инициализации обработчика строк.
+     * <p>
+     * Создает директории для выходного файла, если они не существуют.
+     * Если выбрана краткая статистика, учитывается только количество элементов.
+     *
+     * @param outputPath     путь к выходному файлу
+     * @param appendMode     режим записи: true - добавление, false - перезапись
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     */
+    public StringHandler(Path outputPath, boolean appendMode, boolean fullStatistics) throws IOException {
+        this(new OutputFile(outputPath, appendMode), fullStatistics);
+    }
+
+    /**
+     * Конструктор обработчика строк, пишущего в заданный выходной файл.
+     *
+     * @param output         выходной файл
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     */
+    public StringHandler(OutputFile output, boolean fullStatistics) {
+        this.output = output;
+        this.fullStatistics = fullStatistics;
     }
 
     /**
@@ -45,47 +67,90 @@ public class StringHandler implements DataHandler {
      */
     @Override
     public boolean handle(String data) throws IOException {
-        initializeWriter();
-        updateStatistics(data);
-        writeData(data);
+        return accept(data);
+    }
+
+    /**
+     * Обрабатывает строку данных, заданную байтами в кодировке UTF-8.
+     * <p>
+     * Записывает строку в файл без перекодирования и обновляет статистику.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return всегда true, так как все строки считаются допустимыми
+     */
+    @Override
+    public boolean accept(byte[] data, int offset, int length) throws IOException {
+        long start = metrics.start();
+        if (fullStatistics) {
+            statistics.update(data, offset, length);
+        } else {
+            statistics.increment();
+        }
+        start = metrics.stage(Stage.STATISTICS, start);
+        output.writeLine(data, offset, length);
+        metrics.stage(Stage.WRITE, start);
         return true;
     }
 
     /**
-     * Инициализирует поток записи, если он еще не был создан.
+     * Обрабатывает блок строк.
      * <p>
-     * Создает выходной файл и открывает его для записи в зависимости от режима.
+     * Статистика обновляется в одном цикле, после чего блок записывается в файл целиком.
+     *
+     * @param block    блок строк
+     * @param rejected не используется, так как все строки считаются допустимыми
+     * @return всегда 0
      */
-    private void initializeWriter() throws IOException {
-        if (writer == null) {
-            Files.createDirectories(outputPath.getParent());
-            writer = Files.newBufferedWriter(
-                    outputPath,
-                    StandardOpenOption.CREATE,
-                    appendMode ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING
-            );
+    @Override
+    public int acceptBlock(LineBlock block, boolean[] rejected) throws IOException {
+        long start = metrics.startAlways();
+        if (fullStatistics) {
+            for (int i = 0; i < block.count(); i++) {
+                statistics.update(block.data(), block.offset(i), block.length(i));
+            }
+        } else {
+            for (int i = 0; i < block.count(); i++) {
+                statistics.increment();
+            }
         }
+        start = metrics.stageAlways(Stage.STATISTICS, start);
+        output.writeBlock(block);
+        metrics.stageAlways(Stage.WRITE, start);
+        return 0;
     }
 
     /**
-     * Обновляет статистику новой строкой.
+     * Задает счетчики производительности, в которых учитываются стадии обработки.
      *
-     * @param data новая строка для обновления статистики
+     * @param metrics счетчики производительности
      */
-    private void updateStatistics(String data) {
-        statistics.update(data);
+    @Override
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
     }
 
     /**
-     * Записывает данные в выходной файл.
+     * Дописывает в выходной файл содержимое фрагмента, подготовленного другим обработчиком.
      * <p>
-     * Добавляет новую строку после записи данных.
+     * Если фрагмент не был создан, выходной файл не создается.
      *
-     * @param data строка для записи
+     * @param segment путь к файлу фрагмента
      */
-    private void writeData(String data) throws IOException {
-        writer.write(data);
-        writer.newLine();
+    @Override
+    public void appendSegment(Path segment) throws IOException {
+        output.appendFrom(segment);
+    }
+
+    /**
+     * Возвращает выходной файл обработчика.
+     *
+     * @return выходной файл
+     */
+    @Override
+    public OutputFile getOutput() {
+        return output;
     }
 
     /**
@@ -103,8 +168,6 @@ public class StringHandler implements DataHandler {
      */
     @Override
     public void close() throws IOException {
-        if (writer != null) {
-            writer.close();
-        }
+        output.close();
     }
-}
\ No newline at end of file
+}
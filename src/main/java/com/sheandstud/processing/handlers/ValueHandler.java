@@ -0,0 +1,153 @@
+package com.sheandstud.processing.handlers;
+
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.metrics.Metrics.Stage;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.statistics.ValueStatistics;
+import com.sheandstud.processing.types.TypeMatcher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Класс для обработки значений дополнительных типов данных, формат которых
+ * полностью проверяется грамматикой типа ({@link com.sheandstud.processing.types.ValueType}).
+ * <p>
+ * Значения не разбираются: строка, распознанная грамматикой, всегда считается допустимой.
+ */
+public class ValueHandler implements DataHandler {
+    private final ValueStatistics statistics;
+    private final TypeMatcher format;
+    private final OutputFile output;
+    private final boolean fullStatistics;
+    private Metrics metrics = Metrics.disabled();
+
+    /**
+     * Конструктор обработчика значений, пишущего в заданный выходной файл.
+     *
+     * @param title          название типа значений в статистике
+     * @param format         автомат грамматики типа для проверки строк в {@link #handle(String)}
+     * @param output         выходной файл
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     */
+    public ValueHandler(String title, TypeMatcher format, OutputFile output, boolean fullStatistics) {
+        this.statistics = new ValueStatistics(title);
+        this.format = format;
+        this.output = output;
+        this.fullStatistics = fullStatistics;
+    }
+
+    /**
+     * Обрабатывает строку данных.
+     * <p>
+     * Если строка соответствует грамматике типа, она записывается в файл,
+     * а также обновляется статистика.
+     *
+     * @param data строка для обработки
+     * @return true, если строка соответствует грамматике и была обработана, иначе false
+     */
+    @Override
+    public boolean handle(String data) throws IOException {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        return format.match(bytes, 0, bytes.length) == 0 && accept(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Обрабатывает значение, заданное байтами в кодировке UTF-8.
+     * <p>
+     * Записывает значение в файл без перекодирования и обновляет статистику.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала значения
+     * @param length длина значения в байтах
+     * @return всегда true, так как формат значения уже проверен
+     */
+    @Override
+    public boolean accept(byte[] data, int offset, int length) throws IOException {
+        long start = metrics.start();
+        if (fullStatistics) {
+            statistics.update(data, offset, length);
+        } else {
+            statistics.increment();
+        }
+        start = metrics.stage(Stage.STATISTICS, start);
+        output.writeLine(data, offset, length);
+        metrics.stage(Stage.WRITE, start);
+        return true;
+    }
+
+    /**
+     * Обрабатывает блок значений.
+     * <p>
+     * Статистика обновляется в одном цикле, после чего блок записывается в файл целиком.
+     *
+     * @param block    блок значений
+     * @param rejected не используется, так как все значения считаются допустимыми
+     * @return всегда 0
+     */
+    @Override
+    public int acceptBlock(LineBlock block, boolean[] rejected) throws IOException {
+        long start = metrics.startAlways();
+        for (int i = 0; i < block.count(); i++) {
+            if (fullStatistics) {
+                statistics.update(block.data(), block.offset(i), block.length(i));
+            } else {
+                statistics.increment();
+            }
+        }
+        start = metrics.stageAlways(Stage.STATISTICS, start);
+        output.writeBlock(block);
+        metrics.stageAlways(Stage.WRITE, start);
+        return 0;
+    }
+
+    /**
+     * Задает счетчики производительности, в которых учитываются стадии обработки.
+     *
+     * @param metrics счетчики производительности
+     */
+    @Override
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Дописывает в выходной файл содержимое фрагмента, подготовленного другим обработчиком.
+     *
+     * @param segment путь к файлу фрагмента
+     */
+    @Override
+    public void appendSegment(Path segment) throws IOException {
+        output.appendFrom(segment);
+    }
+
+    /**
+     * Возвращает выходной файл обработчика.
+     *
+     * @return выходной файл
+     */
+    @Override
+    public OutputFile getOutput() {
+        return output;
+    }
+
+    /**
+     * Возвращает объект статистики для значений.
+     *
+     * @return объект {@link ValueStatistics}
+     */
+    @Override
+    public ValueStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Закрывает поток записи.
+     */
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,178 @@
+package com.sheandstud.processing.memory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Locale;
+
+/**
+ * Класс для учёта памяти, которую утилита использует под буферы и данные в обработке.
+ * <p>
+ * Общий бюджет задается опцией {@code --max-memory} и разделяется между менеджером файлов,
+ * обработчиками и задачами параллельной обработки. Компоненты резервируют память перед
+ * выделением буферов и освобождают её после закрытия. Если памяти не хватает, компоненты
+ * переходят в экономный режим: используют буферы меньшего размера, уменьшают количество
+ * одновременно обрабатываемых частей или сбрасывают данные на диск.
+ * <p>
+ * Необязательная память, без которой обработка возможна, резервируется методом
+ * {@link #tryReserve(long)} и не превышает бюджет: буфер сортировки чисел при нехватке
+ * сбрасывается на диск, множество повторяющихся строк переходит на фильтр Блума.
+ * <p>
+ * Учитывается только память, зарезервированная явно; для сравнения в отчете
+ * выводится также пиковое использование кучи JVM.
+ */
+public class MemoryBudget {
+    private final long limit;
+    private long used;
+    private long peak;
+
+    /**
+     * Конструктор бюджета памяти.
+     *
+     * @param limit максимальный объем памяти в байтах
+     */
+    public MemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Создает бюджет без ограничения.
+     *
+     * @return бюджет, в котором резервирование всегда успешно
+     */
+    public static MemoryBudget unlimited() {
+        return new MemoryBudget(Long.MAX_VALUE);
+    }
+
+    /**
+     * Проверяет, задано ли ограничение памяти.
+     *
+     * @return true, если бюджет ограничен
+     */
+    public boolean isLimited() {
+        return limit != Long.MAX_VALUE;
+    }
+
+    /**
+     * Резервирует память для буфера.
+     * <p>
+     * Если желаемый размер не помещается в бюджет, резервируется оставшаяся память,
+     * но не меньше минимального размера. Минимальный размер резервируется всегда,
+     * даже сверх бюджета, чтобы обработка могла продолжаться; такое превышение
+     * отражается в пиковом использовании.
+     *
+     * @param preferred желаемый размер в байтах
+     * @param minimum   минимальный размер в байтах
+     * @return зарезервированный размер
+     */
+    public synchronized int allocate(int preferred, int minimum) {
+        long available = limit - used;
+        int size = (int) Math.max(minimum, Math.min(preferred, available));
+        add(size);
+        return size;
+    }
+
+    /**
+     * Пытается зарезервировать память, не превышая бюджет.
+     * <p>
+     * Используется для роста необязательных структур: если память не зарезервирована,
+     * компонент продолжает работу в экономном режиме.
+     *
+     * @param bytes объем памяти в байтах
+     * @return true, если память зарезервирована, иначе false
+     */
+    public synchronized boolean tryReserve(long bytes) {
+        if (bytes > limit - used) {
+            return false;
+        }
+        add(bytes);
+        return true;
+    }
+
+    /**
+     * Резервирует память без проверки бюджета.
+     * <p>
+     * Используется, когда без памяти обработка невозможна, например для строки,
+     * которая не помещается в буфер чтения.
+     *
+     * @param bytes объем памяти в байтах
+     */
+    public synchronized void reserve(long bytes) {
+        add(bytes);
+    }
+
+    /**
+     * Освобождает ранее зарезервированную память.
+     *
+     * @param bytes объем памяти в байтах
+     */
+    public synchronized void release(long bytes) {
+        used -= bytes;
+    }
+
+    /**
+     * Возвращает объем памяти, который еще можно зарезервировать.
+     *
+     * @return свободная часть бюджета в байтах
+     */
+    public synchronized long available() {
+        return Math.max(0, limit - used);
+    }
+
+    private void add(long bytes) {
+        used += bytes;
+        peak = Math.max(peak, used);
+    }
+
+    /**
+     * Форматирует отчет об использовании памяти.
+     *
+     * @return строка с пиковым использованием памяти и бюджетом
+     */
+    public synchronized String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Memory Usage:\n");
+        sb.append("  Peak Reserved: ").append(formatSize(peak));
+        sb.append("\n  Budget: ").append(isLimited() ? formatSize(limit) : "unlimited");
+        if (isLimited()) {
+            sb.append(String.format(Locale.ROOT, " (%.1f%% used)", 100.0 * peak / limit));
+        }
+        sb.append("\n  Peak Heap: ").append(formatSize(getPeakHeapUsage()));
+        return sb.toString();
+    }
+
+    /**
+     * Возвращает сумму пикового использования всех областей кучи JVM.
+     *
+     * @return пиковое использование кучи в байтах
+     */
+    private static long getPeakHeapUsage() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Форматирует размер в байтах в удобочитаемом виде.
+     *
+     * @param bytes размер в байтах
+     * @return строка вида "12.5 MB"
+     */
+    public static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB", "TB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format(Locale.ROOT, "%.1f %s", value, units[unit]);
+    }
+}
@@ -0,0 +1,267 @@
+package com.sheandstud.processing.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Счетчики производительности стадий обработки.
+ * <p>
+ * Время чтения измеряется точно, для каждого обращения к источнику данных, как и время
+ * обработки целых блоков строк.
+ * Время стадий, выполняемых для каждой строки (определение типа, разбор чисел,
+ * статистика, запись в буфер), измеряется выборочно: {@link System#nanoTime()} вызывается
+ * только для каждого {@link #SAMPLE_INTERVAL}-го измерения, а для остальных считается
+ * только количество. Полное время стадии оценивается умножением измеренного времени
+ * на отношение количества к количеству измерений.
+ * <p>
+ * Счетчики не синхронизированы: каждый поток обработки использует свой экземпляр
+ * ({@link #createSegment()}), результаты объединяются методом {@link #merge(Metrics)}.
+ * Выключенные счетчики ({@link #disabled()}) ничего не изменяют и могут использоваться
+ * из любых потоков.
+ */
+public final class Metrics {
+    /**
+     * Стадии обработки.
+     */
+    public enum Stage {
+        /**
+         * Чтение входных файлов.
+         */
+        READ,
+        /**
+         * Определение типа строки, при обработке блоками - вместе с фильтром строк.
+         */
+        CLASSIFY,
+        /**
+         * Разбор чисел, в том числе в {@link java.math.BigInteger} и {@link java.math.BigDecimal}.
+         */
+        PARSE,
+        /**
+         * Обновление статистики.
+         */
+        STATISTICS,
+        /**
+         * Запись в буфер выходного файла и в файл.
+         */
+        WRITE
+    }
+
+    /**
+     * Интервал выборочного измерения времени.
+     */
+    public static final int SAMPLE_INTERVAL = 64;
+
+    private static final int STAGES = Stage.values().length;
+    private static final Metrics DISABLED = new Metrics(false);
+
+    private final boolean enabled;
+    private final long[] nanos = new long[STAGES];
+    private final long[] exactNanos = new long[STAGES];
+    private final long[] events = new long[STAGES];
+    private final long[] samples = new long[STAGES];
+    private long ticks;
+    private long bytesRead;
+    private long allocatedBytes;
+    private long threadStart = -1;
+
+    private Metrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Создает включенные счетчики.
+     */
+    public Metrics() {
+        this(true);
+    }
+
+    /**
+     * Возвращает выключенные счетчики.
+     *
+     * @return счетчики, которые ничего не учитывают
+     */
+    public static Metrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Создает счетчики для отдельного потока или части данных того же вида: включенные или выключенные.
+     *
+     * @return новые счетчики
+     */
+    public Metrics createSegment() {
+        return enabled ? new Metrics() : DISABLED;
+    }
+
+    /**
+     * Проверяет, включены ли счетчики.
+     *
+     * @return true, если счетчики включены
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Начинает измерение: возвращает текущее время, если это измерение входит в выборку.
+     *
+     * @return текущее время в наносекундах или 0, если время не измеряется
+     */
+    public long start() {
+        if (!enabled || (++ticks & (SAMPLE_INTERVAL - 1)) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Начинает точное измерение, например для целого блока строк.
+     * Измерение завершается методом {@link #stageAlways(Stage, long)}.
+     *
+     * @return текущее время в наносекундах или 0, если счетчики выключены
+     */
+    public long startAlways() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Завершает стадию, начатую методом {@link #startAlways()}.
+     *
+     * @param stage стадия
+     * @param start время начала стадии
+     * @return текущее время или 0, если счетчики выключены
+     */
+    public long stageAlways(Stage stage, long start) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        exactNanos[stage.ordinal()] += now - start;
+        return now;
+    }
+
+    /**
+     * Завершает стадию, начатую в момент {@code start}.
+     * <p>
+     * Возвращаемое время можно передать как начало следующей стадии.
+     *
+     * @param stage стадия
+     * @param start время начала стадии из {@link #start()} или предыдущего вызова
+     * @return текущее время или 0, если время не измеряется
+     */
+    public long stage(Stage stage, long start) {
+        if (!enabled) {
+            return 0;
+        }
+        events[stage.ordinal()]++;
+        if (start == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        nanos[stage.ordinal()] += now - start;
+        samples[stage.ordinal()]++;
+        return now;
+    }
+
+    /**
+     * Учитывает чтение данных, начатое после вызова {@link #startAlways()}.
+     *
+     * @param bytes количество прочитанных байтов
+     * @param start время начала чтения
+     */
+    public void addRead(long bytes, long start) {
+        if (enabled) {
+            bytesRead += bytes;
+            exactNanos[Stage.READ.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Начинает учет памяти, выделяемой текущим потоком.
+     */
+    public void startThread() {
+        if (enabled) {
+            threadStart = allocatedBytes();
+        }
+    }
+
+    /**
+     * Завершает учет памяти, выделенной текущим потоком с момента {@link #startThread()}.
+     */
+    public void stopThread() {
+        if (enabled && threadStart >= 0) {
+            allocatedBytes += allocatedBytes() - threadStart;
+            threadStart = -1;
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * Добавляет счетчики другого потока или части данных.
+     *
+     * @param other счетчики, собранные отдельно
+     */
+    public void merge(Metrics other) {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < STAGES; i++) {
+            nanos[i] += other.nanos[i];
+            exactNanos[i] += other.exactNanos[i];
+            events[i] += other.events[i];
+            samples[i] += other.samples[i];
+        }
+        bytesRead += other.bytesRead;
+        allocatedBytes += other.allocatedBytes;
+    }
+
+    /**
+     * Возвращает оценку полного времени стадии: время точных измерений
+     * и время выборочных измерений, приведенное ко всем измерениям.
+     *
+     * @param stage стадия
+     * @return время в наносекундах
+     */
+    public long getNanos(Stage stage) {
+        int i = stage.ordinal();
+        if (samples[i] == 0) {
+            return exactNanos[i];
+        }
+        return exactNanos[i] + (long) ((double) nanos[i] * events[i] / samples[i]);
+    }
+
+    /**
+     * Возвращает количество выборочных измерений стадии, включая не вошедшие в выборку.
+     *
+     * @param stage стадия
+     * @return количество измерений
+     */
+    public long getEvents(Stage stage) {
+        return events[stage.ordinal()];
+    }
+
+    /**
+     * Возвращает количество прочитанных байтов.
+     *
+     * @return количество байтов
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Возвращает объем памяти, выделенной потоками обработки.
+     *
+     * @return количество байтов
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
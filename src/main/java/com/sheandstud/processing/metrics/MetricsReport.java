@@ -0,0 +1,154 @@
+package com.sheandstud.processing.metrics;
+
+import com.sheandstud.Main;
+import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.metrics.Metrics.Stage;
+import com.sheandstud.processing.output.OutputFile;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Отчет о производительности обработки в формате JSON.
+ * <p>
+ * Отчет содержит версию утилиты, общее время работы, количество строк всего и по типам,
+ * скорость обработки, объем прочитанных и записанных данных, время стадий обработки,
+ * сведения о выходных файлах, о сборке мусора и объем выделенной памяти.
+ * Время стадий, измеряемых выборочно, является оценкой (см. {@link Metrics}).
+ */
+public final class MetricsReport {
+    private final StringBuilder sb = new StringBuilder();
+
+    private MetricsReport() {
+    }
+
+    /**
+     * Форматирует отчет о производительности.
+     * <p>
+     * Менеджер должен быть закрыт, чтобы сведения о выходных файлах были окончательными.
+     *
+     * @param manager      менеджер файлов, обработавший данные
+     * @param elapsedNanos общее время обработки в наносекундах
+     * @return отчет в формате JSON
+     */
+    public static String format(FileManager manager, long elapsedNanos) {
+        return new MetricsReport().build(manager, elapsedNanos);
+    }
+
+    private String build(FileManager manager, long elapsedNanos) {
+        Metrics metrics = manager.getMetrics();
+        double seconds = elapsedNanos / 1e9;
+
+        List<String> names = manager.getTypeNames();
+        long lines = 0;
+        for (int i = 0; i < names.size(); i++) {
+            lines += manager.getStatistics().get(i).getCount();
+        }
+        long bytesWritten = 0;
+        for (OutputFile output : manager.getOutputs()) {
+            bytesWritten += output.getBytesWritten();
+        }
+
+        sb.append("{\n");
+        field(1, "version", string(Main.class.getPackage().getImplementationVersion()));
+        field(1, "elapsedMillis", Long.toString(elapsedNanos / 1_000_000));
+        field(1, "lines", Long.toString(lines));
+        field(1, "linesPerSecond", number(seconds > 0 ? lines / seconds : 0));
+        field(1, "bytesRead", Long.toString(metrics.getBytesRead()));
+        field(1, "bytesWritten", Long.toString(bytesWritten));
+        field(1, "megabytesPerSecond", number(seconds > 0 ? metrics.getBytesRead() / seconds / (1024 * 1024) : 0));
+
+        open(1, "types", '{');
+        for (int i = 0; i < names.size(); i++) {
+            field(2, names.get(i), Long.toString(manager.getStatistics().get(i).getCount()), i == names.size() - 1);
+        }
+        close(1, '}', false);
+
+        open(1, "stages", '{');
+        Stage[] stages = Stage.values();
+        for (int i = 0; i < stages.length; i++) {
+            Stage stage = stages[i];
+            open(2, stage.name().toLowerCase(Locale.ROOT), '{');
+            field(3, "millis", number(metrics.getNanos(stage) / 1e6));
+            field(3, "sampled", Boolean.toString(metrics.getEvents(stage) > 0), true);
+            close(2, '}', i == stages.length - 1);
+        }
+        close(1, '}', false);
+
+        open(1, "outputs", '[');
+        List<OutputFile> outputs = manager.getOutputs();
+        for (int i = 0; i < outputs.size(); i++) {
+            OutputFile output = outputs.get(i);
+            indent(2).append("{");
+            String file = output.isStandardOutput() ? "stdout" : output.getPath().getFileName().toString();
+            sb.append("\"file\": ").append(string(file));
+            sb.append(", \"bytes\": ").append(output.getBytesWritten());
+            sb.append(", \"flushes\": ").append(output.getFlushCount());
+            sb.append(i == outputs.size() - 1 ? "}\n" : "},\n");
+        }
+        close(1, ']', false);
+
+        long collections = 0;
+        long collectionMillis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(bean.getCollectionCount(), 0);
+            collectionMillis += Math.max(bean.getCollectionTime(), 0);
+        }
+        open(1, "gc", '{');
+        field(2, "collections", Long.toString(collections));
+        field(2, "millis", Long.toString(collectionMillis), true);
+        close(1, '}', false);
+
+        field(1, "allocatedBytes", Long.toString(metrics.getAllocatedBytes()), true);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private void field(int level, String name, String value) {
+        field(level, name, value, false);
+    }
+
+    private void field(int level, String name, String value, boolean last) {
+        indent(level).append(string(name)).append(": ").append(value).append(last ? "\n" : ",\n");
+    }
+
+    private void open(int level, String name, char bracket) {
+        indent(level).append(string(name)).append(": ").append(bracket).append('\n');
+    }
+
+    private void close(int level, char bracket, boolean last) {
+        indent(level).append(bracket).append(last ? "\n" : ",\n");
+    }
+
+    private StringBuilder indent(int level) {
+        return sb.append("  ".repeat(level));
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    /**
+     * Форматирует строковое значение JSON, экранируя кавычки, обратную косую черту
+     * и управляющие символы. Отсутствующее значение записывается как {@code null}.
+     */
+    static String string(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder result = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+}
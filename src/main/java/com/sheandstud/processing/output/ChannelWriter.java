@@ -0,0 +1,147 @@
+package com.sheandstud.processing.output;
+
+import com.sheandstud.processing.pipeline.SpscRing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Поток записи заполненных буферов выходного файла в канал.
+ * <p>
+ * Выходной файл передает заполненный буфер через {@link SpscRing} и получает
+ * взамен свободный, поэтому запись на диск идет параллельно с обработкой строк.
+ * Количество буферов ограничено: если диск не успевает, выходной файл ждет
+ * освобождения буфера, и объем данных, ожидающих записи, не растет.
+ * <p>
+ * Любая ошибка потока записи, в том числе непроверяемое исключение, прерывает оба
+ * кольцевых буфера, поэтому выходной файл не может остаться в бесконечном ожидании:
+ * ошибка передается ему при следующем обращении.
+ */
+final class ChannelWriter implements Closeable {
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+    private static final int SPIN_LIMIT = 100;
+
+    private final WritableByteChannel channel;
+    private final SpscRing<ByteBuffer> filled;
+    private final SpscRing<ByteBuffer> free;
+    private final Thread thread;
+    private long submitted;
+    private volatile long written;
+    private volatile IOException error;
+    private volatile Thread drainer;
+
+    /**
+     * Конструктор потока записи.
+     *
+     * @param channel канал выходного файла, в том числе сжимающий
+     * @param spare   свободные буферы, которые выдаются взамен заполненных
+     * @param name    имя потока записи
+     */
+    ChannelWriter(WritableByteChannel channel, List<ByteBuffer> spare, String name) {
+        this.channel = channel;
+        this.filled = new SpscRing<>(spare.size() + 2);
+        this.free = new SpscRing<>(spare.size() + 1);
+        spare.forEach(free::offer);
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Передает заполненный буфер на запись.
+     *
+     * @param buffer буфер, подготовленный для чтения ({@link ByteBuffer#flip()})
+     * @return очищенный свободный буфер
+     */
+    ByteBuffer submit(ByteBuffer buffer) throws IOException {
+        checkError();
+        filled.put(buffer);
+        submitted++;
+        return free.take();
+    }
+
+    /**
+     * Ожидает записи всех переданных буферов.
+     * <p>
+     * После возврата канал можно использовать напрямую.
+     */
+    void drain() throws IOException {
+        for (int attempt = 0; written != submitted; attempt++) {
+            checkError();
+            if (attempt < SPIN_LIMIT) {
+                Thread.onSpinWait();
+                continue;
+            }
+            drainer = Thread.currentThread();
+            if (written != submitted && error == null) {
+                LockSupport.park(this);
+            }
+            drainer = null;
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for writer thread");
+            }
+        }
+        checkError();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                ByteBuffer buffer = filled.take();
+                if (buffer == END) {
+                    return;
+                }
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+                written++;
+                wakeDrainer();
+                free.put(buffer);
+            }
+        } catch (Throwable e) {
+            IOException cause = e instanceof IOException io ? io : new IOException(e.toString(), e);
+            error = cause;
+            free.abort(cause);
+            filled.abort(cause);
+            wakeDrainer();
+        }
+    }
+
+    private void wakeDrainer() {
+        Thread waiting = drainer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    private void checkError() throws IOException {
+        IOException cause = error;
+        if (cause != null) {
+            throw new IOException("Error writing output file: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Ожидает записи всех переданных буферов и завершает поток записи.
+     */
+    @Override
+    public void close() throws IOException {
+        if (error == null) {
+            filled.put(END);
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for writer thread");
+        }
+        checkError();
+    }
+}
@@ -0,0 +1,114 @@
+package com.sheandstud.processing.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * Канал, вычисляющий контрольные суммы данных, записываемых в другой канал.
+ * <p>
+ * CRC32C и, если выбрано, SHA-256 обновляются по байтам, которые принял канал назначения,
+ * поэтому контрольные суммы совпадают с суммами содержимого файла и не требуют
+ * повторного чтения. Закрытие канала не закрывает канал назначения.
+ */
+final class ChecksumChannel implements WritableByteChannel {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel target;
+    private final CRC32C crc = new CRC32C();
+    private final MessageDigest sha256;
+    private long size;
+    private Checksums result;
+    private boolean open = true;
+
+    /**
+     * Создает канал контрольных сумм.
+     *
+     * @param target канал назначения
+     * @param sha256 true - кроме CRC32C вычисляется SHA-256
+     */
+    ChecksumChannel(WritableByteChannel target, boolean sha256) {
+        this.target = target;
+        this.sha256 = sha256 ? newSha256() : null;
+    }
+
+    /**
+     * Учитывает в контрольных суммах текущее содержимое файла.
+     * <p>
+     * Используется в режиме добавления перед первой записью, чтобы контрольные суммы
+     * относились ко всему файлу; файл читается один раз.
+     *
+     * @param path путь к файлу
+     */
+    void include(Path path) throws IOException {
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                update(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int start = src.position();
+        int limit = src.limit();
+        int written = target.write(src);
+        src.position(start).limit(start + written);
+        update(src);
+        src.limit(limit);
+        return written;
+    }
+
+    /**
+     * Возвращает контрольные суммы учтенных данных.
+     * <p>
+     * Вызывается после записи всех данных: последующие записи в контрольных суммах не учитываются.
+     *
+     * @return контрольные суммы
+     */
+    Checksums result() {
+        if (result == null) {
+            result = new Checksums(size, crc.getValue(),
+                    sha256 != null ? HexFormat.of().formatHex(sha256.digest()) : null);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void update(ByteBuffer data) {
+        int start = data.position();
+        size += data.remaining();
+        crc.update(data);
+        if (sha256 != null) {
+            data.position(start);
+            sha256.update(data);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sheandstud.processing.output;
+
+/**
+ * Контрольные суммы содержимого выходного файла.
+ *
+ * @param size   размер файла в байтах
+ * @param crc32c CRC32C содержимого файла
+ * @param sha256 SHA-256 содержимого файла в шестнадцатеричном виде или null, если не вычислялась
+ */
+public record Checksums(long size, long crc32c, String sha256) {
+    /**
+     * Форматирует контрольные суммы строками манифеста в формате BSD, например
+     * {@code CRC32C (integers.txt) = 1a2b3c4d} и {@code SHA256 (integers.txt) = ...}.
+     * <p>
+     * Строки SHA-256 в этом формате проверяются командой {@code sha256sum -c}.
+     *
+     * @param fileName имя файла
+     * @return строки манифеста, разделенные переводом строки
+     */
+    public String format(String fileName) {
+        String lines = String.format("CRC32C (%s) = %08x", fileName, crc32c);
+        if (sha256 != null) {
+            lines += "\nSHA256 (" + fileName + ") = " + sha256;
+        }
+        return lines;
+    }
+}
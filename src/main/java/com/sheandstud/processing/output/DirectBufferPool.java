@@ -0,0 +1,42 @@
+package com.sheandstud.processing.output;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Пул прямых буферов записи.
+ * <p>
+ * Выделение прямого буфера дорогое, а освобождается его память только сборщиком мусора,
+ * поэтому буферы закрытых файлов возвращаются в пул и используются повторно,
+ * например выходными файлами следующих частей при параллельной обработке.
+ * Количество буферов в пуле не превышает наибольшего числа одновременно открытых файлов.
+ */
+final class DirectBufferPool {
+    private static final Map<Integer, ArrayDeque<ByteBuffer>> BUFFERS = new HashMap<>();
+
+    private DirectBufferPool() {
+    }
+
+    /**
+     * Возвращает очищенный буфер заданной емкости из пула или выделяет новый.
+     *
+     * @param capacity емкость буфера в байтах
+     * @return прямой буфер
+     */
+    static synchronized ByteBuffer acquire(int capacity) {
+        ArrayDeque<ByteBuffer> buffers = BUFFERS.get(capacity);
+        ByteBuffer buffer = buffers == null ? null : buffers.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Возвращает буфер в пул.
+     *
+     * @param buffer буфер, который больше не используется
+     */
+    static synchronized void release(ByteBuffer buffer) {
+        BUFFERS.computeIfAbsent(buffer.capacity(), capacity -> new ArrayDeque<>()).push(buffer);
+    }
+}
@@ -0,0 +1,405 @@
+package com.sheandstud.processing.output;
+
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.compression.GzipOutputChannel;
+import com.sheandstud.processing.memory.MemoryBudget;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Класс выходного файла, общий для всех обработчиков данных.
+ * <p>
+ * Строки записываются как последовательности байтов без перекодирования,
+ * после каждой строки добавляется системный разделитель строк.
+ * Файл создается при первой записи, поэтому файлы для отсутствующих
+ * типов данных не создаются.
+ * <p>
+ * Запись выполняется через {@link FileChannel} крупными блоками: строки накапливаются
+ * в прямом буфере размера {@link OutputSettings#bufferSize()}, который записывается
+ * в канал при заполнении и при закрытии файла. Строки длиннее буфера записываются напрямую.
+ * Память под буфер резервируется в общем бюджете при открытии файла;
+ * если бюджета не хватает, используется буфер меньшего размера.
+ * <p>
+ * Если выбрана конвейерная запись ({@link OutputSettings#pipelined()}), заполненные
+ * буферы записываются в канал отдельным потоком {@link ChannelWriter}, а обработка
+ * продолжается со свободным буфером из ограниченного набора.
+ * <p>
+ * Для каждого файла учитываются количество записанных байтов и количество
+ * операций записи в канал.
+ * <p>
+ * Если выбрано сжатие ({@link OutputSettings#isCompressed()}), данные перед записью в файл
+ * сжимаются в формат gzip ({@link GzipOutputChannel}); при конвейерной записи сжатие
+ * выполняется потоком записи. Количество записанных байтов учитывается до сжатия.
+ * <p>
+ * Если выбраны контрольные суммы ({@link OutputSettings#checksums()}), CRC32C и SHA-256
+ * вычисляются по байтам, записываемым в файл, то есть после сжатия ({@link ChecksumChannel}),
+ * и доступны после закрытия файла ({@link #getChecksums()}). В режиме добавления текущее
+ * содержимое файла читается один раз при открытии, чтобы контрольные суммы относились ко всему файлу.
+ * <p>
+ * Выходной файл, созданный методом {@link #standardOutput(Path, MemoryBudget, OutputSettings)},
+ * пишет в стандартный вывод процесса: путь используется только как имя, а канал
+ * стандартного вывода при закрытии не закрывается.
+ */
+public class OutputFile implements Closeable {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Минимальный размер буфера записи, используемый при нехватке памяти.
+     */
+    public static final int MIN_BUFFER_SIZE = 8 * 1024;
+    /**
+     * Количество буферов выходного файла при конвейерной записи.
+     */
+    public static final int PIPELINE_BUFFERS = 4;
+
+    private final Path path;
+    private final boolean appendMode;
+    private final MemoryBudget memoryBudget;
+    private final OutputSettings settings;
+    private final boolean standardOutput;
+    private FileChannel channel;
+    private WritableByteChannel sink;
+    private ChecksumChannel checksum;
+    private ByteBuffer buffer;
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private ChannelWriter writer;
+    private long bytesWritten;
+    private long flushCount;
+
+    /**
+     * Конструктор выходного файла.
+     * <p>
+     * Создает директории для выходного файла, если они не существуют.
+     *
+     * @param path       путь к выходному файлу
+     * @param appendMode режим записи: true - добавление, false - перезапись
+     */
+    public OutputFile(Path path, boolean appendMode) throws IOException {
+        this(path, appendMode, MemoryBudget.unlimited(), OutputSettings.defaults());
+    }
+
+    /**
+     * Конструктор выходного файла с заданными параметрами записи.
+     * <p>
+     * Создает директории для выходного файла, если они не существуют.
+     *
+     * @param path         путь к выходному файлу
+     * @param appendMode   режим записи: true - добавление, false - перезапись
+     * @param memoryBudget бюджет памяти для буфера записи
+     * @param settings     параметры записи
+     */
+    public OutputFile(Path path, boolean appendMode, MemoryBudget memoryBudget, OutputSettings settings)
+            throws IOException {
+        this(path, appendMode, memoryBudget, settings, false);
+        Files.createDirectories(path.getParent());
+    }
+
+    /**
+     * Конструктор выходного файла без создания директорий.
+     *
+     * @param path           путь к выходному файлу
+     * @param appendMode     режим записи: true - добавление, false - перезапись
+     * @param memoryBudget   бюджет памяти для буфера записи
+     * @param settings       параметры записи
+     * @param standardOutput true - данные записываются в стандартный вывод
+     */
+    protected OutputFile(Path path, boolean appendMode, MemoryBudget memoryBudget, OutputSettings settings,
+                         boolean standardOutput) {
+        Objects.requireNonNull(path, "Output path cannot be null");
+        this.path = path;
+        this.appendMode = appendMode;
+        this.memoryBudget = memoryBudget;
+        this.settings = settings;
+        this.standardOutput = standardOutput;
+    }
+
+    /**
+     * Создает выходной файл, который пишет в стандартный вывод процесса.
+     *
+     * @param path         путь к файлу, вместо которого используется стандартный вывод
+     * @param memoryBudget бюджет памяти для буфера записи
+     * @param settings     параметры записи
+     * @return выходной файл стандартного вывода
+     */
+    public static OutputFile standardOutput(Path path, MemoryBudget memoryBudget, OutputSettings settings) {
+        return new OutputFile(path, true, memoryBudget, settings, true);
+    }
+
+    /**
+     * Записывает строку, заданную байтами в кодировке UTF-8.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     */
+    public void writeLine(byte[] data, int offset, int length) throws IOException {
+        open();
+        if (buffer.remaining() < length + LINE_SEPARATOR.length) {
+            flush();
+            if (buffer.remaining() < length + LINE_SEPARATOR.length) {
+                drain();
+                write(ByteBuffer.wrap(data, offset, length));
+                buffer.put(LINE_SEPARATOR);
+                return;
+            }
+        }
+        buffer.put(data, offset, length).put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Записывает все строки блока.
+     * <p>
+     * Строки блока уже разделены разделителями строк, поэтому блок копируется
+     * в буфер записи целиком, без обработки отдельных строк.
+     *
+     * @param block блок строк
+     */
+    public void writeBlock(LineBlock block) throws IOException {
+        if (block.count() == 0) {
+            return;
+        }
+        open();
+        int length = block.size();
+        if (buffer.remaining() < length) {
+            flush();
+            if (buffer.remaining() < length) {
+                drain();
+                write(ByteBuffer.wrap(block.data(), 0, length));
+                return;
+            }
+        }
+        buffer.put(block.data(), 0, length);
+    }
+
+    /**
+     * Записывает строки блока, кроме отмеченных.
+     *
+     * @param block   блок строк
+     * @param skipped отметки строк, которые не нужно записывать
+     */
+    public void writeBlock(LineBlock block, boolean[] skipped) throws IOException {
+        for (int i = 0; i < block.count(); i++) {
+            if (!skipped[i]) {
+                writeLine(block.data(), block.offset(i), block.length(i));
+            }
+        }
+    }
+
+    /**
+     * Дописывает содержимое другого файла.
+     * <p>
+     * Содержимое передается из канала в канал без копирования через буфер,
+     * если не выбраны сжатие и контрольные суммы.
+     * Если файл не существует, выходной файл не создается.
+     *
+     * @param segment путь к файлу, содержимое которого дописывается
+     */
+    public void appendFrom(Path segment) throws IOException {
+        if (!Files.exists(segment)) {
+            return;
+        }
+        open();
+        flush();
+        drain();
+        try (FileChannel source = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, sink);
+            }
+            bytesWritten += size;
+            flushCount++;
+        }
+    }
+
+    /**
+     * Возвращает контрольные суммы содержимого закрытого файла.
+     * <p>
+     * В режиме добавления контрольные суммы существующего файла, в который ничего
+     * не записывалось, вычисляются чтением файла.
+     *
+     * @return контрольные суммы или null, если они не выбраны, файл не создан
+     * или данные записываются в стандартный вывод
+     */
+    public Checksums getChecksums() throws IOException {
+        if (!settings.checksums() || standardOutput) {
+            return null;
+        }
+        if (checksum == null) {
+            if (!appendMode || !Files.exists(path)) {
+                return null;
+            }
+            checksum = new ChecksumChannel(Channels.newChannel(OutputStream.nullOutputStream()), settings.sha256());
+            checksum.include(path);
+        }
+        return checksum.result();
+    }
+
+    /**
+     * Возвращает путь к выходному файлу.
+     *
+     * @return путь к выходному файлу
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Проверяет, пишет ли выходной файл в стандартный вывод.
+     *
+     * @return true, если данные записываются в стандартный вывод
+     */
+    public boolean isStandardOutput() {
+        return standardOutput;
+    }
+
+    /**
+     * Возвращает количество байтов, записанных в файл.
+     *
+     * @return количество байтов
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Возвращает количество операций записи в канал файла.
+     *
+     * @return количество операций записи
+     */
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Форматирует сведения о записи в файл.
+     *
+     * @return строка вида "integers.txt: 1024 bytes, 1 flushes"
+     */
+    public String format() {
+        return (standardOutput ? "stdout" : path.getFileName()) + ": " + bytesWritten + " bytes, " + flushCount + " flushes";
+    }
+
+    /**
+     * Открывает файл для записи, если он еще не был открыт.
+     * <p>
+     * Создает выходной файл и открывает его для записи в зависимости от режима.
+     */
+    private void open() throws IOException {
+        if (channel == null) {
+            if (standardOutput) {
+                channel = new FileOutputStream(FileDescriptor.out).getChannel();
+            } else {
+                Files.createDirectories(path.getParent());
+                channel = FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        appendMode ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING
+                );
+            }
+            WritableByteChannel target = channel;
+            if (settings.checksums() && !standardOutput) {
+                checksum = new ChecksumChannel(channel, settings.sha256());
+                if (appendMode) {
+                    checksum.include(path);
+                }
+                target = checksum;
+            }
+            sink = settings.isCompressed()
+                    ? new GzipOutputChannel(target, settings.compressionLevel(), memoryBudget)
+                    : target;
+            int count = settings.pipelined() ? PIPELINE_BUFFERS : 1;
+            for (int i = 0; i < count; i++) {
+                buffers.add(DirectBufferPool.acquire(memoryBudget.allocate(settings.bufferSize(), MIN_BUFFER_SIZE)));
+            }
+            buffer = buffers.get(0);
+            if (settings.pipelined()) {
+                writer = new ChannelWriter(sink, buffers.subList(1, count), "writer-" + path.getFileName());
+            }
+        }
+    }
+
+    /**
+     * Записывает накопленные в буфере данные в канал
+     * или передает буфер потоку записи.
+     */
+    private void flush() throws IOException {
+        if (buffer.position() > 0) {
+            buffer.flip();
+            if (writer != null) {
+                bytesWritten += buffer.remaining();
+                flushCount++;
+                buffer = writer.submit(buffer);
+            } else {
+                write(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Ожидает записи буферов, переданных потоку записи, перед прямой записью в канал.
+     */
+    private void drain() throws IOException {
+        if (writer != null) {
+            writer.drain();
+        }
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        bytesWritten += data.remaining();
+        while (data.hasRemaining()) {
+            sink.write(data);
+        }
+        flushCount++;
+    }
+
+    /**
+     * Записывает оставшиеся данные и закрывает файл.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                flush();
+            } finally {
+                try {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                    if (sink != channel) {
+                        sink.close();
+                    }
+                } finally {
+                    if (!standardOutput) {
+                        channel.close();
+                    }
+                    for (ByteBuffer released : buffers) {
+                        memoryBudget.release(released.capacity());
+                        DirectBufferPool.release(released);
+                    }
+                    buffers.clear();
+                    channel = null;
+                    sink = null;
+                    buffer = null;
+                    writer = null;
+                }
+            }
+        }
+    }
+}
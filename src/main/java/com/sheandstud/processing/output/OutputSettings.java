@@ -0,0 +1,165 @@
+package com.sheandstud.processing.output;
+
+/**
+ * Параметры записи выходных файлов, общие для всех обработчиков.
+ *
+ * @param bufferSize       желаемый размер буфера записи в байтах
+ * @param pipelined        true - буферы записываются на диск в отдельном потоке
+ * @param standardOutput   название типа данных, строки которого записываются
+ *                         в стандартный вывод вместо файла, или null
+ * @param compressionLevel уровень сжатия gzip от 1 до 9 или 0, если выходные файлы не сжимаются
+ * @param checksums        true - при записи вычисляется CRC32C содержимого выходных файлов
+ * @param sha256           true - кроме CRC32C вычисляется SHA-256
+ * @param sortMemory       объем памяти для сортировки чисел каждого выходного файла целых
+ *                         и вещественных чисел в байтах или 0, если числа не сортируются
+ */
+public record OutputSettings(int bufferSize, boolean pipelined, String standardOutput, int compressionLevel,
+                             boolean checksums, boolean sha256, long sortMemory) {
+    /**
+     * Размер буфера записи по умолчанию.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Суффикс имён сжатых выходных файлов.
+     */
+    public static final String COMPRESSED_SUFFIX = ".gz";
+
+    /**
+     * Объем памяти для сортировки чисел выходного файла по умолчанию.
+     */
+    public static final long DEFAULT_SORT_MEMORY = 64L * 1024 * 1024;
+
+    /**
+     * Наименьший объем памяти для сортировки чисел выходного файла.
+     */
+    public static final long MIN_SORT_MEMORY = 64L * 1024;
+
+    /**
+     * Проверяет параметры записи.
+     *
+     * @throws IllegalArgumentException если размер буфера меньше минимального,
+     *                                  уровень сжатия вне допустимого диапазона,
+     *                                  SHA-256 выбрана без контрольных сумм
+     *                                  или памяти для сортировки меньше минимальной
+     */
+    public OutputSettings {
+        if (bufferSize < OutputFile.MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Write buffer must be at least " + OutputFile.MIN_BUFFER_SIZE + " bytes");
+        }
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9: " + compressionLevel);
+        }
+        if (sha256 && !checksums) {
+            throw new IllegalArgumentException("SHA-256 requires checksums");
+        }
+        if (sortMemory != 0 && sortMemory < MIN_SORT_MEMORY) {
+            throw new IllegalArgumentException("Sort memory must be at least " + MIN_SORT_MEMORY + " bytes");
+        }
+    }
+
+    /**
+     * Создает параметры записи без сортировки чисел.
+     *
+     * @param bufferSize       желаемый размер буфера записи в байтах
+     * @param pipelined        true - буферы записываются на диск в отдельном потоке
+     * @param standardOutput   название типа данных, строки которого записываются
+     *                         в стандартный вывод вместо файла, или null
+     * @param compressionLevel уровень сжатия gzip от 1 до 9 или 0, если выходные файлы не сжимаются
+     * @param checksums        true - при записи вычисляется CRC32C содержимого выходных файлов
+     * @param sha256           true - кроме CRC32C вычисляется SHA-256
+     */
+    public OutputSettings(int bufferSize, boolean pipelined, String standardOutput, int compressionLevel,
+                          boolean checksums, boolean sha256) {
+        this(bufferSize, pipelined, standardOutput, compressionLevel, checksums, sha256, 0);
+    }
+
+    /**
+     * Создает параметры записи без контрольных сумм.
+     *
+     * @param bufferSize       желаемый размер буфера записи в байтах
+     * @param pipelined        true - буферы записываются на диск в отдельном потоке
+     * @param standardOutput   название типа данных, строки которого записываются
+     *                         в стандартный вывод вместо файла, или null
+     * @param compressionLevel уровень сжатия gzip от 1 до 9 или 0, если выходные файлы не сжимаются
+     */
+    public OutputSettings(int bufferSize, boolean pipelined, String standardOutput, int compressionLevel) {
+        this(bufferSize, pipelined, standardOutput, compressionLevel, false, false);
+    }
+
+    /**
+     * Создает параметры записи только в файлы.
+     *
+     * @param bufferSize желаемый размер буфера записи в байтах
+     * @param pipelined  true - буферы записываются на диск в отдельном потоке
+     */
+    public OutputSettings(int bufferSize, boolean pipelined) {
+        this(bufferSize, pipelined, null, 0);
+    }
+
+    /**
+     * Возвращает параметры записи по умолчанию.
+     *
+     * @return параметры с буфером размера {@link #DEFAULT_BUFFER_SIZE}
+     */
+    public static OutputSettings defaults() {
+        return new OutputSettings(DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * Проверяет, записываются ли строки типа данных в стандартный вывод.
+     *
+     * @param type название типа данных
+     * @return true, если строки типа записываются в стандартный вывод
+     */
+    public boolean isStandardOutput(String type) {
+        return type.equals(standardOutput);
+    }
+
+    /**
+     * Проверяет, сжимаются ли выходные файлы.
+     *
+     * @return true, если выходные файлы записываются в формате gzip
+     */
+    public boolean isCompressed() {
+        return compressionLevel > 0;
+    }
+
+    /**
+     * Проверяет, сортируются ли числа в выходных файлах.
+     *
+     * @return true, если выходные файлы целых и вещественных чисел сортируются по значению
+     */
+    public boolean isSorted() {
+        return sortMemory > 0;
+    }
+
+    /**
+     * Возвращает параметры с тем же размером буфера, записью в текущем потоке и только в файлы без сжатия.
+     * <p>
+     * Используется для частей данных, которые затем дописываются в основные выходные файлы,
+     * в том числе в стандартный вывод, и сжимаются при дописывании. Контрольные суммы частей
+     * не вычисляются: они учитываются в контрольных суммах основных файлов при дописывании.
+     * Сортировка сохраняется: отсортированные части сливаются при дописывании.
+     *
+     * @return параметры без отдельного потока записи, стандартного вывода, сжатия и контрольных сумм
+     */
+    public OutputSettings synchronous() {
+        return new OutputSettings(bufferSize, false, null, 0, false, false, sortMemory);
+    }
+
+    /**
+     * Возвращает параметры, в которых память для сортировки разделена между частями данных,
+     * обрабатываемыми одновременно, но не меньше {@link #MIN_SORT_MEMORY}.
+     *
+     * @param parts количество частей, обрабатываемых одновременно
+     * @return параметры с долей памяти для сортировки
+     */
+    public OutputSettings sortShare(int parts) {
+        if (!isSorted() || parts <= 1) {
+            return this;
+        }
+        return new OutputSettings(bufferSize, pipelined, standardOutput, compressionLevel, checksums, sha256,
+                Math.max(sortMemory / parts, MIN_SORT_MEMORY));
+    }
+}
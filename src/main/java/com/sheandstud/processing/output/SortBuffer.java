@@ -0,0 +1,403 @@
+package com.sheandstud.processing.output;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.parsing.DataType;
+import com.sheandstud.processing.parsing.DecimalParser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Буфер чисел в памяти для внешней сортировки ({@link SortedOutputFile}).
+ * <p>
+ * Целые числа в канонической записи (без знака {@code +} и ведущих нулей, не {@code -0},
+ * не больше 18 цифр) хранятся значениями в массиве long и сортируются
+ * {@link Arrays#parallelSort(long[], int, int)}: их запись однозначно восстанавливается по значению.
+ * Остальные числа хранятся записями: ключ ({@link SortRun}), позиция и длина исходной записи
+ * в общем массиве байтов. Порядок записей сортируется устойчивой параллельной сортировкой
+ * слиянием по номерам, без перемещения байтов; ключи перемещаются вместе с номерами,
+ * чтобы сравнение по ключу не обращалось к памяти записей в случайном порядке.
+ * <p>
+ * Объем памяти буфера считается по выделенным массивам с запасом роста
+ * и включает массивы, создаваемые при сортировке: рабочий массив {@link Arrays#parallelSort(long[], int, int)}
+ * для значений, порядок записей с ключами и рабочие массивы сортировки слиянием для записей.
+ * Начальные массивы резервируются в бюджете безусловно, рост - только если он помещается
+ * и в ограничение памяти буфера, и в бюджет ({@link MemoryBudget#tryReserve(long)}); иначе буфер
+ * нужно сбросить на диск. Пустой буфер растет всегда, чтобы в него поместилось любое число.
+ */
+final class SortBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_BYTES = 8 * 1024;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    private static final int INSERTION_THRESHOLD = 32;
+    /**
+     * Память на одно значение: массив значений и рабочий массив сортировки.
+     */
+    private static final int VALUE_BYTES = 2 * Long.BYTES;
+    /**
+     * Память на одну запись: ключ, позиция и длина, порядок с ключом
+     * и рабочие массивы сортировки слиянием.
+     */
+    private static final int RECORD_BYTES = 3 * Long.BYTES + 4 * Integer.BYTES;
+    /**
+     * Объем памяти пустого буфера.
+     */
+    static final long INITIAL_MEMORY = (long) INITIAL_CAPACITY * (VALUE_BYTES + RECORD_BYTES) + INITIAL_BYTES;
+
+    private final DataType type;
+    private final long memoryLimit;
+    private final MemoryBudget memoryBudget;
+    private final DecimalParser parser = new DecimalParser();
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int valueCount;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] order;
+    private long[] orderKeys;
+    private int recordCount;
+    private byte[] bytes = new byte[INITIAL_BYTES];
+    private int used;
+    private long reserved;
+
+    /**
+     * Создает пустой буфер и резервирует его начальные массивы в бюджете.
+     *
+     * @param type         тип чисел: {@link DataType#INTEGER} или {@link DataType#FLOAT}
+     * @param memoryLimit  ограничение памяти буфера в байтах
+     * @param memoryBudget бюджет памяти
+     */
+    SortBuffer(DataType type, long memoryLimit, MemoryBudget memoryBudget) {
+        this.type = type;
+        this.memoryLimit = memoryLimit;
+        this.memoryBudget = memoryBudget;
+        this.reserved = INITIAL_MEMORY;
+        memoryBudget.reserve(INITIAL_MEMORY);
+    }
+
+    /**
+     * Добавляет число, если для него хватает памяти.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала числа
+     * @param length длина числа в байтах
+     * @return true, если число добавлено, false - если массивы нельзя увеличить
+     * и буфер нужно сбросить на диск
+     */
+    boolean add(byte[] data, int offset, int length) {
+        if (type == DataType.INTEGER && isCanonicalLong(data, offset, length)) {
+            if (valueCount == values.length) {
+                if (!grow((long) valueCount * VALUE_BYTES)) {
+                    return false;
+                }
+                values = Arrays.copyOf(values, valueCount * 2);
+            }
+            values[valueCount++] = SortRun.integerKey(data, offset, length);
+            return true;
+        }
+        if (recordCount == keys.length) {
+            if (!grow((long) recordCount * RECORD_BYTES)) {
+                return false;
+            }
+            keys = Arrays.copyOf(keys, recordCount * 2);
+            offsets = Arrays.copyOf(offsets, recordCount * 2);
+            lengths = Arrays.copyOf(lengths, recordCount * 2);
+        }
+        if (bytes.length - used < length) {
+            int capacity = (int) Math.min(Math.max((long) used + length, (long) bytes.length * 2),
+                    Integer.MAX_VALUE - 8);
+            if (!grow(capacity - bytes.length)) {
+                return false;
+            }
+            bytes = Arrays.copyOf(bytes, capacity);
+        }
+        keys[recordCount] = type == DataType.INTEGER
+                ? SortRun.integerKey(data, offset, length)
+                : SortRun.floatKey(data, offset, length, parser);
+        offsets[recordCount] = used;
+        lengths[recordCount] = length;
+        recordCount++;
+        System.arraycopy(data, offset, bytes, used, length);
+        used += length;
+        return true;
+    }
+
+    /**
+     * Резервирует память для увеличения массивов.
+     * <p>
+     * Пустой буфер увеличивается всегда, даже сверх ограничения и бюджета.
+     *
+     * @param bytes объем дополнительной памяти в байтах
+     * @return true, если память зарезервирована
+     */
+    private boolean grow(long bytes) {
+        if (isEmpty()) {
+            memoryBudget.reserve(bytes);
+        } else if (reserved + bytes > memoryLimit || !memoryBudget.tryReserve(bytes)) {
+            return false;
+        }
+        reserved += bytes;
+        return true;
+    }
+
+    /**
+     * Освобождает память буфера в бюджете; буфер больше не используется.
+     */
+    void release() {
+        memoryBudget.release(reserved);
+        reserved = 0;
+    }
+
+    /**
+     * Проверяет, есть ли в буфере числа.
+     *
+     * @return true, если буфер пуст
+     */
+    boolean isEmpty() {
+        return valueCount == 0 && recordCount == 0;
+    }
+
+    /**
+     * Сортирует числа буфера.
+     */
+    void sort() {
+        Arrays.parallelSort(values, 0, valueCount);
+        order = new int[recordCount];
+        for (int i = 0; i < recordCount; i++) {
+            order[i] = i;
+        }
+        orderKeys = Arrays.copyOf(keys, recordCount);
+        if (recordCount > 1) {
+            ForkJoinPool.commonPool().invoke(
+                    new MergeSort(new int[recordCount], new long[recordCount], 0, recordCount));
+        }
+    }
+
+    /**
+     * Записывает отсортированные числа буфера во временные файлы и очищает буфер.
+     * <p>
+     * Значения записываются в файл {@link SortRun.LongFile}, записи -
+     * в файл {@link SortRun.RecordFile}; файлы создаются, только если в них есть числа.
+     *
+     * @param files источник путей временных файлов
+     * @return пути созданных файлов: файл значений или null, файл записей или null
+     */
+    Path[] spill(TempFiles files) throws IOException {
+        sort();
+        Path[] paths = new Path[2];
+        if (valueCount > 0) {
+            paths[0] = files.create();
+            try (DataOutputStream output = openData(paths[0])) {
+                for (int i = 0; i < valueCount; i++) {
+                    output.writeLong(values[i]);
+                }
+            }
+        }
+        if (recordCount > 0) {
+            paths[1] = files.create();
+            try (DataOutputStream output = openData(paths[1])) {
+                for (int i = 0; i < recordCount; i++) {
+                    int record = order[i];
+                    output.writeLong(orderKeys[i]);
+                    output.writeInt(lengths[record]);
+                    output.write(bytes, offsets[record], lengths[record]);
+                }
+            }
+        }
+        clear();
+        return paths;
+    }
+
+    /**
+     * Возвращает последовательности отсортированных чисел буфера без записи на диск.
+     * <p>
+     * Буфер не должен изменяться, пока последовательности читаются.
+     *
+     * @param index номер первой последовательности
+     * @return последовательности значений и записей, если они есть
+     */
+    List<SortRun> runs(int index) {
+        sort();
+        List<SortRun> runs = new ArrayList<>(2);
+        if (valueCount > 0) {
+            runs.add(new ValueRun(index++));
+        }
+        if (recordCount > 0) {
+            runs.add(new RecordRun(index));
+        }
+        return runs;
+    }
+
+    /**
+     * Удаляет все числа, сохраняя выделенные массивы.
+     */
+    void clear() {
+        valueCount = 0;
+        recordCount = 0;
+        used = 0;
+        order = null;
+        orderKeys = null;
+    }
+
+    /**
+     * Проверяет, что целое число однозначно восстанавливается по значению long.
+     */
+    private static boolean isCanonicalLong(byte[] data, int offset, int length) {
+        int start = data[offset] == '-' ? offset + 1 : offset;
+        int digits = offset + length - start;
+        if (data[start] == '+' || digits > MAX_LONG_DIGITS) {
+            return false;
+        }
+        return data[start] != '0' || digits == 1 && start == offset;
+    }
+
+    private static DataOutputStream openData(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), WRITE_BUFFER_SIZE));
+    }
+
+    /**
+     * Сравнивает записи по ключам, а при равных ключах - точно по записи чисел.
+     */
+    private int compareRecords(long key1, int record1, long key2, int record2) {
+        if (key1 != key2) {
+            return key1 < key2 ? -1 : 1;
+        }
+        return SortRun.compare(type, key1, bytes, offsets[record1], lengths[record1],
+                key2, bytes, offsets[record2], lengths[record2]);
+    }
+
+    /**
+     * Источник путей временных файлов для сброса буфера на диск.
+     */
+    @FunctionalInterface
+    interface TempFiles {
+        Path create() throws IOException;
+    }
+
+    /**
+     * Устойчивая сортировка слиянием части порядка записей: половины сортируются параллельно,
+     * части меньше {@link #SEQUENTIAL_THRESHOLD} - в текущем потоке.
+     */
+    private final class MergeSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] buffer;
+        private final long[] keyBuffer;
+        private final int from;
+        private final int to;
+
+        MergeSort(int[] buffer, long[] keyBuffer, int from, int to) {
+            this.buffer = buffer;
+            this.keyBuffer = keyBuffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                sort(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MergeSort(buffer, keyBuffer, from, middle), new MergeSort(buffer, keyBuffer, middle, to));
+            merge(from, middle, to);
+        }
+
+        private void sort(int from, int to) {
+            if (to - from <= INSERTION_THRESHOLD) {
+                for (int i = from + 1; i < to; i++) {
+                    int record = order[i];
+                    long key = orderKeys[i];
+                    int j = i;
+                    while (j > from && compareRecords(orderKeys[j - 1], order[j - 1], key, record) > 0) {
+                        order[j] = order[j - 1];
+                        orderKeys[j] = orderKeys[j - 1];
+                        j--;
+                    }
+                    order[j] = record;
+                    orderKeys[j] = key;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            sort(from, middle);
+            sort(middle, to);
+            merge(from, middle, to);
+        }
+
+        private void merge(int from, int middle, int to) {
+            if (compareRecords(orderKeys[middle - 1], order[middle - 1], orderKeys[middle], order[middle]) <= 0) {
+                return;
+            }
+            System.arraycopy(order, from, buffer, from, to - from);
+            System.arraycopy(orderKeys, from, keyBuffer, from, to - from);
+            int i = from;
+            int j = middle;
+            for (int k = from; k < to; k++) {
+                if (j == to || i < middle && compareRecords(keyBuffer[i], buffer[i], keyBuffer[j], buffer[j]) <= 0) {
+                    orderKeys[k] = keyBuffer[i];
+                    order[k] = buffer[i++];
+                } else {
+                    orderKeys[k] = keyBuffer[j];
+                    order[k] = buffer[j++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Последовательность отсортированных значений буфера.
+     */
+    private final class ValueRun extends SortRun {
+        private int position;
+
+        ValueRun(int index) {
+            super(index);
+        }
+
+        @Override
+        boolean next() {
+            if (position == valueCount) {
+                return false;
+            }
+            key = values[position++];
+            formatLong(key);
+            return true;
+        }
+    }
+
+    /**
+     * Последовательность отсортированных записей буфера.
+     */
+    private final class RecordRun extends SortRun {
+        private int position;
+
+        RecordRun(int index) {
+            super(index);
+        }
+
+        @Override
+        boolean next() {
+            if (position == recordCount) {
+                return false;
+            }
+            key = orderKeys[position];
+            int record = order[position++];
+            length = lengths[record];
+            ensureText(length);
+            System.arraycopy(bytes, offsets[record], text, 0, length);
+            return true;
+        }
+    }
+}
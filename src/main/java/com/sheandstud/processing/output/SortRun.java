@@ -0,0 +1,333 @@
+package com.sheandstud.processing.output;
+
+import com.sheandstud.processing.parsing.DataType;
+import com.sheandstud.processing.parsing.DecimalParser;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Отсортированная последовательность чисел, читаемая при слиянии ({@link SortedOutputFile}).
+ * <p>
+ * Каждое число представлено строкой в исходной записи и ключом long, монотонным по значению:
+ * для целых чисел до 18 цифр ключ равен значению, а большие числа получают
+ * {@link Long#MIN_VALUE} или {@link Long#MAX_VALUE}; для вещественных чисел ключ - биты
+ * ближайшего double, упорядоченные как long. Поэтому разные ключи однозначно задают порядок,
+ * а равные ключи сравниваются точно: большие целые числа - по знаку, количеству и цифрам,
+ * вещественные - по {@link BigDecimal}.
+ */
+abstract class SortRun {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_EXACT_POWER = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int index;
+    long key;
+    byte[] text = new byte[32];
+    int length;
+
+    /**
+     * @param index номер последовательности: при равных значениях первым выводится число
+     *              последовательности с меньшим номером
+     */
+    SortRun(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Переходит к следующему числу.
+     *
+     * @return false, если числа закончились
+     */
+    abstract boolean next() throws IOException;
+
+    /**
+     * Закрывает файл последовательности, если он открыт.
+     */
+    void close() throws IOException {
+    }
+
+    /**
+     * Возвращает порядок последовательностей по текущему числу, а при равных числах - по номеру.
+     *
+     * @param type тип чисел
+     * @return порядок последовательностей
+     */
+    static Comparator<SortRun> comparator(DataType type) {
+        return (a, b) -> {
+            int result = compare(type, a.key, a.text, 0, a.length, b.key, b.text, 0, b.length);
+            return result != 0 ? result : Integer.compare(a.index, b.index);
+        };
+    }
+
+    /**
+     * Сравнивает два числа по ключам, а при равных ключах - точно по записи чисел.
+     */
+    static int compare(DataType type, long key1, byte[] text1, int offset1, int length1,
+                       long key2, byte[] text2, int offset2, int length2) {
+        int result = Long.compare(key1, key2);
+        if (result != 0 || type == DataType.INTEGER && key1 != Long.MIN_VALUE && key1 != Long.MAX_VALUE) {
+            return result;
+        }
+        if (type == DataType.INTEGER) {
+            return compareIntegers(text1, offset1, length1, text2, offset2, length2);
+        }
+        if (Arrays.equals(text1, offset1, offset1 + length1, text2, offset2, offset2 + length2)) {
+            return 0;
+        }
+        String value1 = new String(text1, offset1, length1, StandardCharsets.US_ASCII);
+        String value2 = new String(text2, offset2, length2, StandardCharsets.US_ASCII);
+        try {
+            return new BigDecimal(value1).compareTo(new BigDecimal(value2));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot sort invalid number: " + value1 + " or " + value2, e);
+        }
+    }
+
+    /**
+     * Сравнивает целые числа {@code [-+]?\d+} без преобразования: по знаку, затем по количеству
+     * цифр без ведущих нулей, затем по цифрам.
+     */
+    private static int compareIntegers(byte[] text1, int offset1, int length1,
+                                       byte[] text2, int offset2, int length2) {
+        int start1 = skipSignAndZeros(text1, offset1, length1);
+        int start2 = skipSignAndZeros(text2, offset2, length2);
+        int end1 = offset1 + length1;
+        int end2 = offset2 + length2;
+        boolean negative1 = text1[offset1] == '-' && text1[start1] != '0';
+        boolean negative2 = text2[offset2] == '-' && text2[start2] != '0';
+        if (negative1 != negative2) {
+            return negative1 ? -1 : 1;
+        }
+        int result = end1 - start1 != end2 - start2
+                ? Integer.compare(end1 - start1, end2 - start2)
+                : Arrays.compare(text1, start1, end1, text2, start2, end2);
+        return negative1 ? -result : result;
+    }
+
+    private static int skipSignAndZeros(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int i = data[offset] == '-' || data[offset] == '+' ? offset + 1 : offset;
+        while (i < end - 1 && data[i] == '0') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Вычисляет ключ целого числа: значение, если в числе не больше 18 значащих цифр,
+     * иначе {@link Long#MIN_VALUE} или {@link Long#MAX_VALUE} в зависимости от знака.
+     */
+    static long integerKey(byte[] data, int offset, int length) {
+        int end = offset + length;
+        boolean negative = data[offset] == '-';
+        int i = skipSignAndZeros(data, offset, length);
+        if (end - i > MAX_LONG_DIGITS) {
+            return negative ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Вычисляет ключ вещественного числа: биты ближайшего double, упорядоченные как long.
+     * <p>
+     * Округление до double монотонно, поэтому большее число не получает меньший ключ.
+     * Числа с мантиссой до 2^53 и масштабом до 22 переводятся одним точным действием,
+     * остальные - {@link Double#parseDouble(String)}.
+     */
+    static long floatKey(byte[] data, int offset, int length, DecimalParser parser) {
+        double value;
+        if (parser.parse(data, offset, length) && Math.abs(parser.unscaled()) < MAX_EXACT_MANTISSA
+                && Math.abs(parser.scale()) <= MAX_EXACT_POWER) {
+            value = parser.scale() >= 0
+                    ? parser.unscaled() / POWERS_OF_TEN[parser.scale()]
+                    : parser.unscaled() * POWERS_OF_TEN[-parser.scale()];
+        } else {
+            value = Double.parseDouble(new String(data, offset, length, StandardCharsets.US_ASCII));
+        }
+        long bits = Double.doubleToLongBits(value + 0.0);
+        return bits ^ (bits >> 63 & Long.MAX_VALUE);
+    }
+
+    /**
+     * Записывает десятичную запись числа long в буфер последовательности.
+     */
+    void formatLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            byte[] bytes = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, text, 0, bytes.length);
+            length = bytes.length;
+            return;
+        }
+        long rest = Math.abs(value);
+        int size = (value < 0 ? 1 : 0) + (rest == 0 ? 1 : 0);
+        for (long v = rest; v > 0; v /= 10) {
+            size++;
+        }
+        int i = size;
+        do {
+            text[--i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest > 0);
+        if (value < 0) {
+            text[0] = '-';
+        }
+        length = size;
+    }
+
+    /**
+     * Увеличивает буфер записи числа, сохраняя его содержимое.
+     */
+    void ensureText(int size) {
+        if (text.length < size) {
+            text = Arrays.copyOf(text, Math.max(size, text.length * 2));
+        }
+    }
+
+    static DataInputStream openData(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), READ_BUFFER_SIZE));
+    }
+
+    /**
+     * Файл целых чисел, записанных как long ({@link SortBuffer#spill}).
+     */
+    static final class LongFile extends SortRun {
+        private final DataInputStream input;
+
+        LongFile(int index, Path path) throws IOException {
+            super(index);
+            input = openData(path);
+        }
+
+        @Override
+        boolean next() throws IOException {
+            try {
+                key = input.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            formatLong(key);
+            return true;
+        }
+
+        @Override
+        void close() throws IOException {
+            input.close();
+        }
+    }
+
+    /**
+     * Файл чисел, записанных ключом, длиной и исходной записью ({@link SortBuffer#spill}).
+     */
+    static final class RecordFile extends SortRun {
+        private final DataInputStream input;
+
+        RecordFile(int index, Path path) throws IOException {
+            super(index);
+            input = openData(path);
+        }
+
+        @Override
+        boolean next() throws IOException {
+            try {
+                key = input.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            length = input.readInt();
+            ensureText(length);
+            input.readFully(text, 0, length);
+            return true;
+        }
+
+        @Override
+        void close() throws IOException {
+            input.close();
+        }
+    }
+
+    /**
+     * Текстовый файл с уже отсортированными числами, по одному в строке, например
+     * результат сортировки части данных при параллельной обработке. Ключи вычисляются при чтении.
+     */
+    static final class TextFile extends SortRun {
+        private final InputStream input;
+        private final DataType type;
+        private final DecimalParser parser = new DecimalParser();
+        private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        TextFile(int index, InputStream input, DataType type) {
+            super(index);
+            this.input = input;
+            this.type = type;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            do {
+                if (!readLine()) {
+                    return false;
+                }
+            } while (length == 0);
+            key = type == DataType.INTEGER ? integerKey(text, 0, length) : floatKey(text, 0, length, parser);
+            return true;
+        }
+
+        private boolean readLine() throws IOException {
+            length = 0;
+            while (true) {
+                if (position == limit) {
+                    limit = input.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return length > 0;
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                ensureText(length + position - start);
+                System.arraycopy(buffer, start, text, length, position - start);
+                length += position - start;
+                if (position < limit) {
+                    position++;
+                    if (length > 0 && text[length - 1] == '\r') {
+                        length--;
+                    }
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.sheandstud.processing.output;
+
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.parsing.DataType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Выходной файл целых или вещественных чисел, отсортированных по значению ({@code --sort}).
+ * <p>
+ * Выполняется внешняя сортировка слиянием: числа накапливаются в буфере {@link SortBuffer},
+ * который, когда его массивы нельзя увеличить в пределах ограничения памяти
+ * ({@link OutputSettings#sortMemory()}) или бюджета памяти, сортируется и сбрасывается
+ * во временный файл рядом с выходным файлом. Память буфера учитывается в бюджете
+ * и освобождается при закрытии. При закрытии
+ * отсортированные последовательности из временных файлов и памяти сливаются
+ * ({@link SortRun}), и числа записываются в файл обычным образом, со сжатием и
+ * контрольными суммами, если они выбраны. Временные файлы удаляются.
+ * <p>
+ * Одновременно читается не больше {@link #MAX_MERGE_FAN_IN} временных файлов: их количество
+ * определяется памятью для сортировки, а буферы чтения резервируются в бюджете памяти.
+ * Если временных файлов больше, они предварительно сливаются по частям
+ * в промежуточные временные файлы, пока их количество не станет допустимым.
+ * <p>
+ * Числа записываются в исходной записи: {@code +5}, {@code 005} и {@code 1.50} не изменяются.
+ * Порядок чисел с равными значениями и разной записью, например {@code 5} и {@code +5}, не определен.
+ * <p>
+ * Части, дописываемые при параллельной обработке ({@link #appendFrom(Path)}), уже отсортированы
+ * и становятся последовательностями слияния без повторной сортировки.
+ * В режиме добавления существующее содержимое файла сортируется вместе с новыми числами,
+ * поэтому файл остается отсортированным целиком; если новых чисел нет, файл не изменяется.
+ */
+public class SortedOutputFile extends OutputFile {
+    /**
+     * Наибольший объем памяти буфера сортировки: массивы буфера должны помещаться в int.
+     */
+    public static final long MAX_SORT_MEMORY = 512L * 1024 * 1024;
+
+    /**
+     * Объем памяти пустого буфера сортировки, резервируемый в бюджете при создании файла.
+     */
+    public static final long INITIAL_SORT_MEMORY = SortBuffer.INITIAL_MEMORY;
+
+    /**
+     * Наибольшее количество временных файлов, одновременно читаемых при слиянии.
+     */
+    public static final int MAX_MERGE_FAN_IN = 64;
+
+    /**
+     * Наименьшее количество временных файлов, одновременно читаемых при слиянии;
+     * используется при нехватке памяти.
+     */
+    public static final int MIN_MERGE_FAN_IN = 2;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    /**
+     * Память для чтения одного временного файла: буфер потока и буфер строк текстового файла.
+     */
+    private static final int RUN_READ_MEMORY = 2 * READ_BUFFER_SIZE;
+
+    private final MemoryBudget memoryBudget;
+
+    private final boolean appendExisting;
+    private final OutputSettings settings;
+    private final DataType type;
+    private SortBuffer buffer;
+    private final List<RunFile> runFiles = new ArrayList<>();
+    private boolean finished;
+
+    /**
+     * Конструктор отсортированного выходного файла.
+     * <p>
+     * Создает директории для выходного файла, если они не существуют.
+     *
+     * @param path         путь к выходному файлу
+     * @param appendMode   режим записи: true - добавление, false - перезапись
+     * @param memoryBudget бюджет памяти для буферов записи и сортировки
+     * @param settings     параметры записи с объемом памяти для сортировки
+     * @param type         тип чисел: {@link DataType#INTEGER} или {@link DataType#FLOAT}
+     */
+    public SortedOutputFile(Path path, boolean appendMode, MemoryBudget memoryBudget, OutputSettings settings,
+                            DataType type) throws IOException {
+        this(path, appendMode, memoryBudget, settings, type, false);
+        Files.createDirectories(path.getParent());
+    }
+
+    private SortedOutputFile(Path path, boolean appendMode, MemoryBudget memoryBudget, OutputSettings settings,
+                             DataType type, boolean standardOutput) {
+        super(path, false, memoryBudget, settings, standardOutput);
+        if (type != DataType.INTEGER && type != DataType.FLOAT) {
+            throw new IllegalArgumentException("Only integers and floats can be sorted: " + type);
+        }
+        if (!settings.isSorted()) {
+            throw new IllegalArgumentException("Sort memory is not set");
+        }
+        this.appendExisting = appendMode && !standardOutput;
+        this.memoryBudget = memoryBudget;
+        this.settings = settings;
+        this.type = type;
+        this.buffer = new SortBuffer(type, Math.min(settings.sortMemory(), MAX_SORT_MEMORY), memoryBudget);
+    }
+
+    /**
+     * Создает отсортированный выходной файл, который пишет в стандартный вывод процесса.
+     * <p>
+     * Временные файлы создаются в директории, заданной путем.
+     *
+     * @param path         путь к файлу, вместо которого используется стандартный вывод
+     * @param memoryBudget бюджет памяти для буферов записи и сортировки
+     * @param settings     параметры записи с объемом памяти для сортировки
+     * @param type         тип чисел: {@link DataType#INTEGER} или {@link DataType#FLOAT}
+     * @return выходной файл стандартного вывода
+     */
+    public static SortedOutputFile standardOutput(Path path, MemoryBudget memoryBudget, OutputSettings settings,
+                                                  DataType type) {
+        return new SortedOutputFile(path, false, memoryBudget, settings, type, true);
+    }
+
+    /**
+     * Добавляет число в сортировку; число записывается в файл при закрытии.
+     */
+    @Override
+    public void writeLine(byte[] data, int offset, int length) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Sorted output is already written: " + getPath());
+        }
+        add(data, offset, length);
+    }
+
+    /**
+     * Добавляет в сортировку все числа блока.
+     */
+    @Override
+    public void writeBlock(LineBlock block) throws IOException {
+        for (int i = 0; i < block.count(); i++) {
+            writeLine(block.data(), block.offset(i), block.length(i));
+        }
+    }
+
+    /**
+     * Добавляет отсортированное содержимое другого файла как последовательность слияния.
+     * <p>
+     * Файл переносится во временный файл выходного файла и удаляется после слияния.
+     * Если файл не существует, ничего не происходит.
+     *
+     * @param segment путь к файлу с отсортированными числами без сжатия
+     */
+    @Override
+    public void appendFrom(Path segment) throws IOException {
+        if (!Files.exists(segment)) {
+            return;
+        }
+        Path run = createTempFile();
+        Files.move(segment, run, StandardCopyOption.REPLACE_EXISTING);
+        runFiles.add(new RunFile(run, RunFormat.TEXT));
+    }
+
+    /**
+     * Сливает отсортированные последовательности, записывает числа и закрывает файл.
+     * <p>
+     * Буфер сортировки освобождается, даже если объект файла еще используется,
+     * например менеджером части данных до объединения.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            finished = true;
+            try {
+                merge();
+            } finally {
+                buffer.release();
+                buffer = null;
+                for (RunFile file : runFiles) {
+                    Files.deleteIfExists(file.path());
+                }
+                runFiles.clear();
+            }
+        }
+        super.close();
+    }
+
+    /**
+     * Возвращает контрольные суммы содержимого закрытого файла.
+     * <p>
+     * В режиме добавления контрольные суммы существующего файла, который не переписывался,
+     * вычисляются чтением файла.
+     */
+    @Override
+    public Checksums getChecksums() throws IOException {
+        Checksums checksums = super.getChecksums();
+        if (checksums == null && appendExisting && settings.checksums() && Files.exists(getPath())) {
+            ChecksumChannel checksum = new ChecksumChannel(
+                    Channels.newChannel(OutputStream.nullOutputStream()), settings.sha256());
+            checksum.include(getPath());
+            checksums = checksum.result();
+        }
+        return checksums;
+    }
+
+    /**
+     * Добавляет число в буфер, если буфер заполнен - предварительно сбросив его на диск.
+     */
+    private void add(byte[] data, int offset, int length) throws IOException {
+        if (!buffer.add(data, offset, length)) {
+            spill();
+            buffer.add(data, offset, length);
+        }
+    }
+
+    /**
+     * Сортирует числа буфера и записывает их во временные файлы.
+     */
+    private void spill() throws IOException {
+        Path[] paths = buffer.spill(this::createTempFile);
+        if (paths[0] != null) {
+            runFiles.add(new RunFile(paths[0], RunFormat.LONGS));
+        }
+        if (paths[1] != null) {
+            runFiles.add(new RunFile(paths[1], RunFormat.RECORDS));
+        }
+    }
+
+    /**
+     * Сливает последовательности из временных файлов и памяти и записывает числа в файл.
+     * <p>
+     * В режиме добавления существующее содержимое файла предварительно добавляется в сортировку.
+     * Если временных файлов больше, чем можно читать одновременно, они предварительно
+     * сливаются в промежуточные ({@link #mergePass(int)}).
+     */
+    private void merge() throws IOException {
+        if (buffer.isEmpty() && runFiles.isEmpty()) {
+            return;
+        }
+        if (appendExisting && Files.exists(getPath())) {
+            readExisting();
+        }
+        int fanIn = reserveFanIn();
+        List<SortRun> runs = new ArrayList<>();
+        try {
+            while (runFiles.size() > fanIn) {
+                mergePass(fanIn);
+            }
+            for (RunFile file : runFiles) {
+                runs.add(file.open(runs.size(), type));
+            }
+            runs.addAll(buffer.runs(runs.size()));
+            merge(runs, run -> super.writeLine(run.text, 0, run.length));
+        } finally {
+            for (SortRun run : runs) {
+                run.close();
+            }
+            memoryBudget.release((long) fanIn * RUN_READ_MEMORY);
+        }
+    }
+
+    /**
+     * Резервирует в бюджете буферы чтения временных файлов при слиянии.
+     * <p>
+     * Количество файлов ограничено памятью для сортировки и {@link #MAX_MERGE_FAN_IN};
+     * буферы сверх {@link #MIN_MERGE_FAN_IN} резервируются, только если они помещаются в бюджет.
+     *
+     * @return количество временных файлов, которые можно читать одновременно
+     */
+    private int reserveFanIn() {
+        long limit = Math.min(Math.min(MAX_MERGE_FAN_IN, settings.sortMemory() / RUN_READ_MEMORY), runFiles.size());
+        int fanIn = Math.min(MIN_MERGE_FAN_IN, runFiles.size());
+        memoryBudget.reserve((long) fanIn * RUN_READ_MEMORY);
+        while (fanIn < limit && memoryBudget.tryReserve(RUN_READ_MEMORY)) {
+            fanIn++;
+        }
+        return fanIn;
+    }
+
+    /**
+     * Сливает временные файлы группами по {@code fanIn} подряд идущих файлов в промежуточные
+     * файлы записей ({@link SortRun.RecordFile}). Промежуточный файл занимает место своей группы,
+     * поэтому числа с равными значениями сохраняют порядок последовательностей.
+     *
+     * @param fanIn количество временных файлов, которые можно читать одновременно
+     */
+    private void mergePass(int fanIn) throws IOException {
+        for (int start = 0; start < runFiles.size(); start++) {
+            int count = Math.min(fanIn, runFiles.size() - start);
+            if (count > 1) {
+                mergeGroup(start, count);
+            }
+        }
+    }
+
+    /**
+     * Сливает подряд идущие временные файлы в один промежуточный файл и удаляет их.
+     *
+     * @param start позиция первого файла группы
+     * @param count количество файлов группы
+     */
+    private void mergeGroup(int start, int count) throws IOException {
+        Path path = createTempFile();
+        runFiles.add(start, new RunFile(path, RunFormat.RECORDS));
+        List<RunFile> group = runFiles.subList(start + 1, start + 1 + count);
+        List<SortRun> runs = new ArrayList<>(count);
+        memoryBudget.reserve(READ_BUFFER_SIZE);
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), READ_BUFFER_SIZE))) {
+            for (RunFile file : group) {
+                runs.add(file.open(runs.size(), type));
+            }
+            merge(runs, run -> {
+                output.writeLong(run.key);
+                output.writeInt(run.length);
+                output.write(run.text, 0, run.length);
+            });
+        } finally {
+            for (SortRun run : runs) {
+                run.close();
+            }
+            memoryBudget.release(READ_BUFFER_SIZE);
+        }
+        for (RunFile file : group) {
+            Files.deleteIfExists(file.path());
+        }
+        group.clear();
+    }
+
+    /**
+     * Сливает последовательности и передает числа в порядке возрастания.
+     * <p>
+     * Пока текущая последовательность не больше остальных, числа берутся из нее без перестройки очереди.
+     *
+     * @param runs   последовательности
+     * @param output получатель чисел
+     */
+    private void merge(List<SortRun> runs, MergeOutput output) throws IOException {
+        Comparator<SortRun> order = SortRun.comparator(type);
+        PriorityQueue<SortRun> queue = new PriorityQueue<>(Math.max(runs.size(), 1), order);
+        for (SortRun run : runs) {
+            if (run.next()) {
+                queue.add(run);
+            }
+        }
+        SortRun run = queue.poll();
+        while (run != null) {
+            output.write(run);
+            if (!run.next()) {
+                run = queue.poll();
+            } else if (!queue.isEmpty() && order.compare(run, queue.peek()) > 0) {
+                queue.add(run);
+                run = queue.poll();
+            }
+        }
+    }
+
+    /**
+     * Добавляет в сортировку числа существующего выходного файла, распаковывая его, если выбрано сжатие.
+     */
+    private void readExisting() throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(getPath()), READ_BUFFER_SIZE);
+        if (settings.isCompressed()) {
+            input = new GZIPInputStream(input, READ_BUFFER_SIZE);
+        }
+        SortRun existing = new SortRun.TextFile(0, input, type);
+        try {
+            while (existing.next()) {
+                add(existing.text, 0, existing.length);
+            }
+        } finally {
+            existing.close();
+        }
+    }
+
+    private Path createTempFile() throws IOException {
+        Path absolute = getPath().toAbsolutePath();
+        return Files.createTempFile(absolute.getParent(), "." + absolute.getFileName() + "-", ".run");
+    }
+
+    /**
+     * Получатель чисел, передаваемых при слиянии.
+     */
+    @FunctionalInterface
+    private interface MergeOutput {
+        void write(SortRun run) throws IOException;
+    }
+
+    /**
+     * Формат временного файла последовательности.
+     */
+    private enum RunFormat {
+        LONGS, RECORDS, TEXT
+    }
+
+    /**
+     * Временный файл отсортированной последовательности.
+     */
+    private record RunFile(Path path, RunFormat format) {
+        SortRun open(int index, DataType type) throws IOException {
+            return switch (format) {
+                case LONGS -> new SortRun.LongFile(index, path);
+                case RECORDS -> new SortRun.RecordFile(index, path);
+                case TEXT -> new SortRun.TextFile(index,
+                        new BufferedInputStream(Files.newInputStream(path), READ_BUFFER_SIZE), type);
+            };
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.sheandstud.processing.parsing;
+
+/**
+ * Перечисление типов данных, на которые разделяются строки входных файлов.
+ */
+public enum DataType {
+    /**
+     * Целое число, например: -111, +111, 111.
+     */
+    INTEGER,
+    /**
+     * Вещественное число, например: -111.111, .111, -111111E-3.
+     */
+    FLOAT,
+    /**
+     * Всё, что не относится к формату чисел.
+     */
+    STRING
+}
@@ -0,0 +1,261 @@
+package com.sheandstud.processing.parsing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Класс для разбора вещественных чисел в компактное представление:
+ * мантисса в long и масштаб в int, значение равно {@code unscaled * 10^-scale}.
+ * <p>
+ * Разбор выполняется без создания объектов, один экземпляр можно использовать повторно.
+ * Если число нельзя представить точно (больше 18 значащих цифр или слишком большой
+ * показатель степени), метод {@link #parse(byte[], int, int)} возвращает false,
+ * и число следует разобрать с помощью {@link java.math.BigDecimal}.
+ */
+public final class DecimalParser {
+    /**
+     * Максимальное количество значащих цифр, гарантированно помещающихся в long.
+     */
+    private static final int MAX_DIGITS = 18;
+    /**
+     * Предел модуля показателя степени, при котором масштаб гарантированно помещается в int.
+     */
+    private static final long MAX_EXPONENT = 1_000_000_000L;
+
+    /**
+     * Степени десяти, при умножении на которые мантисса может остаться в пределах long.
+     */
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private long unscaled;
+    private int scale;
+
+    /**
+     * Разбирает строку, уже распознанную как вещественное число
+     * грамматикой {@link com.sheandstud.processing.types.FloatType#GRAMMAR}.
+     *
+     * @param data строка с вещественным числом
+     * @return true, если число представлено точно, иначе false
+     */
+    public boolean parse(String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Разбирает вещественное число, заданное байтами и уже распознанное
+     * грамматикой {@link com.sheandstud.processing.types.FloatType#GRAMMAR}.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала числа
+     * @param length длина числа в байтах
+     * @return true, если число представлено точно, иначе false
+     */
+    public boolean parse(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+
+        byte c = data[i];
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+
+        for (; i < end; i++) {
+            c = data[i];
+            if (c == '.') {
+                fraction = true;
+                continue;
+            }
+            if (c == 'e' || c == 'E') {
+                break;
+            }
+            if (fraction) {
+                fractionDigits++;
+            }
+            if (value != 0 || c != '0') {
+                if (++digits > MAX_DIGITS) {
+                    return false;
+                }
+                value = value * 10 + (c - '0');
+            }
+        }
+
+        long exponent = 0;
+        if (i < end) {
+            i++;
+            boolean negativeExponent = false;
+            c = data[i];
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                i++;
+            }
+            for (; i < end; i++) {
+                exponent = exponent * 10 + (data[i] - '0');
+                if (exponent > MAX_EXPONENT) {
+                    return false;
+                }
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+
+        long resultScale = fractionDigits - exponent;
+        if (resultScale != (int) resultScale) {
+            return false;
+        }
+        unscaled = negative ? -value : value;
+        scale = (int) resultScale;
+        return true;
+    }
+
+    /**
+     * Проверяет, что строку, уже распознанную как вещественное число, можно разобрать
+     * с помощью {@link java.math.BigDecimal}, не создавая объектов.
+     * <p>
+     * Повторяет проверки конструктора {@link java.math.BigDecimal#BigDecimal(String)}:
+     * показатель степени содержит не более 10 значащих цифр и помещается в int,
+     * а итоговый масштаб также помещается в int.
+     *
+     * @param data строка с вещественным числом
+     * @return true, если число может быть разобрано, иначе false
+     */
+    public static boolean isValid(String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+        return isValid(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Проверяет вещественное число, заданное байтами, так же как {@link #isValid(String)}.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала числа
+     * @param length длина числа в байтах
+     * @return true, если число может быть разобрано, иначе false
+     */
+    public static boolean isValid(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        int fractionDigits = 0;
+        boolean fraction = false;
+
+        for (; i < end; i++) {
+            byte c = data[i];
+            if (c == 'e' || c == 'E') {
+                break;
+            }
+            if (c == '.') {
+                fraction = true;
+            } else if (fraction) {
+                fractionDigits++;
+            }
+        }
+        if (i == end) {
+            return true;
+        }
+
+        i++;
+        boolean negativeExponent = false;
+        byte c = data[i];
+        if (c == '-' || c == '+') {
+            negativeExponent = c == '-';
+            i++;
+        }
+        while (end - i > 10 && data[i] == '0') {
+            i++;
+        }
+        if (end - i > 10) {
+            return false;
+        }
+
+        long exponent = 0;
+        for (; i < end; i++) {
+            exponent = exponent * 10 + (data[i] - '0');
+        }
+        if (negativeExponent) {
+            exponent = -exponent;
+        }
+        long scale = fractionDigits - exponent;
+        return exponent == (int) exponent && scale == (int) scale;
+    }
+
+    /**
+     * Возвращает мантиссу последнего разобранного числа.
+     *
+     * @return мантисса
+     */
+    public long unscaled() {
+        return unscaled;
+    }
+
+    /**
+     * Возвращает масштаб последнего разобранного числа.
+     *
+     * @return масштаб
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Сравнивает два числа в компактном представлении без создания объектов.
+     * <p>
+     * Масштабы могут быть любыми, в том числе отрицательными.
+     *
+     * @return отрицательное число, ноль или положительное число,
+     * если первое число меньше, равно или больше второго
+     */
+    public static int compare(long leftUnscaled, int leftScale, long rightUnscaled, int rightScale) {
+        if (leftScale == rightScale) {
+            return Long.compare(leftUnscaled, rightUnscaled);
+        }
+        int leftSign = Long.signum(leftUnscaled);
+        int rightSign = Long.signum(rightUnscaled);
+        if (leftSign != rightSign || leftSign == 0) {
+            return Integer.compare(leftSign, rightSign);
+        }
+
+        if (leftScale < rightScale) {
+            long left = scaleUp(leftUnscaled, (long) rightScale - leftScale);
+            return left == Long.MIN_VALUE ? leftSign : Long.compare(left, rightUnscaled);
+        }
+        long right = scaleUp(rightUnscaled, (long) leftScale - rightScale);
+        return right == Long.MIN_VALUE ? -rightSign : Long.compare(leftUnscaled, right);
+    }
+
+    /**
+     * Умножает мантиссу на 10 в заданной степени.
+     * <p>
+     * Значение {@link Long#MIN_VALUE} не может получиться при разборе чисел
+     * и используется как признак переполнения.
+     *
+     * @param unscaled мантисса числа
+     * @param digits   степень десяти
+     * @return результат умножения или {@link Long#MIN_VALUE} при переполнении
+     */
+    public static long scaleUp(long unscaled, long digits) {
+        if (unscaled == 0) {
+            return 0;
+        }
+        if (digits >= POWERS_OF_TEN.length) {
+            return Long.MIN_VALUE;
+        }
+        long power = POWERS_OF_TEN[(int) digits];
+        long limit = Long.MAX_VALUE / power;
+        if (unscaled > limit || unscaled < -limit) {
+            return Long.MIN_VALUE;
+        }
+        return unscaled * power;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sheandstud.processing.parsing;
+
+/**
+ * Класс для разбора целых чисел, заданных байтами, без создания объектов.
+ */
+public final class IntegerParser {
+    /**
+     * Максимальное количество цифр, при котором число гарантированно помещается в long.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private IntegerParser() {
+    }
+
+    /**
+     * Проверяет, что целое число гарантированно помещается в long.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала числа
+     * @param length длина числа в байтах
+     * @return true, если количество цифр не превышает 18
+     */
+    public static boolean fitsLong(byte[] data, int offset, int length) {
+        byte first = data[offset];
+        int digits = first == '-' || first == '+' ? length - 1 : length;
+        return digits <= MAX_LONG_DIGITS;
+    }
+
+    /**
+     * Разбирает целое число, уже распознанное грамматикой {@link com.sheandstud.processing.types.IntegerType#GRAMMAR}
+     * и прошедшее проверку {@link #fitsLong(byte[], int, int)}.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала числа
+     * @param length длина числа в байтах
+     * @return значение числа
+     */
+    public static long parseLong(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+
+        byte first = data[i];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+}
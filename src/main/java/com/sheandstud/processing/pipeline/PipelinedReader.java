@@ -0,0 +1,190 @@
+package com.sheandstud.processing.pipeline;
+
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.LineReader;
+import com.sheandstud.processing.LineReader.LineConsumer;
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.progress.FileProgress;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Класс для чтения строк входного файла в отдельном потоке.
+ * <p>
+ * Поток чтения собирает строки в блоки ({@link LineBlock}) и передает их через
+ * {@link SpscRing} потоку, вызвавшему {@link #readBlocks(Path, MemoryBudget, BlockConsumer)},
+ * который определяет тип строк и обновляет статистику. Так ожидание диска при чтении
+ * не останавливает обработку строк. Блоки используются повторно, а их количество
+ * ограничено, поэтому объем прочитанных, но еще не обработанных данных ограничен.
+ */
+public final class PipelinedReader {
+    /**
+     * Количество блоков строк, находящихся одновременно в обработке.
+     */
+    private static final int BLOCK_COUNT = 4;
+    private static final int BLOCK_BYTES = 256 * 1024;
+    private static final int MIN_BLOCK_BYTES = 16 * 1024;
+    private static final int BLOCK_LINES = 8192;
+    private static final LineBlock END = new LineBlock(0, 0);
+
+    private PipelinedReader() {
+    }
+
+    /**
+     * Получатель прочитанных блоков строк.
+     */
+    @FunctionalInterface
+    public interface BlockConsumer {
+        /**
+         * Обрабатывает блок строк.
+         * <p>
+         * Блок используется повторно, поэтому его данные действительны только во время вызова.
+         *
+         * @param block блок строк
+         */
+        void accept(LineBlock block) throws IOException;
+    }
+
+    /**
+     * Читает строки файла в отдельном потоке и передает их получателю в текущем потоке.
+     * <p>
+     * Строки передаются в том же порядке и с теми же границами, что и
+     * {@link LineReader#read(Path, MemoryBudget, LineConsumer)}.
+     *
+     * @param path         путь к входному файлу
+     * @param memoryBudget бюджет памяти для буферов чтения и блоков строк
+     * @param consumer     получатель строк
+     */
+    public static void read(Path path, MemoryBudget memoryBudget, LineConsumer consumer) throws IOException {
+        readBlocks(path, memoryBudget, block -> {
+            for (int i = 0; i < block.count(); i++) {
+                consumer.accept(block.data(), block.offset(i), block.length(i));
+            }
+        });
+    }
+
+    /**
+     * Читает строки файла в отдельном потоке и передает их получателю в текущем потоке блоками.
+     *
+     * @param path         путь к входному файлу
+     * @param memoryBudget бюджет памяти для буферов чтения и блоков строк
+     * @param consumer     получатель блоков строк
+     */
+    public static void readBlocks(Path path, MemoryBudget memoryBudget, BlockConsumer consumer) throws IOException {
+        readBlocks(path, memoryBudget, Metrics.disabled(), FileProgress.none(), consumer);
+    }
+
+    /**
+     * Читает строки файла в отдельном потоке и передает их получателю блоками,
+     * учитывая чтение и память, выделенную потоком чтения, в счетчиках.
+     *
+     * @param path         путь к входному файлу
+     * @param memoryBudget бюджет памяти для буферов чтения и блоков строк
+     * @param metrics      счетчики производительности
+     * @param progress     счетчики хода обработки файла
+     * @param consumer     получатель блоков строк
+     */
+    public static void readBlocks(Path path, MemoryBudget memoryBudget, Metrics metrics, FileProgress progress,
+                                  BlockConsumer consumer) throws IOException {
+        try (ReadableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            readBlocks(channel, String.valueOf(path.getFileName()), memoryBudget, metrics, progress, consumer);
+        }
+    }
+
+    /**
+     * Читает строки из канала в отдельном потоке и передает их получателю блоками,
+     * например строки стандартного ввода. Канал не закрывается.
+     *
+     * @param channel      канал с входными данными
+     * @param name         имя источника для названия потока чтения
+     * @param memoryBudget бюджет памяти для буферов чтения и блоков строк
+     * @param metrics      счетчики производительности
+     * @param progress     счетчики хода обработки
+     * @param consumer     получатель блоков строк
+     */
+    public static void readBlocks(ReadableByteChannel channel, String name, MemoryBudget memoryBudget,
+                                  Metrics metrics, FileProgress progress, BlockConsumer consumer)
+            throws IOException {
+        // Место для всех блоков и признака конца, поэтому поток чтения не ждет при передаче.
+        SpscRing<LineBlock> filled = new SpscRing<>(BLOCK_COUNT + 1);
+        SpscRing<LineBlock> free = new SpscRing<>(BLOCK_COUNT);
+        int reserved = memoryBudget.allocate(BLOCK_COUNT * BLOCK_BYTES, BLOCK_COUNT * MIN_BLOCK_BYTES);
+        for (int i = 0; i < BLOCK_COUNT; i++) {
+            free.offer(new LineBlock(reserved / BLOCK_COUNT, BLOCK_LINES));
+        }
+
+        IOException[] readError = new IOException[1];
+        Metrics readerMetrics = metrics.createSegment();
+        Thread reader = new Thread(() -> {
+            readerMetrics.startThread();
+            try {
+                LineBlock[] current = {free.take()};
+                LineReader.read(channel, memoryBudget, readerMetrics, progress, (buffer, offset, length) -> {
+                    if (!current[0].fits(length)) {
+                        filled.put(current[0]);
+                        current[0] = free.take();
+                    }
+                    current[0].add(buffer, offset, length);
+                });
+                if (current[0].count() > 0) {
+                    filled.put(current[0]);
+                }
+            } catch (IOException e) {
+                readError[0] = e;
+            } catch (RuntimeException e) {
+                readError[0] = new IOException(e.getMessage(), e);
+            } finally {
+                readerMetrics.stopThread();
+                filled.offer(END);
+            }
+        }, "reader-" + name);
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            consume(filled, free, consumer);
+            join(reader);
+            metrics.merge(readerMetrics);
+            if (readError[0] != null) {
+                throw readError[0];
+            }
+        } catch (IOException | RuntimeException e) {
+            free.abort(e instanceof IOException io ? io : new IOException(e.getMessage(), e));
+            reader.interrupt();
+            throw e;
+        } finally {
+            memoryBudget.release(reserved);
+        }
+    }
+
+    /**
+     * Передает блоки получателю и возвращает их потоку чтения.
+     */
+    private static void consume(SpscRing<LineBlock> filled, SpscRing<LineBlock> free,
+                                BlockConsumer consumer) throws IOException {
+        while (true) {
+            LineBlock block = filled.take();
+            if (block == END) {
+                return;
+            }
+            consumer.accept(block);
+            block.clear();
+            free.put(block);
+        }
+    }
+
+    private static void join(Thread thread) throws InterruptedIOException {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for reader thread");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.sheandstud.processing.pipeline;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ограниченный кольцевой буфер для передачи данных между двумя потоками:
+ * одним производителем и одним потребителем.
+ * <p>
+ * Производитель и потребитель меняют только свои счетчики позиций, поэтому
+ * передача не требует блокировок. Если буфер полон, производитель ждет, пока
+ * потребитель освободит место; так ограничивается объем данных между стадиями
+ * обработки, когда одна из них (например, запись на медленный диск) не успевает.
+ * Ожидание начинается с короткого активного ожидания, после чего поток блокируется
+ * ({@link LockSupport#park(Object)}) до сигнала другой стороны: простаивающий поток
+ * не просыпается, пока для него нет данных или места.
+ * <p>
+ * Если одна из стадий завершилась с ошибкой, буфер прерывается методом
+ * {@link #abort(IOException)}, и ожидающая сторона получает эту ошибку.
+ *
+ * @param <T> тип передаваемых элементов
+ */
+public final class SpscRing<T> {
+    private static final int SPIN_LIMIT = 100;
+
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile IOException failure;
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Конструктор кольцевого буфера.
+     *
+     * @param capacity емкость буфера, округляется вверх до степени двойки
+     */
+    public SpscRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Добавляет элемент, если в буфере есть место. Вызывается только производителем.
+     *
+     * @param item элемент
+     * @return true, если элемент добавлен, иначе false
+     */
+    public boolean offer(T item) {
+        long position = tail.get();
+        if (position - head.get() == slots.length) {
+            return false;
+        }
+        slots[(int) position & mask] = item;
+        tail.set(position + 1);
+        signal(waitingConsumer);
+        return true;
+    }
+
+    /**
+     * Извлекает элемент, если буфер не пуст. Вызывается только потребителем.
+     *
+     * @return элемент или null, если буфер пуст
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long position = head.get();
+        if (position == tail.get()) {
+            return null;
+        }
+        int index = (int) position & mask;
+        T item = (T) slots[index];
+        slots[index] = null;
+        head.set(position + 1);
+        signal(waitingProducer);
+        return item;
+    }
+
+    /**
+     * Добавляет элемент, ожидая освобождения места.
+     *
+     * @param item элемент
+     * @throws IOException если буфер прерван или поток прерван во время ожидания
+     */
+    public void put(T item) throws IOException {
+        for (int attempt = 0; !offer(item); attempt++) {
+            await(attempt, true);
+        }
+    }
+
+    /**
+     * Извлекает элемент, ожидая его появления.
+     *
+     * @return элемент
+     * @throws IOException если буфер прерван или поток прерван во время ожидания
+     */
+    public T take() throws IOException {
+        T item;
+        for (int attempt = 0; (item = poll()) == null; attempt++) {
+            await(attempt, false);
+        }
+        return item;
+    }
+
+    /**
+     * Прерывает передачу данных: ожидающие и последующие вызовы
+     * {@link #put(Object)} и {@link #take()} завершаются ошибкой.
+     *
+     * @param cause ошибка, из-за которой передача прервана
+     */
+    public void abort(IOException cause) {
+        failure = cause;
+        signal(waitingProducer);
+        signal(waitingConsumer);
+    }
+
+    /**
+     * Ожидает изменения состояния буфера другой стороной: сначала активно,
+     * затем блокируясь до сигнала.
+     * <p>
+     * Ожидающий поток сначала объявляет себя, затем повторно проверяет состояние буфера,
+     * а другая сторона сначала изменяет счетчик, затем проверяет ожидающий поток;
+     * все эти обращения volatile, поэтому сигнал не может быть пропущен.
+     *
+     * @param attempt  номер попытки, начиная с нуля
+     * @param producer true - ожидает производитель (места), false - потребитель (элемента)
+     */
+    private void await(int attempt, boolean producer) throws IOException {
+        if (attempt < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else {
+            Thread current = Thread.currentThread();
+            if (producer) {
+                waitingProducer = current;
+            } else {
+                waitingConsumer = current;
+            }
+            if (!isReady(producer) && failure == null) {
+                LockSupport.park(this);
+            }
+            if (producer) {
+                waitingProducer = null;
+            } else {
+                waitingConsumer = null;
+            }
+        }
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for pipeline stage");
+        }
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IOException("Pipeline stage failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private boolean isReady(boolean producer) {
+        return producer ? tail.get() - head.get() < slots.length : head.get() != tail.get();
+    }
+
+    private static void signal(Thread waiting) {
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+}
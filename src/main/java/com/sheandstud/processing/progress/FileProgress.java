@@ -0,0 +1,89 @@
+package com.sheandstud.processing.progress;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики обработки одного входного файла.
+ * <p>
+ * Счетчики обновляются потоками чтения один раз на каждый прочитанный участок
+ * данных, а не на каждую строку, и читаются потоком отчета о ходе обработки
+ * без блокировок. Диапазоны одного файла могут читаться одновременно
+ * в нескольких потоках, поэтому используются {@link LongAdder}.
+ */
+public final class FileProgress {
+    private static final FileProgress NONE = new FileProgress("", -1);
+
+    private final String name;
+    private final long size;
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+
+    /**
+     * Создает счетчики входного файла.
+     *
+     * @param name имя файла для отчета
+     * @param size размер файла в байтах или -1, если размер заранее неизвестен
+     */
+    public FileProgress(String name, long size) {
+        this.name = name;
+        this.size = size;
+    }
+
+    /**
+     * Возвращает счетчики, которые ничего не учитывают.
+     *
+     * @return общий экземпляр без учета
+     */
+    public static FileProgress none() {
+        return NONE;
+    }
+
+    /**
+     * Учитывает прочитанный участок данных.
+     *
+     * @param bytes количество прочитанных байтов
+     * @param lines количество строк, найденных в участке
+     */
+    public void add(long bytes, long lines) {
+        if (this != NONE) {
+            this.bytes.add(bytes);
+            this.lines.add(lines);
+        }
+    }
+
+    /**
+     * Возвращает имя файла.
+     *
+     * @return имя файла
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Возвращает размер файла.
+     *
+     * @return размер в байтах или -1, если размер неизвестен
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Возвращает количество прочитанных байтов.
+     *
+     * @return количество байтов
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Возвращает количество прочитанных строк.
+     *
+     * @return количество строк
+     */
+    public long getLines() {
+        return lines.sum();
+    }
+}
@@ -0,0 +1,145 @@
+package com.sheandstud.processing.progress;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Отчет о ходе обработки, который выводится отдельным потоком через заданный интервал.
+ * <p>
+ * Поток отчета только читает счетчики {@link FileProgress}, поэтому обработка строк
+ * не ждет вывода. Каждый отчет содержит общий объем прочитанных данных, процент
+ * выполнения по размеру файлов, текущую скорость в строках и мегабайтах в секунду
+ * за последний интервал и оценку оставшегося времени, а также объем и процент
+ * для каждого файла, обработка которого начата, но не закончена.
+ * Если размер какого-либо файла неизвестен, процент и оставшееся время не выводятся.
+ */
+public final class ProgressReporter implements AutoCloseable {
+    private final List<FileProgress> files;
+    private final long intervalMillis;
+    private final PrintStream out;
+    private final long startTime = System.nanoTime();
+    private Thread thread;
+    private long lastTime = startTime;
+    private long lastBytes;
+    private long lastLines;
+
+    /**
+     * Создает отчет о ходе обработки.
+     *
+     * @param files    счетчики входных файлов в порядке обработки
+     * @param interval интервал между отчетами
+     * @param out      поток вывода отчетов
+     */
+    public ProgressReporter(List<FileProgress> files, Duration interval, PrintStream out) {
+        this.files = List.copyOf(files);
+        this.intervalMillis = Math.max(1, interval.toMillis());
+        this.out = out;
+    }
+
+    /**
+     * Запускает поток отчета.
+     */
+    public void start() {
+        thread = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(intervalMillis);
+                    out.println(report(System.nanoTime()));
+                }
+            } catch (InterruptedException ignored) {
+            }
+        }, "progress");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Останавливает поток отчета и выводит итоговый отчет.
+     */
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        out.println(report(System.nanoTime()));
+    }
+
+    /**
+     * Формирует отчет о ходе обработки на заданный момент.
+     * <p>
+     * Скорость считается по изменению счетчиков с предыдущего отчета.
+     *
+     * @param now текущее время {@link System#nanoTime()}
+     * @return строки отчета
+     */
+    public String report(long now) {
+        long bytes = 0;
+        long lines = 0;
+        long total = 0;
+        for (FileProgress file : files) {
+            bytes += file.getBytes();
+            lines += file.getLines();
+            total = total < 0 || file.getSize() < 0 ? -1 : total + file.getSize();
+        }
+
+        double seconds = Math.max(now - lastTime, 1) / 1e9;
+        double bytesPerSecond = (bytes - lastBytes) / seconds;
+        double linesPerSecond = (lines - lastLines) / seconds;
+        lastTime = now;
+        lastBytes = bytes;
+        lastLines = lines;
+
+        StringBuilder sb = new StringBuilder("Progress: ").append(MemoryBudget.formatSize(bytes));
+        if (total >= 0) {
+            sb.append(" / ").append(MemoryBudget.formatSize(total)).append(percent(bytes, total));
+        }
+        sb.append(String.format(Locale.ROOT, ", %.0f lines/s, %.1f MB/s",
+                linesPerSecond, bytesPerSecond / (1024 * 1024)));
+        if (total >= 0) {
+            sb.append(", ETA ").append(formatEta(total - bytes, bytes, bytesPerSecond, now));
+        }
+        sb.append(", elapsed ").append(formatDuration((now - startTime) / 1_000_000_000L));
+
+        for (FileProgress file : files) {
+            long read = file.getBytes();
+            if (read > 0 && read != file.getSize()) {
+                sb.append("\n  ").append(file.getName()).append(": ").append(MemoryBudget.formatSize(read));
+                if (file.getSize() >= 0) {
+                    sb.append(" / ").append(MemoryBudget.formatSize(file.getSize()))
+                            .append(percent(read, file.getSize()));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String percent(long bytes, long total) {
+        return String.format(Locale.ROOT, " (%.1f%%)", total == 0 ? 100.0 : 100.0 * bytes / total);
+    }
+
+    /**
+     * Оценивает оставшееся время по текущей скорости, а если за интервал
+     * ничего не прочитано - по средней скорости с начала обработки.
+     */
+    private String formatEta(long remaining, long bytes, double bytesPerSecond, long now) {
+        if (remaining <= 0) {
+            return formatDuration(0);
+        }
+        double rate = bytesPerSecond > 0 ? bytesPerSecond : bytes / Math.max((now - startTime) / 1e9, 1e-9);
+        return rate > 0 ? formatDuration((long) Math.ceil(remaining / rate)) : "unknown";
+    }
+
+    private static String formatDuration(long seconds) {
+        return String.format(Locale.ROOT, "%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
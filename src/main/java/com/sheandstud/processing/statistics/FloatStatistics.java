@@ -1,5 +1,7 @@
 package com.sheandstud.processing.statistics;
 
+import com.sheandstud.processing.parsing.DecimalParser;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
@@ -7,10 +9,44 @@ import java.math.RoundingMode;
  * Класс для сбора и форматирования статистики вещественных чисел.
  */
 public class FloatStatistics implements Statistics {
-    private int count;
-    private BigDecimal min;
-    private BigDecimal max;
-    private BigDecimal sum = BigDecimal.ZERO;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private long count;
+    private long minUnscaled;
+    private int minScale;
+    private long maxUnscaled;
+    private int maxScale;
+    private long sumUnscaled;
+    private int sumScale;
+    private BigDecimal bigMin;
+    private BigDecimal bigMax;
+    private BigDecimal bigSum;
+    private QuantileSketch quantiles;
+    private HyperLogLog distinct;
+
+    /**
+     * Включает сбор квантилей и оценку количества различных чисел, если они выбраны в параметрах.
+     *
+     * @param settings параметры дополнительных показателей
+     */
+    @Override
+    public void configure(StatisticsSettings settings) {
+        quantiles = settings.quantiles() ? new QuantileSketch(settings.quantileSize()) : null;
+        distinct = settings.distinct() ? new HyperLogLog(settings.distinctPrecision()) : null;
+    }
+
+    /**
+     * Возвращает скетч для оценки количества различных чисел.
+     *
+     * @return скетч или null, если количество различных чисел не оценивается
+     */
+    @Override
+    public HyperLogLog getDistinctSketch() {
+        return distinct;
+    }
 
     /**
      * Обновляет статистику при обработке нового вещественного числа.
@@ -20,17 +56,221 @@ public class FloatStatistics implements Statistics {
      * @param number новое число для обновления статистики
      */
     public void update(BigDecimal number) {
+        if (number.precision() <= 18) {
+            update(number.unscaledValue().longValue(), number.scale());
+            return;
+        }
+
+        if (count == 0) {
+            bigMin = number;
+            bigMax = number;
+        } else {
+            updateMin(number);
+            updateMax(number);
+        }
+        addToSum(number);
+        if (quantiles != null) {
+            quantiles.update(number.doubleValue());
+        }
+        if (distinct != null) {
+            distinct.add(ValueHash.hash(number));
+        }
+        count++;
+    }
+
+    /**
+     * Обновляет статистику при обработке нового вещественного числа,
+     * заданного мантиссой и масштабом: {@code unscaled * 10^-scale}.
+     * <p>
+     * Минимум, максимум и сумма хранятся в том же компактном виде без создания объектов.
+     * В {@link BigDecimal} переходят только значения, которые нельзя представить точно:
+     * минимум и максимум - пока ими являются такие числа, а сумма - когда выравнивание
+     * масштабов или сложение переполняют long. В этом случае накопленная сумма переносится
+     * в {@code bigSum}, а накопление в long начинается заново.
+     *
+     * @param unscaled мантисса числа
+     * @param scale    масштаб числа
+     */
+    public void update(long unscaled, int scale) {
+        if (count == 0) {
+            minUnscaled = maxUnscaled = unscaled;
+            minScale = maxScale = scale;
+        } else {
+            updateMin(unscaled, scale);
+            updateMax(unscaled, scale);
+        }
+        addToSum(unscaled, scale);
+        if (quantiles != null) {
+            quantiles.update(toDouble(unscaled, scale));
+        }
+        if (distinct != null) {
+            distinct.add(ValueHash.hash(unscaled, scale));
+        }
+        count++;
+    }
+
+    /**
+     * Объединяет статистику с другой статистикой вещественных чисел.
+     *
+     * @param other статистика, собранная по другой части данных
+     * @throws IllegalArgumentException если статистика относится к другому типу данных
+     */
+    @Override
+    public void merge(Statistics other) {
+        if (!(other instanceof FloatStatistics stats)) {
+            throw new IllegalArgumentException("Cannot merge " + other.getClass().getSimpleName()
+                    + " into " + getClass().getSimpleName());
+        }
+        if (stats.count == 0) {
+            return;
+        }
+
+        if (count == 0) {
+            minUnscaled = stats.minUnscaled;
+            minScale = stats.minScale;
+            maxUnscaled = stats.maxUnscaled;
+            maxScale = stats.maxScale;
+            bigMin = stats.bigMin;
+            bigMax = stats.bigMax;
+        } else {
+            if (stats.bigMin != null) updateMin(stats.bigMin); else updateMin(stats.minUnscaled, stats.minScale);
+            if (stats.bigMax != null) updateMax(stats.bigMax); else updateMax(stats.maxUnscaled, stats.maxScale);
+        }
+        addToSum(stats.sumUnscaled, stats.sumScale);
+        if (stats.bigSum != null) {
+            addToSum(stats.bigSum);
+        }
+        if (stats.quantiles != null) {
+            if (quantiles == null) {
+                quantiles = new QuantileSketch(stats.quantiles.size());
+            }
+            quantiles.merge(stats.quantiles);
+        }
+        if (stats.distinct != null) {
+            if (distinct == null) {
+                distinct = new HyperLogLog(stats.distinct.precision());
+            }
+            distinct.merge(stats.distinct);
+        }
+        count += stats.count;
+    }
+
+    private void updateMin(long unscaled, int scale) {
+        if (bigMin != null ? bigMin.compareTo(BigDecimal.valueOf(unscaled, scale)) > 0
+                : DecimalParser.compare(unscaled, scale, minUnscaled, minScale) < 0) {
+            minUnscaled = unscaled;
+            minScale = scale;
+            bigMin = null;
+        }
+    }
+
+    private void updateMax(long unscaled, int scale) {
+        if (bigMax != null ? bigMax.compareTo(BigDecimal.valueOf(unscaled, scale)) < 0
+                : DecimalParser.compare(unscaled, scale, maxUnscaled, maxScale) > 0) {
+            maxUnscaled = unscaled;
+            maxScale = scale;
+            bigMax = null;
+        }
+    }
+
+    private void updateMin(BigDecimal number) {
+        if (number.compareTo(bigMin != null ? bigMin : BigDecimal.valueOf(minUnscaled, minScale)) < 0) {
+            bigMin = number;
+        }
+    }
+
+    private void updateMax(BigDecimal number) {
+        if (number.compareTo(bigMax != null ? bigMax : BigDecimal.valueOf(maxUnscaled, maxScale)) > 0) {
+            bigMax = number;
+        }
+    }
+
+    /**
+     * Прибавляет число к сумме, выравнивая масштабы.
+     * <p>
+     * Если точный результат не помещается в long, накопленная сумма переносится в {@code bigSum}.
+     *
+     * @param unscaled мантисса числа
+     * @param scale    масштаб числа
+     */
+    private void addToSum(long unscaled, int scale) {
+        if (sumUnscaled == 0) {
+            sumUnscaled = unscaled;
+            sumScale = scale;
+            return;
+        }
+
+        long left = sumUnscaled;
+        long right = unscaled;
+        int resultScale = Math.max(sumScale, scale);
+        if (scale < sumScale) {
+            right = DecimalParser.scaleUp(unscaled, (long) sumScale - scale);
+        } else if (scale > sumScale) {
+            left = DecimalParser.scaleUp(sumUnscaled, (long) scale - sumScale);
+        }
+
+        if (left != Long.MIN_VALUE && right != Long.MIN_VALUE) {
+            long result = left + right;
+            if (((left ^ result) & (right ^ result)) >= 0) {
+                sumUnscaled = result;
+                sumScale = resultScale;
+                return;
+            }
+        }
+
+        addToSum(BigDecimal.valueOf(sumUnscaled, sumScale));
+        sumUnscaled = unscaled;
+        sumScale = scale;
+    }
+
+    private void addToSum(BigDecimal number) {
+        bigSum = bigSum == null ? number : bigSum.add(number);
+    }
+
+    /**
+     * Преобразует число {@code unscaled * 10^-scale} в double.
+     * <p>
+     * Если мантисса и степень десяти представимы в double точно, результат вычисляется
+     * одним делением или умножением без создания объектов и округляется корректно,
+     * иначе используется {@link BigDecimal#doubleValue()}.
+     *
+     * @param unscaled мантисса числа
+     * @param scale    масштаб числа
+     * @return ближайшее значение double
+     */
+    private static double toDouble(long unscaled, int scale) {
+        if (unscaled > -(1L << 53) && unscaled < (1L << 53) && scale > -POWERS_OF_TEN.length
+                && scale < POWERS_OF_TEN.length) {
+            return scale >= 0 ? unscaled / POWERS_OF_TEN[scale] : unscaled * POWERS_OF_TEN[-scale];
+        }
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    /**
+     * Учитывает новый элемент только в количестве.
+     */
+    @Override
+    public void increment() {
         count++;
-        if (min == null || number.compareTo(min) < 0) min = number;
-        if (max == null || number.compareTo(max) > 0) max = number;
-        sum = sum.add(number);
+    }
+
+    /**
+     * Возвращает количество обработанных чисел.
+     *
+     * @return количество чисел
+     */
+    @Override
+    public long getCount() {
+        return count;
     }
 
     /**
      * Форматирует вывод статистики.
      * <p>
      * Если параметр {@code full} равен true, выбрана полная статистика,
-     * включает детальную информацию: минимум, максимум, сумму и среднее значение.
+     * включает детальную информацию: минимум, максимум, сумму и среднее значение,
+     * а если они выбраны - оценку количества различных чисел и приближенные P25, медиану,
+     * P75, P90 и P99.
      *
      * @param full флаг, указывающий, нужно ли включать полную статистику
      * @return строка с отформатированной статистикой
@@ -46,6 +286,12 @@ public class FloatStatistics implements Statistics {
             sb.append("\n  Max: ").append(getMax());
             sb.append("\n  Sum: ").append(getSum());
             sb.append("\n  Avg: ").append(getAverage());
+            if (distinct != null) {
+                sb.append("\n  Distinct (approx.): ").append(distinct.estimate());
+            }
+            if (quantiles != null) {
+                sb.append(quantiles.format(FloatStatistics::formatQuantile));
+            }
         }
         return sb.toString();
     }
@@ -59,7 +305,9 @@ public class FloatStatistics implements Statistics {
      * @return минимальное значение или "N/A"
      */
     private String getMin() {
-        return count == 0 ? "N/A" : min.stripTrailingZeros().toPlainString();
+        if (count == 0) return "N/A";
+        BigDecimal min = bigMin != null ? bigMin : BigDecimal.valueOf(minUnscaled, minScale);
+        return min.stripTrailingZeros().toPlainString();
     }
 
     /**
@@ -71,7 +319,9 @@ public class FloatStatistics implements Statistics {
      * @return максимальное значение или "N/A"
      */
     private String getMax() {
-        return count == 0 ? "N/A" : max.stripTrailingZeros().toPlainString();
+        if (count == 0) return "N/A";
+        BigDecimal max = bigMax != null ? bigMax : BigDecimal.valueOf(maxUnscaled, maxScale);
+        return max.stripTrailingZeros().toPlainString();
     }
 
     /**
@@ -83,7 +333,7 @@ public class FloatStatistics implements Statistics {
      * @return сумма всех чисел или "N/A"
      */
     private String getSum() {
-        return count == 0 ? "N/A" : sum.stripTrailingZeros().toPlainString();
+        return count == 0 ? "N/A" : getTotal().stripTrailingZeros().toPlainString();
     }
 
     /**
@@ -96,10 +346,33 @@ public class FloatStatistics implements Statistics {
      */
     private String getAverage() {
         return count == 0 ? "N/A" :
-                sum.divide(
+                getTotal().divide(
                         BigDecimal.valueOf(count),
                         10,
                         RoundingMode.HALF_UP
                 ).toString();
     }
+
+    /**
+     * Возвращает точную сумму всех чисел.
+     *
+     * @return сумма с учётом значения, перенесённого в {@link BigDecimal}
+     */
+    private BigDecimal getTotal() {
+        BigDecimal sum = BigDecimal.valueOf(sumUnscaled, sumScale);
+        return bigSum == null ? sum : bigSum.add(sum);
+    }
+
+    /**
+     * Форматирует квантиль в обычном формате без экспоненты и незначащих нулей.
+     *
+     * @param value значение квантиля
+     * @return число в виде строки
+     */
+    private static String formatQuantile(double value) {
+        if (!Double.isFinite(value)) {
+            return Double.toString(value);
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+package com.sheandstud.processing.statistics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Скетч Space-Saving (Metwally, Agrawal, El Abbadi) для поиска самых частых строк
+ * в ограниченном объеме памяти.
+ * <p>
+ * Скетч хранит фиксированное количество счетчиков: строку, ее счетчик и ошибку счетчика.
+ * Если строки нет среди отслеживаемых и свободных счетчиков не осталось, она занимает
+ * счетчик с наименьшим значением {@code min}: новый счетчик равен {@code min + 1},
+ * а ошибка - {@code min}. Поэтому счетчик строки не меньше ее настоящего количества
+ * и больше его не более чем на ошибку, а ошибка не превышает {@code n / m}, где {@code n} -
+ * количество учтенных строк, {@code m} - количество счетчиков. Любая строка, встретившаяся
+ * больше {@code n / m} раз, гарантированно отслеживается.
+ * <p>
+ * Для {@code k} выводимых строк используется {@code 10k} счетчиков, но не меньше 1024. Строки ищутся
+ * по хешу в таблице с открытой адресацией, а счетчик с наименьшим значением находится
+ * по двоичной куче, поэтому учет строки не создает объектов: байты вытесненной строки
+ * перезаписываются, если помещаются в ее массив.
+ */
+public final class HeavyHitters {
+    /**
+     * Количество счетчиков на одну выводимую строку.
+     */
+    public static final int COUNTERS_PER_ITEM = 10;
+    /**
+     * Наименьшее количество счетчиков.
+     */
+    public static final int MIN_COUNTERS = 1024;
+    /**
+     * Наибольшее количество выводимых строк.
+     */
+    public static final int MAX_SIZE = 10_000;
+
+    private final int size;
+    private final int capacity;
+    private final byte[][] keys;
+    private final int[] lengths;
+    private final long[] hashes;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] table;
+    private final int mask;
+    private int used;
+    private long total;
+
+    /**
+     * Создает пустой скетч.
+     *
+     * @param size количество выводимых строк
+     * @throws IllegalArgumentException если количество вне диапазона от 1 до {@link #MAX_SIZE}
+     */
+    public HeavyHitters(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Top strings count must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        this.size = size;
+        this.capacity = Math.max(size * COUNTERS_PER_ITEM, MIN_COUNTERS);
+        keys = new byte[capacity][];
+        lengths = new int[capacity];
+        hashes = new long[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        positions = new int[capacity];
+        table = new int[Integer.highestOneBit(capacity) * 4];
+        mask = table.length - 1;
+    }
+
+    /**
+     * Учитывает строку.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @param hash   хеш строки ({@link ValueHash#hash(byte[], int, int)})
+     */
+    void add(byte[] data, int offset, int length, long hash) {
+        total++;
+        int slot = find(data, offset, length, hash);
+        if (slot >= 0) {
+            counts[slot]++;
+            siftDown(positions[slot]);
+            return;
+        }
+        if (used < capacity) {
+            slot = used;
+            counts[slot] = 1;
+            errors[slot] = 0;
+            heap[used] = slot;
+            positions[slot] = used;
+            used++;
+            siftUp(positions[slot]);
+        } else {
+            slot = heap[0];
+            remove(slot);
+            errors[slot] = counts[slot];
+            counts[slot]++;
+            siftDown(0);
+        }
+        store(slot, data, offset, length, hash);
+    }
+
+    /**
+     * Учитывает строку.
+     *
+     * @param data строка
+     */
+    public void add(String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        add(bytes, 0, bytes.length, ValueHash.hash(bytes, 0, bytes.length));
+    }
+
+    /**
+     * Объединяет скетч с другим скетчем.
+     * <p>
+     * Счетчики одинаковых строк складываются. Если строка отслеживается только одним скетчем,
+     * к ее счетчику и ошибке прибавляется наименьший счетчик другого скетча (если в нем
+     * не осталось свободных счетчиков), поэтому границы ошибки сохраняются.
+     * Из объединенных счетчиков остаются наибольшие.
+     *
+     * @param other скетч, построенный по другой части данных
+     */
+    public void merge(HeavyHitters other) {
+        if (other.total == 0) {
+            return;
+        }
+        long min = minimum();
+        long otherMin = other.minimum();
+        List<Item> merged = new ArrayList<>();
+        for (int slot = 0; slot < used; slot++) {
+            int match = other.find(keys[slot], 0, lengths[slot], hashes[slot]);
+            merged.add(new Item(Arrays.copyOf(keys[slot], lengths[slot]), hashes[slot],
+                    counts[slot] + (match >= 0 ? other.counts[match] : otherMin),
+                    errors[slot] + (match >= 0 ? other.errors[match] : otherMin)));
+        }
+        for (int slot = 0; slot < other.used; slot++) {
+            if (find(other.keys[slot], 0, other.lengths[slot], other.hashes[slot]) < 0) {
+                merged.add(new Item(Arrays.copyOf(other.keys[slot], other.lengths[slot]), other.hashes[slot],
+                        other.counts[slot] + min, other.errors[slot] + min));
+            }
+        }
+        merged.sort(Comparator.comparingLong(Item::count).reversed());
+
+        Arrays.fill(table, 0);
+        used = Math.min(merged.size(), capacity);
+        for (int slot = 0; slot < used; slot++) {
+            Item item = merged.get(slot);
+            counts[slot] = item.count();
+            errors[slot] = item.error();
+            store(slot, item.key(), 0, item.key().length, item.hash());
+            heap[used - 1 - slot] = slot;
+            positions[slot] = used - 1 - slot;
+        }
+        total += other.total;
+    }
+
+    /**
+     * Возвращает самые частые строки в порядке убывания счетчика.
+     * <p>
+     * Строки с равными счетчиками упорядочиваются по байтам, чтобы результат не зависел
+     * от порядка учета.
+     *
+     * @return не больше {@code size} строк
+     */
+    public List<Entry> top() {
+        Integer[] slots = new Integer[used];
+        for (int i = 0; i < used; i++) {
+            slots[i] = i;
+        }
+        Arrays.sort(slots, (a, b) -> counts[a] != counts[b]
+                ? Long.compare(counts[b], counts[a])
+                : Arrays.compareUnsigned(keys[a], 0, lengths[a], keys[b], 0, lengths[b]));
+        List<Entry> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(size, used); i++) {
+            int slot = slots[i];
+            result.add(new Entry(new String(keys[slot], 0, lengths[slot], StandardCharsets.UTF_8),
+                    counts[slot], errors[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает количество выводимых строк.
+     *
+     * @return количество строк
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает количество счетчиков.
+     *
+     * @return количество счетчиков
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Возвращает количество учтенных строк.
+     *
+     * @return количество строк
+     */
+    public long getCount() {
+        return total;
+    }
+
+    private long minimum() {
+        return used < capacity ? 0 : counts[heap[0]];
+    }
+
+    private int find(byte[] data, int offset, int length, long hash) {
+        for (int i = (int) hash & mask; table[i] != 0; i = (i + 1) & mask) {
+            int slot = table[i] - 1;
+            if (hashes[slot] == hash && lengths[slot] == length
+                    && Arrays.equals(keys[slot], 0, length, data, offset, offset + length)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void store(int slot, byte[] data, int offset, int length, long hash) {
+        if (keys[slot] == null || keys[slot].length < length) {
+            keys[slot] = new byte[length];
+        }
+        System.arraycopy(data, offset, keys[slot], 0, length);
+        lengths[slot] = length;
+        hashes[slot] = hash;
+        int i = (int) hash & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    /**
+     * Удаляет счетчик из таблицы поиска, сдвигая следующие элементы цепочки на освободившееся место.
+     */
+    private void remove(int slot) {
+        int i = (int) hashes[slot] & mask;
+        while (table[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        table[i] = 0;
+        for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = (int) hashes[table[j] - 1] & mask;
+            boolean inPlace = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!inPlace) {
+                table[i] = table[j];
+                table[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(slot, position);
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= used) {
+                break;
+            }
+            if (child + 1 < used && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[slot] <= counts[heap[child]]) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(slot, position);
+    }
+
+    private void move(int slot, int position) {
+        heap[position] = slot;
+        positions[slot] = position;
+    }
+
+    /**
+     * Частая строка.
+     *
+     * @param value строка
+     * @param count счетчик: не меньше настоящего количества строки
+     * @param error ошибка счетчика: настоящее количество не меньше {@code count - error}
+     */
+    public record Entry(String value, long count, long error) {
+    }
+
+    private record Item(byte[] key, long hash, long count, long error) {
+    }
+}
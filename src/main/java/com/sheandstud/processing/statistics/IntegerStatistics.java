@@ -1,35 +1,216 @@
 package com.sheandstud.processing.statistics;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 
 /**
  * Класс для сбора и форматирования статистики целых чисел.
  */
 public class IntegerStatistics implements Statistics{
-    private int count;
-    private BigInteger min;
-    private BigInteger max;
-    private BigInteger sum = BigInteger.ZERO;
+    private long count;
+    private long min;
+    private long max;
+    private long sum;
+    private BigInteger bigMin;
+    private BigInteger bigMax;
+    private BigInteger bigSum;
+    private QuantileSketch quantiles;
+    private HyperLogLog distinct;
+
+    /**
+     * Включает сбор квантилей и оценку количества различных чисел, если они выбраны в параметрах.
+     *
+     * @param settings параметры дополнительных показателей
+     */
+    @Override
+    public void configure(StatisticsSettings settings) {
+        quantiles = settings.quantiles() ? new QuantileSketch(settings.quantileSize()) : null;
+        distinct = settings.distinct() ? new HyperLogLog(settings.distinctPrecision()) : null;
+    }
+
+    /**
+     * Возвращает скетч для оценки количества различных чисел.
+     *
+     * @return скетч или null, если количество различных чисел не оценивается
+     */
+    @Override
+    public HyperLogLog getDistinctSketch() {
+        return distinct;
+    }
 
     /**
      * Обновляет статистику при обработке нового числа.
      * <p>
      * Обновляются значения минимума, максимума и суммы.
+     * Числа, помещающиеся в long, учитываются без создания объектов.
      *
      * @param number новое число для обновления статистики
      */
     public void update(BigInteger number) {
+        if (number.bitLength() < Long.SIZE) {
+            update(number.longValue());
+            return;
+        }
+
+        if (count == 0) {
+            bigMin = number;
+            bigMax = number;
+        } else {
+            updateMin(number);
+            updateMax(number);
+        }
+        addToSum(number);
+        if (quantiles != null) {
+            quantiles.update(number.doubleValue());
+        }
+        if (distinct != null) {
+            distinct.add(ValueHash.hash(number));
+        }
+        count++;
+    }
+
+    /**
+     * Обновляет статистику при обработке нового числа, помещающегося в long.
+     * <p>
+     * Минимум, максимум и сумма хранятся в примитивах. Значения, выходящие за пределы long,
+     * хранятся в {@link BigInteger}: минимум и максимум - только пока они вне диапазона long,
+     * а при переполнении суммы накопленное значение переносится в {@code bigSum}.
+     *
+     * @param number новое число для обновления статистики
+     */
+    public void update(long number) {
+        if (count == 0) {
+            min = number;
+            max = number;
+        } else {
+            updateMin(number);
+            updateMax(number);
+        }
+        addToSum(number);
+        if (quantiles != null) {
+            quantiles.update(number);
+        }
+        if (distinct != null) {
+            distinct.add(ValueHash.hash(number));
+        }
+        count++;
+    }
+
+    /**
+     * Объединяет статистику с другой статистикой целых чисел.
+     *
+     * @param other статистика, собранная по другой части данных
+     * @throws IllegalArgumentException если статистика относится к другому типу данных
+     */
+    @Override
+    public void merge(Statistics other) {
+        if (!(other instanceof IntegerStatistics stats)) {
+            throw new IllegalArgumentException("Cannot merge " + other.getClass().getSimpleName()
+                    + " into " + getClass().getSimpleName());
+        }
+        if (stats.count == 0) {
+            return;
+        }
+
+        if (count == 0) {
+            min = stats.min;
+            max = stats.max;
+            bigMin = stats.bigMin;
+            bigMax = stats.bigMax;
+        } else {
+            if (stats.bigMin != null) updateMin(stats.bigMin); else updateMin(stats.min);
+            if (stats.bigMax != null) updateMax(stats.bigMax); else updateMax(stats.max);
+        }
+        addToSum(stats.sum);
+        if (stats.bigSum != null) {
+            addToSum(stats.bigSum);
+        }
+        if (stats.quantiles != null) {
+            if (quantiles == null) {
+                quantiles = new QuantileSketch(stats.quantiles.size());
+            }
+            quantiles.merge(stats.quantiles);
+        }
+        if (stats.distinct != null) {
+            if (distinct == null) {
+                distinct = new HyperLogLog(stats.distinct.precision());
+            }
+            distinct.merge(stats.distinct);
+        }
+        count += stats.count;
+    }
+
+    private void updateMin(long number) {
+        if (bigMin != null ? bigMin.signum() > 0 : number < min) {
+            min = number;
+            bigMin = null;
+        }
+    }
+
+    private void updateMax(long number) {
+        if (bigMax != null ? bigMax.signum() < 0 : number > max) {
+            max = number;
+            bigMax = null;
+        }
+    }
+
+    private void updateMin(BigInteger number) {
+        if (bigMin != null ? number.compareTo(bigMin) < 0 : number.signum() < 0) {
+            bigMin = number;
+        }
+    }
+
+    private void updateMax(BigInteger number) {
+        if (bigMax != null ? number.compareTo(bigMax) > 0 : number.signum() > 0) {
+            bigMax = number;
+        }
+    }
+
+    /**
+     * Прибавляет число к сумме в long.
+     * <p>
+     * При переполнении накопленная сумма переносится в {@code bigSum}.
+     *
+     * @param number слагаемое
+     */
+    private void addToSum(long number) {
+        long result = sum + number;
+        if (((sum ^ result) & (number ^ result)) < 0) {
+            addToSum(BigInteger.valueOf(sum));
+            result = number;
+        }
+        sum = result;
+    }
+
+    private void addToSum(BigInteger number) {
+        bigSum = bigSum == null ? number : bigSum.add(number);
+    }
+
+    /**
+     * Учитывает новый элемент только в количестве.
+     */
+    @Override
+    public void increment() {
         count++;
-        if (min == null || number.compareTo(min) < 0) min = number;
-        if (max == null || number.compareTo(max) > 0) max = number;
-        sum = sum.add(number);
+    }
+
+    /**
+     * Возвращает количество обработанных чисел.
+     *
+     * @return количество чисел
+     */
+    @Override
+    public long getCount() {
+        return count;
     }
 
     /**
      * Форматирует вывод статистики.
      * <p>
      * Если параметр {@code full} равен true, выбрана полная статистика,
-     * включает детальную информацию: минимум, максимум, сумму и среднее значение.
+     * включает детальную информацию: минимум, максимум, сумму и среднее значение,
+     * а если они выбраны - оценку количества различных чисел и приближенные P25, медиану,
+     * P75, P90 и P99.
      *
      * @param full флаг, указывающий, нужно ли включать полную статистику
      * @return строка с отформатированной статистикой
@@ -45,6 +226,12 @@ public class IntegerStatistics implements Statistics{
             sb.append("\n  Max: ").append(getMax());
             sb.append("\n  Sum: ").append(getSum());
             sb.append("\n  Avg: ").append(getAverage());
+            if (distinct != null) {
+                sb.append("\n  Distinct (approx.): ").append(distinct.estimate());
+            }
+            if (quantiles != null) {
+                sb.append(quantiles.format(IntegerStatistics::formatQuantile));
+            }
         }
         return sb.toString();
     }
@@ -57,7 +244,8 @@ public class IntegerStatistics implements Statistics{
      * @return минимальное значение или "N/A"
      */
     private String getMin() {
-        return count == 0 ? "N/A" : min.toString();
+        if (count == 0) return "N/A";
+        return bigMin != null ? bigMin.toString() : Long.toString(min);
     }
 
     /**
@@ -68,7 +256,8 @@ public class IntegerStatistics implements Statistics{
      * @return максимальное значение или "N/A"
      */
     private String getMax() {
-        return count == 0 ? "N/A" : max.toString();
+        if (count == 0) return "N/A";
+        return bigMax != null ? bigMax.toString() : Long.toString(max);
     }
 
     /**
@@ -79,7 +268,7 @@ public class IntegerStatistics implements Statistics{
      * @return сумма всех чисел или "N/A"
      */
     private String getSum() {
-        return count == 0 ? "N/A" : sum.toString();
+        return count == 0 ? "N/A" : getTotal().toString();
     }
 
     /**
@@ -90,6 +279,32 @@ public class IntegerStatistics implements Statistics{
      * @return среднее значение или "N/A"
      */
     private String getAverage() {
-        return count == 0 ? "N/A" : sum.divide(BigInteger.valueOf(count)).toString();
+        if (count == 0) return "N/A";
+        if (bigSum == null) return Long.toString(sum / count);
+        return getTotal().divide(BigInteger.valueOf(count)).toString();
+    }
+
+    /**
+     * Возвращает точную сумму всех чисел.
+     *
+     * @return сумма с учётом значения, перенесённого в {@link BigInteger}
+     */
+    private BigInteger getTotal() {
+        return bigSum == null ? BigInteger.valueOf(sum) : bigSum.add(BigInteger.valueOf(sum));
+    }
+
+    /**
+     * Форматирует квантиль как целое число.
+     * <p>
+     * Скетч хранит числа в double, поэтому числа, по модулю большие 2^53, выводятся приближенно.
+     *
+     * @param value значение квантиля
+     * @return целое число в виде строки
+     */
+    private static String formatQuantile(double value) {
+        if (Math.abs(value) < 0x1p63) {
+            return Long.toString((long) value);
+        }
+        return Double.isFinite(value) ? new BigDecimal(value).toBigInteger().toString() : Double.toString(value);
     }
 }
\ No newline at end of file
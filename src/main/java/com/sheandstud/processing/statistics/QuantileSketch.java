@@ -0,0 +1,324 @@
+package com.sheandstud.processing.statistics;
+
+import java.util.Arrays;
+import java.util.function.DoubleFunction;
+
+/**
+ * Скетч квантилей KLL (Karnin, Lang, Liberty) для потока чисел в ограниченном объеме памяти.
+ * <p>
+ * Значения хранятся по уровням: каждое значение уровня {@code h} представляет {@code 2^h}
+ * учтенных чисел. Когда скетч заполняется, самый нижний переполненный уровень сортируется
+ * и в следующий уровень переносится каждое второе значение (четные или нечетные позиции
+ * выбираются псевдослучайно). Емкость уровней убывает геометрически от верхнего уровня
+ * к нижнему, поэтому скетч хранит {@code O(k)} значений независимо от количества чисел.
+ * <p>
+ * Параметр {@code k} задает соотношение точности и размера: ошибка ранга квантиля
+ * обратно пропорциональна {@code k} и при {@code k = 200} составляет около 1.7%
+ * (для медианы миллиарда чисел - значение с рангом от 48.3% до 51.7%),
+ * а скетч занимает около 3k значений double. Скетчи объединяются методом {@link #merge},
+ * поэтому части данных можно обрабатывать параллельно.
+ * <p>
+ * Псевдослучайная последовательность начинается с фиксированного значения, поэтому
+ * при одинаковом порядке чисел результат воспроизводим.
+ */
+public final class QuantileSketch {
+    /**
+     * Размер скетча по умолчанию.
+     */
+    public static final int DEFAULT_SIZE = 200;
+    /**
+     * Наименьший допустимый размер скетча.
+     */
+    public static final int MIN_SIZE = 8;
+    /**
+     * Наибольший допустимый размер скетча.
+     */
+    public static final int MAX_SIZE = 65536;
+    /**
+     * Квантили, выводимые в полной статистике.
+     */
+    private static final double[] REPORTED = {0.25, 0.5, 0.75, 0.9, 0.99};
+    private static final String[] REPORTED_NAMES = {"P25", "Median", "P75", "P90", "P99"};
+    private static final int MIN_WIDTH = 8;
+    private static final double DECAY = 2.0 / 3.0;
+
+    private final int size;
+    private double[][] levels;
+    private int[] counts;
+    private int[] capacities;
+    private int height;
+    private int retained;
+    private int capacity;
+    private long count;
+    private long random = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Создает пустой скетч.
+     *
+     * @param size параметр k: чем больше, тем точнее квантили и больше занимаемая память
+     * @throws IllegalArgumentException если размер вне диапазона от {@link #MIN_SIZE} до {@link #MAX_SIZE}
+     */
+    public QuantileSketch(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Quantile sketch size must be between "
+                    + MIN_SIZE + " and " + MAX_SIZE + ": " + size);
+        }
+        this.size = size;
+        levels = new double[][]{new double[size]};
+        counts = new int[1];
+        height = 1;
+        updateCapacities();
+    }
+
+    /**
+     * Учитывает число.
+     *
+     * @param value число
+     */
+    public void update(double value) {
+        double[] items = levels[0];
+        if (counts[0] == items.length) {
+            items = levels[0] = Arrays.copyOf(items, items.length * 2);
+        }
+        items[counts[0]++] = value;
+        retained++;
+        count++;
+        if (retained >= capacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Объединяет скетч с другим скетчем.
+     * <p>
+     * Уровни другого скетча дописываются к уровням этого скетча того же веса,
+     * после чего скетч сжимается до своего размера.
+     *
+     * @param other скетч, построенный по другой части данных
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (height < other.height) {
+            grow();
+        }
+        for (int level = 0; level < other.height; level++) {
+            append(level, other.levels[level], 0, other.counts[level]);
+        }
+        retained += other.retained;
+        count += other.count;
+        if (retained >= capacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Возвращает приближенные квантили.
+     * <p>
+     * Для каждой доли {@code q} возвращается наименьшее из хранимых значений,
+     * ранг которого (с учетом весов) не меньше {@code q * count}.
+     *
+     * @param fractions доли от 0 до 1, например 0.5 для медианы
+     * @return значения квантилей в порядке долей
+     * @throws IllegalStateException если не учтено ни одного числа
+     */
+    public double[] quantiles(double... fractions) {
+        if (count == 0) {
+            throw new IllegalStateException("Quantile sketch is empty");
+        }
+        double[][] sorted = new double[height][];
+        double[] values = new double[retained];
+        int position = 0;
+        for (int level = 0; level < height; level++) {
+            sorted[level] = Arrays.copyOf(levels[level], counts[level]);
+            Arrays.sort(sorted[level]);
+            System.arraycopy(sorted[level], 0, values, position, counts[level]);
+            position += counts[level];
+        }
+        Arrays.sort(values);
+
+        double[] result = new double[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            long target = Math.max(1, (long) Math.ceil(fractions[i] * count));
+            int low = 0;
+            int high = values.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (rank(sorted, values[middle]) >= target) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            result[i] = values[low];
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает приближенный квантиль.
+     *
+     * @param fraction доля от 0 до 1, например 0.5 для медианы
+     * @return значение квантиля
+     * @throws IllegalStateException если не учтено ни одного числа
+     */
+    public double quantile(double fraction) {
+        return quantiles(fraction)[0];
+    }
+
+    /**
+     * Форматирует квантили, выводимые в полной статистике: P25, медиану, P75, P90 и P99.
+     * <p>
+     * Каждый квантиль выводится с новой строки с отступом, как остальные показатели статистики.
+     * Если не учтено ни одного числа, вместо значений выводится "N/A".
+     *
+     * @param formatter преобразование значения в строку
+     * @return строки квантилей
+     */
+    public String format(DoubleFunction<String> formatter) {
+        double[] values = count == 0 ? null : quantiles(REPORTED);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < REPORTED.length; i++) {
+            sb.append("\n  ").append(REPORTED_NAMES[i]).append(": ")
+                    .append(values == null ? "N/A" : formatter.apply(values[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Возвращает параметр k скетча.
+     *
+     * @return размер скетча
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает количество учтенных чисел.
+     *
+     * @return количество чисел
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Возвращает количество хранимых значений.
+     *
+     * @return количество значений во всех уровнях
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * Возвращает количество учтенных чисел, не больших заданного значения, с учетом весов уровней.
+     */
+    private static long rank(double[][] sorted, double value) {
+        long rank = 0;
+        for (int level = 0; level < sorted.length; level++) {
+            int index = Arrays.binarySearch(sorted[level], value);
+            if (index >= 0) {
+                while (index + 1 < sorted[level].length && sorted[level][index + 1] == value) {
+                    index++;
+                }
+                index++;
+            } else {
+                index = -index - 1;
+            }
+            rank += (long) index << level;
+        }
+        return rank;
+    }
+
+    /**
+     * Сжимает скетч, пока количество хранимых значений не станет меньше его емкости.
+     */
+    private void compress() {
+        while (retained >= capacity) {
+            int level = 0;
+            while (counts[level] < capacities[level]) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    /**
+     * Переносит каждое второе значение уровня в следующий уровень.
+     * <p>
+     * При нечетном количестве значений наименьшее остается на уровне.
+     */
+    private void compact(int level) {
+        if (level + 1 == height) {
+            grow();
+        }
+        double[] items = levels[level];
+        int n = counts[level];
+        Arrays.sort(items, 0, n);
+        int start = n & 1;
+        int pairs = (n - start) / 2;
+        int offset = start + nextBit();
+        double[] target = ensureCapacity(level + 1, pairs);
+        int position = counts[level + 1];
+        for (int i = 0; i < pairs; i++) {
+            target[position + i] = items[offset + 2 * i];
+        }
+        counts[level + 1] = position + pairs;
+        counts[level] = start;
+        retained -= pairs;
+    }
+
+    private void append(int level, double[] values, int from, int length) {
+        double[] items = ensureCapacity(level, length);
+        System.arraycopy(values, from, items, counts[level], length);
+        counts[level] += length;
+    }
+
+    /**
+     * Увеличивает массив уровня так, чтобы в него поместилось еще {@code length} значений.
+     */
+    private double[] ensureCapacity(int level, int length) {
+        double[] items = levels[level];
+        int required = counts[level] + length;
+        if (required > items.length) {
+            items = levels[level] = Arrays.copyOf(items, Math.max(required, items.length * 2));
+        }
+        return items;
+    }
+
+    /**
+     * Добавляет верхний уровень; емкость нижних уровней при этом уменьшается.
+     */
+    private void grow() {
+        levels = Arrays.copyOf(levels, height + 1);
+        counts = Arrays.copyOf(counts, height + 1);
+        levels[height] = new double[MIN_WIDTH];
+        height++;
+        updateCapacities();
+    }
+
+    /**
+     * Вычисляет емкость уровней: {@code k * (2/3)^(height - 1 - level)}, но не меньше 8 значений.
+     */
+    private void updateCapacities() {
+        capacities = new int[height];
+        capacity = 0;
+        for (int level = 0; level < height; level++) {
+            capacities[level] = Math.max(MIN_WIDTH, (int) Math.ceil(size * Math.pow(DECAY, height - 1 - level)));
+            capacity += capacities[level];
+        }
+    }
+
+    /**
+     * Возвращает следующий псевдослучайный бит (xorshift).
+     */
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+}
@@ -3,9 +3,58 @@ package com.sheandstud.processing.statistics;
 /**
  * Интерфейс для форматирования статистики.
  * <p>
- * Определяет метод для получения отформатированной строки с описанием статистики.
+ * Определяет методы для учёта элементов и получения отформатированной строки с описанием статистики.
  */
 public interface Statistics {
+    /**
+     * Учитывает новый элемент только в количестве.
+     * <p>
+     * Используется, когда выбрана краткая статистика: минимум, максимум
+     * и другие показатели полной статистики не вычисляются.
+     */
+    void increment();
+
+    /**
+     * Включает дополнительные показатели полной статистики, например квантили чисел.
+     * <p>
+     * Вызывается до учета первого элемента. По умолчанию дополнительные показатели
+     * не поддерживаются и параметры не учитываются.
+     *
+     * @param settings параметры дополнительных показателей
+     */
+    default void configure(StatisticsSettings settings) {
+    }
+
+    /**
+     * Возвращает скетч для оценки количества различных значений.
+     * <p>
+     * Скетч можно сохранить и объединить со скетчем другого запуска. По умолчанию
+     * количество различных значений не оценивается.
+     *
+     * @return скетч или null, если количество различных значений не оценивается
+     */
+    default HyperLogLog getDistinctSketch() {
+        return null;
+    }
+
+    /**
+     * Объединяет статистику с другой статистикой того же типа.
+     * <p>
+     * Используется, чтобы получить общую статистику по данным,
+     * обработанным по частям, например в разных потоках.
+     *
+     * @param other статистика, собранная по другой части данных
+     * @throws IllegalArgumentException если статистика относится к другому типу данных
+     */
+    void merge(Statistics other);
+
+    /**
+     * Возвращает количество учтенных элементов.
+     *
+     * @return количество элементов
+     */
+    long getCount();
+
     /**
      * Форматирует статистику в виде строки.
      * <p>
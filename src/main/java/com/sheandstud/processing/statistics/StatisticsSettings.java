@@ -0,0 +1,54 @@
+package com.sheandstud.processing.statistics;
+
+/**
+ * Параметры дополнительных показателей полной статистики.
+ * <p>
+ * Показатели требуют дополнительной памяти и времени на каждое значение,
+ * поэтому по умолчанию не собираются.
+ *
+ * @param quantileSize      параметр k скетча квантилей ({@link QuantileSketch}) для чисел;
+ *                          0 - квантили не собираются
+ * @param distinctPrecision точность скетча {@link HyperLogLog} для оценки количества
+ *                          различных значений; 0 - количество не оценивается
+ * @param topStrings        количество самых частых строк ({@link HeavyHitters});
+ *                          0 - частые строки не отслеживаются
+ */
+public record StatisticsSettings(int quantileSize, int distinctPrecision, int topStrings) {
+    private static final StatisticsSettings DEFAULTS = new StatisticsSettings(0, 0, 0);
+
+    /**
+     * Возвращает параметры по умолчанию: дополнительные показатели не собираются.
+     *
+     * @return параметры по умолчанию
+     */
+    public static StatisticsSettings defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Проверяет, нужно ли собирать квантили чисел.
+     *
+     * @return true, если квантили собираются
+     */
+    public boolean quantiles() {
+        return quantileSize > 0;
+    }
+
+    /**
+     * Проверяет, нужно ли оценивать количество различных значений.
+     *
+     * @return true, если количество различных значений оценивается
+     */
+    public boolean distinct() {
+        return distinctPrecision > 0;
+    }
+
+    /**
+     * Проверяет, нужно ли отслеживать самые частые строки.
+     *
+     * @return true, если самые частые строки отслеживаются
+     */
+    public boolean heavyHitters() {
+        return topStrings > 0;
+    }
+}
@@ -1,12 +1,39 @@
 package com.sheandstud.processing.statistics;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 /**
  * Класс для сбора и форматирования статистики строк.
  */
 public class StringStatistics implements Statistics {
-    private int count;
+    private long count;
     private int minLength = Integer.MAX_VALUE;
     private int maxLength;
+    private HyperLogLog distinct;
+    private HeavyHitters heavyHitters;
+
+    /**
+     * Включает оценку количества различных строк и поиск самых частых строк,
+     * если они выбраны в параметрах.
+     *
+     * @param settings параметры дополнительных показателей
+     */
+    @Override
+    public void configure(StatisticsSettings settings) {
+        distinct = settings.distinct() ? new HyperLogLog(settings.distinctPrecision()) : null;
+        heavyHitters = settings.heavyHitters() ? new HeavyHitters(settings.topStrings()) : null;
+    }
+
+    /**
+     * Возвращает скетч для оценки количества различных строк.
+     *
+     * @return скетч или null, если количество различных строк не оценивается
+     */
+    @Override
+    public HyperLogLog getDistinctSketch() {
+        return distinct;
+    }
 
     /**
      * Обновляет статистику при обработке новой строки.
@@ -20,13 +47,101 @@ public class StringStatistics implements Statistics {
         int len = data.length();
         minLength = Math.min(minLength, len);
         maxLength = Math.max(maxLength, len);
+        if (distinct != null || heavyHitters != null) {
+            byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+            updateSketches(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Обновляет статистику при обработке новой строки, заданной байтами в кодировке UTF-8.
+     * <p>
+     * Для строк из символов ASCII длина равна количеству байтов,
+     * остальные строки декодируются, чтобы определить длину так же, как {@link String#length()}.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     */
+    public void update(byte[] data, int offset, int length) {
+        count++;
+        int len = isAscii(data, offset, length)
+                ? length
+                : new String(data, offset, length, StandardCharsets.UTF_8).length();
+        minLength = Math.min(minLength, len);
+        maxLength = Math.max(maxLength, len);
+        if (distinct != null || heavyHitters != null) {
+            updateSketches(data, offset, length);
+        }
+    }
+
+    /**
+     * Учитывает строку в скетчах; хеш строки вычисляется один раз для всех скетчей.
+     */
+    private void updateSketches(byte[] data, int offset, int length) {
+        long hash = ValueHash.hash(data, offset, length);
+        if (distinct != null) {
+            distinct.add(hash);
+        }
+        if (heavyHitters != null) {
+            heavyHitters.add(data, offset, length, hash);
+        }
+    }
+
+    private static boolean isAscii(byte[] data, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (data[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Учитывает новый элемент только в количестве.
+     */
+    @Override
+    public void increment() {
+        count++;
+    }
+
+    /**
+     * Объединяет статистику с другой статистикой строк.
+     *
+     * @param other статистика, собранная по другой части данных
+     * @throws IllegalArgumentException если статистика относится к другому типу данных
+     */
+    @Override
+    public void merge(Statistics other) {
+        if (!(other instanceof StringStatistics stats)) {
+            throw new IllegalArgumentException("Cannot merge " + other.getClass().getSimpleName()
+                    + " into " + getClass().getSimpleName());
+        }
+        count += stats.count;
+        minLength = Math.min(minLength, stats.minLength);
+        maxLength = Math.max(maxLength, stats.maxLength);
+        if (stats.distinct != null) {
+            if (distinct == null) {
+                distinct = new HyperLogLog(stats.distinct.precision());
+            }
+            distinct.merge(stats.distinct);
+        }
+        if (stats.heavyHitters != null) {
+            if (heavyHitters == null) {
+                heavyHitters = new HeavyHitters(stats.heavyHitters.size());
+            }
+            heavyHitters.merge(stats.heavyHitters);
+        }
     }
 
     /**
      * Форматирует вывод статистики.
      * <p>
      * Если параметр {@code full} равен true, выбрана полная статистика,
-     * включает детальную информацию: минимальную и максимальную длину строк.
+     * включает детальную информацию: минимальную и максимальную длину строк,
+     * а если они выбраны - оценку количества различных строк и самые частые строки
+     * со счетчиками и их ошибками: настоящее количество строки не больше счетчика
+     * и не меньше разности счетчика и ошибки.
      *
      * @param full флаг, указывающий, нужно ли включать полную статистику
      * @return строка с отформатированной статистикой
@@ -40,16 +155,36 @@ public class StringStatistics implements Statistics {
         if (full) {
             sb.append("\n  Min Length: ").append(getMinLength());
             sb.append("\n  Max Length: ").append(getMaxLength());
+            if (distinct != null) {
+                sb.append("\n  Distinct (approx.): ").append(distinct.estimate());
+            }
+            if (heavyHitters != null) {
+                formatTop(sb);
+            }
         }
         return sb.toString();
     }
 
+    private void formatTop(StringBuilder sb) {
+        List<HeavyHitters.Entry> top = heavyHitters.top();
+        sb.append("\n  Top Strings:");
+        if (top.isEmpty()) {
+            sb.append(" N/A");
+        }
+        for (HeavyHitters.Entry entry : top) {
+            sb.append("\n    ").append(entry.count())
+                    .append(" (error <= ").append(entry.error()).append("): ")
+                    .append(entry.value());
+        }
+    }
+
     /**
      * Возвращает количество обработанных строк.
      *
      * @return количество строк
      */
-    public int getCount() {
+    @Override
+    public long getCount() {
         return count;
     }
 
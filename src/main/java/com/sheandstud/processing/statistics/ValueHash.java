@@ -0,0 +1,128 @@
+package com.sheandstud.processing.statistics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+
+/**
+ * 64-битные хеши значений для скетчей статистики.
+ * <p>
+ * Строки хешируются по байтам (по схеме MurmurHash3 с одной 64-битной полосой),
+ * а числа - по нормализованному значению: {@code +5}, {@code 5} и {@code 005} имеют один хеш,
+ * как и {@code 1.50}, {@code 1.5} и {@code 15e-1}. Хеши чисел, помещающихся в long,
+ * вычисляются без создания объектов.
+ */
+final class ValueHash {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final long SCALE_SEED = 0x9E3779B97F4A7C15L;
+    private static final long BIG_SEED = 0xC2B2AE3D27D4EB4FL;
+    private static final long LONG_SEED = 0x165667B19E3779F9L;
+
+    private ValueHash() {
+    }
+
+    /**
+     * Возвращает хеш строки, заданной байтами.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return хеш строки
+     */
+    static long hash(byte[] data, int offset, int length) {
+        long h = 0;
+        int end = offset + length;
+        int i = offset;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            h ^= mixKey((long) LONGS.get(data, i));
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < end; i++, shift += 8) {
+            tail |= (data[i] & 0xFFL) << shift;
+        }
+        h ^= mixKey(tail);
+        return mix(h ^ length);
+    }
+
+    /**
+     * Возвращает хеш целого числа.
+     *
+     * @param value число
+     * @return хеш числа
+     */
+    static long hash(long value) {
+        return mix(value ^ LONG_SEED);
+    }
+
+    /**
+     * Возвращает хеш целого числа произвольной длины.
+     * <p>
+     * Хеш не совпадает с хешем {@link #hash(long)} того же числа, поэтому значения одного вида
+     * должны хешироваться одним способом в зависимости от величины числа.
+     *
+     * @param value число
+     * @return хеш числа
+     */
+    static long hash(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return mix(hash(bytes, 0, bytes.length) ^ BIG_SEED);
+    }
+
+    /**
+     * Возвращает хеш вещественного числа {@code unscaled * 10^-scale}.
+     * <p>
+     * Незначащие нули мантиссы отбрасываются, поэтому равные числа с разным масштабом
+     * имеют один хеш.
+     *
+     * @param unscaled мантисса числа
+     * @param scale    масштаб числа
+     * @return хеш числа
+     */
+    static long hash(long unscaled, int scale) {
+        if (unscaled == 0) {
+            scale = 0;
+        }
+        while (unscaled != 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        return mix(hash(unscaled) ^ (scale * SCALE_SEED));
+    }
+
+    /**
+     * Возвращает хеш вещественного числа.
+     * <p>
+     * Хеш совпадает с хешем {@link #hash(long, int)} для того же значения.
+     *
+     * @param value число
+     * @return хеш числа
+     */
+    static long hash(BigDecimal value) {
+        BigDecimal normalized = value.stripTrailingZeros();
+        if (normalized.precision() <= 18) {
+            return hash(normalized.unscaledValue().longValue(), normalized.scale());
+        }
+        return mix(hash(normalized.unscaledValue()) ^ (normalized.scale() * SCALE_SEED));
+    }
+
+    private static long mixKey(long key) {
+        return Long.rotateLeft(key * C1, 31) * C2;
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3: взаимно однозначно отображает long на long.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9e63b3f5a5dL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,134 @@
+package com.sheandstud.processing.statistics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Класс для сбора и форматирования статистики значений, которые не разбираются в числа,
+ * например логических значений или дат.
+ * <p>
+ * Значения сравниваются как последовательности байтов без знака: для значений
+ * одинаковой длины из цифр и латинских букв, например дат ISO 8601, этот порядок
+ * совпадает с естественным.
+ */
+public class ValueStatistics implements Statistics {
+    private final String title;
+    private long count;
+    private byte[] min;
+    private byte[] max;
+
+    /**
+     * Конструктор статистики значений.
+     *
+     * @param title название типа значений в выводе статистики
+     */
+    public ValueStatistics(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Обновляет статистику при обработке нового значения, заданного байтами в кодировке UTF-8.
+     * <p>
+     * Значение копируется, только если оно становится новым минимумом или максимумом.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала значения
+     * @param length длина значения в байтах
+     */
+    public void update(byte[] data, int offset, int length) {
+        if (count == 0 || compare(data, offset, length, min) < 0) {
+            min = Arrays.copyOfRange(data, offset, offset + length);
+        }
+        if (count == 0 || compare(data, offset, length, max) > 0) {
+            max = Arrays.copyOfRange(data, offset, offset + length);
+        }
+        count++;
+    }
+
+    private static int compare(byte[] data, int offset, int length, byte[] value) {
+        return Arrays.compareUnsigned(data, offset, offset + length, value, 0, value.length);
+    }
+
+    /**
+     * Учитывает новый элемент только в количестве.
+     */
+    @Override
+    public void increment() {
+        count++;
+    }
+
+    /**
+     * Объединяет статистику с другой статистикой значений.
+     *
+     * @param other статистика, собранная по другой части данных
+     * @throws IllegalArgumentException если статистика относится к другому типу данных
+     */
+    @Override
+    public void merge(Statistics other) {
+        if (!(other instanceof ValueStatistics stats) || !title.equals(stats.title)) {
+            throw new IllegalArgumentException("Cannot merge " + other.getClass().getSimpleName()
+                    + " into " + getClass().getSimpleName());
+        }
+        if (stats.min != null && (min == null || Arrays.compareUnsigned(stats.min, min) < 0)) {
+            min = stats.min;
+        }
+        if (stats.max != null && (max == null || Arrays.compareUnsigned(stats.max, max) > 0)) {
+            max = stats.max;
+        }
+        count += stats.count;
+    }
+
+    /**
+     * Форматирует вывод статистики.
+     * <p>
+     * Если параметр {@code full} равен true, выбрана полная статистика,
+     * включает наименьшее и наибольшее значение.
+     *
+     * @param full флаг, указывающий, нужно ли включать полную статистику
+     * @return строка с отформатированной статистикой
+     */
+    @Override
+    public String format(boolean full) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(title).append(" Statistics:\n");
+        sb.append("  Count: ").append(count);
+
+        if (full) {
+            sb.append("\n  Min: ").append(getMin());
+            sb.append("\n  Max: ").append(getMax());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Возвращает количество обработанных значений.
+     *
+     * @return количество значений
+     */
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Возвращает наименьшее значение.
+     * <p>
+     * Если значения не обрабатывались, возвращает "N/A".
+     *
+     * @return наименьшее значение или "N/A"
+     */
+    public String getMin() {
+        return min == null ? "N/A" : new String(min, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Возвращает наибольшее значение.
+     * <p>
+     * Если значения не обрабатывались, возвращает "N/A".
+     *
+     * @return наибольшее значение или "N/A"
+     */
+    public String getMax() {
+        return max == null ? "N/A" : new String(max, StandardCharsets.UTF_8);
+    }
+}
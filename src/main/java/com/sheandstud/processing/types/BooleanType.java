@@ -0,0 +1,10 @@
+package com.sheandstud.processing.types;
+
+/**
+ * Тип логических значений: true и false в любом регистре.
+ */
+public class BooleanType extends ValueType {
+    public BooleanType() {
+        super("boolean", "Boolean", "[Tt][Rr][Uu][Ee]|[Ff][Aa][Ll][Ss][Ee]");
+    }
+}
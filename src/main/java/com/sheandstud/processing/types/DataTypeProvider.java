@@ -0,0 +1,61 @@
+package com.sheandstud.processing.types;
+
+import com.sheandstud.processing.handlers.DataHandler;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.parsing.DataType;
+
+/**
+ * Интерфейс поставщика типа данных.
+ * <p>
+ * Поставщики находятся через {@link java.util.ServiceLoader} и регистрируются в файле
+ * {@code META-INF/services/com.sheandstud.processing.types.DataTypeProvider}.
+ * Тип данных описывается грамматикой ({@link TypeGrammar}); грамматики всех выбранных
+ * типов объединяются в один автомат ({@link TypeMatcher}), поэтому добавление типа
+ * не добавляет отдельного прохода по строке.
+ * <p>
+ * Строки, не подходящие ни под один тип, считаются строками и обрабатываются
+ * {@link com.sheandstud.processing.handlers.StringHandler}, поэтому строковый тип
+ * поставщиком не описывается.
+ */
+public interface DataTypeProvider {
+    /**
+     * Возвращает имя типа, используемое в опции {@code --types}.
+     *
+     * @return имя типа, например "integer"
+     */
+    String name();
+
+    /**
+     * Возвращает грамматику, под которую должна целиком подходить строка этого типа.
+     *
+     * @return грамматика в синтаксисе {@link TypeGrammar}
+     */
+    String grammar();
+
+    /**
+     * Возвращает имя выходного файла без префикса.
+     *
+     * @return имя файла, например "integers.txt"
+     */
+    String fileName();
+
+    /**
+     * Возвращает тип данных, по условиям которого фильтруются строки этого типа.
+     * <p>
+     * По умолчанию строки типа не фильтруются.
+     *
+     * @return тип данных для {@link com.sheandstud.processing.filter.LineFilter} или null
+     */
+    default DataType filterType() {
+        return null;
+    }
+
+    /**
+     * Создает обработчик строк этого типа.
+     *
+     * @param output         выходной файл
+     * @param fullStatistics true - собирается полная статистика, false - только количество
+     * @return обработчик данных
+     */
+    DataHandler createHandler(OutputFile output, boolean fullStatistics);
+}
@@ -0,0 +1,16 @@
+package com.sheandstud.processing.types;
+
+/**
+ * Тип дат в формате ISO 8601, например: 2024-01-31, 2024-01-31T12:30:00, 2024-01-31T12:30:00.5Z.
+ * <p>
+ * Проверяются диапазоны месяца, дня и времени, но не количество дней в конкретном месяце.
+ */
+public class DateType extends ValueType {
+    private static final String DATE = "\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12]\\d|3[01])";
+    private static final String TIME = "([01]\\d|2[0-3]):[0-5]\\d(:[0-5]\\d(\\.\\d+)?)?";
+    private static final String ZONE = "(Z|[-+]([01]\\d|2[0-3]):[0-5]\\d)";
+
+    public DateType() {
+        super("date", "Date", DATE + "([T ]" + TIME + ZONE + "?)?");
+    }
+}
@@ -0,0 +1,45 @@
+package com.sheandstud.processing.types;
+
+import com.sheandstud.processing.handlers.DataHandler;
+import com.sheandstud.processing.handlers.FloatHandler;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.parsing.DataType;
+
+/**
+ * Тип вещественных чисел, например: -111.111, .111, -111111E-3.
+ * <p>
+ * Грамматикой {@link #GRAMMAR} строки распознаются и при разделении по типам,
+ * и при проверке {@link FloatHandler#handle(String)}.
+ */
+public class FloatType implements DataTypeProvider {
+    /**
+     * Грамматика вещественных чисел.
+     */
+    public static final String GRAMMAR =
+            "[-+]?(\\d+\\.\\d+([eE][-+]?\\d+)?|\\.\\d+([eE][-+]?\\d+)?|\\d+[eE][-+]?\\d+)";
+
+    @Override
+    public String name() {
+        return "float";
+    }
+
+    @Override
+    public String grammar() {
+        return GRAMMAR;
+    }
+
+    @Override
+    public String fileName() {
+        return "floats.txt";
+    }
+
+    @Override
+    public DataType filterType() {
+        return DataType.FLOAT;
+    }
+
+    @Override
+    public DataHandler createHandler(OutputFile output, boolean fullStatistics) {
+        return new FloatHandler(output, fullStatistics);
+    }
+}
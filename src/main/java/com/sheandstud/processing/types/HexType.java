@@ -0,0 +1,15 @@
+package com.sheandstud.processing.types;
+
+/**
+ * Тип шестнадцатеричных чисел с префиксом 0x, например: 0x1F, 0XFF.
+ */
+public class HexType extends ValueType {
+    public HexType() {
+        super("hex", "Hex", "0[xX][0-9a-fA-F]+");
+    }
+
+    @Override
+    public String fileName() {
+        return "hexes.txt";
+    }
+}
@@ -0,0 +1,44 @@
+package com.sheandstud.processing.types;
+
+import com.sheandstud.processing.handlers.DataHandler;
+import com.sheandstud.processing.handlers.IntegerHandler;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.parsing.DataType;
+
+/**
+ * Тип целых чисел, например: -111, +111, 111.
+ * <p>
+ * Грамматикой {@link #GRAMMAR} строки распознаются и при разделении по типам,
+ * и при проверке {@link IntegerHandler#handle(String)}.
+ */
+public class IntegerType implements DataTypeProvider {
+    /**
+     * Грамматика целых чисел.
+     */
+    public static final String GRAMMAR = "[-+]?\\d+";
+
+    @Override
+    public String name() {
+        return "integer";
+    }
+
+    @Override
+    public String grammar() {
+        return GRAMMAR;
+    }
+
+    @Override
+    public String fileName() {
+        return "integers.txt";
+    }
+
+    @Override
+    public DataType filterType() {
+        return DataType.INTEGER;
+    }
+
+    @Override
+    public DataHandler createHandler(OutputFile output, boolean fullStatistics) {
+        return new IntegerHandler(output, fullStatistics);
+    }
+}
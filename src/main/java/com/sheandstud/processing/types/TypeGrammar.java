@@ -0,0 +1,352 @@
+package com.sheandstud.processing.types;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Грамматика типа данных: подмножество синтаксиса регулярных выражений над байтами строки.
+ * <p>
+ * Поддерживаются:
+ * <ul>
+ *   <li>символы ASCII и экранированные символы ({@code \.}, {@code \+} и т.д.);</li>
+ *   <li>{@code \d} - цифры '0'-'9', {@code .} - любой байт;</li>
+ *   <li>классы символов {@code [a-f0-9]} и {@code [^...]};</li>
+ *   <li>группы {@code (...)} и альтернативы {@code |};</li>
+ *   <li>повторения {@code ?}, {@code *}, {@code +}, {@code {n}}, {@code {n,}}, {@code {n,m}}.</li>
+ * </ul>
+ * Грамматика должна совпадать со строкой целиком, как {@link java.util.regex.Matcher#matches()}.
+ */
+final class TypeGrammar {
+    private static final int MAX_REPEAT = 256;
+
+    private final String source;
+    private int position;
+
+    private TypeGrammar(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Разбирает грамматику.
+     *
+     * @param source текст грамматики
+     * @return дерево разбора
+     * @throws IllegalArgumentException если грамматика некорректна
+     */
+    static Node parse(String source) {
+        TypeGrammar parser = new TypeGrammar(source);
+        Node node = parser.alternation();
+        if (parser.position < source.length()) {
+            throw parser.error("Unexpected '" + source.charAt(parser.position) + "'");
+        }
+        return node;
+    }
+
+    private Node alternation() {
+        List<Node> options = new ArrayList<>();
+        options.add(concatenation());
+        while (peek() == '|') {
+            position++;
+            options.add(concatenation());
+        }
+        return options.size() == 1 ? options.get(0) : new Alternation(options);
+    }
+
+    private Node concatenation() {
+        List<Node> items = new ArrayList<>();
+        while (position < source.length() && peek() != '|' && peek() != ')') {
+            items.add(repetition());
+        }
+        return new Concatenation(items);
+    }
+
+    private Node repetition() {
+        Node node = atom();
+        while (position < source.length()) {
+            char c = peek();
+            if (c == '?') {
+                node = new Repetition(node, 0, 1);
+            } else if (c == '*') {
+                node = new Repetition(node, 0, -1);
+            } else if (c == '+') {
+                node = new Repetition(node, 1, -1);
+            } else if (c == '{') {
+                node = counted(node);
+                continue;
+            } else {
+                return node;
+            }
+            position++;
+        }
+        return node;
+    }
+
+    private Node counted(Node node) {
+        position++;
+        int min = number();
+        int max = min;
+        if (peek() == ',') {
+            position++;
+            max = peek() == '}' ? -1 : number();
+        }
+        expect('}');
+        if (max != -1 && max < min) {
+            throw error("Invalid repetition range");
+        }
+        return new Repetition(node, min, max);
+    }
+
+    private int number() {
+        int start = position;
+        while (position < source.length() && Character.isDigit(peek())) {
+            position++;
+        }
+        if (start == position || position - start > 3) {
+            throw error("Invalid repetition count");
+        }
+        int value = Integer.parseInt(source.substring(start, position));
+        if (value > MAX_REPEAT) {
+            throw error("Repetition count exceeds " + MAX_REPEAT);
+        }
+        return value;
+    }
+
+    private Node atom() {
+        char c = next();
+        return switch (c) {
+            case '(' -> {
+                Node node = alternation();
+                expect(')');
+                yield node;
+            }
+            case '[' -> characterClass();
+            case '\\' -> escape();
+            case '.' -> {
+                BitSet bytes = new BitSet(256);
+                bytes.set(0, 256);
+                yield new ByteSet(bytes);
+            }
+            case ')', ']', '{', '}', '|', '?', '*', '+' -> throw error("Unexpected '" + c + "'");
+            default -> ByteSet.of(literal(c));
+        };
+    }
+
+    private Node escape() {
+        char c = next();
+        if (c == 'd') {
+            BitSet digits = new BitSet(256);
+            digits.set('0', '9' + 1);
+            return new ByteSet(digits);
+        }
+        return ByteSet.of(literal(c));
+    }
+
+    private Node characterClass() {
+        BitSet bytes = new BitSet(256);
+        boolean negated = peek() == '^';
+        if (negated) {
+            position++;
+        }
+        do {
+            char c = next();
+            if (c == '\\') {
+                c = next();
+                if (c == 'd') {
+                    bytes.set('0', '9' + 1);
+                    continue;
+                }
+            }
+            int from = literal(c);
+            if (peek() == '-' && position + 1 < source.length() && source.charAt(position + 1) != ']') {
+                position++;
+                int to = literal(next());
+                if (to < from) {
+                    throw error("Invalid character range");
+                }
+                bytes.set(from, to + 1);
+            } else {
+                bytes.set(from);
+            }
+        } while (peek() != ']');
+        position++;
+        if (negated) {
+            bytes.flip(0, 256);
+        }
+        return new ByteSet(bytes);
+    }
+
+    private int literal(char c) {
+        if (c > 127) {
+            throw error("Only ASCII characters are supported");
+        }
+        return c;
+    }
+
+    private char peek() {
+        return position < source.length() ? source.charAt(position) : '\0';
+    }
+
+    private char next() {
+        if (position >= source.length()) {
+            throw error("Unexpected end of grammar");
+        }
+        return source.charAt(position++);
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in grammar: " + source);
+    }
+
+    /**
+     * Узел дерева разбора грамматики.
+     */
+    interface Node {
+        /**
+         * Добавляет в автомат состояния, распознающие узел.
+         *
+         * @param nfa автомат
+         * @param end состояние, в которое ведет распознавание узла
+         * @return начальное состояние узла
+         */
+        int build(Nfa nfa, int end);
+
+        /**
+         * Строит автомат для грамматики с заданным номером.
+         *
+         * @param nfa   автомат
+         * @param label номер грамматики
+         * @return начальное состояние грамматики
+         */
+        default int compile(Nfa nfa, int label) {
+            return build(nfa, nfa.accepting(label));
+        }
+    }
+
+    private record ByteSet(BitSet bytes) implements Node {
+        static ByteSet of(int b) {
+            BitSet bytes = new BitSet(256);
+            bytes.set(b);
+            return new ByteSet(bytes);
+        }
+
+        @Override
+        public int build(Nfa nfa, int end) {
+            return nfa.transition(bytes, end);
+        }
+    }
+
+    private record Concatenation(List<Node> items) implements Node {
+        @Override
+        public int build(Nfa nfa, int end) {
+            int next = end;
+            for (int i = items.size() - 1; i >= 0; i--) {
+                next = items.get(i).build(nfa, next);
+            }
+            return next == end ? nfa.epsilon(List.of(end)) : next;
+        }
+    }
+
+    private record Alternation(List<Node> options) implements Node {
+        @Override
+        public int build(Nfa nfa, int end) {
+            List<Integer> starts = new ArrayList<>();
+            for (Node option : options) {
+                starts.add(option.build(nfa, end));
+            }
+            return nfa.epsilon(starts);
+        }
+    }
+
+    private record Repetition(Node node, int min, int max) implements Node {
+        @Override
+        public int build(Nfa nfa, int end) {
+            int next = end;
+            if (max == -1) {
+                int loop = nfa.epsilon(new ArrayList<>(List.of(end)));
+                nfa.addEpsilon(loop, node.build(nfa, loop));
+                next = loop;
+            } else {
+                for (int i = min; i < max; i++) {
+                    next = nfa.epsilon(List.of(node.build(nfa, next), end));
+                }
+            }
+            for (int i = 0; i < min; i++) {
+                next = node.build(nfa, next);
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Недетерминированный автомат: переходы по множеству байтов и пустые переходы.
+     */
+    static final class Nfa {
+        private final List<BitSet> bytes = new ArrayList<>();
+        private final List<Integer> targets = new ArrayList<>();
+        private final List<List<Integer>> epsilons = new ArrayList<>();
+        private final List<Integer> labels = new ArrayList<>();
+
+        private int add(BitSet set, int target, List<Integer> epsilon, int label) {
+            bytes.add(set);
+            targets.add(target);
+            epsilons.add(epsilon);
+            labels.add(label);
+            return bytes.size() - 1;
+        }
+
+        int accepting(int label) {
+            return add(null, -1, new ArrayList<>(), label);
+        }
+
+        int transition(BitSet set, int target) {
+            return add(set, target, List.of(), TypeMatcher.NO_MATCH);
+        }
+
+        int epsilon(List<Integer> targets) {
+            return add(null, -1, new ArrayList<>(targets), TypeMatcher.NO_MATCH);
+        }
+
+        void addEpsilon(int state, int target) {
+            epsilons.get(state).add(target);
+        }
+
+        List<Integer> epsilon(int state) {
+            return epsilons.get(state);
+        }
+
+        /**
+         * Возвращает множество состояний, в которые ведут переходы по байту.
+         */
+        BitSet move(BitSet states, int b) {
+            BitSet result = new BitSet();
+            for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                BitSet set = bytes.get(state);
+                if (set != null && set.get(b)) {
+                    result.set(targets.get(state));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Возвращает наименьший номер грамматики среди допускающих состояний.
+         */
+        int label(BitSet states) {
+            int result = TypeMatcher.NO_MATCH;
+            for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                int label = labels.get(state);
+                if (label != TypeMatcher.NO_MATCH && (result == TypeMatcher.NO_MATCH || label < result)) {
+                    result = label;
+                }
+            }
+            return result;
+        }
+    }
+}
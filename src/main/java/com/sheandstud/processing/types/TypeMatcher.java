@@ -0,0 +1,144 @@
+package com.sheandstud.processing.types;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Детерминированный конечный автомат, распознающий строки сразу для нескольких грамматик.
+ * <p>
+ * Грамматики задаются подмножеством синтаксиса регулярных выражений ({@link TypeGrammar}),
+ * переводятся в недетерминированный автомат и объединяются построением подмножеств
+ * в один детерминированный автомат. Строка просматривается один раз, каждый байт
+ * обрабатывается одним обращением к таблице переходов, поэтому время классификации
+ * не зависит от количества грамматик.
+ * <p>
+ * Если строка подходит под несколько грамматик, выбирается грамматика с меньшим номером.
+ */
+public final class TypeMatcher {
+    /**
+     * Результат, если строка не подходит ни под одну грамматику.
+     */
+    public static final int NO_MATCH = -1;
+    /**
+     * Максимальное количество состояний автомата.
+     */
+    private static final int MAX_STATES = 4096;
+    private static final int DEAD = 0;
+    private static final int START = 1;
+
+    private final int[] transitions;
+    private final int[] accepting;
+
+    private TypeMatcher(int[] transitions, int[] accepting) {
+        this.transitions = transitions;
+        this.accepting = accepting;
+    }
+
+    /**
+     * Строит автомат для списка грамматик.
+     *
+     * @param grammars грамматики в порядке приоритета
+     * @return автомат
+     * @throws IllegalArgumentException если грамматика некорректна или автомат слишком велик
+     */
+    public static TypeMatcher compile(List<String> grammars) {
+        TypeGrammar.Nfa nfa = new TypeGrammar.Nfa();
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < grammars.size(); i++) {
+            starts.add(TypeGrammar.parse(grammars.get(i)).compile(nfa, i));
+        }
+
+        Map<BitSet, Integer> states = new HashMap<>();
+        List<BitSet> pending = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        List<Integer> labels = new ArrayList<>();
+        rows.add(new int[256]);
+        labels.add(NO_MATCH);
+
+        BitSet start = new BitSet();
+        starts.forEach(start::set);
+        closure(nfa, start);
+        states.put(start, START);
+        pending.add(start);
+        rows.add(new int[256]);
+        labels.add(nfa.label(start));
+
+        for (int index = START; index < rows.size(); index++) {
+            BitSet current = pending.get(index - START);
+            int[] row = rows.get(index);
+            for (int b = 0; b < 256; b++) {
+                BitSet next = nfa.move(current, b);
+                if (next.isEmpty()) {
+                    row[b] = DEAD;
+                    continue;
+                }
+                closure(nfa, next);
+                Integer target = states.get(next);
+                if (target == null) {
+                    if (rows.size() == MAX_STATES) {
+                        throw new IllegalArgumentException("Type grammars are too complex");
+                    }
+                    target = rows.size();
+                    states.put(next, target);
+                    pending.add(next);
+                    rows.add(new int[256]);
+                    labels.add(nfa.label(next));
+                }
+                row[b] = target;
+            }
+        }
+
+        int[] transitions = new int[rows.size() * 256];
+        int[] accepting = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, transitions, i * 256, 256);
+            accepting[i] = labels.get(i);
+        }
+        return new TypeMatcher(transitions, accepting);
+    }
+
+    private static void closure(TypeGrammar.Nfa nfa, BitSet states) {
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        states.stream().forEach(stack::push);
+        while (!stack.isEmpty()) {
+            for (int target : nfa.epsilon(stack.pop())) {
+                if (!states.get(target)) {
+                    states.set(target);
+                    stack.push(target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Определяет, под какую грамматику подходит строка.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return номер грамматики или {@link #NO_MATCH}
+     */
+    public int match(byte[] data, int offset, int length) {
+        int state = START;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            state = transitions[(state << 8) | (data[i] & 0xFF)];
+            if (state == DEAD) {
+                return NO_MATCH;
+            }
+        }
+        return accepting[state];
+    }
+
+    /**
+     * Возвращает количество состояний автомата.
+     *
+     * @return количество состояний, включая тупиковое
+     */
+    public int stateCount() {
+        return accepting.length;
+    }
+}
@@ -0,0 +1,103 @@
+package com.sheandstud.processing.types;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Набор типов данных, на которые разделяются строки, и общий автомат для их распознавания.
+ * <p>
+ * Порядок типов задает приоритет: если строка подходит под несколько грамматик,
+ * она относится к типу, указанному раньше. Строки, не подходящие ни под один тип,
+ * считаются строками. Набор неизменяем и может использоваться из нескольких потоков.
+ */
+public final class TypeRegistry {
+    /**
+     * Типы, используемые по умолчанию: целые и вещественные числа.
+     */
+    public static final List<String> DEFAULT_TYPES = List.of("integer", "float");
+
+    private final List<DataTypeProvider> types;
+    private final TypeMatcher matcher;
+
+    private TypeRegistry(List<DataTypeProvider> types) {
+        this.types = List.copyOf(types);
+        this.matcher = TypeMatcher.compile(types.stream().map(DataTypeProvider::grammar).toList());
+    }
+
+    /**
+     * Возвращает типы, доступные через {@link ServiceLoader}, в порядке их регистрации.
+     *
+     * @return типы по именам
+     */
+    public static Map<String, DataTypeProvider> available() {
+        Map<String, DataTypeProvider> providers = new LinkedHashMap<>();
+        for (DataTypeProvider provider : ServiceLoader.load(DataTypeProvider.class)) {
+            providers.putIfAbsent(provider.name(), provider);
+        }
+        return providers;
+    }
+
+    /**
+     * Создает набор из типов с заданными именами.
+     *
+     * @param names имена типов в порядке приоритета
+     * @return набор типов
+     * @throws IllegalArgumentException если тип не найден, указан дважды
+     *                                  или грамматики слишком сложны
+     */
+    public static TypeRegistry load(List<String> names) {
+        Map<String, DataTypeProvider> providers = available();
+        List<DataTypeProvider> types = new ArrayList<>();
+        for (String name : names) {
+            DataTypeProvider provider = providers.get(name);
+            if (provider == null) {
+                throw new IllegalArgumentException("Unknown type: " + name + ", available: "
+                        + String.join(", ", providers.keySet()));
+            }
+            if (types.contains(provider)) {
+                throw new IllegalArgumentException("Duplicate type: " + name);
+            }
+            types.add(provider);
+        }
+        return new TypeRegistry(types);
+    }
+
+    /**
+     * Возвращает набор типов по умолчанию ({@link #DEFAULT_TYPES}).
+     * <p>
+     * Автомат для набора по умолчанию строится один раз.
+     *
+     * @return набор типов по умолчанию
+     */
+    public static TypeRegistry defaults() {
+        return Defaults.INSTANCE;
+    }
+
+    /**
+     * Возвращает типы набора в порядке приоритета.
+     *
+     * @return список типов
+     */
+    public List<DataTypeProvider> types() {
+        return types;
+    }
+
+    /**
+     * Определяет тип строки, заданной байтами в кодировке UTF-8.
+     *
+     * @param data   массив байтов
+     * @param offset позиция начала строки
+     * @param length длина строки в байтах
+     * @return номер типа в {@link #types()} или {@link TypeMatcher#NO_MATCH}, если строка не подходит ни под один тип
+     */
+    public int classify(byte[] data, int offset, int length) {
+        return matcher.match(data, offset, length);
+    }
+
+    private static final class Defaults {
+        private static final TypeRegistry INSTANCE = load(DEFAULT_TYPES);
+    }
+}
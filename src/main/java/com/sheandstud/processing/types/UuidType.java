@@ -0,0 +1,12 @@
+package com.sheandstud.processing.types;
+
+/**
+ * Тип идентификаторов UUID, например: 123e4567-e89b-12d3-a456-426614174000.
+ */
+public class UuidType extends ValueType {
+    private static final String HEX = "[0-9a-fA-F]";
+
+    public UuidType() {
+        super("uuid", "UUID", HEX + "{8}-" + HEX + "{4}-" + HEX + "{4}-" + HEX + "{4}-" + HEX + "{12}");
+    }
+}
@@ -0,0 +1,62 @@
+package com.sheandstud.processing.types;
+
+import com.sheandstud.processing.handlers.DataHandler;
+import com.sheandstud.processing.handlers.ValueHandler;
+import com.sheandstud.processing.output.OutputFile;
+
+import java.util.List;
+
+/**
+ * Базовый класс типов, значения которых не разбираются, а только распознаются грамматикой.
+ * <p>
+ * Строки таких типов обрабатываются {@link ValueHandler}: учитывается количество,
+ * а при полной статистике - наименьшее и наибольшее значение в порядке байтов.
+ */
+public abstract class ValueType implements DataTypeProvider {
+    private final String name;
+    private final String title;
+    private final String grammar;
+    private TypeMatcher format;
+
+    /**
+     * Конструктор типа значений.
+     *
+     * @param name    имя типа в опции {@code --types}
+     * @param title   название типа в статистике
+     * @param grammar грамматика значений
+     */
+    protected ValueType(String name, String title, String grammar) {
+        this.name = name;
+        this.title = title;
+        this.grammar = grammar;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String grammar() {
+        return grammar;
+    }
+
+    /**
+     * Возвращает имя выходного файла: имя типа во множественном числе.
+     */
+    @Override
+    public String fileName() {
+        return name + "s.txt";
+    }
+
+    /**
+     * Создает обработчик значений; автомат грамматики строится при первом вызове.
+     */
+    @Override
+    public DataHandler createHandler(OutputFile output, boolean fullStatistics) {
+        if (format == null) {
+            format = TypeMatcher.compile(List.of(grammar));
+        }
+        return new ValueHandler(title, format, output, fullStatistics);
+    }
+}
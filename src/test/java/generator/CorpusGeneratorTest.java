@@ -0,0 +1,119 @@
+package generator;
+
+import com.sheandstud.generator.CorpusGenerator;
+import com.sheandstud.generator.CorpusSettings;
+import com.sheandstud.processing.parsing.DataType;
+import com.sheandstud.processing.types.TypeMatcher;
+import com.sheandstud.processing.types.TypeRegistry;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CorpusGeneratorTest {
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("generator-test");
+    }
+
+    @Test
+    void testOutputDoesNotDependOnThreads() throws Exception {
+        CorpusGenerator generator = new CorpusGenerator(CorpusSettings.defaults(7));
+        Path single = tempDir.resolve("single.txt");
+        Path parallel = tempDir.resolve("parallel.txt");
+
+        CorpusGenerator.Result first = generator.write(single, 3_000_000, Long.MAX_VALUE, 1);
+        CorpusGenerator.Result second = generator.write(parallel, 3_000_000, Long.MAX_VALUE, 3);
+
+        assertEquals(first, second);
+        assertEquals(-1, Files.mismatch(single, parallel));
+        assertFalse(Arrays.equals(generator.generate(0), new CorpusGenerator(CorpusSettings.defaults(8)).generate(0)));
+    }
+
+    @Test
+    void testStopsAtLineBoundary() throws Exception {
+        CorpusGenerator generator = new CorpusGenerator(CorpusSettings.defaults(1));
+        Path bySize = tempDir.resolve("size.txt");
+        Path byLines = tempDir.resolve("lines.txt");
+
+        CorpusGenerator.Result size = generator.write(bySize, 100_000, Long.MAX_VALUE, 2);
+        CorpusGenerator.Result lines = generator.write(byLines, Long.MAX_VALUE, 40_000, 2);
+
+        byte[] data = Files.readAllBytes(bySize);
+        assertEquals(size.bytes(), data.length);
+        assertEquals('\n', data[data.length - 1]);
+        int lastLineStart = new String(data, 0, data.length - 1, StandardCharsets.ISO_8859_1).lastIndexOf('\n') + 1;
+        assertTrue(data.length >= 100_000 && lastLineStart < 100_000);
+        assertEquals(size.lines(), Files.readAllLines(bySize).size());
+
+        assertEquals(40_000, lines.lines());
+        assertEquals(40_000, Files.readAllLines(byLines).size());
+        byte[] longer = Files.readAllBytes(byLines);
+        assertArrayEquals(data, Arrays.copyOf(longer, data.length));
+    }
+
+    @Test
+    void testIntegersBeyondLong() {
+        CorpusSettings settings = new CorpusSettings(3, 100, 0, 0, 25, 40, 0, 0, 0, 1, 1, 0, 0);
+        for (String line : lines(settings)) {
+            assertEquals(DataType.INTEGER, classify(line), line);
+            assertTrue(new BigInteger(line).abs().bitLength() >= Long.SIZE, line);
+        }
+    }
+
+    @Test
+    void testFloatsWithExponents() {
+        CorpusSettings settings = new CorpusSettings(3, 0, 100, 0, 1, 5, 100, -3, 3, 1, 1, 0, 0);
+        for (String line : lines(settings)) {
+            assertEquals(DataType.FLOAT, classify(line), line);
+            int exponent = Integer.parseInt(line.substring(line.toLowerCase().indexOf('e') + 1));
+            assertTrue(exponent >= -3 && exponent <= 3, line);
+            new BigDecimal(line);
+        }
+    }
+
+    @Test
+    void testStringLengths() {
+        CorpusSettings settings = new CorpusSettings(3, 0, 0, 100, 1, 1, 0, 0, 0, 5, 12, 50, 0);
+        boolean nonAscii = false;
+        for (String line : lines(settings)) {
+            assertEquals(DataType.STRING, classify(line), line);
+            int length = line.codePointCount(0, line.length());
+            assertTrue(length >= 5 && length <= 12, line);
+            nonAscii |= line.chars().anyMatch(c -> c > 127);
+        }
+        assertTrue(nonAscii);
+    }
+
+    @Test
+    void testEdgeCases() {
+        CorpusSettings settings = new CorpusSettings(3, 1, 1, 1, 1, 1, 0, 0, 0, 1, 1, 0, 100);
+        List<String> lines = lines(settings);
+
+        assertTrue(lines.containsAll(List.of(".5", "+1E-3", "1.", "9223372036854775808")));
+        assertEquals(DataType.FLOAT, classify("+1E-3"));
+        assertEquals(DataType.STRING, classify("1."));
+    }
+
+    private static DataType classify(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        TypeRegistry registry = TypeRegistry.defaults();
+        int index = registry.classify(bytes, 0, bytes.length);
+        return index == TypeMatcher.NO_MATCH ? DataType.STRING : registry.types().get(index).filterType();
+    }
+
+    private static List<String> lines(CorpusSettings settings) {
+        String block = new String(new CorpusGenerator(settings).generate(0), StandardCharsets.UTF_8);
+        return List.of(block.split("\n", -1)).subList(0, CorpusGenerator.LINES_PER_BLOCK);
+    }
+}
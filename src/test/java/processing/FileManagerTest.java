@@ -2,14 +2,17 @@ package processing;
 
 import com.sheandstud.options.Cli;
 import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.LineBlock;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.ParseException;
 import org.junit.jupiter.api.*;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -46,6 +49,103 @@ public class FileManagerTest {
         assertTrue(Files.exists(tempDir.resolve("test_strings.txt")));
     }
 
+    @Test
+    void testFiltersDropLinesBeforeProcessing() throws Exception {
+        String[] args = {
+                "-o", tempDir.toString(), "-f",
+                "--int-range", "10:100",
+                "--float-range", ":0",
+                "--string-prefix", "keep",
+                "--string-regex", "\\d$",
+                "input.txt"
+        };
+        CommandLine cmd = new DefaultParser().parse(Cli.getOptions(), args);
+
+        try (FileManager manager = new FileManager(cmd)) {
+            for (String line : List.of("5", "10", "0100", "101", "-2.5", "2.5", "keep 1", "keep it", "drop 1",
+                    "1e99999999999")) {
+                manager.processLine(line);
+            }
+            assertEquals("Integer Statistics:\n  Count: 2\n  Min: 10\n  Max: 100\n  Sum: 110\n  Avg: 55",
+                    manager.getStatistics().get(0).format(true));
+        }
+
+        assertEquals(List.of("10", "0100"), Files.readAllLines(tempDir.resolve("integers.txt")));
+        assertEquals(List.of("-2.5"), Files.readAllLines(tempDir.resolve("floats.txt")));
+        assertEquals(List.of("keep 1"), Files.readAllLines(tempDir.resolve("strings.txt")));
+    }
+
+    @Test
+    void testExtraTypesWrittenToOwnFiles() throws Exception {
+        String[] args = {"-o", tempDir.toString(), "-f", "--types", "boolean,integer,hex", "input.txt"};
+        CommandLine cmd = new DefaultParser().parse(Cli.getOptions(), args);
+
+        try (FileManager manager = new FileManager(cmd)) {
+            for (String line : List.of("true", "7", "0x1F", "1.5", "FALSE", "0xff", "-3")) {
+                manager.processLine(line);
+            }
+            assertEquals("Boolean Statistics:\n  Count: 2\n  Min: FALSE\n  Max: true\n"
+                            + "Integer Statistics:\n  Count: 2\n  Min: -3\n  Max: 7\n  Sum: 4\n  Avg: 2\n"
+                            + "Hex Statistics:\n  Count: 2\n  Min: 0x1F\n  Max: 0xff\n"
+                            + "String Statistics:\n  Count: 1\n  Min Length: 3\n  Max Length: 3",
+                    formatStatistics(manager));
+        }
+
+        assertEquals(List.of("true", "FALSE"), Files.readAllLines(tempDir.resolve("booleans.txt")));
+        assertEquals(List.of("0x1F", "0xff"), Files.readAllLines(tempDir.resolve("hexes.txt")));
+        assertEquals(List.of("1.5"), Files.readAllLines(tempDir.resolve("strings.txt")));
+        assertFalse(Files.exists(tempDir.resolve("floats.txt")));
+    }
+
+    @Test
+    void testBlockProcessingMatchesLineProcessing() throws Exception {
+        List<String> lines = List.of("12", "text", "1e99999999999", "-3.5", "99999999999999999999", "", "7",
+                "keep me", "0.25", "+1", "1e5", "строка", "true", "2024-01-31");
+        Path linesDir = tempDir.resolve("lines");
+        Path blocksDir = tempDir.resolve("blocks");
+
+        for (String[] filter : new String[][]{{}, {"--int-range", "0:10", "--string-prefix", "k"},
+                {"--types", "boolean,date,integer", "--int-range", "0:10"}}) {
+            String lineStats;
+            try (FileManager manager = createManager(linesDir, filter)) {
+                for (String line : lines) {
+                    manager.processLine(line);
+                }
+                lineStats = formatStatistics(manager);
+            }
+
+            String blockStats;
+            try (FileManager manager = createManager(blocksDir, filter)) {
+                LineBlock block = new LineBlock(16, 4);
+                for (String line : lines) {
+                    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                    block.add(bytes, 0, bytes.length);
+                }
+                manager.processBlock(block);
+                blockStats = formatStatistics(manager);
+            }
+
+            assertEquals(lineStats, blockStats);
+            for (String name : List.of("integers.txt", "floats.txt", "strings.txt", "booleans.txt", "dates.txt")) {
+                assertEquals(Files.exists(linesDir.resolve(name)), Files.exists(blocksDir.resolve(name)), name);
+                if (Files.exists(linesDir.resolve(name))) {
+                    assertEquals(-1, Files.mismatch(linesDir.resolve(name), blocksDir.resolve(name)), name);
+                }
+            }
+        }
+    }
+
+    private static FileManager createManager(Path outputDir, String[] filter) throws Exception {
+        List<String> args = new ArrayList<>(List.of("-o", outputDir.toString(), "-f"));
+        args.addAll(List.of(filter));
+        args.add("input.txt");
+        return new FileManager(new DefaultParser().parse(Cli.getOptions(), args.toArray(String[]::new)));
+    }
+
+    private static String formatStatistics(FileManager manager) {
+        return manager.getStatistics().stream().map(stat -> stat.format(true)).collect(Collectors.joining("\n"));
+    }
+
     @Test
     void testNoEmptyFiles() throws Exception {
         String[] args = {"-o", tempDir.toString(), "empty.txt"};
@@ -76,6 +176,91 @@ public class FileManagerTest {
         assertEquals(List.of("100", "200"), lines);
     }
 
+    @Test
+    void testDistinctSketchesMergedInAppendMode() throws Exception {
+        String[] args1 = {"-f", "--distinct-count", "-o", tempDir.toString(), "input.txt"};
+        try (FileManager manager = new FileManager(new DefaultParser().parse(Cli.getOptions(), args1))) {
+            for (String line : List.of("1", "+1", "2", "a", "b")) {
+                manager.processLine(line);
+            }
+            manager.close();
+            manager.saveDistinctSketches();
+        }
+        assertTrue(Files.exists(tempDir.resolve("integers.txt" + FileManager.DISTINCT_SKETCH_SUFFIX)));
+        assertFalse(Files.exists(tempDir.resolve("floats.txt" + FileManager.DISTINCT_SKETCH_SUFFIX)));
+
+        String[] args2 = {"-a", "-f", "--distinct-count", "-o", tempDir.toString(), "input.txt"};
+        try (FileManager manager = new FileManager(new DefaultParser().parse(Cli.getOptions(), args2))) {
+            manager.loadDistinctSketches();
+            for (String line : List.of("2", "3", "b")) {
+                manager.processLine(line);
+            }
+            assertTrue(manager.getStatistics().get(0).format(true).endsWith("Distinct (approx.): 3"));
+            assertTrue(manager.getStatistics().get(2).format(true).endsWith("Distinct (approx.): 2"));
+        }
+    }
+
+    @Test
+    void testChecksumManifestWrittenOnClose() throws Exception {
+        String[] args = {"--checksums", "--sha256", "-p", "run_", "-o", tempDir.toString(), "input.txt"};
+        try (FileManager manager = new FileManager(new DefaultParser().parse(Cli.getOptions(), args))) {
+            manager.processLine("1");
+            manager.processLine("text");
+        }
+
+        List<String> manifest = Files.readAllLines(tempDir.resolve("run_" + FileManager.CHECKSUM_MANIFEST));
+        assertEquals(4, manifest.size());
+        assertTrue(manifest.get(0).startsWith("CRC32C (run_integers.txt) = "));
+        assertTrue(manifest.get(3).startsWith("SHA256 (run_strings.txt) = "));
+        assertFalse(manifest.stream().anyMatch(line -> line.contains("floats")));
+    }
+
+    @Test
+    void testDistinctMemoryDefaultsToQuarterOfMaxMemory() throws Exception {
+        try (FileManager manager = createManager(tempDir, new String[]{"--distinct", "--max-memory", "64M"})) {
+            manager.processLine("1");
+            assertTrue(manager.getDuplicateFilter().format().endsWith(" of 16.0 MB"),
+                    manager.getDuplicateFilter().format());
+        }
+    }
+
+    @Test
+    void testDistinctDropsRepeatedValuesBeforeStatistics() throws Exception {
+        List<String> lines = List.of("5", "+5", "x", "1.5", "005", "1.50", "x", "y", "1e99999999999",
+                "1e99999999999", "-0", "0", "15e-1", "5");
+        Path linesDir = tempDir.resolve("lines");
+        Path blocksDir = tempDir.resolve("blocks");
+
+        String lineStats;
+        try (FileManager manager = createManager(linesDir, new String[]{"--distinct"})) {
+            for (String line : lines) {
+                manager.processLine(line);
+            }
+            lineStats = formatStatistics(manager);
+            assertTrue(manager.getDuplicateFilter().format().startsWith("Duplicates:\n  Removed: 8\n"),
+                    manager.getDuplicateFilter().format());
+        }
+        String blockStats;
+        try (FileManager manager = createManager(blocksDir, new String[]{"--distinct"})) {
+            LineBlock block = new LineBlock(16, 4);
+            for (String line : lines) {
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                block.add(bytes, 0, bytes.length);
+            }
+            manager.processBlock(block);
+            blockStats = formatStatistics(manager);
+        }
+
+        assertEquals(lineStats, blockStats);
+        assertTrue(lineStats.startsWith("Integer Statistics:\n  Count: 2\n"), lineStats);
+        assertEquals(List.of("5", "-0"), Files.readAllLines(linesDir.resolve("integers.txt")));
+        assertEquals(List.of("1.5"), Files.readAllLines(linesDir.resolve("floats.txt")));
+        assertEquals(List.of("x", "y", "1e99999999999"), Files.readAllLines(linesDir.resolve("strings.txt")));
+        for (String name : List.of("integers.txt", "floats.txt", "strings.txt")) {
+            assertEquals(-1, Files.mismatch(linesDir.resolve(name), blocksDir.resolve(name)), name);
+        }
+    }
+
     @Test
     void testWithoutAppendMode() throws Exception {
         String[] args1 = {"-o", tempDir.toString(), "input.txt"};
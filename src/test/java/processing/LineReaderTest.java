@@ -0,0 +1,152 @@
+package processing;
+
+import com.sheandstud.processing.FileRange;
+import com.sheandstud.processing.LineReader;
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.progress.FileProgress;
+import org.junit.jupiter.api.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineReaderTest {
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.createTempFile("test-lines", ".txt");
+    }
+
+    @Test
+    void testLineTerminatorsMatchBufferedReader() throws IOException {
+        String[] contents = {"", "a", "a\n", "\n", "a\r\nb\rc\n\nd", "a\r", "\r\n\r\n", "héllo\nwörld\r\n"};
+        for (String content : contents) {
+            Files.writeString(testFile, content);
+            assertEquals(readWithBufferedReader(), readRanges(1024 * 1024), content);
+        }
+    }
+
+    @Test
+    void testRangesSplitOnLineBoundaries() throws IOException {
+        Random random = new Random(3);
+        StringBuilder sb = new StringBuilder();
+        String[] terminators = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 2000; i++) {
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            sb.append(terminators[random.nextInt(terminators.length)]);
+        }
+        Files.writeString(testFile, sb.toString());
+
+        List<String> expected = readWithBufferedReader();
+        for (long chunkSize : new long[]{1, 7, 100, 4096, 1 << 20}) {
+            assertEquals(expected, readRanges(chunkSize), "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void testWholeFileMatchesBufferedReader() throws IOException {
+        Files.writeString(testFile, "1\r\n2.5\rtext\n\nлиния");
+        List<String> lines = new ArrayList<>();
+        LineReader.read(testFile, MemoryBudget.unlimited(), (buffer, offset, length) ->
+                lines.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        assertEquals(readWithBufferedReader(), lines);
+    }
+
+    @Test
+    void testBytesArePassedWithoutDecoding() throws IOException {
+        byte[] content = {'a', '\n', (byte) 0xC3, (byte) 0xA9, (byte) 0xFF, '\n'};
+        Files.write(testFile, content);
+        List<byte[]> lines = new ArrayList<>();
+        LineReader.read(testFile, MemoryBudget.unlimited(), (buffer, offset, length) ->
+                lines.add(Arrays.copyOfRange(buffer, offset, offset + length)));
+
+        assertEquals(2, lines.size());
+        assertArrayEquals(new byte[]{'a'}, lines.get(0));
+        assertArrayEquals(new byte[]{(byte) 0xC3, (byte) 0xA9, (byte) 0xFF}, lines.get(1));
+    }
+
+    @Test
+    void testBufferIsReleasedAfterReading() throws IOException {
+        Files.writeString(testFile, "x".repeat(200_000) + "\nshort\n");
+        MemoryBudget budget = new MemoryBudget(128 * 1024);
+        List<Integer> lengths = new ArrayList<>();
+        LineReader.read(testFile, budget, (buffer, offset, length) -> lengths.add(length));
+
+        assertEquals(List.of(200_000, 5), lengths);
+        assertEquals(128 * 1024, budget.available());
+    }
+
+    @Test
+    void testProgressCountsBytesAndLinesOfAllRanges() throws IOException {
+        Files.writeString(testFile, "1\r\n2.5\rtext\n\n" + "x".repeat(100_000) + "\nlast");
+        FileProgress progress = new FileProgress(testFile.toString(), Files.size(testFile));
+
+        for (FileRange range : FileRange.split(testFile, 30_000)) {
+            LineReader.read(range, MemoryBudget.unlimited(), Metrics.disabled(), progress, (buffer, offset, length) -> {
+            });
+        }
+
+        assertEquals(Files.size(testFile), progress.getBytes());
+        assertEquals(readWithBufferedReader().size(), progress.getLines());
+    }
+
+    @Test
+    void testChannelWithShortReadsMatchesBufferedReader() throws IOException {
+        Files.writeString(testFile, "1\r\n2.5\rtext\n\n" + "y".repeat(70_000) + "\r\nлиния");
+        byte[] content = Files.readAllBytes(testFile);
+        ByteArrayInputStream input = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        List<String> lines = new ArrayList<>();
+        FileProgress progress = new FileProgress("-", -1);
+
+        LineReader.read(Channels.newChannel(input), MemoryBudget.unlimited(), Metrics.disabled(), progress,
+                (buffer, offset, length) -> lines.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+
+        assertEquals(readWithBufferedReader(), lines);
+        assertEquals(content.length, progress.getBytes());
+    }
+
+    private List<String> readRanges(long chunkSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (FileRange range : FileRange.split(testFile, chunkSize)) {
+            LineReader.read(range, MemoryBudget.unlimited(), (buffer, offset, length) ->
+                    lines.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        }
+        return lines;
+    }
+
+    private List<String> readWithBufferedReader() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(testFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+}
@@ -0,0 +1,185 @@
+package processing;
+
+import com.sheandstud.options.Cli;
+import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.ManagerSettings;
+import com.sheandstud.processing.ParallelProcessor;
+import org.apache.commons.cli.DefaultParser;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelProcessorTest {
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("parallel-test");
+    }
+
+    @Test
+    void testOutputMatchesSequentialOrder() throws Exception {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Path input = tempDir.resolve("in" + i + ".txt");
+            Files.write(input, List.of(String.valueOf(i), i + ".5", "line " + i, String.valueOf(i * 100)));
+            inputs.add(input.toString());
+        }
+
+        Path sequentialDir = tempDir.resolve("sequential");
+        String sequentialStats;
+        try (FileManager manager = new FileManager(sequentialDir, "", false, ManagerSettings.defaults(true))) {
+            for (String input : inputs) {
+                processFile(input, manager);
+            }
+            sequentialStats = formatStatistics(manager);
+        }
+
+        Path parallelDir = tempDir.resolve("parallel");
+        String parallelStats;
+        try (FileManager manager = new FileManager(parallelDir, "", false, ManagerSettings.defaults(true))) {
+            List<ParallelProcessor.SegmentTask> tasks = new ArrayList<>();
+            for (String input : inputs) {
+                tasks.add(segment -> processFile(input, segment));
+            }
+            new ParallelProcessor(manager, 4).process(tasks);
+            parallelStats = formatStatistics(manager);
+        }
+
+        assertEquals(sequentialStats, parallelStats);
+        for (String name : List.of("integers.txt", "floats.txt", "strings.txt")) {
+            assertEquals(Files.readAllLines(sequentialDir.resolve(name)), Files.readAllLines(parallelDir.resolve(name)));
+        }
+        try (Stream<Path> files = Files.list(parallelDir)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void testSortedOutputMatchesSequentialOrder() throws Exception {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Path input = tempDir.resolve("in" + i + ".txt");
+            List<String> lines = new ArrayList<>();
+            for (int j = 0; j < 20_000; j++) {
+                lines.add(String.valueOf((j * 7919L + i * 104_729L) % 50_000 - 25_000));
+                lines.add((j % 1000) + "." + i + "e-" + (j % 5));
+            }
+            lines.add("line " + i);
+            Files.write(input, lines);
+            inputs.add(input.toString());
+        }
+
+        Path sequentialDir = tempDir.resolve("sequential");
+        try (FileManager manager = createSortedManager(sequentialDir)) {
+            for (String input : inputs) {
+                processFile(input, manager);
+            }
+        }
+
+        Path parallelDir = tempDir.resolve("parallel");
+        try (FileManager manager = createSortedManager(parallelDir)) {
+            List<ParallelProcessor.SegmentTask> tasks = new ArrayList<>();
+            for (String input : inputs) {
+                tasks.add(segment -> processFile(input, segment));
+            }
+            new ParallelProcessor(manager, 4).process(tasks);
+        }
+
+        List<String> integers = Files.readAllLines(parallelDir.resolve("integers.txt"));
+        assertEquals(120_000, integers.size());
+        for (int i = 1; i < integers.size(); i++) {
+            assertTrue(Long.parseLong(integers.get(i - 1)) <= Long.parseLong(integers.get(i)));
+        }
+        for (String name : List.of("integers.txt", "floats.txt", "strings.txt")) {
+            assertEquals(Files.readAllLines(sequentialDir.resolve(name)), Files.readAllLines(parallelDir.resolve(name)));
+        }
+        try (Stream<Path> files = Files.list(parallelDir)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void testDistinctKeepsFirstOccurrenceInInputOrder() throws Exception {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Path input = tempDir.resolve("in" + i + ".txt");
+            List<String> lines = new ArrayList<>();
+            for (int j = 0; j < 2_000; j++) {
+                lines.add("0".repeat(i) + j);
+                lines.add(j + "." + "0".repeat(i) + "5");
+                lines.add("line " + j % (i + 1));
+            }
+            Files.write(input, lines);
+            inputs.add(input.toString());
+        }
+
+        Path sequentialDir = tempDir.resolve("sequential");
+        String sequentialStats;
+        try (FileManager manager = createDistinctManager(sequentialDir)) {
+            for (String input : inputs) {
+                processFile(input, manager);
+            }
+            sequentialStats = formatStatistics(manager);
+        }
+
+        Path parallelDir = tempDir.resolve("parallel");
+        String parallelStats;
+        try (FileManager manager = createDistinctManager(parallelDir)) {
+            List<ParallelProcessor.SegmentTask> tasks = new ArrayList<>();
+            for (String input : inputs) {
+                tasks.add(segment -> processFile(input, segment));
+            }
+            new ParallelProcessor(manager, 4).process(tasks);
+            parallelStats = formatStatistics(manager);
+        }
+
+        assertEquals(sequentialStats, parallelStats);
+        for (String name : List.of("integers.txt", "floats.txt", "strings.txt")) {
+            assertEquals(Files.readAllLines(sequentialDir.resolve(name)), Files.readAllLines(parallelDir.resolve(name)));
+        }
+        assertEquals(2_000, Files.readAllLines(parallelDir.resolve("integers.txt")).size());
+    }
+
+    private static FileManager createDistinctManager(Path outputDir) throws Exception {
+        String[] args = {"--distinct", "-f", "-o", outputDir.toString(), "input.txt"};
+        return new FileManager(new DefaultParser().parse(Cli.getOptions(), args));
+    }
+
+    private static FileManager createSortedManager(Path outputDir) throws Exception {
+        String[] args = {"--sort", "--sort-memory", "64K", "-o", outputDir.toString(), "input.txt"};
+        return new FileManager(new DefaultParser().parse(Cli.getOptions(), args));
+    }
+
+    private static void processFile(String filename, FileManager manager) throws IOException {
+        for (String line : Files.readAllLines(Path.of(filename))) {
+            manager.processLine(line);
+        }
+    }
+
+    private static String formatStatistics(FileManager manager) {
+        return manager.getStatistics().stream()
+                .map(s -> s.format(true))
+                .collect(Collectors.joining("\n"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {}
+            });
+        }
+    }
+}
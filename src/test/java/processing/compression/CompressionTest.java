@@ -0,0 +1,141 @@
+package processing.compression;
+
+import com.sheandstud.processing.compression.Compression;
+import com.sheandstud.processing.compression.GzipOutputChannel;
+import com.sheandstud.processing.compression.UnsupportedCompressionException;
+import com.sheandstud.processing.memory.MemoryBudget;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressionTest {
+
+    @Test
+    void testGzipOutputIsReadableByGzipInputStream() throws IOException {
+        byte[] content = randomLines(500_000);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (WritableByteChannel target = Channels.newChannel(compressed)) {
+            GzipOutputChannel gzip = new GzipOutputChannel(target, 1);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            for (int offset = 0; offset < content.length; offset += buffer.capacity()) {
+                buffer.clear();
+                buffer.put(content, offset, Math.min(buffer.capacity(), content.length - offset)).flip();
+                gzip.write(buffer);
+                assertFalse(buffer.hasRemaining());
+            }
+            // Буфер переиспользуется после записи и не должен попасть в сжатые данные повторно.
+            buffer.clear();
+            gzip.close();
+        }
+
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(content, input.readAllBytes());
+        }
+        assertTrue(compressed.size() < content.length);
+    }
+
+    @Test
+    void testGzipOutputMemoryIsReservedUntilClose() throws IOException {
+        MemoryBudget budget = new MemoryBudget(1024 * 1024);
+        GzipOutputChannel gzip = new GzipOutputChannel(Channels.newChannel(OutputStream.nullOutputStream()), 1, budget);
+        assertTrue(budget.available() <= 512 * 1024);
+        gzip.write(ByteBuffer.wrap(randomLines(1000)));
+        gzip.close();
+        assertEquals(1024 * 1024, budget.available());
+    }
+
+    @Test
+    void testGzipInputIsDecompressed() throws IOException {
+        byte[] content = randomLines(2_000_000);
+        byte[] compressed = gzip(content);
+
+        assertEquals(Compression.Format.GZIP, Compression.detect(ByteBuffer.wrap(compressed)));
+        assertArrayEquals(content, readAll(Compression.open(channel(compressed), "test")));
+    }
+
+    @Test
+    void testConcatenatedGzipMembersAreDecompressed() throws IOException {
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        members.write(gzip("first\n".getBytes(StandardCharsets.UTF_8)));
+        members.write(gzip("second\n".getBytes(StandardCharsets.UTF_8)));
+
+        byte[] result = readAll(Compression.open(channel(members.toByteArray()), "test"));
+        assertEquals("first\nsecond\n", new String(result, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testPlainInputIsPassedUnchanged() throws IOException {
+        for (String text : new String[]{"", "1", "12\n", "plain text\n3.14\n", "\u001f text"}) {
+            byte[] content = text.getBytes(StandardCharsets.UTF_8);
+            assertEquals(Compression.Format.NONE, Compression.detect(ByteBuffer.wrap(content)));
+            assertArrayEquals(content, readAll(Compression.open(channel(content), "test")));
+        }
+    }
+
+    @Test
+    void testZstdAndXzAreRejected() {
+        byte[] zstd = {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 1, 2, 3};
+        byte[] xz = {(byte) 0xFD, 0x37, 0x7A, 0x58, 0x5A, 0x00, 1};
+
+        UnsupportedCompressionException error = assertThrows(UnsupportedCompressionException.class,
+                () -> Compression.open(channel(zstd), "test"));
+        assertTrue(error.getMessage().contains("zstd"));
+        assertThrows(UnsupportedCompressionException.class, () -> Compression.open(channel(xz), "test"));
+    }
+
+    @Test
+    void testCorruptGzipReportsError() throws IOException {
+        byte[] compressed = gzip(randomLines(100_000));
+        compressed[compressed.length / 2] ^= 0x55;
+
+        assertThrows(IOException.class, () -> readAll(Compression.open(channel(compressed), "test")));
+    }
+
+    private static ReadableByteChannel channel(byte[] data) {
+        return Channels.newChannel(new ByteArrayInputStream(data));
+    }
+
+    private static byte[] readAll(ReadableByteChannel channel) throws IOException {
+        try (channel) {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(10_000);
+            while (channel.read(buffer) >= 0) {
+                result.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            return result.toByteArray();
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(result)) {
+            output.write(content);
+        }
+        return result.toByteArray();
+    }
+
+    private static byte[] randomLines(int size) {
+        Random random = new Random(19);
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < size) {
+            sb.append(random.nextInt(1_000_000)).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+package processing.filter;
+
+import com.sheandstud.processing.filter.DistinctSet;
+import com.sheandstud.processing.memory.MemoryBudget;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistinctSetTest {
+
+    @Test
+    void testExactWithinMemoryLimit() {
+        DistinctSet set = new DistinctSet(64L * 1024 * 1024);
+        SplittableRandom random = new SplittableRandom(1);
+        long[] hashes = new long[200_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            assertTrue(set.add(hashes[i], ~hashes[i]));
+        }
+        for (long hash : hashes) {
+            assertFalse(set.add(hash, ~hash));
+        }
+        assertTrue(set.add(0, 0));
+        assertFalse(set.add(0, 0));
+
+        assertTrue(set.isExact());
+        assertEquals(hashes.length + 1, set.size());
+        assertEquals(hashes.length + 1, set.duplicates());
+        assertEquals(0, set.falsePositiveRate());
+        assertTrue(set.memoryUsage() <= set.memoryLimit());
+    }
+
+    @Test
+    void testBloomFilterPastMemoryLimit() {
+        DistinctSet set = new DistinctSet(DistinctSet.MIN_MEMORY);
+        SplittableRandom random = new SplittableRandom(2);
+        int count = 500_000;
+        long[] hashes = new long[2 * count];
+        int rejected = 0;
+        for (int i = 0; i < count; i++) {
+            hashes[2 * i] = random.nextLong();
+            hashes[2 * i + 1] = random.nextLong();
+            if (!set.add(hashes[2 * i], hashes[2 * i + 1])) {
+                rejected++;
+            }
+        }
+        assertFalse(set.isExact());
+        assertTrue(set.memoryUsage() <= set.memoryLimit(), String.valueOf(set.memoryUsage()));
+        for (int i = 0; i < count; i++) {
+            assertFalse(set.add(hashes[2 * i], hashes[2 * i + 1]), "no duplicate passes the Bloom filter");
+        }
+        // 16 bits per value: expected false positive rate about 0.1% at the end, less on average
+        assertTrue(rejected < count / 500, String.valueOf(rejected));
+        assertTrue(set.falsePositiveRate() > 0 && set.falsePositiveRate() < 0.005,
+                String.valueOf(set.falsePositiveRate()));
+    }
+
+    @Test
+    void testConcurrentAddsKeepEachValueOnce() throws InterruptedException {
+        DistinctSet set = new DistinctSet(64L * 1024 * 1024);
+        long[] accepted = new long[4];
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < accepted.length; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (long value = 0; value < 100_000; value++) {
+                    if (set.add(value * 0x9E3779B97F4A7C15L, value * 0xC2B2AE3D27D4EB4FL)) {
+                        accepted[thread]++;
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(set.isExact());
+        assertEquals(100_000, accepted[0] + accepted[1] + accepted[2] + accepted[3]);
+    }
+
+    @Test
+    void testGrowthStaysWithinMemoryBudget() {
+        MemoryBudget budget = new MemoryBudget(2L * DistinctSet.MIN_MEMORY);
+        DistinctSet set = new DistinctSet(64L * 1024 * 1024, budget);
+        assertEquals(DistinctSet.MIN_MEMORY, budget.available());
+        SplittableRandom random = new SplittableRandom(3);
+        long[] hashes = new long[200_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            set.add(hashes[i], ~hashes[i]);
+        }
+        assertFalse(set.isExact());
+        assertTrue(set.memoryUsage() <= 2L * DistinctSet.MIN_MEMORY, String.valueOf(set.memoryUsage()));
+        assertEquals(2L * DistinctSet.MIN_MEMORY - set.memoryUsage(), budget.available());
+        for (long hash : hashes) {
+            assertFalse(set.add(hash, ~hash), "no duplicate passes the Bloom filter");
+        }
+
+        set.release();
+        assertEquals(2L * DistinctSet.MIN_MEMORY, budget.available());
+    }
+
+    @Test
+    void testMemoryLimitIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> new DistinctSet(DistinctSet.MIN_MEMORY - 1));
+    }
+}
@@ -0,0 +1,76 @@
+package processing.filter;
+
+import com.sheandstud.processing.filter.DistinctSet;
+import com.sheandstud.processing.filter.DuplicateFilter;
+import com.sheandstud.processing.parsing.DataType;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DuplicateFilterTest {
+
+    @Test
+    void testNumbersComparedByValue() {
+        DuplicateFilter filter = new DuplicateFilter(new DistinctSet(DistinctSet.MIN_MEMORY));
+        assertTrue(accepts(filter, 0, DataType.INTEGER, "5"));
+        assertFalse(accepts(filter, 0, DataType.INTEGER, "+5"));
+        assertFalse(accepts(filter, 0, DataType.INTEGER, "005"));
+        assertTrue(accepts(filter, 0, DataType.INTEGER, "-5"));
+        assertTrue(accepts(filter, 0, DataType.INTEGER, "0"));
+        assertFalse(accepts(filter, 0, DataType.INTEGER, "-000"));
+
+        assertTrue(accepts(filter, 1, DataType.FLOAT, "1.5"));
+        assertFalse(accepts(filter, 1, DataType.FLOAT, "1.50"));
+        assertFalse(accepts(filter, 1, DataType.FLOAT, "15e-1"));
+        assertFalse(accepts(filter, 1, DataType.FLOAT, "+.15E+1"));
+        assertTrue(accepts(filter, 1, DataType.FLOAT, "-1.5"));
+        assertTrue(accepts(filter, 1, DataType.FLOAT, "0.0"));
+        assertFalse(accepts(filter, 1, DataType.FLOAT, "-0e5"));
+        assertTrue(accepts(filter, 1, DataType.FLOAT, "150.0"));
+        assertFalse(accepts(filter, 1, DataType.FLOAT, "1.5e2"));
+
+        assertTrue(accepts(filter, 2, DataType.STRING, "5"), "values of different types are not compared");
+        assertFalse(accepts(filter, 2, DataType.STRING, "5"));
+        assertTrue(accepts(filter, 2, DataType.STRING, "05"), "strings are compared by bytes");
+        assertTrue(accepts(filter.copy(), 3, null, "5"));
+        assertFalse(accepts(filter.copy(), 3, null, "5"), "copies share values");
+    }
+
+    @Test
+    void testNormalizationMatchesBigDecimal() {
+        Random random = new Random(11);
+        DuplicateFilter filter = new DuplicateFilter(new DistinctSet(DistinctSet.MIN_MEMORY));
+        Set<BigDecimal> floats = new HashSet<>();
+        Set<BigInteger> integers = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            String integer = (random.nextBoolean() ? "-" : "") + "0".repeat(random.nextInt(3)) + random.nextInt(500);
+            assertEquals(integers.add(new BigInteger(integer)), accepts(filter, 0, DataType.INTEGER, integer), integer);
+
+            String value = random.nextInt(300) + "." + random.nextInt(30) + "0".repeat(random.nextInt(3))
+                    + (random.nextBoolean() ? "e" + (random.nextInt(5) - 2) : "");
+            assertEquals(floats.add(new BigDecimal(value).stripTrailingZeros()),
+                    accepts(filter, 1, DataType.FLOAT, value), value);
+        }
+    }
+
+    @Test
+    void testDisabledFilterAcceptsAll() {
+        DuplicateFilter filter = DuplicateFilter.acceptAll();
+        assertFalse(filter.isEnabled());
+        assertTrue(accepts(filter, 0, DataType.INTEGER, "1"));
+        assertTrue(accepts(filter, 0, DataType.INTEGER, "1"));
+        assertEquals("", filter.format());
+    }
+
+    private static boolean accepts(DuplicateFilter filter, int type, DataType kind, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return filter.accepts(type, kind, bytes, 0, bytes.length);
+    }
+}
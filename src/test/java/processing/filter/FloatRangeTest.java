@@ -0,0 +1,46 @@
+package processing.filter;
+
+import com.sheandstud.processing.filter.FloatRange;
+import com.sheandstud.processing.parsing.DecimalParser;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FloatRangeTest {
+    private final DecimalParser parser = new DecimalParser();
+
+    @Test
+    void testCompactAndExactValues() {
+        FloatRange range = FloatRange.parse("-1.5:2e3");
+
+        assertTrue(contains(range, "-1.5"));
+        assertTrue(contains(range, "2000.000"));
+        assertTrue(contains(range, "1.2345678901234567890123"));
+        assertFalse(contains(range, "-1.50001"));
+        assertFalse(contains(range, "2000.0000000000000000000001"));
+        assertFalse(contains(range, "3e3"));
+    }
+
+    @Test
+    void testBoundsBeyondCompactPrecision() {
+        FloatRange range = new FloatRange(new BigDecimal("0.12345678901234567890"), null);
+
+        assertTrue(contains(range, "0.1234567890123456789"));
+        assertFalse(contains(range, "0.123456789012345678"));
+    }
+
+    @Test
+    void testUnparsableFloatIsNotDropped() {
+        FloatRange range = FloatRange.parse("0:1");
+
+        assertTrue(contains(range, "1e99999999999"));
+    }
+
+    private boolean contains(FloatRange range, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        return range.contains(bytes, 0, bytes.length, parser);
+    }
+}
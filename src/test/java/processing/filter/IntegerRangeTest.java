@@ -0,0 +1,58 @@
+package processing.filter;
+
+import com.sheandstud.processing.filter.IntegerRange;
+import org.junit.jupiter.api.*;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegerRangeTest {
+
+    @Test
+    void testDigitComparisonMatchesBigInteger() {
+        Random random = new Random(5);
+        String[] bounds = {"-100:100", "0:", ":-1", "99999999999999999999:", "-5:-5", ":0"};
+        for (String bound : bounds) {
+            IntegerRange range = IntegerRange.parse(bound);
+            String[] parts = bound.split(":", -1);
+            BigInteger min = parts[0].isEmpty() ? null : new BigInteger(parts[0]);
+            BigInteger max = parts[1].isEmpty() ? null : new BigInteger(parts[1]);
+
+            for (int i = 0; i < 10_000; i++) {
+                String value = randomInteger(random);
+                BigInteger number = new BigInteger(value);
+                boolean expected = (min == null || number.compareTo(min) >= 0)
+                        && (max == null || number.compareTo(max) <= 0);
+                byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+                assertEquals(expected, range.contains(bytes, 0, bytes.length), bound + " " + value);
+            }
+        }
+    }
+
+    @Test
+    void testInvalidRangesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> IntegerRange.parse("1-2"));
+        assertThrows(IllegalArgumentException.class, () -> IntegerRange.parse(":"));
+        assertThrows(IllegalArgumentException.class, () -> IntegerRange.parse("5:1"));
+        assertThrows(IllegalArgumentException.class, () -> IntegerRange.parse("a:1"));
+    }
+
+    private static String randomInteger(Random random) {
+        StringBuilder sb = new StringBuilder();
+        switch (random.nextInt(3)) {
+            case 0 -> sb.append('-');
+            case 1 -> sb.append('+');
+            default -> { }
+        }
+        int zeros = random.nextInt(3);
+        sb.append("0".repeat(zeros));
+        int digits = random.nextInt(4) == 0 ? 1 + random.nextInt(25) : 1 + random.nextInt(4);
+        for (int i = 0; i < digits; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+}
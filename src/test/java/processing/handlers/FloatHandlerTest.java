@@ -6,6 +6,7 @@ import org.junit.jupiter.api.*;
 import java.io.IOException;
 import java.nio.file.*;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -43,6 +44,18 @@ public class FloatHandlerTest {
         assertFalse(handler.handle("1. 23"));
     }
 
+    @Test
+    void testShortStatisticsMode() throws IOException {
+        FloatHandler shortHandler = new FloatHandler(testFile, false, false);
+        assertTrue(shortHandler.handle("3.1415"));
+        assertTrue(shortHandler.handle("-1.5e-3"));
+        assertFalse(shortHandler.handle("1e99999999999"));
+        shortHandler.close();
+
+        assertTrue(shortHandler.getStatistics().format(false).contains("Count: 2"));
+        assertEquals(2, Files.readAllLines(testFile).size());
+    }
+
     @AfterEach
     void tearDown() throws IOException {
         Files.deleteIfExists(testFile);
@@ -0,0 +1,50 @@
+package processing.handlers;
+
+import com.sheandstud.processing.handlers.DataHandler;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.types.BooleanType;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValueHandlerTest {
+    private Path testFile;
+    private DataHandler handler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.createTempFile("test-value", ".txt");
+        handler = new BooleanType().createHandler(new OutputFile(testFile, false), true);
+    }
+
+    @Test
+    void testValuesMatchingGrammar() throws IOException {
+        assertTrue(handler.handle("true"));
+        assertTrue(handler.handle("FALSE"));
+        handler.close();
+
+        assertEquals(List.of("true", "FALSE"), Files.readAllLines(testFile));
+    }
+
+    @Test
+    void testValuesNotMatchingGrammar() throws IOException {
+        assertFalse(handler.handle("truth"));
+        assertFalse(handler.handle(""));
+        assertFalse(handler.handle("1"));
+        handler.close();
+
+        assertEquals(0, handler.getStatistics().getCount());
+        assertEquals(List.of(), Files.readAllLines(testFile));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+}
@@ -0,0 +1,58 @@
+package processing.memory;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryBudgetTest {
+
+    @Test
+    void testAllocateShrinksToAvailableMemory() {
+        MemoryBudget budget = new MemoryBudget(100_000);
+
+        assertEquals(64_000, budget.allocate(64_000, 8_000));
+        assertEquals(36_000, budget.allocate(64_000, 8_000));
+        assertEquals(8_000, budget.allocate(64_000, 8_000));
+        assertEquals(0, budget.available());
+
+        budget.release(108_000);
+        assertEquals(100_000, budget.available());
+    }
+
+    @Test
+    void testTryReserveRespectsLimit() {
+        MemoryBudget budget = new MemoryBudget(1000);
+
+        assertTrue(budget.tryReserve(600));
+        assertFalse(budget.tryReserve(600));
+        budget.release(600);
+        assertTrue(budget.tryReserve(1000));
+    }
+
+    @Test
+    void testUnlimitedBudget() {
+        MemoryBudget budget = MemoryBudget.unlimited();
+
+        assertFalse(budget.isLimited());
+        assertEquals(1 << 20, budget.allocate(1 << 20, 1024));
+    }
+
+    @Test
+    void testFormatReportsPeakUsage() {
+        MemoryBudget budget = new MemoryBudget(4 * 1024 * 1024);
+        budget.reserve(1024 * 1024);
+        budget.release(1024 * 1024);
+
+        String report = budget.format();
+        assertTrue(report.startsWith("Memory Usage:\n  Peak Reserved: 1.0 MB\n  Budget: 4.0 MB (25.0% used)"), report);
+        assertTrue(report.contains("Peak Heap: "), report);
+    }
+
+    @Test
+    void testFormatSize() {
+        assertEquals("512 B", MemoryBudget.formatSize(512));
+        assertEquals("1.5 KB", MemoryBudget.formatSize(1536));
+        assertEquals("2.0 GB", MemoryBudget.formatSize(2L * 1024 * 1024 * 1024));
+    }
+}
@@ -0,0 +1,112 @@
+package processing.metrics;
+
+import com.sheandstud.options.Cli;
+import com.sheandstud.processing.FileManager;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.metrics.Metrics.Stage;
+import com.sheandstud.processing.metrics.MetricsReport;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("metrics-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testDisabledMetricsIgnoreMeasurements() {
+        Metrics metrics = Metrics.disabled();
+
+        assertFalse(metrics.isEnabled());
+        assertEquals(0, metrics.start());
+        assertEquals(0, metrics.startAlways());
+        metrics.stage(Stage.PARSE, 0);
+        metrics.addRead(100, 0);
+
+        assertEquals(0, metrics.getEvents(Stage.PARSE));
+        assertEquals(0, metrics.getBytesRead());
+        assertSame(metrics, metrics.createSegment());
+    }
+
+    @Test
+    void testSampledStageCountsEveryEvent() {
+        Metrics metrics = new Metrics();
+
+        for (int i = 0; i < Metrics.SAMPLE_INTERVAL * 10; i++) {
+            long start = metrics.start();
+            start = metrics.stage(Stage.PARSE, start);
+            metrics.stage(Stage.STATISTICS, start);
+        }
+
+        assertEquals(Metrics.SAMPLE_INTERVAL * 10, metrics.getEvents(Stage.PARSE));
+        assertEquals(Metrics.SAMPLE_INTERVAL * 10, metrics.getEvents(Stage.STATISTICS));
+        assertTrue(metrics.getNanos(Stage.PARSE) >= 0);
+    }
+
+    @Test
+    void testMergeAddsSegmentCounters() {
+        Metrics metrics = new Metrics();
+        Metrics segment = metrics.createSegment();
+        assertNotSame(metrics, segment);
+
+        metrics.addRead(100, metrics.startAlways());
+        segment.addRead(50, segment.startAlways());
+        segment.stage(Stage.CLASSIFY, segment.start());
+        metrics.merge(segment);
+
+        assertEquals(150, metrics.getBytesRead());
+        assertEquals(1, metrics.getEvents(Stage.CLASSIFY));
+    }
+
+    @Test
+    void testReportContainsTypeCountsAndOutputs() throws Exception {
+        String[] args = {"-o", tempDir.toString(), "-f", "--metrics", "json", "input.txt"};
+        CommandLine cmd = new DefaultParser().parse(Cli.getOptions(), args);
+        FileManager manager = new FileManager(cmd);
+        assertTrue(manager.getMetrics().isEnabled());
+
+        manager.processLine("123");
+        manager.processLine("45.67");
+        manager.processLine("hello");
+        manager.processLine("world");
+        manager.close();
+
+        String report = MetricsReport.format(manager, 1_000_000_000L);
+        assertTrue(report.contains("\"lines\": 4,"));
+        assertTrue(report.contains("\"integer\": 1,"));
+        assertTrue(report.contains("\"float\": 1,"));
+        assertTrue(report.contains("\"string\": 2\n"));
+        assertTrue(report.contains("\"linesPerSecond\": 4.0,"));
+        assertTrue(report.contains("\"classify\": {"));
+        assertTrue(report.contains("{\"file\": \"strings.txt\", \"bytes\": "));
+        assertTrue(report.trim().startsWith("{") && report.trim().endsWith("}"));
+    }
+
+    @Test
+    void testManagerWithoutMetricsOptionIsDisabled() throws Exception {
+        String[] args = {"-o", tempDir.toString(), "input.txt"};
+        CommandLine cmd = new DefaultParser().parse(Cli.getOptions(), args);
+        try (FileManager manager = new FileManager(cmd)) {
+            assertFalse(manager.getMetrics().isEnabled());
+        }
+    }
+}
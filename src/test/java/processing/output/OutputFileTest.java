@@ -0,0 +1,210 @@
+package processing.output;
+
+import com.sheandstud.processing.LineBlock;
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.output.Checksums;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.output.OutputSettings;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputFileTest {
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("output-test");
+    }
+
+    @Test
+    void testLinesLongerThanBufferAreWritten() throws IOException {
+        Path path = tempDir.resolve("strings.txt");
+        String shortLine = "short";
+        String longLine = "x".repeat(20_000);
+
+        OutputFile output = new OutputFile(path, false, MemoryBudget.unlimited(),
+                new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false));
+        try (output) {
+            write(output, shortLine);
+            write(output, longLine);
+            write(output, shortLine);
+        }
+
+        assertEquals(List.of(shortLine, longLine, shortLine), Files.readAllLines(path));
+        assertEquals(Files.size(path), output.getBytesWritten());
+        assertEquals(3, output.getFlushCount());
+    }
+
+    @Test
+    void testBufferIsFlushedOnlyWhenFull() throws IOException {
+        Path path = tempDir.resolve("integers.txt");
+        OutputFile output = new OutputFile(path, false, MemoryBudget.unlimited(),
+                new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false));
+        try (output) {
+            for (int i = 0; i < 10_000; i++) {
+                write(output, String.valueOf(i));
+            }
+        }
+
+        assertEquals(10_000, Files.readAllLines(path).size());
+        long expectedFlushes = (Files.size(path) + OutputFile.MIN_BUFFER_SIZE - 1) / OutputFile.MIN_BUFFER_SIZE;
+        assertTrue(output.getFlushCount() <= expectedFlushes + 1, output.format());
+    }
+
+    @Test
+    void testAppendModeAndAppendFrom() throws IOException {
+        Path path = tempDir.resolve("floats.txt");
+        Path segment = tempDir.resolve("segment.txt");
+        Files.write(path, List.of("1.5"));
+        Files.write(segment, List.of("2.5", "3.5"));
+
+        OutputFile output = new OutputFile(path, true);
+        try (output) {
+            output.appendFrom(segment);
+            write(output, "4.5");
+        }
+
+        assertEquals(List.of("1.5", "2.5", "3.5", "4.5"), Files.readAllLines(path));
+        long existing = ("1.5" + System.lineSeparator()).length();
+        assertEquals(Files.size(path) - existing, output.getBytesWritten());
+    }
+
+    @Test
+    void testPipelinedWriteMatchesSynchronousWrite() throws IOException {
+        Path synchronous = tempDir.resolve("sync.txt");
+        Path pipelined = tempDir.resolve("pipelined.txt");
+        Path segment = tempDir.resolve("segment.txt");
+        Files.write(segment, List.of("from segment"));
+
+        for (Path path : List.of(synchronous, pipelined)) {
+            OutputSettings settings = new OutputSettings(OutputFile.MIN_BUFFER_SIZE, path == pipelined);
+            try (OutputFile output = new OutputFile(path, false, MemoryBudget.unlimited(), settings)) {
+                for (int i = 0; i < 20_000; i++) {
+                    write(output, i % 1000 == 0 ? "y".repeat(10_000 + i) : "line " + i);
+                    if (i == 5_000) {
+                        output.appendFrom(segment);
+                    }
+                }
+            }
+        }
+
+        assertEquals(-1, Files.mismatch(synchronous, pipelined));
+    }
+
+    @Test
+    void testWriteBlockMatchesWriteLine() throws IOException {
+        Path lines = tempDir.resolve("lines.txt");
+        Path blocks = tempDir.resolve("blocks.txt");
+        LineBlock block = new LineBlock(1024, 16);
+        boolean[] skipped = new boolean[100];
+
+        OutputSettings settings = new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false);
+        try (OutputFile lineOutput = new OutputFile(lines, false, MemoryBudget.unlimited(), settings);
+             OutputFile blockOutput = new OutputFile(blocks, false, MemoryBudget.unlimited(), settings)) {
+            for (int round = 0; round < 50; round++) {
+                block.clear();
+                for (int i = 0; i < 100; i++) {
+                    String line = "line " + round + " " + "z".repeat(round * i % 300);
+                    block.add(line.getBytes(StandardCharsets.UTF_8), 0, line.length());
+                    skipped[i] = round % 2 == 1 && i % 3 == 0;
+                    if (!skipped[i]) {
+                        write(lineOutput, line);
+                    }
+                }
+                if (round % 2 == 0) {
+                    blockOutput.writeBlock(block);
+                } else {
+                    blockOutput.writeBlock(block, skipped);
+                }
+            }
+        }
+
+        assertEquals(-1, Files.mismatch(lines, blocks));
+    }
+
+    @Test
+    void testBufferMemoryIsReleasedOnClose() throws IOException {
+        MemoryBudget budget = new MemoryBudget(1024 * 1024);
+        try (OutputFile output = new OutputFile(tempDir.resolve("out.txt"), false, budget, OutputSettings.defaults())) {
+            write(output, "line");
+            assertEquals(0, budget.available());
+        }
+        assertEquals(1024 * 1024, budget.available());
+    }
+
+    @Test
+    void testStandardOutputIsNotCreatedOnDiskAndSegmentsUseFiles() throws IOException {
+        OutputSettings settings = new OutputSettings(OutputFile.MIN_BUFFER_SIZE, true, "integer", 0);
+        Path path = tempDir.resolve("integers.txt");
+        try (OutputFile output = OutputFile.standardOutput(path, MemoryBudget.unlimited(), settings)) {
+            assertTrue(output.isStandardOutput());
+            assertEquals(path, output.getPath());
+        }
+
+        assertFalse(Files.exists(path));
+        assertTrue(settings.isStandardOutput("integer"));
+        assertFalse(settings.isStandardOutput("string"));
+        assertNull(settings.synchronous().standardOutput());
+        assertFalse(settings.synchronous().pipelined());
+    }
+
+    @Test
+    void testChecksumsMatchFileContent() throws Exception {
+        Path segment = tempDir.resolve("segment.txt");
+        Files.write(segment, List.of("from segment"));
+
+        for (OutputSettings settings : List.of(
+                new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false, null, 0, true, true),
+                new OutputSettings(OutputFile.MIN_BUFFER_SIZE, true, null, 1, true, true))) {
+            Path path = tempDir.resolve(settings.pipelined() ? "pipelined.txt" : "sync.txt");
+            Files.write(path, List.of("existing"));
+            OutputFile output = new OutputFile(path, true, MemoryBudget.unlimited(), settings);
+            try (output) {
+                for (int i = 0; i < 5_000; i++) {
+                    write(output, i % 1000 == 0 ? "y".repeat(10_000 + i) : "line " + i);
+                    if (i == 2_000) {
+                        output.appendFrom(segment);
+                    }
+                }
+            }
+
+            byte[] content = Files.readAllBytes(path);
+            CRC32C crc = new CRC32C();
+            crc.update(content);
+            Checksums checksums = output.getChecksums();
+            assertEquals(content.length, checksums.size());
+            assertEquals(crc.getValue(), checksums.crc32c());
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)),
+                    checksums.sha256());
+        }
+    }
+
+    @Test
+    void testChecksumsNotComputedForSegmentsAndStandardOutput() throws IOException {
+        OutputSettings settings = new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false, "integer", 0, true, false);
+        Path path = tempDir.resolve("integers.txt");
+        try (OutputFile output = OutputFile.standardOutput(path, MemoryBudget.unlimited(), settings)) {
+            assertNull(output.getChecksums());
+        }
+        assertFalse(settings.synchronous().checksums());
+        assertThrows(IllegalArgumentException.class,
+                () -> new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false, null, 0, false, true));
+        assertEquals("CRC32C (a.txt) = 0000002a\nSHA256 (a.txt) = ff",
+                new Checksums(1, 42, "ff").format("a.txt"));
+    }
+
+    private static void write(OutputFile output, String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        output.writeLine(bytes, 0, bytes.length);
+    }
+}
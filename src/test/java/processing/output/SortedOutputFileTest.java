@@ -0,0 +1,231 @@
+package processing.output;
+
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.output.Checksums;
+import com.sheandstud.processing.output.OutputFile;
+import com.sheandstud.processing.output.OutputSettings;
+import com.sheandstud.processing.output.SortedOutputFile;
+import com.sheandstud.processing.parsing.DataType;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortedOutputFileTest {
+    private static final OutputSettings SETTINGS = new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false, null, 0,
+            false, false, OutputSettings.MIN_SORT_MEMORY);
+
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("sorted-output-test");
+    }
+
+    @Test
+    void testIntegersSortedByValueAcrossSpills() throws IOException {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            long value = random.nextInt(20_000) - 10_000;
+            lines.add(switch (i % 10) {
+                case 0 -> value < 0 ? String.valueOf(value) : "+" + value;
+                case 1 -> value < 0 ? "-00" + -value : "00" + value;
+                case 2 -> (value < 0 ? "-" : "") + "9".repeat(19 + random.nextInt(3));
+                case 3 -> String.valueOf(value * 1_000_000_000_000_000L);
+                default -> String.valueOf(value);
+            });
+        }
+        lines.add("-0");
+        lines.add(String.valueOf(Long.MIN_VALUE));
+
+        assertSorted(lines, writeSorted(DataType.INTEGER, lines), Comparator.comparing(BigInteger::new));
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void testFloatsSortedByExactValueAcrossSpills() throws IOException {
+        Random random = new Random(7);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            double value = (random.nextDouble() - 0.5) * 1000;
+            lines.add(switch (i % 8) {
+                case 0 -> String.format(Locale.ROOT, "%.6fe%d", value, random.nextInt(40) - 20);
+                case 1 -> "0.1" + "0".repeat(20) + random.nextInt(10);
+                case 2 -> String.format(Locale.ROOT, "%.3f00", value);
+                case 3 -> "." + random.nextInt(1000);
+                case 4 -> random.nextInt(100) + "E+3";
+                default -> String.valueOf(value);
+            });
+        }
+        lines.addAll(List.of("0.1", "-0.0", "0.0", "1e400", "-1e-400", "1.5", "1.50", "15e-1"));
+
+        assertSorted(lines, writeSorted(DataType.FLOAT, lines), Comparator.comparing(BigDecimal::new));
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void testAppendModeSortsExistingContentAndSegments() throws IOException {
+        Path path = tempDir.resolve("integers.txt");
+        Files.write(path, List.of("1", "5", "9"));
+        Path segment = tempDir.resolve("segment.txt");
+        Files.write(segment, List.of("0", "6"));
+
+        try (SortedOutputFile output = new SortedOutputFile(path, true, MemoryBudget.unlimited(), SETTINGS,
+                DataType.INTEGER)) {
+            write(output, "7");
+            output.appendFrom(segment);
+            write(output, "3");
+        }
+
+        assertEquals(List.of("0", "1", "3", "5", "6", "7", "9"), Files.readAllLines(path));
+        assertFalse(Files.exists(segment));
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void testCompressedAppendWithChecksums() throws IOException {
+        OutputSettings settings = new OutputSettings(OutputFile.MIN_BUFFER_SIZE, true, null, 1, true, false,
+                OutputSettings.MIN_SORT_MEMORY);
+        Path path = tempDir.resolve("floats.txt.gz");
+        for (List<String> run : List.of(List.of("2.5", "-1"), List.of("0.5"), List.<String>of())) {
+            try (SortedOutputFile output = new SortedOutputFile(path, true, MemoryBudget.unlimited(), settings,
+                    DataType.FLOAT)) {
+                for (String line : run) {
+                    write(output, line);
+                }
+                output.close();
+                Checksums checksums = output.getChecksums();
+                assertEquals(Files.size(path), checksums.size());
+            }
+        }
+
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(path))) {
+            assertEquals(String.join(System.lineSeparator(), "-1", "0.5", "2.5") + System.lineSeparator(),
+                    new String(input.readAllBytes(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testSortBufferLimitedByMemoryBudget() throws IOException {
+        OutputSettings settings = new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false, null, 0, false, false,
+                OutputSettings.DEFAULT_SORT_MEMORY);
+        MemoryBudget budget = new MemoryBudget(OutputFile.MIN_BUFFER_SIZE + 256 * 1024);
+        Path path = tempDir.resolve("integers.txt");
+        List<String> lines = new ArrayList<>();
+        try (SortedOutputFile output = new SortedOutputFile(path, false, budget, settings, DataType.INTEGER)) {
+            for (int i = 0; i < 100_000; i++) {
+                lines.add(String.valueOf(i * 7919L % 100_000));
+                write(output, lines.get(i));
+            }
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertTrue(files.anyMatch(file -> file.getFileName().toString().endsWith(".run")),
+                        "memory budget should be exceeded");
+            }
+        }
+
+        assertSorted(lines, Files.readAllLines(path), Comparator.comparing(BigInteger::new));
+        assertEquals(OutputFile.MIN_BUFFER_SIZE + 256 * 1024, budget.available());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void testRunsMergedInPassesWhenFanInExceeded() throws IOException {
+        MemoryBudget budget = new MemoryBudget(64 * 1024 * 1024);
+        Path path = tempDir.resolve("integers.txt");
+        List<String> lines = new ArrayList<>();
+        try (SortedOutputFile output = new SortedOutputFile(path, false, budget, SETTINGS, DataType.INTEGER)) {
+            for (int i = 0; i < 400_000; i++) {
+                lines.add(String.valueOf(i * 7919L % 400_000 - 200_000));
+                write(output, lines.get(i));
+            }
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertTrue(files.filter(file -> file.getFileName().toString().endsWith(".run")).count()
+                        > SortedOutputFile.MAX_MERGE_FAN_IN, "runs should exceed merge fan-in");
+            }
+        }
+
+        assertSorted(lines, Files.readAllLines(path), Comparator.comparing(BigInteger::new));
+        assertEquals(64 * 1024 * 1024, budget.available());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void testNoFileWithoutNumbers() throws IOException {
+        Path path = tempDir.resolve("integers.txt");
+        try (SortedOutputFile ignored = new SortedOutputFile(path, false, MemoryBudget.unlimited(), SETTINGS,
+                DataType.INTEGER)) {
+            assertFalse(Files.exists(path));
+        }
+        assertFalse(Files.exists(path));
+        assertThrows(IllegalArgumentException.class, () -> new SortedOutputFile(path, false,
+                MemoryBudget.unlimited(), SETTINGS, DataType.STRING));
+        assertThrows(IllegalArgumentException.class, () -> new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false,
+                null, 0, false, false, OutputSettings.MIN_SORT_MEMORY - 1));
+        assertEquals(SETTINGS.sortMemory(), SETTINGS.synchronous().sortMemory());
+        assertEquals(OutputSettings.MIN_SORT_MEMORY, SETTINGS.sortShare(4).sortMemory());
+        assertEquals(OutputSettings.DEFAULT_SORT_MEMORY / 4, new OutputSettings(OutputFile.MIN_BUFFER_SIZE, false,
+                null, 0, false, false, OutputSettings.DEFAULT_SORT_MEMORY).sortShare(4).sortMemory());
+    }
+
+    private List<String> writeSorted(DataType type, List<String> lines) throws IOException {
+        Path path = tempDir.resolve(type == DataType.INTEGER ? "integers.txt" : "floats.txt");
+        try (SortedOutputFile output = new SortedOutputFile(path, false, MemoryBudget.unlimited(), SETTINGS, type)) {
+            for (String line : lines) {
+                write(output, line);
+            }
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertTrue(files.anyMatch(file -> file.getFileName().toString().endsWith(".run")),
+                        "memory limit should be exceeded");
+            }
+        }
+        return Files.readAllLines(path);
+    }
+
+    private static void assertSorted(List<String> lines, List<String> sorted, Comparator<String> byValue) {
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(byValue.compare(sorted.get(i - 1), sorted.get(i)) <= 0,
+                    sorted.get(i - 1) + " > " + sorted.get(i));
+        }
+        Comparator<String> exact = byValue.thenComparing(Comparator.naturalOrder());
+        assertEquals(lines.stream().sorted(exact).toList(), sorted.stream().sorted(exact).toList());
+    }
+
+    private void assertNoTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(), files.filter(file -> file.getFileName().toString().endsWith(".run")).toList());
+        }
+    }
+
+    private static void write(OutputFile output, String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        output.writeLine(bytes, 0, bytes.length);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+}
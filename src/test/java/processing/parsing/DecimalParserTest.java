@@ -0,0 +1,55 @@
+package processing.parsing;
+
+import com.sheandstud.processing.parsing.DecimalParser;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecimalParserTest {
+    private final DecimalParser parser = new DecimalParser();
+
+    private void assertParsedExactly(String data) {
+        assertTrue(parser.parse(data), data);
+        BigDecimal parsed = BigDecimal.valueOf(parser.unscaled(), parser.scale());
+        assertEquals(0, new BigDecimal(data).compareTo(parsed), data);
+    }
+
+    @Test
+    void testCompactValues() {
+        String[] samples = {
+                "12.345", "-0.5e-3", "+1.1", ".111", "-1E-3", "1e-3", "0.0", "-0.000",
+                "1.23E5", "00012.5000", "12345678901234567.8", "9e999999999", "1.5e-999999999"
+        };
+        for (String sample : samples) {
+            assertParsedExactly(sample);
+        }
+    }
+
+    @Test
+    void testFallbackToBigDecimal() {
+        assertFalse(parser.parse("1234567890.123456789"));
+        assertFalse(parser.parse("1.0e1000000001"));
+        assertFalse(parser.parse("1.0e99999999999999999999"));
+    }
+
+    @Test
+    void testValidityMatchesBigDecimal() {
+        String[] samples = {
+                "1.5", "1e2147483647", "1e-2147483648", "1e2147483648", "1.5e-2147483647",
+                "1.5e-2147483648", "1.55e2147483647", "1e00000000000000000005", "1e12345678901",
+                "1e0000000000012345678901", ".1e+0000000001", "-.5E-3"
+        };
+        for (String sample : samples) {
+            boolean accepted;
+            try {
+                new BigDecimal(sample);
+                accepted = true;
+            } catch (NumberFormatException e) {
+                accepted = false;
+            }
+            assertEquals(accepted, DecimalParser.isValid(sample), sample);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package processing.pipeline;
+
+import com.sheandstud.processing.LineReader;
+import com.sheandstud.processing.memory.MemoryBudget;
+import com.sheandstud.processing.metrics.Metrics;
+import com.sheandstud.processing.progress.FileProgress;
+import com.sheandstud.processing.pipeline.PipelinedReader;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelinedReaderTest {
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.createTempFile("test-pipeline", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    @Test
+    void testLinesMatchLineReader() throws IOException {
+        Random random = new Random(11);
+        StringBuilder sb = new StringBuilder();
+        String[] terminators = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 50_000; i++) {
+            int length = i % 10_000 == 0 ? 300_000 : random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            sb.append(terminators[random.nextInt(terminators.length)]);
+        }
+        sb.append("no terminator");
+        Files.writeString(testFile, sb.toString());
+
+        List<String> expected = new ArrayList<>();
+        LineReader.read(testFile, MemoryBudget.unlimited(), (buffer, offset, length) ->
+                expected.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        List<String> actual = new ArrayList<>();
+        MemoryBudget budget = new MemoryBudget(64 * 1024 * 1024);
+        PipelinedReader.read(testFile, budget, (buffer, offset, length) ->
+                actual.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+
+        assertEquals(expected, actual);
+        assertEquals(64 * 1024 * 1024, budget.available());
+    }
+
+    @Test
+    void testChannelBlocksMatchFile() throws IOException {
+        Files.writeString(testFile, "123\nabc\r\n4.5\r".repeat(100_000) + "tail");
+
+        List<String> expected = new ArrayList<>();
+        PipelinedReader.read(testFile, MemoryBudget.unlimited(), (buffer, offset, length) ->
+                expected.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        List<String> actual = new ArrayList<>();
+        PipelinedReader.readBlocks(Channels.newChannel(new ByteArrayInputStream(Files.readAllBytes(testFile))),
+                "stdin", MemoryBudget.unlimited(), Metrics.disabled(), FileProgress.none(), block -> {
+                    for (int i = 0; i < block.count(); i++) {
+                        actual.add(new String(block.data(), block.offset(i), block.length(i), StandardCharsets.UTF_8));
+                    }
+                });
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testConsumerErrorStopsReading() throws IOException {
+        Files.writeString(testFile, "line\n".repeat(1_000_000));
+        int[] lines = {0};
+
+        IOException e = assertThrows(IOException.class, () ->
+                PipelinedReader.read(testFile, MemoryBudget.unlimited(), (buffer, offset, length) -> {
+                    if (++lines[0] == 100) {
+                        throw new IOException("consumer failed");
+                    }
+                }));
+        assertEquals("consumer failed", e.getMessage());
+    }
+}
@@ -0,0 +1,100 @@
+package processing.pipeline;
+
+import com.sheandstud.processing.pipeline.SpscRing;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpscRingTest {
+
+    @Test
+    void testCapacityIsBounded() {
+        SpscRing<Integer> ring = new SpscRing<>(3);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+    }
+
+    @Test
+    void testTransfersItemsInOrderBetweenThreads() throws Exception {
+        SpscRing<Long> ring = new SpscRing<>(16);
+        int count = 200_000;
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        Thread producer = new Thread(() -> {
+            try {
+                for (long i = 0; i < count; i++) {
+                    ring.put(i);
+                }
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+        producer.start();
+
+        for (long i = 0; i < count; i++) {
+            assertEquals(i, ring.take());
+        }
+        producer.join();
+        assertNull(failure.get());
+        assertNull(ring.poll());
+    }
+
+    @Test
+    void testWaitingSidesBlockUntilSignalled() throws Exception {
+        SpscRing<Integer> ring = new SpscRing<>(1);
+        AtomicReference<Integer> taken = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                taken.set(ring.take());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        consumer.start();
+        awaitBlocked(consumer);
+        ring.put(7);
+        consumer.join(5_000);
+        assertEquals(7, taken.get());
+
+        ring.put(8);
+        Thread producer = new Thread(() -> {
+            try {
+                ring.put(9);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        producer.start();
+        awaitBlocked(producer);
+        assertEquals(8, ring.take());
+        producer.join(5_000);
+        assertEquals(9, ring.poll());
+    }
+
+    @Test
+    void testAbortWakesWaitingConsumer() throws Exception {
+        SpscRing<Integer> ring = new SpscRing<>(2);
+        Thread aborter = new Thread(() -> ring.abort(new IOException("disk full")));
+        aborter.start();
+
+        IOException e = assertThrows(IOException.class, ring::take);
+        assertTrue(e.getMessage().contains("disk full"));
+        aborter.join();
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "thread should block without timed polling: " + thread.getState());
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package processing.progress;
+
+import com.sheandstud.processing.progress.FileProgress;
+import com.sheandstud.processing.progress.ProgressReporter;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgressReporterTest {
+
+    @Test
+    void testReportShowsPercentRateAndEta() {
+        FileProgress first = new FileProgress("first.txt", 4 * 1024 * 1024);
+        FileProgress second = new FileProgress("second.txt", 4 * 1024 * 1024);
+        ProgressReporter reporter = new ProgressReporter(List.of(first, second), Duration.ofSeconds(1),
+                new PrintStream(new ByteArrayOutputStream()));
+
+        first.add(2 * 1024 * 1024, 1000);
+        String report = reporter.report(System.nanoTime());
+
+        assertTrue(report.startsWith("Progress: 2.0 MB / 8.0 MB (25.0%)"), report);
+        assertTrue(report.contains(" lines/s, "), report);
+        assertTrue(report.contains(" MB/s, ETA "), report);
+        assertTrue(report.contains("\n  first.txt: 2.0 MB / 4.0 MB (50.0%)"), report);
+        assertFalse(report.contains("second.txt"), report);
+    }
+
+    @Test
+    void testRateIsMeasuredSinceLastReport() {
+        FileProgress file = new FileProgress("input.txt", 100 * 1024 * 1024);
+        ProgressReporter reporter = new ProgressReporter(List.of(file), Duration.ofSeconds(1),
+                new PrintStream(new ByteArrayOutputStream()));
+        long start = System.nanoTime();
+        reporter.report(start);
+
+        file.add(10 * 1024 * 1024, 500);
+        String report = reporter.report(start + 2_000_000_000L);
+
+        assertTrue(report.contains(", 250 lines/s, 5.0 MB/s, ETA 00:00:18"), report);
+    }
+
+    @Test
+    void testUnknownSizeOmitsPercentAndEta() {
+        FileProgress file = new FileProgress("pipe", -1);
+        ProgressReporter reporter = new ProgressReporter(List.of(file), Duration.ofSeconds(1),
+                new PrintStream(new ByteArrayOutputStream()));
+
+        file.add(1024, 10);
+        String report = reporter.report(System.nanoTime());
+
+        assertTrue(report.startsWith("Progress: 1.0 KB, "), report);
+        assertFalse(report.contains("ETA"), report);
+        assertTrue(report.contains("\n  pipe: 1.0 KB"), report);
+    }
+
+    @Test
+    void testCloseStopsThreadAndPrintsFinalReport() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FileProgress file = new FileProgress("input.txt", 10);
+        ProgressReporter reporter = new ProgressReporter(List.of(file), Duration.ofMillis(5),
+                new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        reporter.start();
+        file.add(10, 2);
+        reporter.close();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[lines.length - 1].startsWith("Progress: 10 B / 10 B (100.0%)"));
+        assertTrue(lines[lines.length - 1].contains("ETA 00:00:00"));
+    }
+
+    @Test
+    void testNoneIgnoresUpdates() {
+        FileProgress none = FileProgress.none();
+        none.add(100, 1);
+
+        assertEquals(0, none.getBytes());
+        assertEquals(0, none.getLines());
+    }
+}
@@ -1,10 +1,19 @@
 package processing.statistics;
 
 import com.sheandstud.processing.statistics.FloatStatistics;
+import com.sheandstud.processing.statistics.HyperLogLog;
+import com.sheandstud.processing.statistics.QuantileSketch;
+import com.sheandstud.processing.statistics.StatisticsSettings;
 import org.junit.jupiter.api.*;
 
+import com.sheandstud.processing.parsing.DecimalParser;
+
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FloatStatisticsTest {
@@ -27,4 +36,102 @@ public class FloatStatisticsTest {
         String result = stats.format(true);
         assertTrue(result.contains("Avg: 0.500000"));
     }
+
+    @Test
+    void floatStats_Merge() {
+        FloatStatistics first = new FloatStatistics();
+        first.update(new BigDecimal("1.5"));
+        first.update(new BigDecimal("-12345678901234567890.5"));
+        FloatStatistics second = new FloatStatistics();
+        second.update(new BigDecimal("2.25e3"));
+        FloatStatistics empty = new FloatStatistics();
+
+        first.merge(second);
+        first.merge(empty);
+        empty.merge(first);
+
+        String expected = "Float Statistics:\n  Count: 3\n  Min: -12345678901234567890.5" +
+                "\n  Max: 2250\n  Sum: -12345678901234565639\n  Avg: -4115226300411521879.6666666667";
+        assertEquals(expected, first.format(true));
+        assertEquals(expected, empty.format(true));
+    }
+
+    @Test
+    void floatStats_CompactMatchesBigDecimalArithmetic() {
+        Random random = new Random(7);
+        DecimalParser parser = new DecimalParser();
+        FloatStatistics stats = new FloatStatistics();
+        BigDecimal min = null;
+        BigDecimal max = null;
+        BigDecimal sum = BigDecimal.ZERO;
+        int count = 20_000;
+
+        for (int i = 0; i < count; i++) {
+            String data = randomFloat(random);
+            BigDecimal number = new BigDecimal(data);
+            if (parser.parse(data)) {
+                stats.update(parser.unscaled(), parser.scale());
+            } else {
+                stats.update(number);
+            }
+            if (min == null || number.compareTo(min) < 0) min = number;
+            if (max == null || number.compareTo(max) > 0) max = number;
+            sum = sum.add(number);
+        }
+
+        String expected = "Float Statistics:\n  Count: " + count +
+                "\n  Min: " + min.stripTrailingZeros().toPlainString() +
+                "\n  Max: " + max.stripTrailingZeros().toPlainString() +
+                "\n  Sum: " + sum.stripTrailingZeros().toPlainString() +
+                "\n  Avg: " + sum.divide(BigDecimal.valueOf(count), 10, RoundingMode.HALF_UP);
+        assertEquals(expected, stats.format(true));
+    }
+
+    private static String randomFloat(Random random) {
+        StringBuilder sb = new StringBuilder();
+        if (random.nextBoolean()) sb.append(random.nextBoolean() ? '-' : '+');
+        int integerDigits = random.nextInt(4) == 0 ? random.nextInt(25) : random.nextInt(6);
+        for (int i = 0; i < integerDigits; i++) sb.append((char) ('0' + random.nextInt(10)));
+        sb.append('.');
+        int fractionDigits = 1 + (random.nextInt(4) == 0 ? random.nextInt(25) : random.nextInt(6));
+        for (int i = 0; i < fractionDigits; i++) sb.append((char) ('0' + random.nextInt(10)));
+        if (random.nextInt(3) == 0) {
+            sb.append(random.nextBoolean() ? 'e' : 'E');
+            sb.append(random.nextBoolean() ? '-' : '+');
+            sb.append(random.nextInt(40));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void floatStats_Quantiles() {
+        FloatStatistics stats = new FloatStatistics();
+        stats.configure(new StatisticsSettings(QuantileSketch.DEFAULT_SIZE, 0, 0));
+        for (int i = 1; i <= 100; i++) {
+            stats.update(i * 25L, 2);
+        }
+        stats.update(new BigDecimal("-1.5E-30"));
+
+        String result = stats.format(true);
+        assertTrue(result.contains("\n  P25: 6.25\n  Median: 12.5\n  P75: 18.75\n  P90: 22.5\n  P99: 24.75"), result);
+    }
+
+    @Test
+    void floatStats_DistinctCountsNormalizedValues() {
+        FloatStatistics stats = new FloatStatistics();
+        stats.configure(new StatisticsSettings(0, HyperLogLog.DEFAULT_PRECISION, 0));
+        DecimalParser parser = new DecimalParser();
+        for (String value : new String[]{"1.5", "+1.50", "15e-1", ".15E1", "0.0", "-0.000", "2.5"}) {
+            byte[] bytes = value.getBytes();
+            assertTrue(parser.parse(bytes, 0, bytes.length));
+            stats.update(parser.unscaled(), parser.scale());
+        }
+        stats.update(new BigDecimal("1.500000000000000000000000000"));
+        stats.update(new BigDecimal("3.14159265358979323846264338327950"));
+        stats.update(new BigDecimal("314159265358979323846264338327950e-32"));
+
+        assertEquals(4, stats.getDistinctSketch().estimate());
+        assertTrue(stats.format(true).contains("\n  Distinct (approx.): 4"));
+        assertFalse(stats.format(false).contains("Distinct"));
+    }
 }
@@ -0,0 +1,85 @@
+package processing.statistics;
+
+import com.sheandstud.processing.statistics.HeavyHitters;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeavyHittersTest {
+    @Test
+    void top_ExactWhileCountersSuffice() {
+        HeavyHitters sketch = new HeavyHitters(2);
+        for (String value : new String[]{"b", "a", "c", "a", "b", "a", "d"}) {
+            sketch.add(value);
+        }
+
+        assertEquals(List.of(new HeavyHitters.Entry("a", 3, 0), new HeavyHitters.Entry("b", 2, 0)), sketch.top());
+        assertEquals(7, sketch.getCount());
+    }
+
+    @Test
+    void top_FindsFrequentStringsAmongManyDistinct() {
+        HeavyHitters sketch = new HeavyHitters(10);
+        Map<String, Long> exact = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(5);
+        int count = 500_000;
+        for (int i = 0; i < count; i++) {
+            int weight = random.nextInt(55 * 4 / 3);
+            String value = weight < 55
+                    ? "frequent " + (int) ((Math.sqrt(8 * weight + 1) - 1) / 2)
+                    : "unique " + random.nextLong();
+            sketch.add(value);
+            exact.merge(value, 1L, Long::sum);
+        }
+
+        List<HeavyHitters.Entry> top = sketch.top();
+        assertEquals(10, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            HeavyHitters.Entry entry = top.get(i);
+            assertEquals("frequent " + (9 - i), entry.value());
+            assertBounds(entry, exact.get(entry.value()), count, sketch.capacity());
+        }
+    }
+
+    @Test
+    void merge_KeepsErrorBounds() {
+        HeavyHitters merged = new HeavyHitters(5);
+        Map<String, Long> exact = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(6);
+        int count = 0;
+        for (int part = 0; part < 4; part++) {
+            HeavyHitters sketch = new HeavyHitters(5);
+            for (int i = 0; i < 50_000; i++) {
+                String value = "line " + (int) (1000 * Math.pow(random.nextDouble(), 4 + part));
+                sketch.add(value);
+                exact.merge(value, 1L, Long::sum);
+                count++;
+            }
+            merged.merge(sketch);
+        }
+        merged.merge(new HeavyHitters(5));
+
+        assertEquals(count, merged.getCount());
+        assertEquals("line 0", merged.top().get(0).value());
+        for (HeavyHitters.Entry entry : merged.top()) {
+            assertBounds(entry, exact.get(entry.value()), count, merged.capacity());
+        }
+    }
+
+    @Test
+    void constructor_RejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters(0));
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters(HeavyHitters.MAX_SIZE + 1));
+    }
+
+    private static void assertBounds(HeavyHitters.Entry entry, long actual, long count, int capacity) {
+        assertTrue(entry.count() >= actual, entry.toString());
+        assertTrue(entry.count() - entry.error() <= actual, entry.toString());
+        assertTrue(entry.error() <= count / capacity, entry.toString());
+    }
+}
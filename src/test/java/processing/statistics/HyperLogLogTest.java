@@ -0,0 +1,89 @@
+package processing.statistics;
+
+import com.sheandstud.processing.statistics.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+    @Test
+    void estimate_SmallCardinalityIsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 1000; i++) {
+            long hash = random.nextLong();
+            sketch.add(hash);
+            sketch.add(hash);
+        }
+
+        assertEquals(1000, sketch.estimate(), 10);
+    }
+
+    @Test
+    void estimate_LargeCardinalityWithinStandardError() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        SplittableRandom random = new SplittableRandom(2);
+        int distinct = 2_000_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(random.nextLong());
+        }
+
+        double error = 1.04 / Math.sqrt(1 << HyperLogLog.DEFAULT_PRECISION);
+        assertEquals(distinct, sketch.estimate(), 3 * error * distinct);
+    }
+
+    @Test
+    void merge_EstimatesUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        HyperLogLog union = new HyperLogLog(12);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 300_000; i++) {
+            long hash = random.nextLong();
+            (i % 3 == 0 ? first : second).add(hash);
+            if (i % 2 == 0) {
+                first.add(hash);
+            }
+            union.add(hash);
+        }
+
+        first.merge(second);
+
+        assertArrayEquals(union.toByteArray(), first.toByteArray());
+    }
+
+    @Test
+    void merge_FoldsHigherPrecision() {
+        HyperLogLog precise = new HyperLogLog(14);
+        HyperLogLog coarse = new HyperLogLog(10);
+        HyperLogLog expected = new HyperLogLog(10);
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < 100_000; i++) {
+            long hash = random.nextLong();
+            precise.add(hash);
+            expected.add(hash);
+        }
+
+        coarse.merge(precise);
+
+        assertArrayEquals(expected.toByteArray(), coarse.toByteArray());
+        assertThrows(IllegalArgumentException.class, () -> precise.merge(coarse));
+    }
+
+    @Test
+    void toByteArray_RoundTrip() {
+        HyperLogLog sketch = new HyperLogLog(8);
+        for (long i = 0; i < 5000; i++) {
+            sketch.add(i * 0x9E3779B97F4A7C15L);
+        }
+
+        HyperLogLog restored = HyperLogLog.fromByteArray(sketch.toByteArray());
+
+        assertEquals(8, restored.precision());
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromByteArray(new byte[]{8, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+}
@@ -1,10 +1,16 @@
 package processing.statistics;
 
+import com.sheandstud.processing.statistics.HyperLogLog;
 import com.sheandstud.processing.statistics.IntegerStatistics;
+import com.sheandstud.processing.statistics.QuantileSketch;
+import com.sheandstud.processing.statistics.StatisticsSettings;
 import org.junit.jupiter.api.*;
 
 import java.math.BigInteger;
+import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class IntegerStatisticsTest {
@@ -20,9 +26,124 @@ public class IntegerStatisticsTest {
         assertTrue(result.contains("Sum: 12345678900246913569"));
     }
 
+    @Test
+    void integerStats_LongOverflowPromotion() {
+        IntegerStatistics stats = new IntegerStatistics();
+        stats.update(Long.MAX_VALUE);
+        stats.update(Long.MAX_VALUE);
+        stats.update(Long.MIN_VALUE);
+
+        String result = stats.format(true);
+        assertTrue(result.contains("Min: -9223372036854775808"));
+        assertTrue(result.contains("Max: 9223372036854775807"));
+        assertTrue(result.contains("Sum: 9223372036854775806"));
+        assertTrue(result.contains("Avg: 3074457345618258602"));
+    }
+
+    @Test
+    void integerStats_MatchesBigIntegerArithmetic() {
+        Random random = new Random(42);
+        IntegerStatistics stats = new IntegerStatistics();
+        BigInteger min = null;
+        BigInteger max = null;
+        BigInteger sum = BigInteger.ZERO;
+        int count = 10_000;
+
+        for (int i = 0; i < count; i++) {
+            BigInteger number = switch (i % 4) {
+                case 0 -> BigInteger.valueOf(random.nextLong());
+                case 1 -> BigInteger.valueOf(random.nextInt(1000) - 500);
+                case 2 -> new BigInteger(70, random).subtract(BigInteger.ONE.shiftLeft(69));
+                default -> BigInteger.valueOf(Long.MAX_VALUE - random.nextInt(10));
+            };
+            if (i % 2 == 0) {
+                stats.update(number);
+            } else if (number.bitLength() < Long.SIZE) {
+                stats.update(number.longValue());
+            } else {
+                stats.update(number);
+            }
+            min = min == null ? number : min.min(number);
+            max = max == null ? number : max.max(number);
+            sum = sum.add(number);
+        }
+
+        String result = stats.format(true);
+        assertTrue(result.contains("Count: " + count));
+        assertTrue(result.contains("Min: " + min));
+        assertTrue(result.contains("Max: " + max));
+        assertTrue(result.contains("Sum: " + sum));
+        assertTrue(result.contains("Avg: " + sum.divide(BigInteger.valueOf(count))));
+    }
+
+    @Test
+    void integerStats_Merge() {
+        IntegerStatistics first = new IntegerStatistics();
+        first.update(Long.MAX_VALUE);
+        first.update(new BigInteger("-12345678901234567890"));
+        IntegerStatistics second = new IntegerStatistics();
+        second.update(Long.MAX_VALUE);
+        second.update(7);
+        IntegerStatistics empty = new IntegerStatistics();
+
+        first.merge(second);
+        first.merge(empty);
+        empty.merge(first);
+
+        String expected = "Integer Statistics:\n  Count: 4\n  Min: -12345678901234567890" +
+                "\n  Max: 9223372036854775807\n  Sum: 6101065172474983731\n  Avg: 1525266293118745932";
+        assertEquals(expected, first.format(true));
+        assertEquals(expected, empty.format(true));
+    }
+
     @Test
     void integerStats_NoData() {
         IntegerStatistics stats = new IntegerStatistics();
         assertTrue(stats.format(true).contains("N/A"));
     }
+
+    @Test
+    void integerStats_Quantiles() {
+        IntegerStatistics first = new IntegerStatistics();
+        first.configure(new StatisticsSettings(QuantileSketch.DEFAULT_SIZE, 0, 0));
+        IntegerStatistics second = new IntegerStatistics();
+        second.configure(new StatisticsSettings(QuantileSketch.DEFAULT_SIZE, 0, 0));
+        for (int i = 1; i <= 100; i++) {
+            (i % 2 == 0 ? first : second).update(i);
+        }
+
+        first.merge(second);
+
+        assertTrue(first.format(true).endsWith("\n  Avg: 50\n  P25: 25\n  Median: 50\n  P75: 75\n  P90: 90\n  P99: 99"));
+        assertFalse(first.format(false).contains("Median"));
+    }
+
+    @Test
+    void integerStats_QuantilesDisabledByDefault() {
+        IntegerStatistics stats = new IntegerStatistics();
+        stats.configure(StatisticsSettings.defaults());
+        stats.update(1);
+
+        assertFalse(stats.format(true).contains("Median"));
+    }
+
+    @Test
+    void integerStats_DistinctCountsNormalizedValues() {
+        IntegerStatistics first = new IntegerStatistics();
+        first.configure(new StatisticsSettings(0, HyperLogLog.DEFAULT_PRECISION, 0));
+        IntegerStatistics second = new IntegerStatistics();
+        second.configure(new StatisticsSettings(0, HyperLogLog.DEFAULT_PRECISION, 0));
+        for (String value : new String[]{"+5", "5", "005", "-0", "0", "123456789012345678901234567890"}) {
+            first.update(new BigInteger(value));
+        }
+        for (int i = 1; i <= 100; i++) {
+            second.update(i);
+        }
+        second.update(new BigInteger("+123456789012345678901234567890"));
+
+        first.merge(second);
+
+        assertTrue(first.format(true).contains("\n  Distinct (approx.): "));
+        assertEquals(102, first.getDistinctSketch().estimate(), 2);
+    }
 }
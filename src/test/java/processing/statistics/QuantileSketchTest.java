@@ -0,0 +1,112 @@
+package processing.statistics;
+
+import com.sheandstud.processing.statistics.QuantileSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+    @Test
+    void quantiles_ExactWhileSmall() {
+        QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+        for (int i = 100; i >= 1; i--) {
+            sketch.update(i);
+        }
+
+        assertArrayEquals(new double[]{1, 25, 50, 90, 99, 100},
+                sketch.quantiles(0, 0.25, 0.5, 0.9, 0.99, 1));
+        assertEquals(100, sketch.getCount());
+    }
+
+    @Test
+    void quantiles_RankErrorWithinBound() {
+        int count = 1_000_000;
+        double[] values = new double[count];
+        Random random = new Random(42);
+        QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextGaussian();
+            sketch.update(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertRankError(values, sketch, 0.017);
+        assertTrue(sketch.retained() < 4 * QuantileSketch.DEFAULT_SIZE);
+    }
+
+    @Test
+    void merge_MatchesSingleSketchAccuracy() {
+        int count = 400_000;
+        double[] values = new double[count];
+        QuantileSketch merged = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+        QuantileSketch part = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+        for (int i = 0; i < count; i++) {
+            values[i] = i;
+            part.update(i);
+            if ((i + 1) % 50_000 == 0) {
+                merged.merge(part);
+                part = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+            }
+        }
+        merged.merge(new QuantileSketch(QuantileSketch.DEFAULT_SIZE));
+
+        assertEquals(count, merged.getCount());
+        assertRankError(values, merged, 0.017);
+    }
+
+    @Test
+    void quantiles_LargerSizeIsMoreAccurate() {
+        int count = 500_000;
+        double[] values = new double[count];
+        QuantileSketch sketch = new QuantileSketch(2000);
+        for (int i = 0; i < count; i++) {
+            values[i] = (i * 7919L) % count;
+            sketch.update(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertRankError(values, sketch, 0.002);
+    }
+
+    @Test
+    void format_EmptySketch() {
+        QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_SIZE);
+
+        assertEquals("\n  P25: N/A\n  Median: N/A\n  P75: N/A\n  P90: N/A\n  P99: N/A",
+                sketch.format(Double::toString));
+        assertThrows(IllegalStateException.class, () -> sketch.quantile(0.5));
+    }
+
+    @Test
+    void constructor_RejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(QuantileSketch.MIN_SIZE - 1));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(QuantileSketch.MAX_SIZE + 1));
+    }
+
+    private static void assertRankError(double[] sorted, QuantileSketch sketch, double bound) {
+        double[] fractions = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+        double[] quantiles = sketch.quantiles(fractions);
+        for (int i = 0; i < fractions.length; i++) {
+            int rank = upperBound(sorted, quantiles[i]);
+            double error = Math.abs((double) rank / sorted.length - fractions[i]);
+            assertTrue(error <= bound, "q=" + fractions[i] + " rank error " + error);
+        }
+    }
+
+    private static int upperBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -1,8 +1,13 @@
 package processing.statistics;
 
+import com.sheandstud.processing.statistics.HyperLogLog;
+import com.sheandstud.processing.statistics.StatisticsSettings;
 import com.sheandstud.processing.statistics.StringStatistics;
 import org.junit.jupiter.api.*;
 
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class StringStatisticsTest {
@@ -27,4 +32,69 @@ public class StringStatisticsTest {
         assertTrue(result.contains("Min Length: 0"));
         assertTrue(result.contains("Max Length: 4"));
     }
+
+    @Test
+    void stringStats_ByteLengthsMatchCharLengths() {
+        StringStatistics stats = new StringStatistics();
+        for (String data : new String[]{"ascii", "привет", "a\uD83D\uDE00b"}) {
+            byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+            stats.update(bytes, 0, bytes.length);
+        }
+
+        String result = stats.format(true);
+        assertTrue(result.contains("Min Length: 4"));
+        assertTrue(result.contains("Max Length: 6"));
+    }
+
+    @Test
+    void stringStats_Merge() {
+        StringStatistics first = new StringStatistics();
+        first.update("abc");
+        StringStatistics second = new StringStatistics();
+        second.update("a");
+        second.update("abcdef");
+
+        first.merge(second);
+        first.merge(new StringStatistics());
+
+        String result = first.format(true);
+        assertTrue(result.contains("Count: 3"));
+        assertTrue(result.contains("Min Length: 1"));
+        assertTrue(result.contains("Max Length: 6"));
+    }
+
+    @Test
+    void stringStats_DistinctCount() {
+        StringStatistics first = new StringStatistics();
+        first.configure(new StatisticsSettings(0, HyperLogLog.DEFAULT_PRECISION, 0));
+        StringStatistics second = new StringStatistics();
+        second.configure(new StatisticsSettings(0, HyperLogLog.DEFAULT_PRECISION, 0));
+        for (int i = 0; i < 1000; i++) {
+            first.update("line " + i);
+            byte[] bytes = ("line " + i).getBytes(StandardCharsets.UTF_8);
+            second.update(bytes, 0, bytes.length);
+        }
+        second.update("строка");
+
+        first.merge(second);
+
+        assertEquals(1001, first.getDistinctSketch().estimate(), 10);
+        assertTrue(first.format(true).contains("\n  Distinct (approx.): "));
+    }
+
+    @Test
+    void stringStats_TopStrings() {
+        StringStatistics stats = new StringStatistics();
+        stats.configure(new StatisticsSettings(0, 0, 2));
+        for (String value : new String[]{"x", "y", "z", "y", "x", "x"}) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            stats.update(bytes, 0, bytes.length);
+        }
+
+        assertTrue(stats.format(true).endsWith("\n  Top Strings:\n    3 (error <= 0): x\n    2 (error <= 0): y"));
+
+        StringStatistics empty = new StringStatistics();
+        empty.configure(new StatisticsSettings(0, 0, 2));
+        assertTrue(empty.format(true).endsWith("\n  Top Strings: N/A"));
+    }
 }
@@ -0,0 +1,91 @@
+package processing.types;
+
+import com.sheandstud.processing.types.TypeMatcher;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypeMatcherTest {
+    private static final String ALPHABET = "0123456789abcxX.-+eE:T ";
+
+    @Test
+    void testMatchesSameStringsAsRegex() {
+        String[] grammars = {
+                "[-+]?\\d+",
+                "a(b|c)*",
+                "x{2,4}",
+                "[^0-9]+\\.",
+                "(ab)?c{3}",
+                "\\d{2}:\\d{2}(:\\d{2})?",
+                "0[xX][0-9a-c]+",
+        };
+        Random random = new Random(13);
+        for (String grammar : grammars) {
+            TypeMatcher matcher = TypeMatcher.compile(List.of(grammar));
+            Pattern pattern = Pattern.compile(grammar);
+            for (int i = 0; i < 20_000; i++) {
+                String value = randomString(random);
+                byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+                int expected = pattern.matcher(value).matches() ? 0 : TypeMatcher.NO_MATCH;
+                assertEquals(expected, matcher.match(bytes, 0, bytes.length), grammar + " " + value);
+            }
+        }
+    }
+
+    @Test
+    void testEarlierGrammarWins() {
+        TypeMatcher matcher = TypeMatcher.compile(List.of("\\d+", "[0-9a-f]+", "a.*"));
+
+        assertEquals(0, match(matcher, "123"));
+        assertEquals(1, match(matcher, "12ab"));
+        assertEquals(1, match(matcher, "abc"));
+        assertEquals(2, match(matcher, "az"));
+        assertEquals(TypeMatcher.NO_MATCH, match(matcher, "z"));
+        assertEquals(TypeMatcher.NO_MATCH, match(matcher, ""));
+    }
+
+    @Test
+    void testEmptyGrammarMatchesEmptyLine() {
+        TypeMatcher matcher = TypeMatcher.compile(List.of("x?"));
+
+        assertEquals(0, match(matcher, ""));
+        assertEquals(0, match(matcher, "x"));
+        assertEquals(TypeMatcher.NO_MATCH, match(matcher, "xx"));
+    }
+
+    @Test
+    void testNonAsciiBytesDoNotMatchDigits() {
+        TypeMatcher matcher = TypeMatcher.compile(List.of("\\d+"));
+
+        assertEquals(TypeMatcher.NO_MATCH, match(matcher, "١٢٣"));
+        assertEquals(TypeMatcher.NO_MATCH, match(matcher, "12ё"));
+    }
+
+    @Test
+    void testInvalidGrammarRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TypeMatcher.compile(List.of("(ab")));
+        assertThrows(IllegalArgumentException.class, () -> TypeMatcher.compile(List.of("a{3,1}")));
+        assertThrows(IllegalArgumentException.class, () -> TypeMatcher.compile(List.of("[z-a]")));
+        assertThrows(IllegalArgumentException.class, () -> TypeMatcher.compile(List.of("*a")));
+        assertThrows(IllegalArgumentException.class, () -> TypeMatcher.compile(List.of("ё")));
+    }
+
+    private static int match(TypeMatcher matcher, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return matcher.match(bytes, 0, bytes.length);
+    }
+
+    private static String randomString(Random random) {
+        int length = random.nextInt(9);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package processing.types;
+
+import com.sheandstud.processing.parsing.DataType;
+import com.sheandstud.processing.types.TypeMatcher;
+import com.sheandstud.processing.types.TypeRegistry;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypeRegistryTest {
+    private static final String ALPHABET = "0123456789.-+eEx ";
+    private static final char[] SHORT_ALPHABET = {'0', '7', '+', '-', '.', 'e', 'E', 'x'};
+    private static final Pattern INTEGER_PATTERN = Pattern.compile("^[-+]?\\d+$");
+    private static final Pattern FLOAT_PATTERN = Pattern.compile(
+            "^[-+]?\\d+\\.\\d+([eE][-+]?\\d+)?$|" +
+                    "^[-+]?\\.\\d+([eE][-+]?\\d+)?$|" +
+                    "^[-+]?\\d+[eE][-+]?\\d+$"
+    );
+
+    @Test
+    void testDefaultsMatchRegex() {
+        Random random = new Random(21);
+        for (int i = 0; i < 200_000; i++) {
+            int length = random.nextInt(8);
+            StringBuilder sb = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertSameAsRegex(sb.toString());
+        }
+    }
+
+    @Test
+    void testAllShortCombinationsMatchRegex() {
+        for (int length = 0; length <= 6; length++) {
+            char[] buffer = new char[length];
+            int total = (int) Math.pow(SHORT_ALPHABET.length, length);
+            for (int n = 0; n < total; n++) {
+                int rest = n;
+                for (int i = 0; i < length; i++) {
+                    buffer[i] = SHORT_ALPHABET[rest % SHORT_ALPHABET.length];
+                    rest /= SHORT_ALPHABET.length;
+                }
+                assertSameAsRegex(new String(buffer));
+            }
+        }
+    }
+
+    @Test
+    void testEdgeCasesMatchRegex() {
+        String[] samples = {
+                "", " ", "+", "-", ".", "1.", ".5", "+.5", "-.5e3", "1e", "1e+", "e5", ".e5",
+                "1.e5", "1.5e", "1.5e-", "1111111111111111111111111111", "-0", "+0.0",
+                "1.23E-4", "12 ", " 12", "1\n", "1\r", "1.5\n", "١٢", "1٣",
+                "１２３", "1,5", "1.5.5", "1e5e5", "--1", "+-1", "1_000", "NaN", "Infinity"
+        };
+        for (String sample : samples) {
+            assertSameAsRegex(sample);
+        }
+    }
+
+    @Test
+    void testDefaultTypes() {
+        assertEquals(List.of("integer", "float"),
+                TypeRegistry.defaults().types().stream().map(type -> type.name()).toList());
+    }
+
+    @Test
+    void testBuiltInTypesAvailable() {
+        assertTrue(TypeRegistry.available().keySet()
+                .containsAll(List.of("integer", "float", "boolean", "uuid", "date", "hex")));
+    }
+
+    @Test
+    void testExtraTypes() {
+        TypeRegistry registry = TypeRegistry.load(List.of("integer", "float", "boolean", "uuid", "date", "hex"));
+
+        assertEquals(0, classify(registry, "-12"));
+        assertEquals(1, classify(registry, "1e5"));
+        assertEquals(2, classify(registry, "TRUE"));
+        assertEquals(2, classify(registry, "false"));
+        assertEquals(3, classify(registry, "123e4567-e89b-12d3-a456-426614174000"));
+        assertEquals(4, classify(registry, "2024-01-31"));
+        assertEquals(4, classify(registry, "2024-01-31T12:30:00.5Z"));
+        assertEquals(4, classify(registry, "2024-01-31 23:59+03:00"));
+        assertEquals(5, classify(registry, "0x1F"));
+        assertEquals(TypeMatcher.NO_MATCH, classify(registry, "2024-13-01"));
+        assertEquals(TypeMatcher.NO_MATCH, classify(registry, "truth"));
+        assertEquals(TypeMatcher.NO_MATCH, classify(registry, "0x"));
+    }
+
+    @Test
+    void testOrderSetsPrecedence() {
+        TypeRegistry hexFirst = TypeRegistry.load(List.of("hex", "uuid"));
+        TypeRegistry withoutIntegers = TypeRegistry.load(List.of("float"));
+
+        assertEquals(0, classify(hexFirst, "0x10"));
+        assertEquals(TypeMatcher.NO_MATCH, classify(withoutIntegers, "10"));
+        assertEquals(0, classify(withoutIntegers, "1.0"));
+    }
+
+    @Test
+    void testUnknownAndDuplicateTypesRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TypeRegistry.load(List.of("integer", "money")));
+        assertThrows(IllegalArgumentException.class, () -> TypeRegistry.load(List.of("float", "float")));
+    }
+
+    private static int classify(TypeRegistry registry, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return registry.classify(bytes, 0, bytes.length);
+    }
+
+    private static void assertSameAsRegex(String data) {
+        DataType expected = INTEGER_PATTERN.matcher(data).matches() ? DataType.INTEGER
+                : FLOAT_PATTERN.matcher(data).matches() ? DataType.FLOAT : DataType.STRING;
+        byte[] bytes = ("#" + data + "#").getBytes(StandardCharsets.UTF_8);
+        TypeRegistry registry = TypeRegistry.defaults();
+        int index = registry.classify(bytes, 1, bytes.length - 2);
+        DataType actual = index == TypeMatcher.NO_MATCH ? DataType.STRING : registry.types().get(index).filterType();
+        assertEquals(expected, actual, () -> "Mismatch for \"" + data + "\"");
+    }
+}